@@ -0,0 +1,45 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls;
+
+import java.util.List;
+import java.util.Optional;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.DefaultClientIssue;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue;
+import org.sonarsource.sonarlint.core.commons.IssueSeverity;
+import org.sonarsource.sonarlint.core.commons.RuleType;
+import org.sonarsource.sonarlint.core.commons.TextRange;
+
+/**
+ * Issues as raised by analyzers, spread over the lines of a file, for benchmarks.
+ */
+public class BenchmarkIssues {
+
+  private BenchmarkIssues() {
+    // utility class
+  }
+
+  public static Issue issue(int index, int lineCount) {
+    var line = 1 + (index * 7919) % lineCount;
+    var analysisIssue = new org.sonarsource.sonarlint.core.analysis.api.Issue("java:S" + (100 + index % 50), "Message of issue " + index,
+      new TextRange(line, 2, line, 12), null, List.of(), List.of(), Optional.empty());
+    return new DefaultClientIssue(analysisIssue, IssueSeverity.values()[index % IssueSeverity.values().length], RuleType.CODE_SMELL, Optional.empty());
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonarsource.sonarlint.core.commons.IssueSeverity;
+import org.sonarsource.sonarlint.core.commons.RuleType;
+import org.sonarsource.sonarlint.core.commons.TextRangeWithHash;
+import org.sonarsource.sonarlint.ls.IssuesCache.VersionedIssue;
+import org.sonarsource.sonarlint.ls.connected.TaintVulnerabilitiesCache;
+import org.sonarsource.sonarlint.ls.connected.domain.TaintIssue;
+import org.sonarsource.sonarlint.ls.file.VersionedOpenFile;
+import org.sonarsource.sonarlint.ls.notebooks.OpenNotebooksCache;
+
+import static org.mockito.Mockito.mock;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiagnosticPublisherBenchmark {
+
+  private static final URI FILE_URI = URI.create("file:///project/src/Foo.java");
+
+  @Param({"50", "500"})
+  int issueCount;
+
+  private final IssuesCache issuesCache = new IssuesCache();
+  private final TaintVulnerabilitiesCache taintVulnerabilitiesCache = new TaintVulnerabilitiesCache();
+  private List<Map.Entry<String, VersionedIssue>> entries;
+  private DiagnosticPublisher underTest;
+
+  @Setup
+  public void setup() {
+    var file = new VersionedOpenFile(FILE_URI, "java", 1, "");
+    issuesCache.analysisStarted(file);
+    for (var i = 0; i < issueCount; i++) {
+      issuesCache.reportIssue(file, BenchmarkIssues.issue(i, 2_000));
+    }
+    issuesCache.analysisSucceeded(file);
+    entries = new ArrayList<>(issuesCache.get(FILE_URI).entrySet());
+
+    var taintIssues = new ArrayList<TaintIssue>();
+    for (var i = 0; i < issueCount / 10; i++) {
+      var line = 1 + (i * 31) % 2_000;
+      taintIssues.add(new TaintIssue("taint" + i, false, "javasecurity:S3649", "Taint " + i, "src/Foo.java", Instant.now(), IssueSeverity.CRITICAL,
+        RuleType.VULNERABILITY, new TextRangeWithHash(line, 0, line, 10, "hash"), List.of(), AnalysisScheduler.SONARQUBE_TAINT_SOURCE));
+    }
+    taintVulnerabilitiesCache.reload(FILE_URI, taintIssues);
+
+    underTest = new DiagnosticPublisher(mock(SonarLintExtendedLanguageClient.class), taintVulnerabilitiesCache, issuesCache, new IssuesCache(),
+      mock(OpenNotebooksCache.class));
+    // Avoid the notification of the first secret
+    underTest.initialize(true);
+  }
+
+  @Benchmark
+  public void convert(Blackhole blackhole) {
+    for (var entry : entries) {
+      blackhole.consume(DiagnosticPublisher.convert(entry));
+    }
+  }
+
+  /**
+   * Conversion of local issues and taint vulnerabilities, then sort by line number
+   */
+  @Benchmark
+  public PublishDiagnosticsParams createPublishDiagnosticsParams() {
+    return underTest.createPublishDiagnosticsParams(FILE_URI);
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue;
+import org.sonarsource.sonarlint.ls.file.VersionedOpenFile;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IssuesCacheBenchmark {
+
+  @Param({"50", "500"})
+  int issueCount;
+
+  private final IssuesCache issuesCache = new IssuesCache();
+  private final VersionedOpenFile file = new VersionedOpenFile(URI.create("file:///project/src/Foo.java"), "java", 1, "");
+  private final List<Issue> issues = new ArrayList<>();
+
+  @Setup
+  public void setup() {
+    for (var i = 0; i < issueCount; i++) {
+      issues.add(BenchmarkIssues.issue(i, 2_000));
+    }
+  }
+
+  /**
+   * One analysis of a file: issues are reported one by one in the in-progress map, then swapped with the ones of the previous analysis
+   */
+  @Benchmark
+  public int reportAndSwap() {
+    issuesCache.analysisStarted(file);
+    issues.forEach(issue -> issuesCache.reportIssue(file, issue));
+    issuesCache.analysisSucceeded(file);
+    return issuesCache.count(file.getUri());
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonarsource.sonarlint.core.commons.TextRange;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalCodeFileBenchmark {
+
+  private static final int LINE_COUNT = 10_000;
+
+  private final TextRange singleLine = new TextRange(LINE_COUNT / 2, 4, LINE_COUNT / 2, 40);
+  private final TextRange multiLine = new TextRange(LINE_COUNT / 2, 4, LINE_COUNT / 2 + 30, 20);
+  private Path file;
+  private LocalCodeFile underTest;
+
+  @Setup
+  public void setup() throws IOException {
+    file = Files.createTempFile("sonarlint-benchmark", ".java");
+    var content = new StringBuilder();
+    for (var i = 0; i < LINE_COUNT; i++) {
+      content.append("    int value").append(i).append(" = compute(value").append(i - 1).append(", ").append(i).append(");\n");
+    }
+    Files.writeString(file, content);
+    underTest = LocalCodeFile.from(file.toUri());
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Benchmark
+  public String codeAtSingleLine() {
+    return underTest.codeAt(singleLine);
+  }
+
+  @Benchmark
+  public String codeAtMultipleLines() {
+    return underTest.codeAt(multiLine);
+  }
+}
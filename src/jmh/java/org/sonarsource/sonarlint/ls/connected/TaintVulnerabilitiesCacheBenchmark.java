@@ -0,0 +1,105 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.eclipse.lsp4j.Diagnostic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonarsource.sonarlint.core.commons.IssueSeverity;
+import org.sonarsource.sonarlint.core.commons.RuleType;
+import org.sonarsource.sonarlint.core.commons.TextRangeWithHash;
+import org.sonarsource.sonarlint.ls.AnalysisScheduler;
+import org.sonarsource.sonarlint.ls.connected.domain.TaintIssue;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaintVulnerabilitiesCacheBenchmark {
+
+  private static final int FILE_COUNT = 100;
+
+  @Param({"10", "100"})
+  int taintIssuesPerFile;
+
+  private final TaintVulnerabilitiesCache underTest = new TaintVulnerabilitiesCache();
+  private final List<URI> files = new ArrayList<>();
+  private final List<String> issueKeys = new ArrayList<>();
+  private final List<Diagnostic> diagnostics = new ArrayList<>();
+  private int next;
+
+  @Setup
+  public void setup() {
+    for (var f = 0; f < FILE_COUNT; f++) {
+      var fileUri = URI.create("file:///project/src/File" + f + ".java");
+      var taintIssues = new ArrayList<TaintIssue>();
+      for (var i = 0; i < taintIssuesPerFile; i++) {
+        var key = "taint-" + f + "-" + i;
+        taintIssues.add(new TaintIssue(key, false, "javasecurity:S" + (3600 + i % 20), "Taint " + key, "src/File" + f + ".java", Instant.now(),
+          IssueSeverity.CRITICAL, RuleType.VULNERABILITY, new TextRangeWithHash(1 + i, 0, 1 + i, 10, "hash"), List.of(),
+          AnalysisScheduler.SONARQUBE_TAINT_SOURCE));
+        issueKeys.add(key);
+      }
+      underTest.reload(fileUri, taintIssues);
+      files.add(fileUri);
+    }
+    // Diagnostics of the last taint issue of each file, the worst case of the linear search by diagnostic
+    files.forEach(fileUri -> {
+      var fileDiagnostics = underTest.getAsDiagnostics(fileUri).collect(Collectors.toList());
+      diagnostics.add(fileDiagnostics.get(fileDiagnostics.size() - 1));
+    });
+  }
+
+  @Benchmark
+  public Optional<TaintIssue> getTaintVulnerabilityForDiagnostic() {
+    next = (next + 1) % FILE_COUNT;
+    return underTest.getTaintVulnerabilityForDiagnostic(files.get(next), diagnostics.get(next));
+  }
+
+  @Benchmark
+  public Optional<TaintIssue> getTaintVulnerabilityByKey() {
+    next = (next + 1) % issueKeys.size();
+    return underTest.getTaintVulnerabilityByKey(issueKeys.get(next));
+  }
+
+  @Benchmark
+  public List<Diagnostic> getAsDiagnostics() {
+    next = (next + 1) % FILE_COUNT;
+    return underTest.getAsDiagnostics(files.get(next)).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.folders;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.lsp4j.WorkspaceFolder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonarsource.sonarlint.ls.backend.BackendServiceFacade;
+import org.sonarsource.sonarlint.ls.connected.ProjectBindingManager;
+
+import static org.mockito.Mockito.mock;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkspaceFoldersManagerBenchmark {
+
+  @Param({"10", "200"})
+  int folderCount;
+
+  private final List<URI> files = new ArrayList<>();
+  private ExecutorService executor;
+  private WorkspaceFoldersManager underTest;
+  private int next;
+
+  @Setup
+  public void setup() {
+    executor = Executors.newSingleThreadExecutor();
+    underTest = new WorkspaceFoldersManager(executor, mock(BackendServiceFacade.class));
+    underTest.setBindingManager(mock(ProjectBindingManager.class));
+    var folders = new ArrayList<WorkspaceFolder>();
+    for (var i = 0; i < folderCount; i++) {
+      // One out of ten folders is nested in the previous one
+      var uri = i % 10 == 1 ? ("file:///workspace/folder" + (i - 1) + "/nested" + i) : ("file:///workspace/folder" + i);
+      folders.add(new WorkspaceFolder(uri, "folder" + i));
+      files.add(URI.create(uri + "/src/main/java/org/example/File" + i + ".java"));
+    }
+    files.add(URI.create("file:///elsewhere/File.java"));
+    underTest.initialize(folders);
+  }
+
+  @TearDown
+  public void tearDown() {
+    underTest.shutdown();
+  }
+
+  @Benchmark
+  public Optional<WorkspaceFolderWrapper> findFolderForFile() {
+    next = (next + 1) % files.size();
+    return underTest.findFolderForFile(files.get(next));
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.notebooks;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.lsp4j.NotebookDocumentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue;
+import org.sonarsource.sonarlint.ls.BenchmarkIssues;
+
+import static org.mockito.Mockito.mock;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VersionedOpenNotebookBenchmark {
+
+  private static final int LINES_PER_CELL = 20;
+
+  @Param({"10", "200"})
+  int cellCount;
+
+  private final List<Issue> issues = new ArrayList<>();
+  private final NotebookDocumentChangeEvent noChange = new NotebookDocumentChangeEvent();
+  private VersionedOpenNotebook notebook;
+  private int version;
+
+  @Setup
+  public void setup() {
+    var cells = new ArrayList<TextDocumentItem>();
+    for (var i = 0; i < cellCount; i++) {
+      var text = new StringBuilder();
+      for (var line = 0; line < LINES_PER_CELL; line++) {
+        text.append("value_").append(i).append('_').append(line).append(" = compute(").append(line).append(")\n");
+      }
+      cells.add(new TextDocumentItem("vscode-notebook-cell:/notebook.ipynb#cell" + i, "python", 1, text.toString()));
+    }
+    notebook = VersionedOpenNotebook.create(URI.create("file:///project/notebook.ipynb"), version, cells, mock(NotebookDiagnosticPublisher.class));
+    // Each cell ends with an empty line, and all cells but the last are followed by a delimiter line in the virtual file
+    var virtualFileLineCount = cellCount * (LINES_PER_CELL + 2) - 1;
+    for (var i = 0; i < 100; i++) {
+      issues.add(BenchmarkIssues.issue(i, virtualFileLineCount));
+    }
+  }
+
+  /**
+   * The index from lines of the virtual file to cells is rebuilt lazily after each change of the notebook
+   */
+  @Benchmark
+  public Optional<URI> indexCellsByLineNumber() {
+    notebook.didChange(++version, noChange);
+    return notebook.getCellUri(1);
+  }
+
+  @Benchmark
+  public void toCellIssue(Blackhole blackhole) {
+    for (var issue : issues) {
+      blackhole.consume(notebook.toCellIssue(issue));
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileUtilsBenchmark {
+
+  private static final int FILES_PER_DIRECTORY = 20;
+
+  @Param({"1000", "10000"})
+  int fileCount;
+
+  private Path tree;
+
+  @Setup
+  public void setup() throws IOException {
+    tree = Files.createTempDirectory("sonarlint-benchmark");
+    for (var i = 0; i < fileCount; i++) {
+      var directory = tree.resolve("module" + (i % 10)).resolve("src").resolve("package" + (i / FILES_PER_DIRECTORY));
+      Files.createDirectories(directory);
+      Files.createFile(directory.resolve("File" + i + ".java"));
+    }
+    // Hidden entries are skipped
+    Files.createDirectories(tree.resolve(".git"));
+    Files.createFile(tree.resolve(".git").resolve("HEAD"));
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    try (var paths = Files.walk(tree)) {
+      paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    }
+  }
+
+  @Benchmark
+  public Collection<String> allRelativePathsForFilesInTree() {
+    return FileUtils.allRelativePathsForFilesInTree(tree);
+  }
+}
@@ -26,6 +26,10 @@ import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonarsource.sonarlint.core.analysis.api.ClientInputFile;
@@ -92,8 +96,29 @@ public class AnalysisClientInputFile implements ClientInputFile {
     return this.fileUri;
   }
 
+  /**
+   * Languages whose analyzers are needed to analyze the file. Like the engine does for files without language, when the client language
+   * id is unknown, the file is assigned to the languages whose default file suffixes match its name (e.g. a "scss" file to CSS).
+   */
+  static Set<Language> toSqLanguages(URI fileUri, @Nullable String clientLanguageId) {
+    var language = toSqLanguage(clientLanguageId);
+    if (language != null) {
+      return EnumSet.of(language);
+    }
+    var languages = EnumSet.noneOf(Language.class);
+    var path = fileUri.getPath();
+    if (path == null) {
+      return languages;
+    }
+    var lowerCasePath = path.toLowerCase(Locale.ENGLISH);
+    Arrays.stream(Language.values())
+      .filter(l -> Arrays.stream(l.getDefaultFileSuffixes()).anyMatch(suffix -> !suffix.isEmpty() && lowerCasePath.endsWith(suffix.toLowerCase(Locale.ENGLISH))))
+      .forEach(languages::add);
+    return languages;
+  }
+
   @CheckForNull
-  private static Language toSqLanguage(@Nullable String clientLanguageId) {
+  static Language toSqLanguage(@Nullable String clientLanguageId) {
     if (clientLanguageId == null) {
       return null;
     }
@@ -183,9 +183,9 @@ public class AnalysisScheduler implements WorkspaceSettingsChangeListener, Works
     }
     if (trueFileUris.size() == 1) {
       VersionedOpenFile openFile = trueFileUris.iterator().next();
-      lsLogOutput.debug(format("Queuing analysis of file '%s' (version %d)", openFile.getUri(), openFile.getVersion()));
+      lsLogOutput.debug(() -> format("Queuing analysis of file '%s' (version %d)", openFile.getUri(), openFile.getVersion()));
     } else {
-      lsLogOutput.debug(format("Queuing analysis of %d files", trueFileUris.size()));
+      lsLogOutput.debug(() -> format("Queuing analysis of %d files", trueFileUris.size()));
     }
     var task = new AnalysisTask(trueFileUris, shouldFetchServerIssues);
     var future = asyncExecutor.submit(() -> analysisTaskExecutor.run(task));
@@ -201,6 +201,7 @@ public class AnalysisScheduler implements WorkspaceSettingsChangeListener, Works
     watcher.stopWatcher();
     eventMap.clear();
     Utils.shutdownAndAwait(asyncExecutor, true);
+    analysisTaskExecutor.shutdown();
   }
 
   public void analyzeAllOpenFilesInFolder(@Nullable WorkspaceFolderWrapper folder) {
@@ -27,14 +27,22 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.StringUtils;
 import org.sonarsource.sonarlint.core.analysis.api.AnalysisResults;
 import org.sonarsource.sonarlint.core.analysis.api.ClientInputFile;
 import org.sonarsource.sonarlint.core.client.api.common.AbstractAnalysisConfiguration.AbstractBuilder;
@@ -64,6 +72,8 @@ import org.sonarsource.sonarlint.ls.settings.WorkspaceFolderSettings;
 import org.sonarsource.sonarlint.ls.standalone.StandaloneEngineManager;
 import org.sonarsource.sonarlint.ls.telemetry.SonarLintTelemetry;
 import org.sonarsource.sonarlint.ls.util.FileUtils;
+import org.sonarsource.sonarlint.ls.util.StartupTimeline;
+import org.sonarsource.sonarlint.ls.util.Utils;
 
 import static java.lang.String.format;
 import static java.util.Optional.ofNullable;
@@ -95,6 +105,8 @@ public class AnalysisTaskExecutor {
   private final SonarLintExtendedLanguageClient lsClient;
   private final OpenNotebooksCache openNotebooksCache;
   private final NotebookDiagnosticPublisher notebookDiagnosticPublisher;
+  @CheckForNull
+  private final ExecutorService moduleAnalysisExecutor;
 
   public AnalysisTaskExecutor(ScmIgnoredCache filesIgnoredByScmCache, LanguageClientLogger lsLogOutput,
     WorkspaceFoldersManager workspaceFoldersManager, ProjectBindingManager bindingManager, JavaConfigCache javaConfigCache, SettingsManager settingsManager,
@@ -118,12 +130,21 @@ public class AnalysisTaskExecutor {
     this.lsClient = lsClient;
     this.openNotebooksCache = openNotebooksCache;
     this.notebookDiagnosticPublisher = notebookDiagnosticPublisher;
+    var moduleAnalysisParallelism = getModuleAnalysisParallelism();
+    this.moduleAnalysisExecutor = moduleAnalysisParallelism > 1
+      ? Executors.newFixedThreadPool(moduleAnalysisParallelism, Utils.threadFactory("SonarLint module analysis", true))
+      : null;
+  }
+
+  private static int getModuleAnalysisParallelism() {
+    return Integer.parseInt(StringUtils.defaultIfBlank(System.getenv("SONARLINT_INTERNAL_MODULE_ANALYSIS_PARALLELISM"), "4"));
   }
 
   public void run(AnalysisTask task) {
     try {
       task.checkCanceled();
-      analyze(task);
+      StartupTimeline.get().measure("First analysis", () -> analyze(task));
+      StartupTimeline.get().complete();
     } catch (CanceledException e) {
       lsLogOutput.debug("Analysis canceled");
     } catch (Exception e) {
@@ -139,7 +160,7 @@ public class AnalysisTaskExecutor {
       .collect(toSet());
 
     scmIgnored.forEach(f -> {
-      lsLogOutput.debug(format("Skip analysis for SCM ignored file: '%s'", f));
+      lsLogOutput.debug(() -> format("Skip analysis for SCM ignored file: '%s'", f));
       clearIssueCacheAndPublishEmptyDiagnostics(f);
       filesToAnalyze.remove(f);
     });
@@ -177,13 +198,13 @@ public class AnalysisTaskExecutor {
       analyze(task, workspaceFolder, Optional.empty(), notebooksToAnalyze);
 
       // All other files are analyzed with the binding configured for the folder
-      var binding = bindingManager.getBinding(workspaceFolder.get());
+      var binding = bindingManager.getBindingIfResolved(workspaceFolder.get());
       analyze(task, workspaceFolder, binding, nonNotebooksToAnalyze);
     } else {
       // Files outside a folder can possibly have a different binding, so fork one analysis per binding
       // TODO is it really possible to have different settings (=binding) for files outside workspace folder
       filesToAnalyze.entrySet().stream()
-        .collect(groupingBy(entry -> bindingManager.getBinding(entry.getKey()), mapping(Entry::getValue, toMap(VersionedOpenFile::getUri, identity()))))
+        .collect(groupingBy(entry -> bindingManager.getBindingIfResolved(entry.getKey()), mapping(Entry::getValue, toMap(VersionedOpenFile::getUri, identity()))))
         .forEach((binding, files) -> analyze(task, Optional.empty(), binding, files));
     }
   }
@@ -215,18 +236,54 @@ public class AnalysisTaskExecutor {
     if (javaFilesByProjectRoot.isEmpty()) {
       analyzeSingleModule(task, workspaceFolder, settings, binding, nonJavaFiles, javaFilesWithConfig);
     } else {
+      var moduleAnalyses = new ArrayList<Runnable>();
       var isFirst = true;
       for (var javaFilesForSingleProjectRoot : javaFilesByProjectRoot.values()) {
         Map<URI, VersionedOpenFile> toAnalyze = new HashMap<>();
         javaFilesForSingleProjectRoot.forEach(uri -> toAnalyze.put(uri, javaFiles.get(uri)));
         if (isFirst) {
           toAnalyze.putAll(nonJavaFiles);
-          analyzeSingleModule(task, workspaceFolder, settings, binding, toAnalyze, javaFilesWithConfig);
-        } else {
-          analyzeSingleModule(task, workspaceFolder, settings, binding, toAnalyze, javaFilesWithConfig);
         }
+        moduleAnalyses.add(() -> analyzeSingleModule(task, workspaceFolder, settings, binding, toAnalyze, javaFilesWithConfig));
         isFirst = false;
       }
+      analyzeModules(moduleAnalyses, moduleAnalysisExecutor);
+    }
+  }
+
+  /**
+   * Run the analyses of independent modules concurrently. The engine analyzes one module at a time, but exclusions, server issue
+   * tracking and publication of diagnostics of a module overlap with the analysis of the others.
+   *
+   * @param executor runs the analyses one after the other on the current thread when null
+   */
+  static void analyzeModules(List<Runnable> moduleAnalyses, @Nullable ExecutorService executor) {
+    if (executor == null || moduleAnalyses.size() == 1) {
+      moduleAnalyses.forEach(Runnable::run);
+      return;
+    }
+    var futures = moduleAnalyses.stream()
+      .map(analysis -> CompletableFuture.runAsync(analysis, executor))
+      .toArray(CompletableFuture[]::new);
+    try {
+      CompletableFuture.allOf(futures).get();
+    } catch (InterruptedException e) {
+      for (var future : futures) {
+        future.cancel(true);
+      }
+      Thread.currentThread().interrupt();
+      throw new CanceledException();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  public void shutdown() {
+    if (moduleAnalysisExecutor != null) {
+      Utils.shutdownAndAwait(moduleAnalysisExecutor, true);
     }
   }
 
@@ -240,7 +297,7 @@ public class AnalysisTaskExecutor {
       if (settings.getPathToCompileCommands() == null) {
         lsLogOutput.debug("Skipping analysis of C and C++ file(s) because no compilation database was configured");
       } else {
-        lsLogOutput.debug("Skipping analysis of C and C++ file(s) because configured compilation database does not exist: " + settings.getPathToCompileCommands());
+        lsLogOutput.debug(() -> "Skipping analysis of C and C++ file(s) because configured compilation database does not exist: " + settings.getPathToCompileCommands());
       }
       cOrCppFiles.keySet().forEach(this::clearIssueCacheAndPublishEmptyDiagnostics);
       lsClient.needCompilationDatabase();
@@ -254,7 +311,7 @@ public class AnalysisTaskExecutor {
     javaFiles.forEach((uri, openFile) -> {
       var javaConfigOpt = javaConfigCache.getOrFetch(uri);
       if (javaConfigOpt.isEmpty()) {
-        lsLogOutput.debug(format("Analysis of Java file '%s' may not show all issues because SonarLint" +
+        lsLogOutput.debug(() -> format("Analysis of Java file '%s' may not show all issues because SonarLint" +
           " was unable to query project configuration (classpath, source level, ...)", uri));
         clearIssueCacheAndPublishEmptyDiagnostics(uri);
       } else {
@@ -283,7 +340,7 @@ public class AnalysisTaskExecutor {
         uri -> FileUtils.getFileRelativePath(Paths.get(baseDirUri), uri),
         uri -> fileTypeClassifier.isTest(settings, uri, filesToAnalyze.get(uri).isJava(), () -> javaConfigCache.getOrFetch(uri)));
       excludedByServerConfiguration.forEach(f -> {
-        lsLogOutput.debug(format("Skip analysis of file '%s' excluded by server configuration", f));
+        lsLogOutput.debug(() -> format("Skip analysis of file '%s' excluded by server configuration", f));
         nonExcludedFiles.remove(f);
         clearIssueCacheAndPublishEmptyDiagnostics(f);
       });
@@ -442,13 +499,21 @@ public class AnalysisTaskExecutor {
       .addRuleParameters(settingsManager.getCurrentSettings().getRuleParameters())
       .build();
 
-    lsLogOutput.debug(format("Analysis triggered with configuration:%n%s", configuration.toString()));
+    lsLogOutput.debug(() -> format("Analysis triggered with configuration:%n%s", configuration.toString()));
 
-    var engine = standaloneEngineManager.getOrCreateStandaloneEngine();
-    return analyzeWithTiming(() -> engine.analyze(configuration, issueListener, new LanguageClientLogOutput(lsLogOutput, true), new TaskProgressMonitor(task)),
-      engine.getPluginDetails(),
-      () -> {
-      });
+    var languages = filesToAnalyze.entrySet().stream()
+      .flatMap(entry -> AnalysisClientInputFile.toSqLanguages(entry.getKey(), entry.getValue().getLanguageId()).stream())
+      .collect(toSet());
+    // Other analyses may need to restart the engine to load more analyzers, this one must not be stopped meanwhile
+    var engine = standaloneEngineManager.acquireStandaloneEngine(languages);
+    try {
+      return analyzeWithTiming(() -> engine.analyze(configuration, issueListener, new LanguageClientLogOutput(lsLogOutput, true), new TaskProgressMonitor(task)),
+        engine.getPluginDetails(),
+        () -> {
+        });
+    } finally {
+      standaloneEngineManager.releaseStandaloneEngine(engine);
+    }
   }
 
   private AnalysisResultsWrapper analyzeConnected(AnalysisTask task, ProjectBindingWrapper binding, WorkspaceFolderSettings settings, URI baseDirUri,
@@ -463,7 +528,7 @@ public class AnalysisTaskExecutor {
     if (settingsManager.getCurrentSettings().hasLocalRuleConfiguration()) {
       lsLogOutput.debug("Local rules settings are ignored, using quality profile from server");
     }
-    lsLogOutput.debug(format("Analysis triggered with configuration:%n%s", configuration.toString()));
+    lsLogOutput.debug(() -> format("Analysis triggered with configuration:%n%s", configuration.toString()));
 
     var engine = binding.getEngine();
     var serverIssueTracker = binding.getServerIssueTracker();
@@ -475,13 +540,21 @@ public class AnalysisTaskExecutor {
         issuesPerFiles.computeIfAbsent(inputFile.getClientObject(), uri -> new ArrayList<>()).add(i);
       }
     };
-    return analyzeWithTiming(() -> engine.analyze(configuration, accumulatorIssueListener, new LanguageClientLogOutput(lsLogOutput, true), new TaskProgressMonitor(task)),
-      engine.getPluginDetails(),
-      () -> filesToAnalyze.forEach((fileUri, openFile) -> {
-        var issues = issuesPerFiles.computeIfAbsent(fileUri, uri -> List.of());
-        var filePath = FileUtils.toSonarQubePath(FileUtils.getFileRelativePath(baseDir, fileUri));
-        serverIssueTracker.matchAndTrack(filePath, issues, issueListener, task.shouldFetchServerIssues());
-      }));
+    bindingManager.acquireConnectedEngine(binding.getConnectionId());
+    try {
+      return analyzeWithTiming(() -> engine.analyze(configuration, accumulatorIssueListener, new LanguageClientLogOutput(lsLogOutput, true), new TaskProgressMonitor(task)),
+        engine.getPluginDetails(),
+        () -> {
+          var issuesPerFilePath = new LinkedHashMap<String, List<Issue>>();
+          filesToAnalyze.forEach((fileUri, openFile) -> {
+            var filePath = FileUtils.toSonarQubePath(FileUtils.getFileRelativePath(baseDir, fileUri));
+            issuesPerFilePath.put(filePath, issuesPerFiles.getOrDefault(fileUri, List.of()));
+          });
+          serverIssueTracker.matchAndTrack(issuesPerFilePath, issueListener, task.shouldFetchServerIssues());
+        });
+    } finally {
+      bindingManager.releaseConnectedEngine(binding.getConnectionId());
+    }
   }
 
   private <G extends AbstractBuilder<G>> G buildCommonAnalysisConfiguration(WorkspaceFolderSettings settings, URI baseDirUri, Map<URI, VersionedOpenFile> filesToAnalyze,
@@ -252,7 +252,8 @@ public class CommandManager {
 
   public Map<String, List<Rule>> listAllStandaloneRules() {
     var result = new HashMap<String, List<Rule>>();
-    standaloneEngineManager.getOrCreateStandaloneEngine().getAllRuleDetails()
+    // Rules of all languages are listed, even if their analyzer is not loaded yet in lazy mode
+    standaloneEngineManager.getAllRuleDetails()
       .forEach(d -> {
         var languageName = d.getLanguage().getLabel();
         result.computeIfAbsent(languageName, k -> new ArrayList<>()).add(Rule.of(d));
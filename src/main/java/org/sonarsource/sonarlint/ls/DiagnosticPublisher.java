@@ -34,6 +34,7 @@ import org.sonarsource.sonarlint.ls.IssuesCache.VersionedIssue;
 import org.sonarsource.sonarlint.ls.connected.DelegatingIssue;
 import org.sonarsource.sonarlint.ls.connected.TaintVulnerabilitiesCache;
 import org.sonarsource.sonarlint.ls.notebooks.OpenNotebooksCache;
+import org.sonarsource.sonarlint.ls.util.StartupTimeline;
 import org.sonarsource.sonarlint.ls.util.Utils;
 
 import static java.util.stream.Collectors.toList;
@@ -76,6 +77,7 @@ public class DiagnosticPublisher {
     }
     client.publishDiagnostics(createPublishDiagnosticsParams(f));
     client.publishSecurityHotspots(createPublishSecurityHotspotsParams(f));
+    StartupTimeline.get().mark("First diagnostics published");
   }
 
   static Diagnostic convert(Map.Entry<String, VersionedIssue> entry) {
@@ -126,7 +128,8 @@ public class DiagnosticPublisher {
     }
   }
 
-  private PublishDiagnosticsParams createPublishDiagnosticsParams(URI newUri) {
+  // Visible for benchmarks
+  PublishDiagnosticsParams createPublishDiagnosticsParams(URI newUri) {
     var p = new PublishDiagnosticsParams();
 
     Map<String, VersionedIssue> localIssues = issuesCache.get(newUri);
@@ -24,19 +24,25 @@ import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 import org.sonarsource.sonarlint.core.ConnectedSonarLintEngineImpl;
 import org.sonarsource.sonarlint.core.StandaloneSonarLintEngineImpl;
 import org.sonarsource.sonarlint.core.analysis.api.ClientModulesProvider;
 import org.sonarsource.sonarlint.core.client.api.connected.ConnectedGlobalConfiguration;
 import org.sonarsource.sonarlint.core.client.api.connected.ConnectedSonarLintEngine;
 import org.sonarsource.sonarlint.core.client.api.standalone.StandaloneGlobalConfiguration;
+import org.sonarsource.sonarlint.core.client.api.standalone.StandaloneRuleDetails;
 import org.sonarsource.sonarlint.core.client.api.standalone.StandaloneSonarLintEngine;
 import org.sonarsource.sonarlint.core.commons.Language;
 import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
+import org.sonarsource.sonarlint.core.plugin.commons.PluginsLoader;
+import org.sonarsource.sonarlint.core.rule.extractor.RulesDefinitionExtractor;
 import org.sonarsource.sonarlint.ls.log.LanguageClientLogOutput;
 import org.sonarsource.sonarlint.ls.settings.ServerConnectionSettings;
+import org.sonarsource.sonarlint.ls.util.StartupTimeline;
 
 public class EnginesFactory {
 
@@ -83,6 +89,13 @@ public class EnginesFactory {
   }
 
   public StandaloneSonarLintEngine createStandaloneEngine() {
+    return createStandaloneEngine(getStandaloneLanguages());
+  }
+
+  /**
+   * Analyzers of other languages are not loaded by the engine, all plugins are still given so that their manifest is known
+   */
+  public StandaloneSonarLintEngine createStandaloneEngine(Set<Language> enabledLanguages) {
     if (shutdown.get().equals(true)) {
       throw new IllegalStateException("Language server is shutting down, won't create engine");
     }
@@ -92,14 +105,14 @@ public class EnginesFactory {
     try {
       var configuration = StandaloneGlobalConfiguration.builder()
         .setSonarLintUserHome(sonarLintUserHomeOverride)
-        .addEnabledLanguages(STANDALONE_LANGUAGES)
+        .addEnabledLanguages(enabledLanguages.toArray(Language[]::new))
         .setNodeJs(nodeJsRuntime.getNodeJsPath(), nodeJsRuntime.getNodeJsVersion())
         .addPlugins(standaloneAnalyzers.toArray(Path[]::new))
         .setModulesProvider(modulesProvider)
         .setLogOutput(logOutput)
         .build();
 
-      var engine = newStandaloneEngine(configuration);
+      var engine = StartupTimeline.get().measure("Create standalone engine", () -> newStandaloneEngine(configuration));
       LOG.debug("Standalone SonarLint engine started");
       return engine;
     } catch (Exception e) {
@@ -112,6 +125,24 @@ public class EnginesFactory {
     return new StandaloneSonarLintEngineImpl(configuration);
   }
 
+  /**
+   * Reads the rules of the given languages from the analyzers, without starting an engine. Analyzers are unloaded right after.
+   */
+  public Collection<StandaloneRuleDetails> extractStandaloneRules(Set<Language> languages) {
+    if (shutdown.get().equals(true)) {
+      throw new IllegalStateException("Language server is shutting down, won't extract rules");
+    }
+    var configuration = new PluginsLoader.Configuration(Set.copyOf(standaloneAnalyzers), languages, Optional.ofNullable(nodeJsRuntime.getNodeJsVersion()));
+    var loadedPlugins = new PluginsLoader().load(configuration).getLoadedPlugins();
+    try {
+      return new RulesDefinitionExtractor().extractRules(loadedPlugins.getPluginInstancesByKeys(), languages, false, false).stream()
+        .map(StandaloneRuleDetails::new)
+        .collect(Collectors.toList());
+    } finally {
+      loadedPlugins.unload();
+    }
+  }
+
   public ConnectedSonarLintEngine createConnectedEngine(String connectionId,
     ServerConnectionSettings serverConnectionSettings) {
     if (shutdown.get().equals(true)) {
@@ -135,7 +166,8 @@ public class EnginesFactory {
 
     embeddedPluginsToPath.forEach(builder::useEmbeddedPlugin);
 
-    var engine = newConnectedEngine(builder.build());
+    var configuration = builder.build();
+    var engine = StartupTimeline.get().measure("Create connected engine", () -> newConnectedEngine(configuration));
 
     LOG.debug("SonarLint engine started for connection '{}'", connectionId);
     return engine;
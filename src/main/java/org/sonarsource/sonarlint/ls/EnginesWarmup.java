@@ -0,0 +1,150 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import org.sonarsource.sonarlint.core.analysis.api.ClientInputFile;
+import org.sonarsource.sonarlint.core.client.api.standalone.StandaloneAnalysisConfiguration;
+import org.sonarsource.sonarlint.core.client.api.standalone.StandaloneSonarLintEngine;
+import org.sonarsource.sonarlint.core.commons.Language;
+import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
+import org.sonarsource.sonarlint.ls.connected.ProjectBindingManager;
+import org.sonarsource.sonarlint.ls.settings.SettingsManager;
+import org.sonarsource.sonarlint.ls.standalone.StandaloneEngineManager;
+import org.sonarsource.sonarlint.ls.util.Utils;
+
+/**
+ * Creates the standalone engine and the connected engines of all configured connections in the background, so that the first
+ * analysis after startup does not pay for plugin loading. A tiny analysis of one file per language then exercises the analyzers.
+ */
+public class EnginesWarmup {
+
+  private static final SonarLintLogger LOG = SonarLintLogger.get();
+
+  // client language id -> file name and content, CFamily is not included as it requires a compilation database
+  private static final Map<String, String[]> SAMPLE_FILES = Map.of(
+    "java", new String[] {"Warmup.java", "class Warmup {\n  int warmup(int i) {\n    return i + 1;\n  }\n}\n"},
+    "javascript", new String[] {"warmup.js", "function warmup(i) {\n  return i + 1;\n}\n"},
+    "python", new String[] {"warmup.py", "def warmup(i):\n    return i + 1\n"},
+    "php", new String[] {"warmup.php", "<?php\nfunction warmup($i) {\n  return $i + 1;\n}\n"},
+    "html", new String[] {"warmup.html", "<!DOCTYPE html>\n<html lang=\"en\"><head><title>Warmup</title></head><body></body></html>\n"},
+    "xml", new String[] {"warmup.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<warmup/>\n"},
+    "go", new String[] {"warmup.go", "package warmup\n\nfunc Warmup(i int) int {\n\treturn i + 1\n}\n"});
+  private static final Set<Language> SAMPLE_LANGUAGES = SAMPLE_FILES.keySet().stream()
+    .map(AnalysisClientInputFile::toSqLanguage)
+    .collect(Collectors.toSet());
+
+  private final StandaloneEngineManager standaloneEngineManager;
+  private final ProjectBindingManager bindingManager;
+  private final SettingsManager settingsManager;
+  private final ExecutorService executor;
+
+  public EnginesWarmup(StandaloneEngineManager standaloneEngineManager, ProjectBindingManager bindingManager, SettingsManager settingsManager) {
+    this(standaloneEngineManager, bindingManager, settingsManager, Executors.newCachedThreadPool(Utils.threadFactory("SonarLint engines warmup", true)));
+  }
+
+  // Visible for testing
+  EnginesWarmup(StandaloneEngineManager standaloneEngineManager, ProjectBindingManager bindingManager, SettingsManager settingsManager, ExecutorService executor) {
+    this.standaloneEngineManager = standaloneEngineManager;
+    this.bindingManager = bindingManager;
+    this.settingsManager = settingsManager;
+    this.executor = executor;
+  }
+
+  /**
+   * Starts the engines on background threads, returning immediately. Engines are created on first use in any case,
+   * so a failure here only delays the work to the first analysis.
+   */
+  public CompletableFuture<Void> warmUp() {
+    var startTime = System.currentTimeMillis();
+    var standalone = CompletableFuture.runAsync(this::warmUpStandaloneEngine, executor);
+    var connected = CompletableFuture.supplyAsync(() -> settingsManager.getCurrentSettings().getServerConnections().keySet(), executor)
+      .thenCompose(connectionIds -> CompletableFuture.allOf(connectionIds.stream()
+        .map(connectionId -> CompletableFuture.runAsync(() -> bindingManager.getOrCreateConnectedEngine(connectionId), executor))
+        .toArray(CompletableFuture[]::new)));
+    return CompletableFuture.allOf(standalone, connected)
+      .whenComplete((r, e) -> {
+        if (e != null) {
+          LOG.debug("Unable to warm up engines", e);
+        } else {
+          LOG.debug("Engines warmed up in {}ms", System.currentTimeMillis() - startTime);
+        }
+      });
+  }
+
+  private void warmUpStandaloneEngine() {
+    // In lazy mode, this loads the analyzers of the sample languages, otherwise the warmup would only exercise the secrets analyzer
+    var engine = standaloneEngineManager.acquireStandaloneEngine(SAMPLE_LANGUAGES);
+    Path baseDir = null;
+    try {
+      baseDir = Files.createTempDirectory("sonarlint-warmup");
+      analyzeSampleFiles(engine, baseDir);
+    } catch (IOException e) {
+      LOG.debug("Unable to analyze warmup files", e);
+    } finally {
+      deleteQuietly(baseDir);
+      standaloneEngineManager.releaseStandaloneEngine(engine);
+    }
+  }
+
+  private static void analyzeSampleFiles(StandaloneSonarLintEngine engine, Path baseDir) throws IOException {
+    var inputFiles = new ArrayList<ClientInputFile>();
+    for (var sample : SAMPLE_FILES.entrySet()) {
+      var fileName = sample.getValue()[0];
+      var content = sample.getValue()[1];
+      var file = Files.writeString(baseDir.resolve(fileName), content);
+      inputFiles.add(new AnalysisClientInputFile(file.toUri(), fileName, content, false, sample.getKey()));
+    }
+    var configuration = StandaloneAnalysisConfiguration.builder()
+      .setBaseDir(baseDir)
+      .addInputFiles(inputFiles)
+      .build();
+    engine.analyze(configuration, issue -> {
+    }, (formattedMessage, level) -> {
+    }, null);
+  }
+
+  private static void deleteQuietly(@Nullable Path dir) {
+    if (dir == null) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(dir)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    } catch (IOException e) {
+      LOG.debug("Unable to delete warmup files", e);
+    }
+  }
+
+  public void shutdown() {
+    Utils.shutdownAndAwait(executor, true);
+  }
+}
@@ -19,43 +19,138 @@
  */
 package org.sonarsource.sonarlint.ls;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Supplier;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
 import org.sonarsource.sonarlint.core.NodeJsHelper;
 import org.sonarsource.sonarlint.core.commons.Version;
+import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
 import org.sonarsource.sonarlint.ls.settings.SettingsManager;
+import org.sonarsource.sonarlint.ls.settings.WorkspaceSettings;
+import org.sonarsource.sonarlint.ls.settings.WorkspaceSettingsChangeListener;
+import org.sonarsource.sonarlint.ls.util.Utils;
 
-public class NodeJsRuntime {
+/**
+ * Detects the Node.js runtime in the background as soon as settings are received, and again only when the configured path
+ * changes. The last successful detection is stored on disk, and reused as long as the configured path is the same and the
+ * resolved binary was not modified, to avoid spawning processes on every start.
+ */
+public class NodeJsRuntime implements WorkspaceSettingsChangeListener {
+
+  private static final SonarLintLogger LOG = SonarLintLogger.get();
+
+  private static final String CONFIGURED_PATH_KEY = "configuredPath";
+  private static final String PATH_KEY = "path";
+  private static final String LAST_MODIFIED_KEY = "lastModified";
+  private static final String VERSION_KEY = "version";
 
   private final SettingsManager settingsManager;
   private final Supplier<NodeJsHelper> nodeJsHelperFactory;
-  private boolean init = false;
-  private Path nodeJsPath = null;
-  private Version nodeJsVersion = null;
+  private final Path cacheFile;
+  private final ExecutorService executor;
+  private volatile CompletableFuture<DetectedNodeJs> detection;
+  private String detectionConfiguredPath;
 
-  NodeJsRuntime(SettingsManager settingsManager) {
-    this(settingsManager, NodeJsHelper::new);
+  NodeJsRuntime(SettingsManager settingsManager, Path cacheFile) {
+    this(settingsManager, NodeJsHelper::new, cacheFile, Executors.newSingleThreadExecutor(Utils.threadFactory("SonarLint Node.js detection", true)));
   }
 
-  NodeJsRuntime(SettingsManager settingsManager, Supplier<NodeJsHelper> nodeJsHelperFactory) {
+  // Visible for testing
+  NodeJsRuntime(SettingsManager settingsManager, Supplier<NodeJsHelper> nodeJsHelperFactory, Path cacheFile, ExecutorService executor) {
     this.settingsManager = settingsManager;
     this.nodeJsHelperFactory = nodeJsHelperFactory;
+    this.cacheFile = cacheFile;
+    this.executor = executor;
   }
 
-  private void init() {
-    var currentSettings = settingsManager.getCurrentSettings();
+  @Override
+  public void onChange(@CheckForNull WorkspaceSettings oldValue, WorkspaceSettings newValue) {
+    detect(newValue.pathToNodeExecutable());
+  }
+
+  private synchronized CompletableFuture<DetectedNodeJs> detect(@Nullable String configuredPath) {
+    var normalizedConfiguredPath = StringUtils.defaultString(configuredPath);
+    if (detection == null || !normalizedConfiguredPath.equals(detectionConfiguredPath)) {
+      detectionConfiguredPath = normalizedConfiguredPath;
+      detection = CompletableFuture.supplyAsync(() -> readCache(normalizedConfiguredPath)
+        .orElseGet(() -> detectAndCache(normalizedConfiguredPath)), executor);
+    }
+    return detection;
+  }
+
+  private DetectedNodeJs getDetected() {
+    var currentDetection = detection;
+    if (currentDetection == null) {
+      // Settings not received yet, wait for them
+      currentDetection = detect(settingsManager.getCurrentSettings().pathToNodeExecutable());
+    }
+    return currentDetection.join();
+  }
+
+  private DetectedNodeJs detectAndCache(String configuredPath) {
     var helper = nodeJsHelperFactory.get();
-    helper.detect(Optional.ofNullable(currentSettings.pathToNodeExecutable())
+    helper.detect(Optional.of(configuredPath)
       .filter(StringUtils::isNotEmpty)
       .map(Paths::get)
       .orElse(null));
-    this.nodeJsPath = helper.getNodeJsPath();
-    this.nodeJsVersion = helper.getNodeJsVersion();
-    this.init = true;
+    var detected = new DetectedNodeJs(helper.getNodeJsPath(), helper.getNodeJsVersion());
+    writeCache(configuredPath, detected);
+    return detected;
+  }
+
+  private Optional<DetectedNodeJs> readCache(String configuredPath) {
+    if (!Files.isRegularFile(cacheFile)) {
+      return Optional.empty();
+    }
+    try (var reader = Files.newBufferedReader(cacheFile)) {
+      var cache = new Properties();
+      cache.load(reader);
+      var path = cache.getProperty(PATH_KEY);
+      var version = cache.getProperty(VERSION_KEY);
+      if (!configuredPath.equals(cache.getProperty(CONFIGURED_PATH_KEY)) || path == null || version == null) {
+        return Optional.empty();
+      }
+      var nodeJsPath = Paths.get(path);
+      if (!Files.isRegularFile(nodeJsPath) || !String.valueOf(Files.getLastModifiedTime(nodeJsPath).toMillis()).equals(cache.getProperty(LAST_MODIFIED_KEY))) {
+        return Optional.empty();
+      }
+      LOG.debug("Using Node.js {} from {} detected previously", version, nodeJsPath);
+      return Optional.of(new DetectedNodeJs(nodeJsPath, Version.create(version)));
+    } catch (Exception e) {
+      LOG.debug("Unable to read Node.js detection cache", e);
+      return Optional.empty();
+    }
+  }
+
+  private void writeCache(String configuredPath, DetectedNodeJs detected) {
+    if (detected.path == null || detected.version == null || !Files.isRegularFile(detected.path)) {
+      // Only successful detections are stored, so that a newly installed Node.js is found on next start
+      return;
+    }
+    try {
+      var cache = new Properties();
+      cache.setProperty(CONFIGURED_PATH_KEY, configuredPath);
+      cache.setProperty(PATH_KEY, detected.path.toString());
+      cache.setProperty(LAST_MODIFIED_KEY, String.valueOf(Files.getLastModifiedTime(detected.path).toMillis()));
+      cache.setProperty(VERSION_KEY, detected.version.toString());
+      Files.createDirectories(cacheFile.getParent());
+      try (var writer = Files.newBufferedWriter(cacheFile)) {
+        cache.store(writer, "Last Node.js detection");
+      }
+    } catch (IOException e) {
+      LOG.debug("Unable to write Node.js detection cache", e);
+    }
   }
 
   @Nullable
@@ -65,17 +160,29 @@ public class NodeJsRuntime {
       .orElse(null);
   }
 
+  @CheckForNull
   public Path getNodeJsPath() {
-    if (!init) {
-      init();
-    }
-    return nodeJsPath;
+    return getDetected().path;
   }
 
+  @CheckForNull
   public Version getNodeJsVersion() {
-    if (!init) {
-      init();
+    return getDetected().version;
+  }
+
+  public void shutdown() {
+    Utils.shutdownAndAwait(executor, false);
+  }
+
+  private static class DetectedNodeJs {
+    @Nullable
+    private final Path path;
+    @Nullable
+    private final Version version;
+
+    private DetectedNodeJs(@Nullable Path path, @Nullable Version version) {
+      this.path = path;
+      this.version = version;
     }
-    return nodeJsVersion;
   }
 }
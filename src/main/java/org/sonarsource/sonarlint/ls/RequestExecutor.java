@@ -0,0 +1,251 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+import org.eclipse.lsp4j.jsonrpc.CompletableFutures;
+import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseError;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
+import org.sonarsource.sonarlint.ls.util.Utils;
+
+/**
+ * Runs the JSON-RPC requests handled by the server on a bounded pool. When the queue is full, requests are rejected with
+ * {@link ResponseErrorCode#ServerCancelled} so that the client can retry them later, instead of piling up threads. A request sent
+ * with a superseding key cancels the pending or running request of the same method and key, e.g. code actions of a file requested
+ * on every cursor move. Queue wait and execution time are recorded per method.
+ */
+public class RequestExecutor {
+
+  private final ThreadPoolExecutor executor;
+  private final Map<String, CompletableFuture<?>> latestBySupersedingKey = new ConcurrentHashMap<>();
+  private final Map<String, MethodMetrics> metricsByMethod = new ConcurrentHashMap<>();
+  private final LongSupplier nanoClock;
+
+  public RequestExecutor() {
+    this(getRequestThreads(), getRequestQueueCapacity(), System::nanoTime);
+  }
+
+  // Visible for testing
+  RequestExecutor(int threads, int queueCapacity, LongSupplier nanoClock) {
+    this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(queueCapacity),
+      Utils.blockingIoThreadFactory("SonarLint LSP request handler", true));
+    this.executor.allowCoreThreadTimeOut(true);
+    this.nanoClock = nanoClock;
+  }
+
+  private static int getRequestThreads() {
+    return Integer.parseInt(StringUtils.defaultIfBlank(System.getenv("SONARLINT_INTERNAL_REQUEST_THREADS"),
+      String.valueOf(Math.max(2, Runtime.getRuntime().availableProcessors()))));
+  }
+
+  private static int getRequestQueueCapacity() {
+    return Integer.parseInt(StringUtils.defaultIfBlank(System.getenv("SONARLINT_INTERNAL_REQUEST_QUEUE_CAPACITY"), "100"));
+  }
+
+  public <R> CompletableFuture<R> compute(String method, Function<CancelChecker, R> code) {
+    return compute(method, null, code);
+  }
+
+  /**
+   * @param supersedingKey when not null, the previous request of the same method having the same key is canceled
+   */
+  public <R> CompletableFuture<R> compute(String method, @Nullable String supersedingKey, Function<CancelChecker, R> code) {
+    var metrics = metricsByMethod.computeIfAbsent(method, MethodMetrics::new);
+    metrics.requests.increment();
+    var result = new CompletableFuture<R>();
+    var submittedNanos = nanoClock.getAsLong();
+    Runnable task = () -> run(code, result, metrics, submittedNanos);
+    // Free the slot of a request canceled while waiting in the queue
+    result.whenComplete((r, t) -> {
+      if (result.isCancelled()) {
+        executor.remove(task);
+      }
+    });
+    if (supersedingKey != null) {
+      supersede(method + " " + supersedingKey, result, metrics);
+    }
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      metrics.rejected.increment();
+      result.completeExceptionally(new ResponseErrorException(new ResponseError(ResponseErrorCode.ServerCancelled,
+        "The server is busy, the request '" + method + "' has been rejected", null)));
+    }
+    return result;
+  }
+
+  private void supersede(String key, CompletableFuture<?> result, MethodMetrics metrics) {
+    var previous = latestBySupersedingKey.put(key, result);
+    if (previous != null && previous.cancel(false)) {
+      metrics.superseded.increment();
+    }
+    result.whenComplete((r, t) -> latestBySupersedingKey.remove(key, result));
+  }
+
+  private <R> void run(Function<CancelChecker, R> code, CompletableFuture<R> result, MethodMetrics metrics, long submittedNanos) {
+    if (result.isDone()) {
+      // Canceled just before being taken from the queue
+      return;
+    }
+    var startNanos = nanoClock.getAsLong();
+    metrics.queueWait.record(startNanos - submittedNanos);
+    try {
+      result.complete(code.apply(new CompletableFutures.FutureCancelChecker(result)));
+    } catch (Throwable t) { // NOSONAR the client is waiting for a response whatever happens
+      result.completeExceptionally(t);
+    } finally {
+      metrics.execution.record(nanoClock.getAsLong() - startNanos);
+    }
+  }
+
+  public List<MethodSnapshot> snapshot() {
+    var snapshots = new ArrayList<MethodSnapshot>();
+    metricsByMethod.values().forEach(metrics -> snapshots.add(metrics.snapshot()));
+    snapshots.sort(Comparator.comparing(MethodSnapshot::getMethod));
+    return snapshots;
+  }
+
+  public void shutdown() {
+    Utils.shutdownAndAwait(executor, true);
+  }
+
+  private static class MethodMetrics {
+    private final String method;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder superseded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final Timing queueWait = new Timing();
+    private final Timing execution = new Timing();
+
+    private MethodMetrics(String method) {
+      this.method = method;
+    }
+
+    private MethodSnapshot snapshot() {
+      return new MethodSnapshot(method, requests.sum(), superseded.sum(), rejected.sum(), queueWait.snapshot(), execution.snapshot());
+    }
+  }
+
+  private static class Timing {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    private void record(long nanos) {
+      var positiveNanos = Math.max(0, nanos);
+      count.increment();
+      totalNanos.add(positiveNanos);
+      maxNanos.accumulate(positiveNanos);
+    }
+
+    private TimingSnapshot snapshot() {
+      return new TimingSnapshot(count.sum(), totalNanos.sum(), maxNanos.get());
+    }
+  }
+
+  public static class MethodSnapshot {
+    private final String method;
+    private final long requestCount;
+    private final long supersededCount;
+    private final long rejectedCount;
+    private final TimingSnapshot queueWait;
+    private final TimingSnapshot execution;
+
+    MethodSnapshot(String method, long requestCount, long supersededCount, long rejectedCount, TimingSnapshot queueWait, TimingSnapshot execution) {
+      this.method = method;
+      this.requestCount = requestCount;
+      this.supersededCount = supersededCount;
+      this.rejectedCount = rejectedCount;
+      this.queueWait = queueWait;
+      this.execution = execution;
+    }
+
+    public String getMethod() {
+      return method;
+    }
+
+    public long getRequestCount() {
+      return requestCount;
+    }
+
+    /**
+     * @return number of requests canceled by a newer request of the same method and key
+     */
+    public long getSupersededCount() {
+      return supersededCount;
+    }
+
+    /**
+     * @return number of requests rejected because the queue was full
+     */
+    public long getRejectedCount() {
+      return rejectedCount;
+    }
+
+    public TimingSnapshot getQueueWait() {
+      return queueWait;
+    }
+
+    public TimingSnapshot getExecution() {
+      return execution;
+    }
+  }
+
+  public static class TimingSnapshot {
+    private final long count;
+    private final long meanMs;
+    private final long maxMs;
+
+    TimingSnapshot(long count, long totalNanos, long maxNanos) {
+      this.count = count;
+      this.meanMs = count == 0 ? 0 : (totalNanos / count / 1_000_000);
+      this.maxMs = maxNanos / 1_000_000;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getMeanMs() {
+      return meanMs;
+    }
+
+    public long getMaxMs() {
+      return maxMs;
+    }
+  }
+}
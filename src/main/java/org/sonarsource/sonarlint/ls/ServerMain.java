@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.Callable;
 import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
+import org.sonarsource.sonarlint.ls.util.StartupTimeline;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Model.CommandSpec;
@@ -62,6 +63,7 @@ public class ServerMain implements Callable<Integer> {
   @Override
   public Integer call() throws Exception {
     validate();
+    StartupTimeline.get().mark("Command line parsed");
 
     SonarLintLanguageServer server;
     if (useStdio) {
@@ -70,6 +72,7 @@ public class ServerMain implements Callable<Integer> {
       int actualJsonRpcPort = jsonRpcPort.orElse(deprecatedJsonRpcPort);
       server = SonarLintLanguageServer.bySocket(actualJsonRpcPort, analyzers);
     }
+    StartupTimeline.get().mark("Language server listening");
 
     server.waitForShutDown();
 
@@ -95,6 +98,7 @@ public class ServerMain implements Callable<Integer> {
   }
 
   public static void main(String... args) {
+    StartupTimeline.get().mark("Main started");
     int exitCode = new CommandLine(new ServerMain()).execute(args);
     System.exit(exitCode);
   }
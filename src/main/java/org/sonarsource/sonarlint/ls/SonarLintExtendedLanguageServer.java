@@ -31,6 +31,8 @@ import org.eclipse.lsp4j.jsonrpc.validation.NonNull;
 import org.eclipse.lsp4j.services.LanguageServer;
 import org.eclipse.lsp4j.util.Preconditions;
 import org.eclipse.xtext.xbase.lib.Pure;
+import org.sonarsource.sonarlint.ls.http.HttpMetrics;
+import org.sonarsource.sonarlint.ls.util.StartupTimeline;
 
 public interface SonarLintExtendedLanguageServer extends LanguageServer {
 
@@ -333,4 +335,172 @@ public interface SonarLintExtendedLanguageServer extends LanguageServer {
 
   @JsonNotification("sonarlint/helpAndFeedbackLinkClicked")
   CompletableFuture<Void> helpAndFeedbackLinkClicked(HelpAndFeedbackLinkClickedNotificationParams params);
+
+  class GetHttpMetricsResponse {
+    private final List<HttpMetrics.EndpointSnapshot> endpoints;
+    @Nullable
+    private final ConnectionPoolStats connectionPool;
+
+    public GetHttpMetricsResponse(List<HttpMetrics.EndpointSnapshot> endpoints, @Nullable ConnectionPoolStats connectionPool) {
+      this.endpoints = endpoints;
+      this.connectionPool = connectionPool;
+    }
+
+    public List<HttpMetrics.EndpointSnapshot> getEndpoints() {
+      return endpoints;
+    }
+
+    @CheckForNull
+    public ConnectionPoolStats getConnectionPool() {
+      return connectionPool;
+    }
+  }
+
+  class ConnectionPoolStats {
+    private final int leased;
+    private final int pending;
+    private final int available;
+    private final int max;
+
+    public ConnectionPoolStats(int leased, int pending, int available, int max) {
+      this.leased = leased;
+      this.pending = pending;
+      this.available = available;
+      this.max = max;
+    }
+
+    public int getLeased() {
+      return leased;
+    }
+
+    public int getPending() {
+      return pending;
+    }
+
+    public int getAvailable() {
+      return available;
+    }
+
+    public int getMax() {
+      return max;
+    }
+  }
+
+  /**
+   * HTTP metrics per server connection and endpoint since the server started, to diagnose slow synchronizations
+   */
+  @JsonRequest("sonarlint/getHttpMetrics")
+  CompletableFuture<GetHttpMetricsResponse> getHttpMetrics();
+
+  class GetRequestMetricsResponse {
+    private final List<RequestExecutor.MethodSnapshot> methods;
+
+    public GetRequestMetricsResponse(List<RequestExecutor.MethodSnapshot> methods) {
+      this.methods = methods;
+    }
+
+    public List<RequestExecutor.MethodSnapshot> getMethods() {
+      return methods;
+    }
+  }
+
+  /**
+   * Queue wait and execution time per JSON-RPC method since the server started, to diagnose slow code actions and commands
+   */
+  @JsonRequest("sonarlint/getRequestMetrics")
+  CompletableFuture<GetRequestMetricsResponse> getRequestMetrics();
+
+  class GetIssueTrackingMetricsResponse {
+    private final List<IssueTrackingStats> bindings;
+
+    public GetIssueTrackingMetricsResponse(List<IssueTrackingStats> bindings) {
+      this.bindings = bindings;
+    }
+
+    public List<IssueTrackingStats> getBindings() {
+      return bindings;
+    }
+  }
+
+  class IssueTrackingStats {
+    private final String uri;
+    private final String connectionId;
+    private final String projectKey;
+    private final int trackedFiles;
+    private final int trackedIssues;
+    private final int trackedHotspots;
+    private final int maxTrackedFiles;
+
+    public IssueTrackingStats(String uri, String connectionId, String projectKey, int trackedFiles, int trackedIssues, int trackedHotspots,
+      int maxTrackedFiles) {
+      this.uri = uri;
+      this.connectionId = connectionId;
+      this.projectKey = projectKey;
+      this.trackedFiles = trackedFiles;
+      this.trackedIssues = trackedIssues;
+      this.trackedHotspots = trackedHotspots;
+      this.maxTrackedFiles = maxTrackedFiles;
+    }
+
+    public String getUri() {
+      return uri;
+    }
+
+    public String getConnectionId() {
+      return connectionId;
+    }
+
+    public String getProjectKey() {
+      return projectKey;
+    }
+
+    public int getTrackedFiles() {
+      return trackedFiles;
+    }
+
+    public int getTrackedIssues() {
+      return trackedIssues;
+    }
+
+    public int getTrackedHotspots() {
+      return trackedHotspots;
+    }
+
+    public int getMaxTrackedFiles() {
+      return maxTrackedFiles;
+    }
+  }
+
+  /**
+   * Size of the in-memory issue tracking data per resolved binding, to check the bound of the tracker caches
+   */
+  @JsonRequest("sonarlint/getIssueTrackingMetrics")
+  CompletableFuture<GetIssueTrackingMetricsResponse> getIssueTrackingMetrics();
+
+  class GetStartupTimelineResponse {
+    private final List<StartupTimeline.Phase> phases;
+    private final boolean complete;
+
+    public GetStartupTimelineResponse(List<StartupTimeline.Phase> phases, boolean complete) {
+      this.phases = phases;
+      this.complete = complete;
+    }
+
+    public List<StartupTimeline.Phase> getPhases() {
+      return phases;
+    }
+
+    /**
+     * @return true once the first analysis has completed, the timeline does not change anymore
+     */
+    public boolean isComplete() {
+      return complete;
+    }
+  }
+
+  /**
+   * Phases of the cold start of the server, from the JVM start to the end of the first analysis
+   */
+  @JsonRequest("sonarlint/getStartupTimeline")
+  CompletableFuture<GetStartupTimelineResponse> getStartupTimeline();
 }
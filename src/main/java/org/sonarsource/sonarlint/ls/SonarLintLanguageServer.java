@@ -60,6 +60,7 @@ import org.eclipse.lsp4j.ExecuteCommandOptions;
 import org.eclipse.lsp4j.ExecuteCommandParams;
 import org.eclipse.lsp4j.InitializeParams;
 import org.eclipse.lsp4j.InitializeResult;
+import org.eclipse.lsp4j.InitializedParams;
 import org.eclipse.lsp4j.MessageParams;
 import org.eclipse.lsp4j.MessageType;
 import org.eclipse.lsp4j.NotebookDocumentSyncRegistrationOptions;
@@ -105,6 +106,7 @@ import org.sonarsource.sonarlint.ls.connected.notifications.TaintVulnerabilityRa
 import org.sonarsource.sonarlint.ls.connected.sync.ServerSynchronizer;
 import org.sonarsource.sonarlint.ls.file.FileTypeClassifier;
 import org.sonarsource.sonarlint.ls.file.OpenFilesCache;
+import org.sonarsource.sonarlint.ls.folders.FilePathIndex;
 import org.sonarsource.sonarlint.ls.folders.ModuleEventsProcessor;
 import org.sonarsource.sonarlint.ls.folders.WorkspaceFolderBranchManager;
 import org.sonarsource.sonarlint.ls.folders.WorkspaceFoldersManager;
@@ -122,6 +124,7 @@ import org.sonarsource.sonarlint.ls.settings.WorkspaceSettingsChangeListener;
 import org.sonarsource.sonarlint.ls.standalone.StandaloneEngineManager;
 import org.sonarsource.sonarlint.ls.telemetry.SonarLintTelemetry;
 import org.sonarsource.sonarlint.ls.util.ExitingInputStream;
+import org.sonarsource.sonarlint.ls.util.StartupTimeline;
 import org.sonarsource.sonarlint.ls.util.Utils;
 
 import static java.net.URI.create;
@@ -148,9 +151,11 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
   private final NodeJsRuntime nodeJsRuntime;
   private final EnginesFactory enginesFactory;
   private final StandaloneEngineManager standaloneEngineManager;
+  private final EnginesWarmup enginesWarmup;
   private final CommandManager commandManager;
   private final ProgressManager progressManager;
   private final ExecutorService threadPool;
+  private final RequestExecutor requestExecutor;
   private final RequestsHandlerServer requestsHandlerServer;
   private final ApacheHttpClientProvider httpClientProvider;
   private final WorkspaceFolderBranchManager branchManager;
@@ -158,6 +163,7 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
   private final IssuesCache issuesCache;
   private final IssuesCache securityHotspotsCache;
   private final DiagnosticPublisher diagnosticPublisher;
+  private final FilePathIndex filePathIndex;
   private final ScmIgnoredCache scmIgnoredCache;
   private ServerSynchronizer serverSynchronizer;
   private final LanguageClientLogger lsLogOutput;
@@ -166,6 +172,7 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
   private final NotebookDiagnosticPublisher notebookDiagnosticPublisher;
 
   private String appName;
+  private boolean warmUpEngines;
 
   /**
    * Keep track of value 'sonarlint.trace.server' on client side. Not used currently, but keeping it just in case.
@@ -180,7 +187,9 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
   private final CountDownLatch shutdownLatch;
 
   SonarLintLanguageServer(InputStream inputStream, OutputStream outputStream, Collection<Path> analyzers) {
-    this.threadPool = Executors.newCachedThreadPool(Utils.threadFactory("SonarLint LSP message processor", false));
+    // lsp4j only uses it to run the loop reading incoming messages, requests are handled by the request executor
+    this.threadPool = Executors.newSingleThreadExecutor(Utils.threadFactory("SonarLint LSP message processor", false));
+    this.requestExecutor = new RequestExecutor();
     var input = new ExitingInputStream(inputStream, this);
     var launcher = new Launcher.Builder<SonarLintExtendedLanguageClient>()
       .setLocalService(this)
@@ -211,21 +220,26 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
     this.workspaceFoldersManager = new WorkspaceFoldersManager(backendServiceFacade);
     this.settingsManager = new SettingsManager(this.client, this.workspaceFoldersManager, httpClientProvider, backendServiceFacade);
     vsCodeClient.setSettingsManager(settingsManager);
-    this.nodeJsRuntime = new NodeJsRuntime(settingsManager);
+    this.nodeJsRuntime = new NodeJsRuntime(settingsManager, SonarLintUserHome.get().resolve("nodejs.properties"));
+    this.settingsManager.addListener(nodeJsRuntime);
     var fileTypeClassifier = new FileTypeClassifier();
     javaConfigCache = new JavaConfigCache(client, openFilesCache, lsLogOutput);
-    this.enginesFactory = new EnginesFactory(analyzers, getEmbeddedPluginsToPath(), globalLogOutput, nodeJsRuntime,
+    var embeddedPluginsToPath = StartupTimeline.get().measure("Resolve embedded plugin paths", this::getEmbeddedPluginsToPath);
+    this.enginesFactory = new EnginesFactory(analyzers, embeddedPluginsToPath, globalLogOutput, nodeJsRuntime,
       new WorkspaceFoldersProvider(workspaceFoldersManager, fileTypeClassifier, javaConfigCache));
     this.standaloneEngineManager = new StandaloneEngineManager(enginesFactory);
     this.settingsManager.addListener(lsLogOutput);
+    this.filePathIndex = new FilePathIndex(SonarLintUserHome.get().resolve("path-index"));
     this.bindingManager = new ProjectBindingManager(enginesFactory, workspaceFoldersManager, settingsManager, client, globalLogOutput,
-      taintVulnerabilitiesCache, diagnosticPublisher, backendServiceFacade, openNotebooksCache);
+      taintVulnerabilitiesCache, diagnosticPublisher, backendServiceFacade, openNotebooksCache, filePathIndex);
     this.settingsManager.setBindingManager(bindingManager);
+    this.enginesWarmup = new EnginesWarmup(standaloneEngineManager, bindingManager, settingsManager);
     this.telemetry = new SonarLintTelemetry(httpClientProvider, settingsManager, bindingManager, nodeJsRuntime, standaloneEngineManager);
     this.settingsManager.addListener(telemetry);
     this.settingsManager.addListener((WorkspaceSettingsChangeListener) bindingManager);
     this.settingsManager.addListener((WorkspaceFolderSettingsChangeListener) bindingManager);
     this.workspaceFoldersManager.addListener(settingsManager);
+    this.workspaceFoldersManager.addListener(bindingManager);
     this.serverNotifications = new ServerNotifications(client, workspaceFoldersManager, telemetry, lsLogOutput);
     this.settingsManager.addListener((WorkspaceSettingsChangeListener) serverNotifications);
     this.settingsManager.addListener((WorkspaceFolderSettingsChangeListener) serverNotifications);
@@ -245,7 +259,7 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
       issuesCache, securityHotspotsCache, backendServiceFacade, workspaceFoldersManager, openNotebooksCache);
     this.taintVulnerabilityRaisedNotification = new TaintVulnerabilityRaisedNotification(client, commandManager);
     this.serverSentEventsHandler = new ServerSentEventsHandler(bindingManager, taintVulnerabilitiesCache,
-      taintVulnerabilityRaisedNotification, settingsManager, workspaceFoldersManager);
+      taintVulnerabilityRaisedNotification, settingsManager, workspaceFoldersManager, serverSynchronizer.getSyncTracker());
     bindingManager.setServerSentEventsHandler(serverSentEventsHandler);
     this.requestsHandlerServer = new RequestsHandlerServer(lsLogOutput, bindingManager, client, telemetry, settingsManager);
     this.branchManager = new WorkspaceFolderBranchManager(client, bindingManager, serverSynchronizer);
@@ -268,8 +282,10 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
 
   @Override
   public CompletableFuture<InitializeResult> initialize(InitializeParams params) {
+    // Not on the request executor, the server is useless if initialization is rejected because of a burst of early requests
     return CompletableFutures.computeAsync(cancelToken -> {
       cancelToken.checkCanceled();
+      StartupTimeline.get().mark("Initialize request started");
       this.traceLevel = parseTraceLevel(params.getTrace());
 
       boolean workDoneSupportedByClient = ofNullable(params.getCapabilities())
@@ -307,7 +323,7 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
       analysisScheduler.initialize();
       diagnosticPublisher.initialize(firstSecretDetected);
 
-      requestsHandlerServer.initialize(appName, clientVersion, workspaceName);
+      StartupTimeline.get().measure("Start request handler server", () -> requestsHandlerServer.initialize(appName, clientVersion, workspaceName));
       telemetry.initialize(productKey, telemetryStorage, productName, productVersion, ideVersion, platform, architecture, additionalAttributes);
 
       var c = new ServerCapabilities();
@@ -320,9 +336,12 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
       if (isEnableNotebooks(options)) {
         setNotebookSyncOptions(c);
       }
+      this.warmUpEngines = isWarmUpEngines(options);
+      standaloneEngineManager.setLazyPluginLoading(isLazyPluginLoading(options));
 
       var info = new ServerInfo("SonarLint Language Server", getServerVersion("slls-version.txt"));
       provideBackendInitData(productKey);
+      StartupTimeline.get().mark("Initialize request handled");
       return new InitializeResult(c, info);
     });
   }
@@ -332,6 +351,22 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
     return (boolean) options.getOrDefault("enableNotebooks", false);
   }
 
+  private static boolean isWarmUpEngines(Map<String, Object> options) {
+    return (boolean) options.getOrDefault("warmUpEngines", false);
+  }
+
+  private static boolean isLazyPluginLoading(Map<String, Object> options) {
+    return (boolean) options.getOrDefault("lazyPluginLoading", false);
+  }
+
+  @Override
+  public void initialized(InitializedParams params) {
+    StartupTimeline.get().mark("Initialized notification received");
+    if (warmUpEngines) {
+      enginesWarmup.warmUp();
+    }
+  }
+
   private static void setNotebookSyncOptions(ServerCapabilities c) {
     var noteBookDocumentSyncOptions = new NotebookDocumentSyncRegistrationOptions();
     var notebookSelector = new NotebookSelector();
@@ -376,6 +411,8 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
     List.<Runnable>of(
       // prevent creation of new engines
       enginesFactory::shutdown,
+      enginesWarmup::shutdown,
+      requestExecutor::shutdown,
       analysisScheduler::shutdown,
       branchManager::shutdown,
       requestsHandlerServer::shutdown,
@@ -384,13 +421,18 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
       workspaceFoldersManager::shutdown,
       httpClientProvider::close,
       serverNotifications::shutdown,
+      serverSentEventsHandler::shutdown,
       moduleEventsProcessor::shutdown,
       taintIssuesUpdater::shutdown,
+      filePathIndex::shutdown,
       // shutdown engines after the rest so that no operations remain on them, and they won't be recreated accidentally
       bindingManager::shutdown,
       serverSynchronizer::shutdown,
       standaloneEngineManager::shutdown,
-      backendServiceFacade::shutdown)
+      nodeJsRuntime::shutdown,
+      backendServiceFacade::shutdown,
+      // flush pending logs last
+      lsLogOutput::shutdown)
       // Do last
       .forEach(this::invokeQuietly);
 
@@ -424,7 +466,8 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
 
   @Override
   public CompletableFuture<List<Either<Command, CodeAction>>> codeAction(CodeActionParams params) {
-    return CompletableFutures.computeAsync(cancelToken -> {
+    // Editors request code actions on every cursor move, only the last request of a file is worth computing
+    return requestExecutor.compute("textDocument/codeAction", params.getTextDocument().getUri(), cancelToken -> {
       cancelToken.checkCanceled();
       return commandManager.computeCodeActions(params, cancelToken);
     });
@@ -438,6 +481,7 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
     }
     client.isOpenInEditor(uri.toString()).thenAccept(isOpen -> {
       if (Boolean.TRUE.equals(isOpen)) {
+        StartupTimeline.get().mark("First file opened");
         var file = openFilesCache.didOpen(uri, params.getTextDocument().getLanguageId(), params.getTextDocument().getText(), params.getTextDocument().getVersion());
         analysisScheduler.didOpen(file);
         taintIssuesUpdater.updateTaintIssuesAsync(uri);
@@ -461,6 +505,7 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
     openFilesCache.didClose(uri);
     javaConfigCache.didClose(uri);
     scmIgnoredCache.didClose(uri);
+    bindingManager.didClose(uri);
   }
 
   @Override
@@ -470,7 +515,7 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
 
   @Override
   public CompletableFuture<Map<String, List<Rule>>> listAllRules() {
-    return CompletableFutures.computeAsync(cancelToken -> {
+    return requestExecutor.compute("sonarlint/listAllRules", cancelToken -> {
       cancelToken.checkCanceled();
       return commandManager.listAllStandaloneRules();
     });
@@ -483,7 +528,7 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
 
   @Override
   public CompletableFuture<Object> executeCommand(ExecuteCommandParams params) {
-    return CompletableFutures.computeAsync(cancelToken -> {
+    return requestExecutor.compute("workspace/executeCommand", cancelToken -> {
       cancelToken.checkCanceled();
       commandManager.executeCommand(params, cancelToken);
       return null;
@@ -497,6 +542,8 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
 
   @Override
   public void didChangeWatchedFiles(DidChangeWatchedFilesParams params) {
+    filePathIndex.didChangeWatchedFiles(params.getChanges());
+    bindingManager.didChangeWatchedFiles(params.getChanges());
     moduleEventsProcessor.didChangeWatchedFiles(params.getChanges());
   }
 
@@ -657,7 +704,7 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
     var ruleKey = params.ruleKey;
     var showHotspotCommandParams = new ExecuteCommandParams(SONARLINT_OPEN_RULE_DESCRIPTION_FROM_CODE_ACTION_COMMAND,
       List.of(new JsonPrimitive(ruleKey), new JsonPrimitive(fileUri)));
-    return CompletableFutures.computeAsync(cancelToken -> {
+    return requestExecutor.compute("sonarlint/showHotspotRuleDescription", cancelToken -> {
       cancelToken.checkCanceled();
       commandManager.executeCommand(showHotspotCommandParams, cancelToken);
       return null;
@@ -670,6 +717,38 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
     return CompletableFuture.completedFuture(null);
   }
 
+  @Override
+  public CompletableFuture<GetHttpMetricsResponse> getHttpMetrics() {
+    var poolStats = httpClientProvider.getConnectionPoolStats()
+      .map(stats -> new ConnectionPoolStats(stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax()))
+      .orElse(null);
+    return CompletableFuture.completedFuture(new GetHttpMetricsResponse(httpClientProvider.getMetrics().snapshot(), poolStats));
+  }
+
+  @Override
+  public CompletableFuture<GetRequestMetricsResponse> getRequestMetrics() {
+    return CompletableFuture.completedFuture(new GetRequestMetricsResponse(requestExecutor.snapshot()));
+  }
+
+  @Override
+  public CompletableFuture<GetIssueTrackingMetricsResponse> getIssueTrackingMetrics() {
+    var stats = bindingManager.getResolvedBindings().entrySet().stream()
+      .map(entry -> {
+        var binding = entry.getValue();
+        var tracker = binding.getServerIssueTracker();
+        return new IssueTrackingStats(entry.getKey().toString(), binding.getConnectionId(), binding.getBinding().projectKey(), tracker.getTrackedFilesCount(),
+          tracker.getTrackedIssuesCount(), tracker.getTrackedHotspotsCount(), tracker.getMaxTrackedFiles());
+      })
+      .collect(Collectors.toList());
+    return CompletableFuture.completedFuture(new GetIssueTrackingMetricsResponse(stats));
+  }
+
+  @Override
+  public CompletableFuture<GetStartupTimelineResponse> getStartupTimeline() {
+    var startupTimeline = StartupTimeline.get();
+    return CompletableFuture.completedFuture(new GetStartupTimelineResponse(startupTimeline.snapshot(), startupTimeline.isComplete()));
+  }
+
   public Map<String, Path> getEmbeddedPluginsToPath() {
     var plugins = new HashMap<String, Path>();
     addPluginPathOrWarn("cfamily", Language.C, plugins);
@@ -707,7 +786,7 @@ public class SonarLintLanguageServer implements SonarLintExtendedLanguageServer,
     var hotspotKey = showHotspotLocationsParams.hotspotKey;
     var showHotspotCommandParams = new ExecuteCommandParams(SONARLINT_SHOW_SECURITY_HOTSPOT_FLOWS,
       List.of(new JsonPrimitive(fileUri), new JsonPrimitive(hotspotKey)));
-    return CompletableFutures.computeAsync(cancelToken -> {
+    return requestExecutor.compute("sonarlint/showHotspotLocations", cancelToken -> {
       cancelToken.checkCanceled();
       commandManager.executeCommand(showHotspotCommandParams, cancelToken);
       return null;
@@ -36,6 +36,7 @@ import org.sonarsource.sonarlint.core.clientapi.backend.rules.GetActiveRuleDetai
 import org.sonarsource.sonarlint.core.clientapi.backend.rules.GetActiveRuleDetailsResponse;
 import org.sonarsource.sonarlint.ls.connected.ProjectBindingWrapper;
 import org.sonarsource.sonarlint.ls.settings.ServerConnectionSettings;
+import org.sonarsource.sonarlint.ls.util.StartupTimeline;
 
 public class BackendServiceFacade {
 
@@ -70,7 +71,7 @@ public class BackendServiceFacade {
     var scConnections = BackendService.extractSonarCloudConnections(connections);
     initParams.setSonarQubeConnections(sqConnections);
     initParams.setSonarCloudConnections(scConnections);
-    backend.initialize(toInitParams(initParams));
+    StartupTimeline.get().measure("Initialize backend", () -> backend.initialize(toInitParams(initParams)));
   }
 
   private static InitializeParams toInitParams(BackendInitParams initParams) {
@@ -0,0 +1,172 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
+import org.sonarsource.sonarlint.core.issuetracking.IssueTrackerCache;
+import org.sonarsource.sonarlint.core.issuetracking.Trackable;
+import org.sonarsource.sonarlint.core.issuetracking.TrackableIssueStore;
+
+/**
+ * Issue tracker cache keeping at most a fixed number of files in memory, the least recently used files being evicted first.
+ * Files can also be evicted explicitly, typically when they are closed. When a spill store is provided, evicted files are written to it
+ * so that tracking (creation dates, server matches) is preserved when the file is analyzed again. During a batch, the bound is only
+ * applied at the end, so that all files of the batch can be read once tracked.
+ */
+public class BoundedIssueTrackerCache<T> implements IssueTrackerCache<T> {
+
+  private static final SonarLintLogger LOG = SonarLintLogger.get();
+
+  private final int maxEntries;
+  @Nullable
+  private final TrackableIssueStore<T> spillStore;
+  private final Map<String, Collection<Trackable<T>>> cache;
+  private boolean inBatch;
+
+  public BoundedIssueTrackerCache(int maxEntries, @Nullable TrackableIssueStore<T> spillStore) {
+    this.maxEntries = maxEntries;
+    this.spillStore = spillStore;
+    this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Collection<Trackable<T>>> eldest) {
+        if (!inBatch && size() > BoundedIssueTrackerCache.this.maxEntries) {
+          spill(eldest.getKey(), eldest.getValue());
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public synchronized boolean isFirstAnalysis(String file) {
+    return !cache.containsKey(file) && (spillStore == null || !spillStore.contains(file));
+  }
+
+  @Override
+  public synchronized Collection<Trackable<T>> getCurrentTrackables(String file) {
+    var trackables = cache.get(file);
+    if (trackables != null) {
+      return trackables;
+    }
+    return readSpilled(file);
+  }
+
+  @Override
+  public synchronized Collection<Trackable<T>> getLiveOrFail(String file) {
+    var trackables = cache.get(file);
+    if (trackables == null) {
+      throw new IllegalStateException("file should have been already analyzed: " + file);
+    }
+    return trackables;
+  }
+
+  @Override
+  public synchronized void put(String file, Collection<Trackable<T>> trackables) {
+    cache.put(file, trackables);
+  }
+
+  /**
+   * Remove the given file from memory, spilling its trackables to the store if any.
+   */
+  public synchronized void evict(String file) {
+    var trackables = cache.remove(file);
+    if (trackables != null) {
+      spill(file, trackables);
+    }
+  }
+
+  public synchronized void startBatch() {
+    inBatch = true;
+  }
+
+  /**
+   * Evict the least recently used files above the bound, that were kept during the batch
+   */
+  public synchronized void endBatch() {
+    inBatch = false;
+    var eldestFirst = cache.entrySet().iterator();
+    while (cache.size() > maxEntries && eldestFirst.hasNext()) {
+      var eldest = eldestFirst.next();
+      spill(eldest.getKey(), eldest.getValue());
+      eldestFirst.remove();
+    }
+  }
+
+  public synchronized Set<String> files() {
+    return new HashSet<>(cache.keySet());
+  }
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  public synchronized int size() {
+    return cache.size();
+  }
+
+  public synchronized int trackableCount() {
+    return cache.values().stream().mapToInt(Collection::size).sum();
+  }
+
+  @Override
+  public synchronized void clear() {
+    cache.clear();
+    if (spillStore != null) {
+      spillStore.clear();
+    }
+  }
+
+  @Override
+  public synchronized void shutdown() {
+    cache.clear();
+  }
+
+  private void spill(String file, Collection<Trackable<T>> trackables) {
+    if (spillStore == null) {
+      return;
+    }
+    try {
+      spillStore.save(file, trackables);
+    } catch (IOException e) {
+      LOG.error("Unable to store tracked issues of file '" + file + "'", e);
+    }
+  }
+
+  private Collection<Trackable<T>> readSpilled(String file) {
+    if (spillStore == null || !spillStore.contains(file)) {
+      return Collections.emptyList();
+    }
+    try {
+      return Collections.unmodifiableCollection(spillStore.read(file));
+    } catch (IOException e) {
+      LOG.error("Unable to read tracked issues of file '" + file + "'", e);
+      return Collections.emptyList();
+    }
+  }
+}
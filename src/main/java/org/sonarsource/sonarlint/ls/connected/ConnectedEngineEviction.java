@@ -0,0 +1,240 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import org.apache.commons.lang3.StringUtils;
+import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
+import org.sonarsource.sonarlint.ls.util.Utils;
+
+/**
+ * Decides when connected engines can be stopped to release their plugin classloaders and storage: once no analysis used them for
+ * the idle timeout, or sooner when the old generation of the heap is nearly full after a garbage collection. Engines in use by an
+ * analysis or a synchronization, see {@link #acquire(String)}, are never stopped. Stopped engines are started again by the next
+ * analysis that needs them.
+ * <p>
+ * Until then, server events of the connection are not received and its projects are not synchronized in the background, so both
+ * triggers are disabled by default.
+ */
+class ConnectedEngineEviction {
+
+  private static final SonarLintLogger LOG = SonarLintLogger.get();
+  // Under memory pressure, engines that were looked up very recently are kept, as an analysis might be about to use them
+  static final Duration MEMORY_PRESSURE_MIN_IDLE = Duration.ofMinutes(1);
+  private static final Duration MAX_CHECK_PERIOD = Duration.ofMinutes(1);
+
+  private final Map<String, Long> lastUsedByConnectionId = new ConcurrentHashMap<>();
+  private final Map<String, Integer> usageCountByConnectionId = new ConcurrentHashMap<>();
+  private final Set<String> evictedConnectionIds = ConcurrentHashMap.newKeySet();
+  // Engines are acquired and evicted under this lock, so that an engine is never stopped after being acquired
+  private final Object usageLock = new Object();
+  private final Duration idleTimeout;
+  private final int memoryThresholdPercent;
+  private final LongSupplier clock;
+  @CheckForNull
+  private ScheduledExecutorService executor;
+  @CheckForNull
+  private NotificationListener memoryListener;
+
+  ConnectedEngineEviction() {
+    this(idleTimeoutFromEnv(), memoryThresholdPercentFromEnv(), System::currentTimeMillis);
+  }
+
+  // Visible for testing
+  ConnectedEngineEviction(Duration idleTimeout, int memoryThresholdPercent, LongSupplier clock) {
+    this.idleTimeout = idleTimeout;
+    this.memoryThresholdPercent = memoryThresholdPercent;
+    this.clock = clock;
+  }
+
+  private static Duration idleTimeoutFromEnv() {
+    return Duration.ofMinutes(Long.parseLong(StringUtils.defaultIfBlank(System.getenv("SONARLINT_INTERNAL_CONNECTED_ENGINE_IDLE_TIMEOUT_MINUTES"), "0")));
+  }
+
+  private static int memoryThresholdPercentFromEnv() {
+    return Integer.parseInt(StringUtils.defaultIfBlank(System.getenv("SONARLINT_INTERNAL_CONNECTED_ENGINE_MEMORY_THRESHOLD_PERCENT"), "0"));
+  }
+
+  /**
+   * Starts the periodic idle check and the memory pressure listener, if not already started.
+   *
+   * @param evictIdle stops the idle engines with {@link #evictIdle(Collection, Consumer)}
+   * @param evictUnderMemoryPressure stops engines with {@link #evictUnderMemoryPressure(Collection, Consumer)}
+   */
+  synchronized void start(Runnable evictIdle, Runnable evictUnderMemoryPressure) {
+    if (executor != null || (idleTimeout.isZero() && memoryThresholdPercent <= 0)) {
+      return;
+    }
+    executor = Executors.newSingleThreadScheduledExecutor(Utils.threadFactory("SonarLint connected engines eviction", true));
+    if (!idleTimeout.isZero()) {
+      var checkPeriod = Math.max(1_000, Math.min(idleTimeout.toMillis() / 4, MAX_CHECK_PERIOD.toMillis()));
+      executor.scheduleWithFixedDelay(() -> runQuietly(evictIdle), checkPeriod, checkPeriod, TimeUnit.MILLISECONDS);
+    }
+    if (memoryThresholdPercent > 0) {
+      listenToMemoryPressure(evictUnderMemoryPressure);
+    }
+  }
+
+  private void listenToMemoryPressure(Runnable evictUnderMemoryPressure) {
+    var tenuredPool = ManagementFactory.getMemoryPoolMXBeans().stream()
+      .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported() && pool.getUsage().getMax() > 0)
+      .reduce((first, second) -> second);
+    if (tenuredPool.isEmpty()) {
+      return;
+    }
+    MemoryPoolMXBean pool = tenuredPool.get();
+    pool.setCollectionUsageThreshold(pool.getUsage().getMax() * memoryThresholdPercent / 100);
+    var scheduler = executor;
+    memoryListener = (notification, handback) -> {
+      if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType())) {
+        LOG.debug("Heap usage of '{}' exceeds {}% after garbage collection, stopping idle connected engines", pool.getName(), memoryThresholdPercent);
+        scheduler.execute(() -> runQuietly(evictUnderMemoryPressure));
+      }
+    };
+    ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener(memoryListener, null, null);
+  }
+
+  private static void runQuietly(Runnable eviction) {
+    try {
+      eviction.run();
+    } catch (Exception e) {
+      LOG.error("Unable to stop idle connected engines", e);
+    }
+  }
+
+  /**
+   * An analysis, or the creation of the engine, used the engine of the connection.
+   */
+  void touch(String connectionId) {
+    lastUsedByConnectionId.put(connectionId, clock.getAsLong());
+    evictedConnectionIds.remove(connectionId);
+  }
+
+  /**
+   * An analysis or a synchronization started using the engine of the connection, it must not be stopped until {@link #release(String)}.
+   */
+  void acquire(String connectionId) {
+    synchronized (usageLock) {
+      usageCountByConnectionId.merge(connectionId, 1, Integer::sum);
+      touch(connectionId);
+    }
+  }
+
+  void release(String connectionId) {
+    synchronized (usageLock) {
+      usageCountByConnectionId.computeIfPresent(connectionId, (id, count) -> count > 1 ? (count - 1) : null);
+      lastUsedByConnectionId.put(connectionId, clock.getAsLong());
+    }
+  }
+
+  /**
+   * Stops the engines that are idle among the started ones. They are selected and stopped atomically with {@link #acquire(String)}.
+   */
+  void evictIdle(Collection<String> startedConnectionIds, Consumer<String> eviction) {
+    synchronized (usageLock) {
+      idleAmong(startedConnectionIds).forEach(connectionId -> evict(connectionId, eviction));
+    }
+  }
+
+  /**
+   * Stops the engines that were not used recently among the started ones. They are selected and stopped atomically with
+   * {@link #acquire(String)}.
+   */
+  void evictUnderMemoryPressure(Collection<String> startedConnectionIds, Consumer<String> eviction) {
+    synchronized (usageLock) {
+      evictableUnderMemoryPressureAmong(startedConnectionIds).forEach(connectionId -> evict(connectionId, eviction));
+    }
+  }
+
+  private void evict(String connectionId, Consumer<String> eviction) {
+    eviction.accept(connectionId);
+    evicted(connectionId);
+  }
+
+  Set<String> idleAmong(Collection<String> startedConnectionIds) {
+    if (idleTimeout.isZero()) {
+      return Set.of();
+    }
+    return unusedSince(startedConnectionIds, idleTimeout);
+  }
+
+  Set<String> evictableUnderMemoryPressureAmong(Collection<String> startedConnectionIds) {
+    return unusedSince(startedConnectionIds, MEMORY_PRESSURE_MIN_IDLE);
+  }
+
+  private Set<String> unusedSince(Collection<String> connectionIds, Duration duration) {
+    var now = clock.getAsLong();
+    return connectionIds.stream()
+      .filter(id -> !usageCountByConnectionId.containsKey(id))
+      .filter(id -> now - lastUsedByConnectionId.getOrDefault(id, now) >= duration.toMillis())
+      .collect(Collectors.toSet());
+  }
+
+  /**
+   * The engine of the connection was stopped by this policy. It is not restarted for background synchronizations, only for analyses.
+   */
+  void evicted(String connectionId) {
+    evictedConnectionIds.add(connectionId);
+  }
+
+  boolean isEvicted(String connectionId) {
+    return evictedConnectionIds.contains(connectionId);
+  }
+
+  /**
+   * The engine of the connection was stopped for another reason (connection removed or changed).
+   */
+  void forget(String connectionId) {
+    lastUsedByConnectionId.remove(connectionId);
+    evictedConnectionIds.remove(connectionId);
+  }
+
+  synchronized void shutdown() {
+    if (memoryListener != null) {
+      try {
+        ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).removeNotificationListener(memoryListener);
+      } catch (ListenerNotFoundException e) {
+        // Already removed
+      }
+      memoryListener = null;
+    }
+    if (executor != null) {
+      Utils.shutdownAndAwait(executor, true);
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.sonarsource.sonarlint.core.commons.IssueSeverity;
+import org.sonarsource.sonarlint.core.commons.RuleType;
+import org.sonarsource.sonarlint.core.commons.progress.ProgressMonitor;
+import org.sonarsource.sonarlint.core.serverapi.ServerApiHelper;
+import org.sonarsource.sonarlint.core.serverapi.proto.sonarqube.ws.Issues;
+import org.sonarsource.sonarlint.core.serverapi.util.ServerApiUtils;
+import org.sonarsource.sonarlint.core.serverconnection.IssueStorePaths;
+import org.sonarsource.sonarlint.core.serverconnection.ProjectBinding;
+import org.sonarsource.sonarlint.core.serverconnection.issues.FileLevelServerIssue;
+import org.sonarsource.sonarlint.core.serverconnection.issues.LineLevelServerIssue;
+import org.sonarsource.sonarlint.core.serverconnection.issues.ServerIssue;
+import org.sonarsource.sonarlint.ls.settings.ServerConnectionSettings.EndpointParamsAndHttpClient;
+
+import static org.sonarsource.sonarlint.core.serverapi.UrlUtils.urlEncode;
+
+/**
+ * Downloads the server issues of several files of a project with a single search request, instead of one request per file.
+ * Only useful for servers without issue pull, for which core downloads issues file by file.
+ */
+class FileIssuesDownloader {
+
+  /**
+   * Keeps the URL of a search request within the limits of usual HTTP servers and proxies
+   */
+  static final int MAX_FILES_PER_REQUEST = 50;
+  private static final String SEARCH_API_PATH = "/api/issues/search.protobuf?statuses=OPEN,CONFIRMED,REOPENED,RESOLVED&componentKeys=";
+
+  /**
+   * @return the server issues of each file, indexed by IDE file path. Files without server issues are part of the result.
+   */
+  Map<String, List<ServerIssue>> downloadIssuesOfFiles(EndpointParamsAndHttpClient serverConfiguration, ProjectBinding projectBinding,
+    Collection<String> ideFilePaths, String branchName) {
+    var helper = new ServerApiHelper(serverConfiguration.getEndpointParams(), serverConfiguration.getHttpClient());
+    var ideFilePathByComponentKey = new LinkedHashMap<String, String>();
+    var issuesByIdeFilePath = new HashMap<String, List<ServerIssue>>();
+    ideFilePaths.forEach(ideFilePath -> {
+      issuesByIdeFilePath.put(ideFilePath, new ArrayList<>());
+      var componentKey = IssueStorePaths.idePathToFileKey(projectBinding, ideFilePath);
+      if (componentKey != null) {
+        ideFilePathByComponentKey.put(componentKey, ideFilePath);
+      }
+    });
+
+    var componentKeys = new ArrayList<>(ideFilePathByComponentKey.keySet());
+    for (var from = 0; from < componentKeys.size(); from += MAX_FILES_PER_REQUEST) {
+      var url = new StringBuilder(SEARCH_API_PATH)
+        .append(urlEncode(String.join(",", componentKeys.subList(from, Math.min(from + MAX_FILES_PER_REQUEST, componentKeys.size())))))
+        .append("&branch=").append(urlEncode(branchName));
+      helper.getOrganizationKey().ifPresent(org -> url.append("&organization=").append(urlEncode(org)));
+      helper.getPaginated(url.toString(),
+        Issues.SearchWsResponse::parseFrom,
+        response -> response.getPaging().getTotal(),
+        Issues.SearchWsResponse::getIssuesList,
+        issue -> {
+          var ideFilePath = ideFilePathByComponentKey.get(issue.getComponent());
+          if (ideFilePath != null) {
+            issuesByIdeFilePath.get(ideFilePath).add(toServerIssue(issue, ideFilePath));
+          }
+        },
+        true,
+        new ProgressMonitor(null));
+    }
+    return issuesByIdeFilePath;
+  }
+
+  private static ServerIssue toServerIssue(Issues.Issue issue, String ideFilePath) {
+    var resolved = !issue.getResolution().isEmpty();
+    var creationDate = ServerApiUtils.parseOffsetDateTime(issue.getCreationDate()).toInstant();
+    var severity = IssueSeverity.valueOf(issue.getSeverity().name());
+    var type = RuleType.valueOf(issue.getType().name());
+    if (issue.hasLine()) {
+      return new LineLevelServerIssue(issue.getKey(), resolved, issue.getRule(), issue.getMessage(), issue.getHash(), ideFilePath, creationDate, severity,
+        type, issue.getLine());
+    }
+    return new FileLevelServerIssue(issue.getKey(), resolved, issue.getRule(), issue.getMessage(), ideFilePath, creationDate, severity, type);
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
+
+/**
+ * Directory where the issue trackers of this server spill the tracking data of evicted files, see {@link BoundedIssueTrackerCache}.
+ * Spilled data is only valid for the session that wrote it, so each server process gets its own subdirectory of the configured root.
+ * It is deleted on shutdown, and the ones left by servers that did not shut down properly are deleted on startup. Subdirectories of
+ * servers still running, e.g. for another IDE window, are kept.
+ */
+public class IssueTrackerSpillDirectory {
+
+  private static final SonarLintLogger LOG = SonarLintLogger.get();
+  private static final String SESSION_DIR_PREFIX = "session-";
+
+  @Nullable
+  private final Path sessionDir;
+
+  public IssueTrackerSpillDirectory() {
+    this(getSpillRoot(), ProcessHandle.current().pid());
+  }
+
+  // Visible for testing
+  IssueTrackerSpillDirectory(@Nullable Path spillRoot, long pid) {
+    this.sessionDir = spillRoot == null ? null : spillRoot.resolve(SESSION_DIR_PREFIX + pid);
+    if (spillRoot != null) {
+      deleteLeftSessions(spillRoot);
+    }
+  }
+
+  @CheckForNull
+  private static Path getSpillRoot() {
+    var spillRoot = System.getenv("SONARLINT_INTERNAL_ISSUE_TRACKER_SPILL_DIR");
+    return StringUtils.isBlank(spillRoot) ? null : Paths.get(spillRoot);
+  }
+
+  /**
+   * @return null when spilling is disabled
+   */
+  @CheckForNull
+  public Path forFolder(Path folderRoot) {
+    return sessionDir == null ? null : sessionDir.resolve(DigestUtils.md5Hex(folderRoot.toString()));
+  }
+
+  public void shutdown() {
+    if (sessionDir != null) {
+      deleteRecursively(sessionDir);
+    }
+  }
+
+  private void deleteLeftSessions(Path spillRoot) {
+    if (!Files.isDirectory(spillRoot)) {
+      return;
+    }
+    try (var children = Files.list(spillRoot)) {
+      // A directory named after this process was left by a stopped server that had the same PID
+      children.filter(child -> child.equals(sessionDir) || isLeftByStoppedServer(child))
+        .collect(Collectors.toList())
+        .forEach(IssueTrackerSpillDirectory::deleteRecursively);
+    } catch (IOException e) {
+      LOG.debug("Unable to delete issue tracking data of previous sessions", e);
+    }
+  }
+
+  private static boolean isLeftByStoppedServer(Path child) {
+    var name = child.getFileName().toString();
+    if (!Files.isDirectory(child) || !name.startsWith(SESSION_DIR_PREFIX)) {
+      return false;
+    }
+    try {
+      var pid = Long.parseLong(name.substring(SESSION_DIR_PREFIX.length()));
+      return !ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  private static void deleteRecursively(Path dir) {
+    try (var paths = Files.walk(dir)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    } catch (IOException e) {
+      LOG.debug("Unable to delete issue tracking data in '" + dir + "'", e);
+    }
+  }
+}
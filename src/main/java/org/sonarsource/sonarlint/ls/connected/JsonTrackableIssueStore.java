@@ -0,0 +1,208 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.sonarsource.sonarlint.core.commons.IssueSeverity;
+import org.sonarsource.sonarlint.core.commons.RuleType;
+import org.sonarsource.sonarlint.core.commons.TextRangeWithHash;
+import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
+import org.sonarsource.sonarlint.core.issuetracking.Trackable;
+import org.sonarsource.sonarlint.core.issuetracking.TrackableIssueStore;
+
+/**
+ * Store the tracking data of evicted files as JSON, one file per analyzed file. Only the data needed to match the issues of the next
+ * analysis is kept, the original client objects are not.
+ */
+public class JsonTrackableIssueStore<T> implements TrackableIssueStore<T> {
+
+  private static final SonarLintLogger LOG = SonarLintLogger.get();
+  private static final Gson GSON = new Gson();
+
+  private final Path storeDir;
+
+  public JsonTrackableIssueStore(Path storeDir) {
+    this.storeDir = storeDir;
+  }
+
+  @Override
+  public boolean contains(String filePath) {
+    return Files.exists(pathFor(filePath));
+  }
+
+  @Override
+  public void save(String filePath, Collection<Trackable<T>> trackables) throws IOException {
+    Files.createDirectories(storeDir);
+    var stored = trackables.stream().map(StoredTrackable::from).collect(Collectors.toList());
+    Files.writeString(pathFor(filePath), GSON.toJson(stored), StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public Collection<Trackable<T>> read(String filePath) throws IOException {
+    var json = Files.readString(pathFor(filePath), StandardCharsets.UTF_8);
+    List<StoredTrackable<T>> stored = GSON.fromJson(json, new TypeToken<List<StoredTrackable<T>>>() {
+    }.getType());
+    return List.copyOf(stored);
+  }
+
+  @Override
+  public void clear() {
+    if (!Files.isDirectory(storeDir)) {
+      return;
+    }
+    try (var storedFiles = Files.list(storeDir)) {
+      for (var storedFile : storedFiles.collect(Collectors.toList())) {
+        Files.deleteIfExists(storedFile);
+      }
+    } catch (IOException e) {
+      LOG.error("Unable to clear issue tracking store '" + storeDir + "'", e);
+    }
+  }
+
+  private Path pathFor(String filePath) {
+    return storeDir.resolve(DigestUtils.md5Hex(filePath) + ".json");
+  }
+
+  private static class StoredTrackable<T> implements Trackable<T> {
+    private String ruleKey;
+    private IssueSeverity severity;
+    private String message;
+    private RuleType type;
+    private Integer line;
+    private String lineHash;
+    private StoredTextRange textRange;
+    private Long creationDate;
+    private String serverIssueKey;
+    private boolean resolved;
+
+    private static <T> StoredTrackable<T> from(Trackable<T> trackable) {
+      var stored = new StoredTrackable<T>();
+      stored.ruleKey = trackable.getRuleKey();
+      stored.severity = trackable.getSeverity();
+      stored.message = trackable.getMessage();
+      stored.type = trackable.getType();
+      stored.line = trackable.getLine();
+      stored.lineHash = trackable.getLineHash();
+      stored.textRange = StoredTextRange.from(trackable.getTextRange());
+      stored.creationDate = trackable.getCreationDate();
+      stored.serverIssueKey = trackable.getServerIssueKey();
+      stored.resolved = trackable.isResolved();
+      return stored;
+    }
+
+    @CheckForNull
+    @Override
+    public T getClientObject() {
+      return null;
+    }
+
+    @Override
+    public String getRuleKey() {
+      return ruleKey;
+    }
+
+    @Override
+    public IssueSeverity getSeverity() {
+      return severity;
+    }
+
+    @Override
+    public String getMessage() {
+      return message;
+    }
+
+    @Override
+    public RuleType getType() {
+      return type;
+    }
+
+    @CheckForNull
+    @Override
+    public Integer getLine() {
+      return line;
+    }
+
+    @CheckForNull
+    @Override
+    public String getLineHash() {
+      return lineHash;
+    }
+
+    @CheckForNull
+    @Override
+    public TextRangeWithHash getTextRange() {
+      return textRange == null ? null : textRange.toTextRangeWithHash();
+    }
+
+    @CheckForNull
+    @Override
+    public Long getCreationDate() {
+      return creationDate;
+    }
+
+    @CheckForNull
+    @Override
+    public String getServerIssueKey() {
+      return serverIssueKey;
+    }
+
+    @Override
+    public boolean isResolved() {
+      return resolved;
+    }
+  }
+
+  private static class StoredTextRange {
+    private int startLine;
+    private int startLineOffset;
+    private int endLine;
+    private int endLineOffset;
+    private String hash;
+
+    @CheckForNull
+    private static StoredTextRange from(@Nullable TextRangeWithHash textRange) {
+      if (textRange == null) {
+        return null;
+      }
+      var stored = new StoredTextRange();
+      stored.startLine = textRange.getStartLine();
+      stored.startLineOffset = textRange.getStartLineOffset();
+      stored.endLine = textRange.getEndLine();
+      stored.endLineOffset = textRange.getEndLineOffset();
+      stored.hash = textRange.getHash();
+      return stored;
+    }
+
+    private TextRangeWithHash toTextRangeWithHash() {
+      return new TextRangeWithHash(startLine, startLineOffset, endLine, endLineOffset, hash);
+    }
+  }
+}
@@ -19,7 +19,6 @@
  */
 package org.sonarsource.sonarlint.ls.connected;
 
-import java.io.File;
 import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -32,6 +31,8 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -42,6 +43,7 @@ import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
+import org.eclipse.lsp4j.FileEvent;
 import org.sonarsource.sonarlint.core.client.api.connected.ConnectedSonarLintEngine;
 import org.sonarsource.sonarlint.core.clientapi.backend.config.binding.BindingConfigurationDto;
 import org.sonarsource.sonarlint.core.clientapi.backend.config.binding.DidUpdateBindingParams;
@@ -59,6 +61,8 @@ import org.sonarsource.sonarlint.ls.SonarLintExtendedLanguageClient.ConnectionCh
 import org.sonarsource.sonarlint.ls.backend.BackendServiceFacade;
 import org.sonarsource.sonarlint.ls.connected.domain.TaintIssue;
 import org.sonarsource.sonarlint.ls.connected.events.ServerSentEventsHandlerService;
+import org.sonarsource.sonarlint.ls.folders.FilePathIndex;
+import org.sonarsource.sonarlint.ls.folders.WorkspaceFolderLifecycleListener;
 import org.sonarsource.sonarlint.ls.folders.WorkspaceFolderWrapper;
 import org.sonarsource.sonarlint.ls.folders.WorkspaceFoldersManager;
 import org.sonarsource.sonarlint.ls.log.LanguageClientLogOutput;
@@ -72,6 +76,7 @@ import org.sonarsource.sonarlint.ls.settings.WorkspaceFolderSettingsChangeListen
 import org.sonarsource.sonarlint.ls.settings.WorkspaceSettings;
 import org.sonarsource.sonarlint.ls.settings.WorkspaceSettingsChangeListener;
 import org.sonarsource.sonarlint.ls.util.FileUtils;
+import org.sonarsource.sonarlint.ls.util.Utils;
 
 import static java.util.Objects.requireNonNull;
 import static java.util.function.Predicate.not;
@@ -82,7 +87,7 @@ import static org.sonarsource.sonarlint.ls.util.Utils.uriHasFileScheme;
  * Keep a cache of project bindings. Files that are part of a workspace workspaceFolderPath will share the same binding.
  * Files that are opened alone will have their own binding.
  */
-public class ProjectBindingManager implements WorkspaceSettingsChangeListener, WorkspaceFolderSettingsChangeListener {
+public class ProjectBindingManager implements WorkspaceSettingsChangeListener, WorkspaceFolderSettingsChangeListener, WorkspaceFolderLifecycleListener {
 
   private static final SonarLintLogger LOG = SonarLintLogger.get();
 
@@ -101,18 +106,48 @@ public class ProjectBindingManager implements WorkspaceSettingsChangeListener, W
   private BackendServiceFacade backendServiceFacade;
   private ServerSentEventsHandlerService serverSentEventsHandler;
   private OpenNotebooksCache openNotebooksCache;
+  private final ExecutorService bindingResolutionExecutor;
+  private final FilePathIndex filePathIndex;
+  private final ServerPathResolutionCache serverPathResolutionCache = new ServerPathResolutionCache();
+  private final ServerEventSubscriptions serverEventSubscriptions = new ServerEventSubscriptions();
+  private final ConnectedEngineEviction engineEviction;
+  private final IssueTrackerSpillDirectory issueTrackerSpillDirectory = new IssueTrackerSpillDirectory();
+  private final Set<URI> pendingBindingResolutions = ConcurrentHashMap.newKeySet();
+  private final ConcurrentMap<URI, ProjectBindingWrapper> previousBindings = new ConcurrentHashMap<>();
+  // Bindings of engines stopped by the eviction policy, restored with a restarted engine by the next analysis
+  private final ConcurrentMap<URI, ProjectBindingWrapper> evictedBindings = new ConcurrentHashMap<>();
 
   public ProjectBindingManager(EnginesFactory enginesFactory, WorkspaceFoldersManager foldersManager, SettingsManager settingsManager, SonarLintExtendedLanguageClient client,
                                LanguageClientLogOutput globalLogOutput, TaintVulnerabilitiesCache taintVulnerabilitiesCache, DiagnosticPublisher diagnosticPublisher,
                                BackendServiceFacade backendServiceFacade, OpenNotebooksCache openNotebooksCache) {
+    this(enginesFactory, foldersManager, settingsManager, client, globalLogOutput, taintVulnerabilitiesCache, diagnosticPublisher, backendServiceFacade, openNotebooksCache,
+      new FilePathIndex(null));
+  }
+
+  public ProjectBindingManager(EnginesFactory enginesFactory, WorkspaceFoldersManager foldersManager, SettingsManager settingsManager, SonarLintExtendedLanguageClient client,
+                               LanguageClientLogOutput globalLogOutput, TaintVulnerabilitiesCache taintVulnerabilitiesCache, DiagnosticPublisher diagnosticPublisher,
+                               BackendServiceFacade backendServiceFacade, OpenNotebooksCache openNotebooksCache, FilePathIndex filePathIndex) {
     this(enginesFactory, foldersManager, settingsManager, client, new ConcurrentHashMap<>(), globalLogOutput, taintVulnerabilitiesCache, diagnosticPublisher, backendServiceFacade,
-      openNotebooksCache);
+      openNotebooksCache, filePathIndex, Executors.newSingleThreadExecutor(Utils.threadFactory("SonarLint binding resolution", true)), new ConnectedEngineEviction());
   }
 
   public ProjectBindingManager(EnginesFactory enginesFactory, WorkspaceFoldersManager foldersManager, SettingsManager settingsManager, SonarLintExtendedLanguageClient client,
                                ConcurrentMap<URI, Optional<ProjectBindingWrapper>> folderBindingCache, @Nullable LanguageClientLogOutput globalLogOutput,
                                TaintVulnerabilitiesCache taintVulnerabilitiesCache, DiagnosticPublisher diagnosticPublisher, BackendServiceFacade backendServiceFacade,
                                OpenNotebooksCache openNotebooksCache) {
+    this(enginesFactory, foldersManager, settingsManager, client, folderBindingCache, globalLogOutput, taintVulnerabilitiesCache, diagnosticPublisher, backendServiceFacade,
+      openNotebooksCache, new FilePathIndex(null), Executors.newSingleThreadExecutor(Utils.threadFactory("SonarLint binding resolution", true)),
+      new ConnectedEngineEviction());
+  }
+
+  ProjectBindingManager(EnginesFactory enginesFactory, WorkspaceFoldersManager foldersManager, SettingsManager settingsManager, SonarLintExtendedLanguageClient client,
+                        ConcurrentMap<URI, Optional<ProjectBindingWrapper>> folderBindingCache, @Nullable LanguageClientLogOutput globalLogOutput,
+                        TaintVulnerabilitiesCache taintVulnerabilitiesCache, DiagnosticPublisher diagnosticPublisher, BackendServiceFacade backendServiceFacade,
+                        OpenNotebooksCache openNotebooksCache, FilePathIndex filePathIndex, ExecutorService bindingResolutionExecutor,
+                        ConnectedEngineEviction engineEviction) {
+    this.filePathIndex = filePathIndex;
+    this.bindingResolutionExecutor = bindingResolutionExecutor;
+    this.engineEviction = engineEviction;
     this.enginesFactory = enginesFactory;
     this.foldersManager = foldersManager;
     this.settingsManager = settingsManager;
@@ -136,8 +171,14 @@ public class ProjectBindingManager implements WorkspaceSettingsChangeListener, W
   }
 
   public void clearBindingCache() {
+    // Keep previous bindings, so that analyses don't have to wait for the new ones to be computed
+    folderBindingCache.forEach((uri, binding) -> binding.ifPresent(b -> previousBindings.put(uri, b)));
+    fileBindingCache.forEach((uri, binding) -> binding.ifPresent(b -> previousBindings.put(uri, b)));
     folderBindingCache.clear();
     fileBindingCache.clear();
+    evictedBindings.clear();
+    serverPathResolutionCache.clear();
+    filePathIndex.invalidate();
   }
 
   /**
@@ -166,6 +207,68 @@ public class ProjectBindingManager implements WorkspaceSettingsChangeListener, W
     return getBinding(folder, cacheKey);
   }
 
+  /**
+   * Return the binding of the given folder if it is already resolved, without waiting for network operations. If it is not, the
+   * binding is resolved in the background and open files of the folder are analyzed again once it is ready.
+   *
+   * @return the previous binding of the folder, or empty (standalone analysis) while the binding is being resolved
+   */
+  public Optional<ProjectBindingWrapper> getBindingIfResolved(WorkspaceFolderWrapper folder) {
+    return getBindingIfResolved(Optional.of(folder), folder.getUri());
+  }
+
+  /**
+   * Same as {@link #getBindingIfResolved(WorkspaceFolderWrapper)} for a file.
+   */
+  public Optional<ProjectBindingWrapper> getBindingIfResolved(URI fileUri) {
+    if (!uriHasFileScheme(fileUri) || openNotebooksCache.isNotebook(fileUri)) {
+      return getBinding(fileUri);
+    }
+    var folder = foldersManager.findFolderForFile(fileUri);
+    var cacheKey = folder.map(WorkspaceFolderWrapper::getUri).orElse(fileUri);
+    return getBindingIfResolved(folder, cacheKey);
+  }
+
+  private Optional<ProjectBindingWrapper> getBindingIfResolved(Optional<WorkspaceFolderWrapper> folder, URI cacheKey) {
+    var bindingCache = folder.isPresent() ? folderBindingCache : fileBindingCache;
+    var cachedBinding = bindingCache.get(cacheKey);
+    if (cachedBinding != null) {
+      return touch(cachedBinding);
+    }
+    var settings = folder.map(WorkspaceFolderWrapper::getSettings)
+      .orElse(settingsManager.getCurrentDefaultFolderSettings());
+    if (!settings.hasBinding() || evictedBindings.containsKey(cacheKey)) {
+      // Restoring an evicted binding only restarts the engine, without network operations
+      return getBinding(folder, cacheKey);
+    }
+    resolveBindingInBackground(folder, cacheKey);
+    return Optional.ofNullable(bindingCache.get(cacheKey))
+      .orElseGet(() -> {
+        var previousBinding = Optional.ofNullable(previousBindings.get(cacheKey));
+        LOG.debug(previousBinding.isPresent() ? "Binding of '{}' is being resolved, using previous binding meanwhile"
+          : "Binding of '{}' is being resolved, using standalone mode meanwhile", cacheKey);
+        return previousBinding;
+      });
+  }
+
+  private void resolveBindingInBackground(Optional<WorkspaceFolderWrapper> folder, URI cacheKey) {
+    if (!pendingBindingResolutions.add(cacheKey)) {
+      return;
+    }
+    bindingResolutionExecutor.execute(() -> {
+      try {
+        getBinding(folder, cacheKey);
+        previousBindings.remove(cacheKey);
+      } catch (Exception e) {
+        LOG.error("Unable to resolve binding of '" + cacheKey + "'", e);
+        return;
+      } finally {
+        pendingBindingResolutions.remove(cacheKey);
+      }
+      analysisManager.analyzeAllOpenFilesInFolder(folder.orElse(null));
+    });
+  }
+
   public void getBindingAndRepublishTaints(WorkspaceFolderWrapper folder) {
     getBindingAndRepublishTaints(Optional.of(folder), folder.getUri());
   }
@@ -178,16 +281,22 @@ public class ProjectBindingManager implements WorkspaceSettingsChangeListener, W
 
   private Optional<ProjectBindingWrapper> getBinding(Optional<WorkspaceFolderWrapper> folder, URI fileUri) {
     var bindingCache = folder.isPresent() ? folderBindingCache : fileBindingCache;
-    return bindingCache.computeIfAbsent(fileUri, k -> {
+    return touch(bindingCache.computeIfAbsent(fileUri, k -> {
       var settings = folder.map(WorkspaceFolderWrapper::getSettings)
         .orElse(settingsManager.getCurrentDefaultFolderSettings());
       if (!settings.hasBinding()) {
         return Optional.empty();
       } else {
         var folderRoot = folder.map(WorkspaceFolderWrapper::getRootPath).orElse(Paths.get(fileUri).getParent());
-        return Optional.ofNullable(computeProjectBinding(settings, folderRoot));
+        var restoredBinding = restoreEvictedBinding(k, settings, folderRoot);
+        return Optional.ofNullable(restoredBinding != null ? restoredBinding : computeProjectBinding(settings, folderRoot));
       }
-    });
+    }));
+  }
+
+  private Optional<ProjectBindingWrapper> touch(Optional<ProjectBindingWrapper> binding) {
+    binding.ifPresent(b -> engineEviction.touch(b.getConnectionId()));
+    return binding;
   }
 
   private Optional<ProjectBindingWrapper> getBindingAndRepublishTaints(Optional<WorkspaceFolderWrapper> folder, URI fileUri) {
@@ -224,15 +333,73 @@ public class ProjectBindingManager implements WorkspaceSettingsChangeListener, W
     engine.syncServerIssues(endpointParamsAndHttpClient.getEndpointParams(), endpointParamsAndHttpClient.getHttpClient(), projectKey, currentBranchName, null);
     engine.syncServerTaintIssues(endpointParamsAndHttpClient.getEndpointParams(), endpointParamsAndHttpClient.getHttpClient(), projectKey, currentBranchName, null);
 
-    var ideFilePaths = FileUtils.allRelativePathsForFilesInTree(folderRoot);
+    var ideFilePaths = filePathIndex.getRelativePaths(folderRoot);
     var projectBinding = engine.calculatePathPrefixes(projectKey, ideFilePaths);
     LOG.debug("Resolved binding {} for folder {}",
       ToStringBuilder.reflectionToString(projectBinding, ToStringStyle.SHORT_PREFIX_STYLE),
       folderRoot);
-    var issueTrackerWrapper = new ServerIssueTrackerWrapper(engine, endpointParamsAndHttpClient, projectBinding, branchProvider);
+    return newProjectBindingWrapper(connectionId, projectBinding, engine, endpointParamsAndHttpClient, branchProvider, folderRoot);
+  }
+
+  /**
+   * The binding of a folder whose engine was stopped by the eviction policy is restored as is with a restarted engine, instead of being
+   * resolved again from the server, unless the binding settings of the folder changed meanwhile.
+   */
+  @CheckForNull
+  private ProjectBindingWrapper restoreEvictedBinding(URI cacheKey, WorkspaceFolderSettings settings, Path folderRoot) {
+    var evictedBinding = evictedBindings.remove(cacheKey);
+    if (evictedBinding == null || !evictedBinding.getConnectionId().equals(settings.getConnectionId())
+      || !evictedBinding.getBinding().projectKey().equals(settings.getProjectKey())) {
+      return null;
+    }
+    var connectionId = evictedBinding.getConnectionId();
+    var endpointParamsAndHttpClient = getServerConfigurationFor(connectionId);
+    if (endpointParamsAndHttpClient == null) {
+      return null;
+    }
+    var engineOpt = getOrCreateConnectedEngine(connectionId);
+    if (engineOpt.isEmpty()) {
+      return null;
+    }
+    var engine = engineOpt.get();
+    var projectKey = evictedBinding.getBinding().projectKey();
+    LOG.debug("Restored binding of folder {} on restarted engine '{}'", folderRoot, connectionId);
+    return newProjectBindingWrapper(connectionId, evictedBinding.getBinding(), engine, endpointParamsAndHttpClient,
+      () -> resolveBranchNameForFolder(folderRoot.toUri(), engine, projectKey), folderRoot);
+  }
+
+  private ProjectBindingWrapper newProjectBindingWrapper(String connectionId, ProjectBinding projectBinding, ConnectedSonarLintEngine engine,
+    EndpointParamsAndHttpClient endpointParamsAndHttpClient, Supplier<String> branchProvider, Path folderRoot) {
+    var issueTrackerWrapper = new ServerIssueTrackerWrapper(engine, endpointParamsAndHttpClient, projectBinding, branchProvider, ServerIssueTrackerWrapper.getMaxCachedFiles(),
+      issueTrackerSpillDirectory.forFolder(folderRoot));
     return new ProjectBindingWrapper(connectionId, projectBinding, engine, issueTrackerWrapper);
   }
 
+  /**
+   * Release the issue tracking data of a closed file, if it was analyzed in connected mode, and forget the binding of the file if
+   * it is outside of workspace folders.
+   */
+  public void didClose(URI fileUri) {
+    if (!uriHasFileScheme(fileUri) || openNotebooksCache.isNotebook(fileUri)) {
+      return;
+    }
+    var folder = foldersManager.findFolderForFile(fileUri);
+    var bindingCache = folder.isPresent() ? folderBindingCache : fileBindingCache;
+    var cacheKey = folder.map(WorkspaceFolderWrapper::getUri).orElse(fileUri);
+    var baseDir = folder.map(WorkspaceFolderWrapper::getRootPath).orElse(Paths.get(fileUri).getParent());
+    bindingCache.getOrDefault(cacheKey, Optional.empty()).ifPresent(binding -> {
+      var issueTracker = binding.getServerIssueTracker();
+      issueTracker.evict(FileUtils.toSonarQubePath(getFileRelativePath(baseDir, fileUri)));
+      LOG.debug("Issue tracking released for '{}', {} tracked file(s), {} tracked issue(s) and {} tracked hotspot(s) remaining for this binding",
+        fileUri, issueTracker.getTrackedFilesCount(), issueTracker.getTrackedIssuesCount(), issueTracker.getTrackedHotspotsCount());
+    });
+    if (folder.isEmpty()) {
+      fileBindingCache.remove(fileUri);
+      previousBindings.remove(fileUri);
+      evictedBindings.remove(fileUri);
+    }
+  }
+
   @CheckForNull
   public EndpointParamsAndHttpClient getServerConfigurationFor(@Nullable String connectionId) {
     return Optional.ofNullable(getServerConnectionSettingsFor(connectionId))
@@ -269,10 +436,51 @@ public class ProjectBindingManager implements WorkspaceSettingsChangeListener, W
       LOG.error("Error starting connected SonarLint engine for '" + connectionId + "'", e);
       return null;
     }
+    engineEviction.touch(connectionId);
+    engineEviction.start(this::stopIdleEngines, this::stopEnginesUnderMemoryPressure);
     subscribeForServerEvents(connectionId, engine);
     return engine;
   }
 
+  // Visible for testing
+  void stopIdleEngines() {
+    engineEviction.evictIdle(Set.copyOf(connectedEngineCacheByConnectionId.keySet()), connectionId -> {
+      LOG.debug("Stopping connected engine '{}', not used for analysis recently", connectionId);
+      evictEngine(connectionId);
+    });
+  }
+
+  // Visible for testing
+  void stopEnginesUnderMemoryPressure() {
+    engineEviction.evictUnderMemoryPressure(Set.copyOf(connectedEngineCacheByConnectionId.keySet()), connectionId -> {
+      LOG.debug("Stopping connected engine '{}' to release memory", connectionId);
+      evictEngine(connectionId);
+    });
+  }
+
+  private void evictEngine(String connectionId) {
+    var bindingsToRestore = new HashMap<URI, ProjectBindingWrapper>();
+    getResolvedBindings().forEach((uri, binding) -> {
+      if (binding.getConnectionId().equals(connectionId)) {
+        bindingsToRestore.put(uri, binding);
+      }
+    });
+    clearCachesAndStopEngine(connectionId);
+    evictedBindings.putAll(bindingsToRestore);
+  }
+
+  /**
+   * The engine of the connection is used by an analysis or a synchronization, and must not be stopped for being idle or to release
+   * memory until {@link #releaseConnectedEngine(String)} is called.
+   */
+  public void acquireConnectedEngine(String connectionId) {
+    engineEviction.acquire(connectionId);
+  }
+
+  public void releaseConnectedEngine(String connectionId) {
+    engineEviction.release(connectionId);
+  }
+
   public boolean usesConnectedMode() {
     return Stream.concat(folderBindingCache.values().stream(), fileBindingCache.values().stream()).anyMatch(Optional::isPresent);
   }
@@ -295,6 +503,10 @@ public class ProjectBindingManager implements WorkspaceSettingsChangeListener, W
   @Override
   public void onChange(@Nullable WorkspaceFolderWrapper folder, @Nullable WorkspaceFolderSettings oldValue, WorkspaceFolderSettings newValue) {
     if (oldValue == null) {
+      // First settings of the folder, the binding is ready sooner if resolved before the first analysis needs it
+      if (folder != null && newValue.hasBinding()) {
+        resolveBindingInBackground(Optional.of(folder), folder.getUri());
+      }
       return;
     }
     if (oldValue.hasBinding() && !newValue.hasBinding()) {
@@ -303,6 +515,7 @@ public class ProjectBindingManager implements WorkspaceSettingsChangeListener, W
       && (!Objects.equals(oldValue.getConnectionId(), newValue.getConnectionId()) || !Objects.equals(oldValue.getProjectKey(), newValue.getProjectKey()))) {
       forceRebindDuringNextAnalysis(folder);
       if (folder == null) return;
+      resolveBindingInBackground(Optional.of(folder), folder.getUri());
       var bindingConfigurationDto = new BindingConfigurationDto(newValue.getConnectionId(), newValue.getProjectKey(), false);
       var params = new DidUpdateBindingParams(folder.getUri().toString(), bindingConfigurationDto);
       backendServiceFacade.getBackendService().updateBinding(params);
@@ -365,8 +578,10 @@ public class ProjectBindingManager implements WorkspaceSettingsChangeListener, W
   private void subscribeForServerEvents(String connectionId, ConnectedSonarLintEngine engine) {
     var configuration = getServerConfigurationFor(connectionId);
     if (configuration != null) {
-      engine.subscribeForEvents(configuration.getEndpointParams(), configuration.getHttpClient(),
-        getProjectKeysBoundTo(connectionId), serverSentEventsHandler::handleEvents, globalLogOutput);
+      serverEventSubscriptions.subscribe(connectionId, getProjectKeysBoundTo(connectionId),
+        projectKeys -> engine.subscribeForEvents(configuration.getEndpointParams(), configuration.getHttpClient(), projectKeys,
+          serverSentEventsHandler::handleEvents, globalLogOutput),
+        () -> subscribeForServerEvents(connectionId));
     }
   }
 
@@ -400,8 +615,12 @@ public class ProjectBindingManager implements WorkspaceSettingsChangeListener, W
   }
 
   private void clearCachesAndStopEngine(String connectionId) {
+    previousBindings.entrySet().removeIf(e -> e.getValue().getConnectionId().equals(connectionId));
+    evictedBindings.entrySet().removeIf(e -> e.getValue().getConnectionId().equals(connectionId));
     folderBindingCache.entrySet().removeIf(e -> e.getValue().isPresent() && e.getValue().get().getConnectionId().equals(connectionId));
     fileBindingCache.entrySet().removeIf(e -> e.getValue().isPresent() && e.getValue().get().getConnectionId().equals(connectionId));
+    serverEventSubscriptions.forget(connectionId);
+    engineEviction.forget(connectionId);
     if (connectedEngineCacheByConnectionId.containsKey(connectionId)) {
       tryStopServer(connectionId, connectedEngineCacheByConnectionId.remove(connectionId));
     }
@@ -421,11 +640,13 @@ public class ProjectBindingManager implements WorkspaceSettingsChangeListener, W
     if (oldValue == null) {
       return;
     }
+    var changedConnectionIds = new HashSet<String>();
     newValue.getServerConnections().forEach((id, value) -> {
       var oldConnection = oldValue.getServerConnections().get(id);
       if (oldConnection != null && !oldConnection.equals(value)) {
         // Settings of the connection have been changed. Remove all cached bindings and force close the engine
         clearCachesAndStopEngine(id);
+        changedConnectionIds.add(id);
       }
       if (oldConnection == null || !oldConnection.equals(value)) {
         // New connection or changed settings. Validate connection
@@ -433,6 +654,27 @@ public class ProjectBindingManager implements WorkspaceSettingsChangeListener, W
       }
     });
     stopUnusedEngines();
+    forEachBoundFolder((folder, folderSettings) -> {
+      if (folder != null && changedConnectionIds.contains(folderSettings.getConnectionId())) {
+        resolveBindingInBackground(Optional.of(folder), folder.getUri());
+      }
+    });
+  }
+
+  /**
+   * Settings of an added folder are fetched in the background, its binding is resolved as soon as they are known.
+   */
+  @Override
+  public void added(WorkspaceFolderWrapper addedFolder) {
+    bindingResolutionExecutor.execute(() -> {
+      try {
+        if (addedFolder.getSettings().hasBinding()) {
+          resolveBindingInBackground(Optional.of(addedFolder), addedFolder.getUri());
+        }
+      } catch (IllegalStateException e) {
+        LOG.debug("Unable to resolve binding of added folder '{}', settings are not known", addedFolder.getUri());
+      }
+    });
   }
 
   void validateConnection(String id) {
@@ -445,7 +687,11 @@ public class ProjectBindingManager implements WorkspaceSettingsChangeListener, W
   }
 
   public void shutdown() {
+    Utils.shutdownAndAwait(bindingResolutionExecutor, true);
+    serverEventSubscriptions.shutdown();
+    engineEviction.shutdown();
     connectedEngineCacheByConnectionId.forEach(ProjectBindingManager::tryStopServer);
+    issueTrackerSpillDirectory.shutdown();
   }
 
   private static void tryStopServer(String connectionId, Optional<ConnectedSonarLintEngine> engine) {
@@ -465,6 +711,10 @@ public class ProjectBindingManager implements WorkspaceSettingsChangeListener, W
     // Start and update all engines that used in a folder binding, even if not yet started
     forEachBoundFolder((folder, folderSettings) -> {
       var connectionId = requireNonNull(folderSettings.getConnectionId());
+      if (engineEviction.isEvicted(connectionId)) {
+        // Stopped for being idle, will be started and updated by the next analysis
+        return;
+      }
       var projectKey = requireNonNull(folderSettings.getProjectKey());
       getOrCreateConnectedEngine(connectionId).ifPresent(engine -> projectKeyByConnectionIdsToUpdate.computeIfAbsent(connectionId, id -> new HashMap<>())
         .computeIfAbsent(projectKey, k -> new HashSet<>())
@@ -473,6 +723,16 @@ public class ProjectBindingManager implements WorkspaceSettingsChangeListener, W
     return projectKeyByConnectionIdsToUpdate;
   }
 
+  /**
+   * Bindings resolved so far, by workspace folder or by file outside of workspace folders
+   */
+  public Map<URI, ProjectBindingWrapper> getResolvedBindings() {
+    var bindings = new HashMap<URI, ProjectBindingWrapper>();
+    folderBindingCache.forEach((uri, binding) -> binding.ifPresent(b -> bindings.put(uri, b)));
+    fileBindingCache.forEach((uri, binding) -> binding.ifPresent(b -> bindings.put(uri, b)));
+    return bindings;
+  }
+
   public void forEachBoundFolder(BiConsumer<WorkspaceFolderWrapper, WorkspaceFolderSettings> boundFolderConsumer) {
     var defaultFolderSettings = settingsManager.getCurrentDefaultFolderSettings();
     if (defaultFolderSettings.hasBinding()) {
@@ -555,20 +815,13 @@ public class ProjectBindingManager implements WorkspaceSettingsChangeListener, W
   public Optional<URI> serverPathToFileUri(String serverPath) {
     return folderBindingCache.entrySet().stream()
       .filter(e -> e.getValue().isPresent())
-      .map(e -> tryResolveLocalFile(serverPath, e.getKey(), e.getValue().get()))
+      .map(e -> serverPathResolutionCache.resolve(e.getKey(), e.getValue().get(), serverPath))
       .flatMap(Optional::stream)
-      .map(File::toPath)
-      .map(Path::toUri)
       .findFirst();
   }
 
-  private static Optional<File> tryResolveLocalFile(String serverPath, URI folderUri, ProjectBindingWrapper binding) {
-    return binding.getBinding()
-      .serverPathToIdePath(serverPath)
-      // Try to resolve local path in matching folder
-      .map(Paths.get(folderUri)::resolve)
-      .map(Path::toFile)
-      .filter(File::exists);
+  public void didChangeWatchedFiles(List<FileEvent> changes) {
+    serverPathResolutionCache.didChangeWatchedFiles(changes);
   }
 
   public void setBranchResolver(Function<URI, Optional<String>> getReferenceBranchNameForFolder) {
@@ -576,7 +829,7 @@ public class ProjectBindingManager implements WorkspaceSettingsChangeListener, W
   }
 
   public String resolveBranchNameForFolder(@Nullable URI folder, ConnectedSonarLintEngine engine, String projectKey) {
-    return branchNameForFolderSupplier.apply(folder).orElse(engine.getServerBranches(projectKey).getMainBranchName());
+    return branchNameForFolderSupplier.apply(folder).orElseGet(() -> engine.getServerBranches(projectKey).getMainBranchName());
   }
 
   public Map<String, String> getRemoteProjects(@Nullable String maybeConnectionId) {
@@ -0,0 +1,141 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
+import org.sonarsource.sonarlint.ls.util.Utils;
+
+/**
+ * Keeps track of the project keys each connection's server-sent events stream was opened for. The push API takes the project
+ * keys as part of the request, so changing them means reopening the stream: this is only done when the set of keys bound to the
+ * connection actually changed, and workspace churn that leaves the set untouched keeps the current stream open. Failed
+ * subscriptions are retried with an exponential backoff.
+ */
+class ServerEventSubscriptions {
+
+  private static final SonarLintLogger LOG = SonarLintLogger.get();
+  static final int MAX_RETRIES = 8;
+
+  private final Map<String, Set<String>> subscribedProjectKeysByConnectionId = new ConcurrentHashMap<>();
+  private final Map<String, Integer> failedAttemptsByConnectionId = new ConcurrentHashMap<>();
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+  @CheckForNull
+  private ScheduledExecutorService retryExecutor;
+
+  ServerEventSubscriptions() {
+    this(null, initialBackoffFromEnv(), Duration.ofSeconds(30));
+  }
+
+  // Visible for testing
+  ServerEventSubscriptions(@Nullable ScheduledExecutorService retryExecutor, Duration initialBackoff, Duration maxBackoff) {
+    this.retryExecutor = retryExecutor;
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+  }
+
+  private static Duration initialBackoffFromEnv() {
+    return Duration.ofMillis(Long.parseLong(StringUtils.defaultIfBlank(System.getenv("SONARLINT_INTERNAL_SSE_RECONNECT_BACKOFF_MS"), "500")));
+  }
+
+  /**
+   * @param subscriber opens the stream for the given project keys, replacing any previous stream of the connection
+   * @param retry re-evaluates the subscription of the connection, invoked after a backoff when the subscriber failed
+   * @return true if the subscriber was invoked
+   */
+  boolean subscribe(String connectionId, Set<String> projectKeys, Consumer<Set<String>> subscriber, Runnable retry) {
+    var keys = Set.copyOf(projectKeys);
+    var subscribed = new AtomicBoolean();
+    var failure = new AtomicReference<RuntimeException>();
+    // Subscriptions of the same connection are serialized, so that two callers can't both open a stream for the same keys
+    subscribedProjectKeysByConnectionId.compute(connectionId, (id, subscribedKeys) -> {
+      if (keys.equals(subscribedKeys)) {
+        return subscribedKeys;
+      }
+      subscribed.set(true);
+      try {
+        subscriber.accept(keys);
+        failedAttemptsByConnectionId.remove(connectionId);
+        return keys;
+      } catch (RuntimeException e) {
+        failure.set(e);
+        return null;
+      }
+    });
+    if (!subscribed.get()) {
+      LOG.debug("Server events subscription of connection '{}' is up to date", connectionId);
+    } else if (failure.get() != null) {
+      scheduleRetry(connectionId, retry, failure.get());
+    }
+    return subscribed.get();
+  }
+
+  private synchronized void scheduleRetry(String connectionId, Runnable retry, RuntimeException cause) {
+    int attempt = failedAttemptsByConnectionId.merge(connectionId, 1, Integer::sum);
+    if (attempt > MAX_RETRIES) {
+      LOG.error("Unable to subscribe to server events of connection '" + connectionId + "'", cause);
+      failedAttemptsByConnectionId.remove(connectionId);
+      return;
+    }
+    var delay = backoff(attempt);
+    LOG.warn("Unable to subscribe to server events of connection '{}', retrying in {} ms", connectionId, delay.toMillis());
+    if (retryExecutor == null) {
+      retryExecutor = Executors.newSingleThreadScheduledExecutor(Utils.threadFactory("SonarLint server events subscription", true));
+    }
+    retryExecutor.schedule(() -> {
+      if (failedAttemptsByConnectionId.containsKey(connectionId)) {
+        retry.run();
+      }
+    }, delay.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  // Visible for testing
+  Duration backoff(int attempt) {
+    var millis = initialBackoff.toMillis() << Math.min(attempt - 1, 20);
+    return millis <= 0 || millis > maxBackoff.toMillis() ? maxBackoff : Duration.ofMillis(millis);
+  }
+
+  /**
+   * The stream of the connection was closed (engine stopped or connection settings changed), next subscription must reopen it.
+   */
+  void forget(String connectionId) {
+    subscribedProjectKeysByConnectionId.remove(connectionId);
+    failedAttemptsByConnectionId.remove(connectionId);
+  }
+
+  synchronized void shutdown() {
+    if (retryExecutor != null) {
+      Utils.shutdownAndAwait(retryExecutor, true);
+    }
+  }
+}
@@ -19,72 +19,215 @@
  */
 package org.sonarsource.sonarlint.ls.connected;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.StringUtils;
 import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue;
 import org.sonarsource.sonarlint.core.client.api.common.analysis.IssueListener;
 import org.sonarsource.sonarlint.core.client.api.connected.ConnectedSonarLintEngine;
 import org.sonarsource.sonarlint.core.commons.RuleType;
+import org.sonarsource.sonarlint.core.commons.Version;
+import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
 import org.sonarsource.sonarlint.core.issuetracking.CachingIssueTracker;
-import org.sonarsource.sonarlint.core.issuetracking.InMemoryIssueTrackerCache;
-import org.sonarsource.sonarlint.core.issuetracking.IssueTrackerCache;
 import org.sonarsource.sonarlint.core.issuetracking.Trackable;
+import org.sonarsource.sonarlint.core.serverapi.ServerApi;
+import org.sonarsource.sonarlint.core.serverapi.issue.IssueApi;
 import org.sonarsource.sonarlint.core.serverconnection.ProjectBinding;
+import org.sonarsource.sonarlint.core.serverconnection.issues.ServerIssue;
 import org.sonarsource.sonarlint.core.tracking.IssueTrackable;
+import org.sonarsource.sonarlint.core.tracking.ServerHotspotTrackable;
+import org.sonarsource.sonarlint.core.tracking.ServerIssueTrackable;
 import org.sonarsource.sonarlint.ls.settings.ServerConnectionSettings;
 
 import static java.util.function.Predicate.not;
 
 public class ServerIssueTrackerWrapper {
 
+  private static final SonarLintLogger LOG = SonarLintLogger.get();
+
   private final ConnectedSonarLintEngine engine;
   private final ServerConnectionSettings.EndpointParamsAndHttpClient endpointParamsAndHttpClient;
   private final ProjectBinding projectBinding;
   private final Supplier<String> getReferenceBranchNameForFolder;
 
-  private final IssueTrackerCache<Issue> issueTrackerCache;
-  private final IssueTrackerCache<Issue> hotspotsTrackerCache;
+  private final BoundedIssueTrackerCache<Issue> issueTrackerCache;
+  private final BoundedIssueTrackerCache<Issue> hotspotsTrackerCache;
   private final CachingIssueTracker cachingIssueTracker;
   private final CachingIssueTracker cachingHotspotsTracker;
   private final org.sonarsource.sonarlint.core.tracking.ServerIssueTracker tracker;
+  private final Supplier<String> serverVersionSupplier;
+  private final FileIssuesDownloader fileIssuesDownloader;
+  /**
+   * Modules of a binding can be analyzed concurrently. Their tracking is serialized with this lock, as a file must not be evicted from
+   * the caches while a batch is being tracked.
+   */
+  private final Object trackingLock = new Object();
+  @Nullable
+  private Boolean issuePullSupported;
 
   ServerIssueTrackerWrapper(ConnectedSonarLintEngine engine, ServerConnectionSettings.EndpointParamsAndHttpClient endpointParamsAndHttpClient,
     ProjectBinding projectBinding, Supplier<String> getReferenceBranchNameForFolder) {
+    this(engine, endpointParamsAndHttpClient, projectBinding, getReferenceBranchNameForFolder, getMaxCachedFiles(), null);
+  }
+
+  ServerIssueTrackerWrapper(ConnectedSonarLintEngine engine, ServerConnectionSettings.EndpointParamsAndHttpClient endpointParamsAndHttpClient,
+    ProjectBinding projectBinding, Supplier<String> getReferenceBranchNameForFolder, int maxCachedFiles, @Nullable Path spillDir) {
+    this(engine, endpointParamsAndHttpClient, projectBinding, getReferenceBranchNameForFolder, maxCachedFiles, spillDir,
+      () -> new ServerApi(endpointParamsAndHttpClient.getEndpointParams(), endpointParamsAndHttpClient.getHttpClient()).system().getStatusSync().getVersion(),
+      new FileIssuesDownloader());
+  }
+
+  // Visible for testing
+  ServerIssueTrackerWrapper(ConnectedSonarLintEngine engine, ServerConnectionSettings.EndpointParamsAndHttpClient endpointParamsAndHttpClient,
+    ProjectBinding projectBinding, Supplier<String> getReferenceBranchNameForFolder, int maxCachedFiles, @Nullable Path spillDir,
+    Supplier<String> serverVersionSupplier, FileIssuesDownloader fileIssuesDownloader) {
     this.engine = engine;
+    this.serverVersionSupplier = serverVersionSupplier;
+    this.fileIssuesDownloader = fileIssuesDownloader;
     this.endpointParamsAndHttpClient = endpointParamsAndHttpClient;
     this.projectBinding = projectBinding;
     this.getReferenceBranchNameForFolder = getReferenceBranchNameForFolder;
 
-    this.issueTrackerCache = new InMemoryIssueTrackerCache();
-    this.hotspotsTrackerCache = new InMemoryIssueTrackerCache();
+    this.issueTrackerCache = new BoundedIssueTrackerCache<>(maxCachedFiles, spillDir == null ? null : new JsonTrackableIssueStore<>(spillDir.resolve("issues")));
+    this.hotspotsTrackerCache = new BoundedIssueTrackerCache<>(maxCachedFiles, spillDir == null ? null : new JsonTrackableIssueStore<>(spillDir.resolve("hotspots")));
     this.cachingIssueTracker = new CachingIssueTracker(issueTrackerCache);
     this.cachingHotspotsTracker = new CachingIssueTracker(hotspotsTrackerCache);
     this.tracker = new org.sonarsource.sonarlint.core.tracking.ServerIssueTracker(cachingIssueTracker, cachingHotspotsTracker);
   }
 
+  static int getMaxCachedFiles() {
+    return Integer.parseInt(StringUtils.defaultIfBlank(System.getenv("SONARLINT_INTERNAL_ISSUE_TRACKER_CACHE_SIZE"), "500"));
+  }
+
   public void matchAndTrack(String filePath, Collection<Issue> issues, IssueListener issueListener, boolean shouldFetchServerIssues) {
-    if (issues.isEmpty()) {
-      issueTrackerCache.put(filePath, Collections.emptyList());
+    synchronized (trackingLock) {
+      matchAndTrack(Map.of(filePath, issues), issueListener, shouldFetchServerIssues);
+    }
+  }
+
+  /**
+   * Track issues of several files at once. When server issues have to be fetched and the server does not support issue pull, they are
+   * downloaded for all files with a single search request instead of one request per file, then matched in memory.
+   */
+  public void matchAndTrack(Map<String, ? extends Collection<Issue>> issuesByFilePath, IssueListener issueListener, boolean shouldFetchServerIssues) {
+    synchronized (trackingLock) {
+      issueTrackerCache.startBatch();
+      hotspotsTrackerCache.startBatch();
+      try {
+        doMatchAndTrack(issuesByFilePath, issueListener, shouldFetchServerIssues);
+      } finally {
+        issueTrackerCache.endBatch();
+        hotspotsTrackerCache.endBatch();
+      }
+    }
+  }
+
+  private void doMatchAndTrack(Map<String, ? extends Collection<Issue>> issuesByFilePath, IssueListener issueListener, boolean shouldFetchServerIssues) {
+    var filePathsWithIssues = new ArrayList<String>();
+    issuesByFilePath.forEach((filePath, issues) -> {
+      if (issues.isEmpty()) {
+        issueTrackerCache.put(filePath, Collections.emptyList());
+      } else {
+        cachingIssueTracker.matchAndTrackAsNew(filePath, toIssueTrackables(issues));
+        cachingHotspotsTracker.matchAndTrackAsNew(filePath, toHotspotTrackables(issues));
+        filePathsWithIssues.add(filePath);
+      }
+    });
+    if (filePathsWithIssues.isEmpty()) {
       return;
     }
 
-    cachingIssueTracker.matchAndTrackAsNew(filePath, toIssueTrackables(issues));
-    cachingHotspotsTracker.matchAndTrackAsNew(filePath, toHotspotTrackables(issues));
-    if (shouldFetchServerIssues) {
-      tracker.update(endpointParamsAndHttpClient.getEndpointParams(), endpointParamsAndHttpClient.getHttpClient(), engine, projectBinding,
-        Collections.singleton(filePath), getReferenceBranchNameForFolder.get());
+    var branchName = getReferenceBranchNameForFolder.get();
+    if (shouldFetchServerIssues && !isIssuePullSupported()) {
+      trackWithDownloadedServerIssues(filePathsWithIssues, branchName);
     } else {
-      tracker.update(engine, projectBinding, getReferenceBranchNameForFolder.get(), Collections.singleton(filePath));
+      // With issue pull, the storage is kept up to date by the synchronization, there is nothing to download for single files
+      tracker.update(engine, projectBinding, branchName, filePathsWithIssues);
     }
 
-    issueTrackerCache.getLiveOrFail(filePath).stream()
-      .filter(not(Trackable::isResolved))
-      .forEach(trackable -> issueListener.handle(new DelegatingIssue(trackable)));
-    hotspotsTrackerCache.getLiveOrFail(filePath).stream()
-      .filter(not(Trackable::isResolved))
-      .forEach(trackable -> issueListener.handle(new DelegatingIssue(trackable)));
+    filePathsWithIssues.forEach(filePath -> {
+      issueTrackerCache.getLiveOrFail(filePath).stream()
+        .filter(not(Trackable::isResolved))
+        .forEach(trackable -> issueListener.handle(new DelegatingIssue(trackable)));
+      hotspotsTrackerCache.getLiveOrFail(filePath).stream()
+        .filter(not(Trackable::isResolved))
+        .forEach(trackable -> issueListener.handle(new DelegatingIssue(trackable)));
+    });
+  }
+
+  /**
+   * Without issue pull, the storage of a branch is not updated by a project level sync, issues of analyzed files must be downloaded.
+   * The server version is only requested once, unless it fails.
+   */
+  private boolean isIssuePullSupported() {
+    if (issuePullSupported == null) {
+      var endpointParams = endpointParamsAndHttpClient.getEndpointParams();
+      try {
+        issuePullSupported = !endpointParams.isSonarCloud() && IssueApi.supportIssuePull(false, Version.create(serverVersionSupplier.get()));
+      } catch (Exception e) {
+        LOG.debug("Unable to check if server supports issue pull, downloading server issues of analyzed files");
+        return false;
+      }
+    }
+    return issuePullSupported;
+  }
+
+  /**
+   * Security hotspots are not tracked by servers without issue pull, they are only read from the storage.
+   */
+  private void trackWithDownloadedServerIssues(Collection<String> filePaths, String branchName) {
+    Map<String, List<ServerIssue>> serverIssuesByFilePath;
+    try {
+      serverIssuesByFilePath = fileIssuesDownloader.downloadIssuesOfFiles(endpointParamsAndHttpClient, projectBinding, filePaths, branchName);
+    } catch (Exception e) {
+      LOG.error("Unable to fetch server issues of " + filePaths.size() + " file(s) on branch '" + branchName + "'", e);
+      tracker.update(engine, projectBinding, branchName, filePaths);
+      return;
+    }
+    filePaths.forEach(filePath -> {
+      cachingIssueTracker.matchAndTrackAsBase(filePath, serverIssuesByFilePath.getOrDefault(filePath, List.of()).stream()
+        .<Trackable>map(ServerIssueTrackable::new).collect(Collectors.toList()));
+      cachingHotspotsTracker.matchAndTrackAsBase(filePath, engine.getServerHotspots(projectBinding, branchName, filePath).stream()
+        .<Trackable>map(ServerHotspotTrackable::new).collect(Collectors.toList()));
+    });
+  }
+
+  /**
+   * Release the tracking data of a file, typically when it is closed. It is kept on disk when spilling is enabled.
+   */
+  public void evict(String filePath) {
+    synchronized (trackingLock) {
+      issueTrackerCache.evict(filePath);
+      hotspotsTrackerCache.evict(filePath);
+    }
+  }
+
+  /**
+   * Number of distinct files whose issues or hotspots are tracked in memory
+   */
+  public int getTrackedFilesCount() {
+    var files = issueTrackerCache.files();
+    files.addAll(hotspotsTrackerCache.files());
+    return files.size();
+  }
+
+  public int getTrackedIssuesCount() {
+    return issueTrackerCache.trackableCount();
+  }
+
+  public int getTrackedHotspotsCount() {
+    return hotspotsTrackerCache.trackableCount();
+  }
+
+  public int getMaxTrackedFiles() {
+    return issueTrackerCache.getMaxEntries();
   }
 
   private static Collection<Trackable> toIssueTrackables(Collection<Issue> issues) {
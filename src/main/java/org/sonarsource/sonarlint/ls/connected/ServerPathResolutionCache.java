@@ -0,0 +1,97 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.lsp4j.FileChangeType;
+import org.eclipse.lsp4j.FileEvent;
+
+import static org.sonarsource.sonarlint.ls.util.Utils.uriHasFileScheme;
+
+/**
+ * Remembers how server paths were resolved to local files for each bound folder, so that resolving the locations of taint
+ * vulnerabilities or server events does not probe the file system every time. Entries of a folder are dropped when its binding
+ * changes, and are kept consistent with file system events (a deleted file or directory can no longer be a resolution).
+ * Misses are not remembered: watched file events may not be sent by every client, and a missing file can appear at any time.
+ */
+class ServerPathResolutionCache {
+
+  static final int MAX_ENTRIES_PER_FOLDER = 10_000;
+
+  private final Map<URI, FolderEntries> entriesByFolder = new ConcurrentHashMap<>();
+
+  Optional<URI> resolve(URI folderUri, ProjectBindingWrapper binding, String serverPath) {
+    var folderEntries = entriesByFolder.compute(folderUri, (uri, existing) -> existing != null && existing.binding == binding ? existing : new FolderEntries(binding));
+    if (folderEntries.resolvedByServerPath.size() >= MAX_ENTRIES_PER_FOLDER) {
+      folderEntries.resolvedByServerPath.clear();
+    }
+    return Optional.ofNullable(folderEntries.resolvedByServerPath.computeIfAbsent(serverPath, p -> tryResolveLocalFile(p, folderUri, binding).orElse(null)));
+  }
+
+  private static Optional<URI> tryResolveLocalFile(String serverPath, URI folderUri, ProjectBindingWrapper binding) {
+    return binding.getBinding()
+      .serverPathToIdePath(serverPath)
+      // Try to resolve local path in matching folder
+      .map(Paths.get(folderUri)::resolve)
+      .filter(Files::exists)
+      .map(Path::toUri);
+  }
+
+  void didChangeWatchedFiles(List<FileEvent> changes) {
+    if (entriesByFolder.isEmpty()) {
+      return;
+    }
+    changes.forEach(change -> {
+      var fileUri = URI.create(change.getUri());
+      if (!uriHasFileScheme(fileUri)) {
+        return;
+      }
+      var file = Paths.get(fileUri);
+      entriesByFolder.forEach((folderUri, folderEntries) -> {
+        if (!file.startsWith(Paths.get(folderUri))) {
+          return;
+        }
+        if (change.getType() == FileChangeType.Deleted) {
+          folderEntries.resolvedByServerPath.values().removeIf(resolved -> Paths.get(resolved).startsWith(file));
+        }
+      });
+    });
+  }
+
+  void clear() {
+    entriesByFolder.clear();
+  }
+
+  private static class FolderEntries {
+    private final ProjectBindingWrapper binding;
+    private final Map<String, URI> resolvedByServerPath = new ConcurrentHashMap<>();
+
+    private FolderEntries(ProjectBindingWrapper binding) {
+      this.binding = binding;
+    }
+  }
+}
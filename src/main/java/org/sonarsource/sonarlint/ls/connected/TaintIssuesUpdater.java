@@ -21,12 +21,19 @@ package org.sonarsource.sonarlint.ls.connected;
 
 import java.net.URI;
 import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import org.apache.commons.lang3.StringUtils;
 import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
 import org.sonarsource.sonarlint.ls.DiagnosticPublisher;
 import org.sonarsource.sonarlint.ls.connected.domain.TaintIssue;
 import org.sonarsource.sonarlint.ls.folders.WorkspaceFoldersManager;
+import org.sonarsource.sonarlint.ls.settings.ServerConnectionSettings;
 import org.sonarsource.sonarlint.ls.settings.SettingsManager;
 import org.sonarsource.sonarlint.ls.util.FileUtils;
 import org.sonarsource.sonarlint.ls.util.Utils;
@@ -43,15 +50,25 @@ public class TaintIssuesUpdater {
   private final SettingsManager settingsManager;
   private final DiagnosticPublisher diagnosticPublisher;
   private final ExecutorService asyncExecutor;
+  private final Duration projectSyncWindow;
+  private final Clock clock;
+  private final Map<String, Instant> lastProjectSyncByBranch = new ConcurrentHashMap<>();
 
   public TaintIssuesUpdater(ProjectBindingManager bindingManager, TaintVulnerabilitiesCache taintVulnerabilitiesCache,
     WorkspaceFoldersManager workspaceFoldersManager, SettingsManager settingsManager, DiagnosticPublisher diagnosticPublisher) {
     this(bindingManager, taintVulnerabilitiesCache, workspaceFoldersManager, settingsManager, diagnosticPublisher,
-      Executors.newSingleThreadExecutor(Utils.threadFactory("SonarLint Language Server Analysis Scheduler", false)));
+      Executors.newSingleThreadExecutor(Utils.blockingIoThreadFactory("SonarLint taint vulnerabilities updater", false)));
   }
 
   TaintIssuesUpdater(ProjectBindingManager bindingManager, TaintVulnerabilitiesCache taintVulnerabilitiesCache, WorkspaceFoldersManager workspaceFoldersManager,
     SettingsManager settingsManager, DiagnosticPublisher diagnosticPublisher, ExecutorService asyncExecutor) {
+    this(bindingManager, taintVulnerabilitiesCache, workspaceFoldersManager, settingsManager, diagnosticPublisher, asyncExecutor, getProjectSyncWindow(), Clock.systemUTC());
+  }
+
+  TaintIssuesUpdater(ProjectBindingManager bindingManager, TaintVulnerabilitiesCache taintVulnerabilitiesCache, WorkspaceFoldersManager workspaceFoldersManager,
+    SettingsManager settingsManager, DiagnosticPublisher diagnosticPublisher, ExecutorService asyncExecutor, Duration projectSyncWindow, Clock clock) {
+    this.projectSyncWindow = projectSyncWindow;
+    this.clock = clock;
     this.taintVulnerabilitiesCache = taintVulnerabilitiesCache;
     this.workspaceFoldersManager = workspaceFoldersManager;
     this.settingsManager = settingsManager;
@@ -60,6 +77,10 @@ public class TaintIssuesUpdater {
     this.asyncExecutor = asyncExecutor;
   }
 
+  private static Duration getProjectSyncWindow() {
+    return Duration.ofSeconds(Long.parseLong(StringUtils.defaultIfBlank(System.getenv("SONARLINT_INTERNAL_TAINT_SYNC_WINDOW"), "60")));
+  }
+
   public void updateTaintIssuesAsync(URI fileUri) {
     asyncExecutor.submit(() -> updateTaintIssues(fileUri));
   }
@@ -77,15 +98,22 @@ public class TaintIssuesUpdater {
     var bindingWrapper = bindingWrapperOptional.get();
     var folderUri = folderForFile.get().getUri();
 
+    bindingManager.acquireConnectedEngine(bindingWrapper.getConnectionId());
+    try {
+      updateTaintIssues(fileUri, bindingWrapper, folderUri);
+    } finally {
+      bindingManager.releaseConnectedEngine(bindingWrapper.getConnectionId());
+    }
+  }
+
+  private void updateTaintIssues(URI fileUri, ProjectBindingWrapper bindingWrapper, URI folderUri) {
     var binding = bindingWrapper.getBinding();
     var engine = bindingWrapper.getEngine();
     var branchName = bindingManager.resolveBranchNameForFolder(folderUri, engine, binding.projectKey());
     var connectionSettings = settingsManager.getCurrentSettings().getServerConnections().get(bindingWrapper.getConnectionId());
     var serverConfiguration = connectionSettings.getServerConfiguration();
 
-    // sync taints
-    engine.syncServerTaintIssues(serverConfiguration.getEndpointParams(),
-      serverConfiguration.getHttpClient(), binding.projectKey(), branchName, null);
+    syncProjectTaintsIfNeeded(bindingWrapper, serverConfiguration, branchName);
 
     // download taints
     var sqFilePath = FileUtils.toSonarQubePath(FileUtils.getFileRelativePath(Paths.get(folderUri), fileUri));
@@ -104,6 +132,24 @@ public class TaintIssuesUpdater {
     diagnosticPublisher.publishDiagnostics(fileUri);
   }
 
+  /**
+   * Opening many files at once would trigger as many project-level synchronizations, only the first one within the window is done.
+   * Other files are served from the local storage.
+   */
+  private void syncProjectTaintsIfNeeded(ProjectBindingWrapper bindingWrapper, ServerConnectionSettings.EndpointParamsAndHttpClient serverConfiguration, String branchName) {
+    var projectKey = bindingWrapper.getBinding().projectKey();
+    var syncKey = bindingWrapper.getConnectionId() + "|" + projectKey + "|" + branchName;
+    var now = clock.instant();
+    var lastSync = lastProjectSyncByBranch.get(syncKey);
+    if (lastSync != null && now.isBefore(lastSync.plus(projectSyncWindow))) {
+      LOG.debug("Taint vulnerabilities of project '{}' on branch '{}' were synchronized recently, using local storage", projectKey, branchName);
+      return;
+    }
+    bindingWrapper.getEngine().syncServerTaintIssues(serverConfiguration.getEndpointParams(),
+      serverConfiguration.getHttpClient(), projectKey, branchName, null);
+    lastProjectSyncByBranch.put(syncKey, now);
+  }
+
   public void shutdown() {
     Utils.shutdownAndAwait(asyncExecutor, true);
   }
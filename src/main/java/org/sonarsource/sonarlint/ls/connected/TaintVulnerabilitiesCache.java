@@ -23,9 +23,11 @@ import java.net.URI;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.eclipse.lsp4j.Diagnostic;
 import org.sonarsource.sonarlint.ls.AnalysisScheduler;
@@ -38,13 +40,17 @@ import static org.sonarsource.sonarlint.ls.util.Utils.buildMessageWithPluralized
 public class TaintVulnerabilitiesCache {
 
   private final Map<URI, List<TaintIssue>> taintVulnerabilitiesPerFile = new ConcurrentHashMap<>();
+  private final Map<String, URI> fileUriByIssueKey = new ConcurrentHashMap<>();
 
   public void didClose(URI fileUri) {
     clear(fileUri);
   }
 
   public void clear(URI fileUri) {
-    taintVulnerabilitiesPerFile.remove(fileUri);
+    var removed = taintVulnerabilitiesPerFile.remove(fileUri);
+    if (removed != null) {
+      unindex(fileUri, removed);
+    }
   }
 
   public Optional<TaintIssue> getTaintVulnerabilityForDiagnostic(URI fileUri, Diagnostic d) {
@@ -63,10 +69,15 @@ public class TaintVulnerabilitiesCache {
   }
 
   public Optional<TaintIssue> getTaintVulnerabilityByKey(String issueId) {
-    return taintVulnerabilitiesPerFile.values().stream()
-      .flatMap(List::stream)
-      .filter(i -> issueId.equals(i.getKey()))
-      .findFirst();
+    return getFileForIssueKey(issueId)
+      .map(fileUri -> taintVulnerabilitiesPerFile.getOrDefault(fileUri, emptyList()))
+      .flatMap(issues -> issues.stream()
+        .filter(i -> issueId.equals(i.getKey()))
+        .findFirst());
+  }
+
+  public Optional<URI> getFileForIssueKey(String issueKey) {
+    return Optional.ofNullable(fileUriByIssueKey.get(issueKey));
   }
 
   public Stream<Diagnostic> getAsDiagnostics(URI fileUri) {
@@ -104,7 +115,25 @@ public class TaintVulnerabilitiesCache {
   }
 
   public void reload(URI fileUri, List<TaintIssue> taintIssues) {
-    taintVulnerabilitiesPerFile.put(fileUri, taintIssues);
+    var newKeys = taintIssues.stream()
+      .map(TaintIssue::getKey)
+      .filter(Objects::nonNull)
+      .collect(Collectors.toSet());
+    newKeys.forEach(key -> fileUriByIssueKey.put(key, fileUri));
+    var previous = taintVulnerabilitiesPerFile.put(fileUri, taintIssues);
+    if (previous != null) {
+      previous.stream()
+        .map(TaintIssue::getKey)
+        .filter(key -> key != null && !newKeys.contains(key))
+        .forEach(key -> fileUriByIssueKey.remove(key, fileUri));
+    }
+  }
+
+  private void unindex(URI fileUri, List<TaintIssue> taintIssues) {
+    taintIssues.stream()
+      .map(TaintIssue::getKey)
+      .filter(Objects::nonNull)
+      .forEach(key -> fileUriByIssueKey.remove(key, fileUri));
   }
 
   public Set<URI> getAllFilesWithTaintIssues(){
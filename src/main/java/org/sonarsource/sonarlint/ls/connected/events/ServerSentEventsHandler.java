@@ -19,45 +19,128 @@
  */
 package org.sonarsource.sonarlint.ls.connected.events;
 
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
 import org.sonarsource.sonarlint.core.serverapi.push.IssueChangedEvent;
+import org.sonarsource.sonarlint.core.serverapi.push.RuleSetChangedEvent;
 import org.sonarsource.sonarlint.core.serverapi.push.ServerEvent;
 import org.sonarsource.sonarlint.core.serverapi.push.TaintVulnerabilityClosedEvent;
 import org.sonarsource.sonarlint.core.serverapi.push.TaintVulnerabilityRaisedEvent;
 import org.sonarsource.sonarlint.ls.connected.ProjectBindingManager;
 import org.sonarsource.sonarlint.ls.connected.TaintVulnerabilitiesCache;
 import org.sonarsource.sonarlint.ls.connected.notifications.TaintVulnerabilityRaisedNotification;
+import org.sonarsource.sonarlint.ls.connected.sync.ProjectSyncTracker;
 import org.sonarsource.sonarlint.ls.folders.WorkspaceFoldersManager;
 import org.sonarsource.sonarlint.ls.settings.SettingsManager;
+import org.sonarsource.sonarlint.ls.util.Utils;
 
 import static org.sonarsource.sonarlint.ls.settings.SettingsManager.DEFAULT_CONNECTION_ID;
 
 public class ServerSentEventsHandler implements ServerSentEventsHandlerService {
+  private static final SonarLintLogger LOG = SonarLintLogger.get();
+
   private final ProjectBindingManager projectBindingManager;
   private final TaintVulnerabilitiesCache taintVulnerabilitiesCache;
   private final TaintVulnerabilityRaisedNotification taintVulnerabilityRaisedNotification;
   private final SettingsManager settingsManager;
   private final WorkspaceFoldersManager workspaceFoldersManager;
+  private final ProjectSyncTracker syncTracker;
+  private final ScheduledExecutorService coalescingExecutor;
+  private final Duration coalescingWindow;
+  private final Set<URI> pendingTaintUpdates = new LinkedHashSet<>();
 
   public ServerSentEventsHandler(ProjectBindingManager projectBindingManager, TaintVulnerabilitiesCache taintVulnerabilitiesCache,
-    TaintVulnerabilityRaisedNotification taintVulnerabilityRaisedNotification, SettingsManager settingsManager, WorkspaceFoldersManager workspaceFoldersManager) {
+    TaintVulnerabilityRaisedNotification taintVulnerabilityRaisedNotification, SettingsManager settingsManager, WorkspaceFoldersManager workspaceFoldersManager,
+    ProjectSyncTracker syncTracker) {
+    this(projectBindingManager, taintVulnerabilitiesCache, taintVulnerabilityRaisedNotification, settingsManager, workspaceFoldersManager, syncTracker,
+      Executors.newSingleThreadScheduledExecutor(Utils.threadFactory("SonarLint server events", true)), getCoalescingWindow());
+  }
+
+  ServerSentEventsHandler(ProjectBindingManager projectBindingManager, TaintVulnerabilitiesCache taintVulnerabilitiesCache,
+    TaintVulnerabilityRaisedNotification taintVulnerabilityRaisedNotification, SettingsManager settingsManager, WorkspaceFoldersManager workspaceFoldersManager,
+    ProjectSyncTracker syncTracker, ScheduledExecutorService coalescingExecutor, Duration coalescingWindow) {
     this.projectBindingManager = projectBindingManager;
     this.taintVulnerabilitiesCache = taintVulnerabilitiesCache;
     this.taintVulnerabilityRaisedNotification = taintVulnerabilityRaisedNotification;
     this.settingsManager = settingsManager;
     this.workspaceFoldersManager = workspaceFoldersManager;
+    this.syncTracker = syncTracker;
+    this.coalescingExecutor = coalescingExecutor;
+    this.coalescingWindow = coalescingWindow;
+  }
+
+  private static Duration getCoalescingWindow() {
+    return Duration.ofMillis(Long.parseLong(StringUtils.defaultIfBlank(System.getenv("SONARLINT_INTERNAL_SSE_COALESCING_WINDOW_MS"), "300")));
   }
 
   @Override
   public void handleEvents(ServerEvent event) {
+    impactedProjectKeys(event).forEach(syncTracker::markChanged);
     if (event instanceof TaintVulnerabilityRaisedEvent) {
       handleTaintVulnerabilityRaisedEvent(event);
-    } else if (event instanceof TaintVulnerabilityClosedEvent ||
-      event instanceof IssueChangedEvent) {
-      taintVulnerabilitiesCache.getAllFilesWithTaintIssues()
-        .forEach(projectBindingManager::updateTaintIssueCacheFromStorageForFile);
+    } else if (event instanceof TaintVulnerabilityClosedEvent) {
+      scheduleTaintUpdates(List.of(((TaintVulnerabilityClosedEvent) event).getTaintIssueKey()));
+    } else if (event instanceof IssueChangedEvent) {
+      scheduleTaintUpdates(((IssueChangedEvent) event).getImpactedIssueKeys());
+    }
+  }
+
+  /**
+   * Only the files that contain one of the impacted taint issues are reloaded. Events received within the coalescing window are
+   * batched, so that a burst of events reloads each file only once.
+   */
+  private void scheduleTaintUpdates(List<String> issueKeys) {
+    var impactedFiles = issueKeys.stream()
+      .map(taintVulnerabilitiesCache::getFileForIssueKey)
+      .flatMap(Optional::stream)
+      .collect(Collectors.toSet());
+    if (impactedFiles.isEmpty()) {
+      return;
+    }
+    if (coalescingWindow.isZero()) {
+      impactedFiles.forEach(projectBindingManager::updateTaintIssueCacheFromStorageForFile);
+      return;
+    }
+    synchronized (pendingTaintUpdates) {
+      var flushAlreadyScheduled = !pendingTaintUpdates.isEmpty();
+      pendingTaintUpdates.addAll(impactedFiles);
+      if (!flushAlreadyScheduled) {
+        coalescingExecutor.schedule(this::flushPendingTaintUpdates, coalescingWindow.toMillis(), TimeUnit.MILLISECONDS);
+      }
     }
   }
 
+  private void flushPendingTaintUpdates() {
+    List<URI> filesToUpdate;
+    synchronized (pendingTaintUpdates) {
+      filesToUpdate = List.copyOf(pendingTaintUpdates);
+      pendingTaintUpdates.clear();
+    }
+    LOG.debug("Updating taint vulnerabilities of {} file(s) after server events", filesToUpdate.size());
+    filesToUpdate.forEach(fileUri -> {
+      try {
+        projectBindingManager.updateTaintIssueCacheFromStorageForFile(fileUri);
+      } catch (Exception e) {
+        LOG.error("Unable to update taint vulnerabilities of file '" + fileUri + "'", e);
+      }
+    });
+  }
+
+  @Override
+  public void shutdown() {
+    Utils.shutdownAndAwait(coalescingExecutor, true);
+  }
+
   @Override
   public void handleTaintVulnerabilityRaisedEvent(ServerEvent event) {
     var taintVulnerabilityRaisedEvent = (TaintVulnerabilityRaisedEvent) event;
@@ -82,4 +165,17 @@ public class ServerSentEventsHandler implements ServerSentEventsHandlerService {
       taintVulnerabilityRaisedNotification.showTaintVulnerabilityNotification(taintVulnerabilityRaisedEvent, connectionId, connectionSettings.isSonarCloudAlias());
     }
   }
+
+  private static List<String> impactedProjectKeys(ServerEvent event) {
+    if (event instanceof TaintVulnerabilityRaisedEvent) {
+      return List.of(((TaintVulnerabilityRaisedEvent) event).getProjectKey());
+    } else if (event instanceof TaintVulnerabilityClosedEvent) {
+      return List.of(((TaintVulnerabilityClosedEvent) event).getProjectKey());
+    } else if (event instanceof IssueChangedEvent) {
+      return List.of(((IssueChangedEvent) event).getProjectKey());
+    } else if (event instanceof RuleSetChangedEvent) {
+      return ((RuleSetChangedEvent) event).getProjectKeys();
+    }
+    return List.of();
+  }
 }
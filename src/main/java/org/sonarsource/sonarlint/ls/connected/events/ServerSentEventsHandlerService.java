@@ -24,4 +24,5 @@ import org.sonarsource.sonarlint.core.serverapi.push.ServerEvent;
 public interface ServerSentEventsHandlerService {
   void handleEvents(ServerEvent event);
   void handleTaintVulnerabilityRaisedEvent(ServerEvent event);
+  void shutdown();
 }
@@ -0,0 +1,58 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected.sync;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import java.util.HashMap;
+import java.util.Map;
+import org.sonarsource.sonarlint.core.serverapi.ServerApiHelper;
+import org.sonarsource.sonarlint.ls.settings.ServerConnectionSettings.EndpointParamsAndHttpClient;
+
+import static org.sonarsource.sonarlint.core.serverapi.UrlUtils.urlEncode;
+
+/**
+ * Cheap check of the freshness of a project: a single request returns the last analysis date of all branches of the project.
+ */
+public class ProjectFreshnessProbe {
+
+  private static final String BRANCHES_API_PATH = "/api/project_branches/list?project=";
+
+  /**
+   * @return the last analysis date of each branch of the project, indexed by branch name. Branches never analyzed are not part of the result.
+   */
+  public Map<String, String> fetchAnalysisDateByBranch(EndpointParamsAndHttpClient serverConfiguration, String projectKey) {
+    var helper = new ServerApiHelper(serverConfiguration.getEndpointParams(), serverConfiguration.getHttpClient());
+    try (var response = helper.get(BRANCHES_API_PATH + urlEncode(projectKey))) {
+      var analysisDateByBranch = new HashMap<String, String>();
+      var branches = JsonParser.parseString(response.bodyAsString()).getAsJsonObject().getAsJsonArray("branches");
+      if (branches != null) {
+        for (JsonElement branch : branches) {
+          var branchObject = branch.getAsJsonObject();
+          var analysisDate = branchObject.get("analysisDate");
+          if (branchObject.has("name") && analysisDate != null && !analysisDate.isJsonNull()) {
+            analysisDateByBranch.put(branchObject.get("name").getAsString(), analysisDate.getAsString());
+          }
+        }
+      }
+      return analysisDateByBranch;
+    }
+  }
+}
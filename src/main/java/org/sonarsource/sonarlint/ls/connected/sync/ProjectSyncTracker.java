@@ -0,0 +1,233 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected.sync;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Keep track of the last successful synchronization of each bound project and branch, and decide which projects need to be synchronized
+ * again. A project is considered changed when a server-sent event was received for it, or when the freshness probe reports an analysis
+ * date that differs from the one recorded during the last synchronization. Events are numbered, so that a synchronization only acknowledges
+ * the events received before it started.
+ * The delay between two probes of a project adapts to its observed change rate: it is halved each time a change is detected, and doubled
+ * each time nothing changed, within the [minInterval, maxInterval] bounds.
+ */
+public class ProjectSyncTracker {
+
+  private final Map<ProjectKey, ProjectSyncState> states = new HashMap<>();
+  private long eventGeneration;
+  private final Duration initialInterval;
+  private final Duration minInterval;
+  private final Duration maxInterval;
+  private final Clock clock;
+
+  public ProjectSyncTracker(Duration initialInterval, Duration minInterval, Duration maxInterval) {
+    this(initialInterval, minInterval, maxInterval, Clock.systemUTC());
+  }
+
+  ProjectSyncTracker(Duration initialInterval, Duration minInterval, Duration maxInterval, Clock clock) {
+    this.minInterval = minInterval;
+    this.maxInterval = maxInterval.compareTo(minInterval) < 0 ? minInterval : maxInterval;
+    this.initialInterval = clamp(initialInterval);
+    this.clock = clock;
+  }
+
+  public Duration getMinInterval() {
+    return minInterval;
+  }
+
+  /**
+   * Called when a server-sent event concerning the given project was received, whatever the connection.
+   */
+  public synchronized void markChanged(String projectKey) {
+    var generation = ++eventGeneration;
+    states.forEach((key, state) -> {
+      if (key.projectKey.equals(projectKey)) {
+        state.lastEventGeneration = generation;
+      }
+    });
+  }
+
+  /**
+   * To be called before starting a synchronization, and passed to {@link #recordSuccessfulSync(String, String, Set, long)} once done.
+   *
+   * @return the generation of the last server event received so far
+   */
+  public synchronized long startSync() {
+    return eventGeneration;
+  }
+
+  /**
+   * @return true if at least one of the given branches was never synchronized, or if a server event was received for this project
+   */
+  public synchronized boolean needsSync(String connectionId, String projectKey, Set<String> branchNames) {
+    var state = states.get(new ProjectKey(connectionId, projectKey));
+    return state == null || state.isChangedByEvent() || !state.lastSyncByBranch.keySet().containsAll(branchNames);
+  }
+
+  /**
+   * @return true if the analysis dates of all the given branches were recorded, by a probe or by {@link #recordAnalysisDates(String, String, Set, Map)}
+   */
+  public synchronized boolean hasAnalysisDates(String connectionId, String projectKey, Set<String> branchNames) {
+    var state = states.get(new ProjectKey(connectionId, projectKey));
+    return state != null && state.probedAnalysisDateByBranch.keySet().containsAll(branchNames);
+  }
+
+  /**
+   * Record the analysis dates of the given branches without adapting the probing interval, e.g. before the first synchronization of a
+   * project, so that the next probe compares against them.
+   */
+  public synchronized void recordAnalysisDates(String connectionId, String projectKey, Set<String> branchNames, Map<String, String> analysisDateByBranch) {
+    var state = getOrCreateState(connectionId, projectKey);
+    // Branches never analyzed are recorded with a null date
+    branchNames.forEach(branchName -> state.probedAnalysisDateByBranch.put(branchName, analysisDateByBranch.get(branchName)));
+    state.probedAnalysisDateByBranch.putAll(analysisDateByBranch);
+  }
+
+  public synchronized boolean isProbeDue(String connectionId, String projectKey) {
+    var state = states.get(new ProjectKey(connectionId, projectKey));
+    return state == null || !clock.instant().isBefore(state.nextProbe);
+  }
+
+  /**
+   * Record the analysis dates returned by the freshness probe, and adapt the probing interval.
+   *
+   * @return true if the analysis date of one of the given branches differs from the one recorded during the last synchronization
+   */
+  public synchronized boolean recordProbe(String connectionId, String projectKey, Set<String> branchNames, Map<String, String> analysisDateByBranch) {
+    recordAnalysisDates(connectionId, projectKey, branchNames, analysisDateByBranch);
+    var state = getOrCreateState(connectionId, projectKey);
+    var changed = branchNames.stream()
+      .anyMatch(branchName -> !Objects.equals(state.syncedAnalysisDateByBranch.get(branchName), analysisDateByBranch.get(branchName)));
+    adaptInterval(state, changed);
+    return changed;
+  }
+
+  /**
+   * @param syncGeneration the value returned by {@link #startSync()} when the synchronization started. Events received during the
+   *                       synchronization are not acknowledged, so that the project is synchronized again.
+   */
+  public synchronized void recordSuccessfulSync(String connectionId, String projectKey, Set<String> branchNames, long syncGeneration) {
+    var state = getOrCreateState(connectionId, projectKey);
+    var now = clock.instant();
+    branchNames.forEach(branchName -> {
+      state.lastSyncByBranch.put(branchName, now);
+      if (state.probedAnalysisDateByBranch.containsKey(branchName)) {
+        state.syncedAnalysisDateByBranch.put(branchName, state.probedAnalysisDateByBranch.get(branchName));
+      }
+    });
+    if (state.acknowledgedEventGeneration < syncGeneration) {
+      var wasChangedByEvent = state.isChangedByEvent();
+      state.acknowledgedEventGeneration = syncGeneration;
+      if (wasChangedByEvent) {
+        adaptInterval(state, true);
+      }
+    }
+  }
+
+  public synchronized Optional<Instant> getLastSuccessfulSync(String connectionId, String projectKey, String branchName) {
+    return Optional.ofNullable(states.get(new ProjectKey(connectionId, projectKey)))
+      .map(state -> state.lastSyncByBranch.get(branchName));
+  }
+
+  // Visible for testing
+  synchronized Duration getInterval(String connectionId, String projectKey) {
+    return Optional.ofNullable(states.get(new ProjectKey(connectionId, projectKey)))
+      .map(state -> state.interval)
+      .orElse(initialInterval);
+  }
+
+  public synchronized void clear() {
+    states.clear();
+  }
+
+  private ProjectSyncState getOrCreateState(String connectionId, String projectKey) {
+    return states.computeIfAbsent(new ProjectKey(connectionId, projectKey), k -> new ProjectSyncState(initialInterval, clock.instant().plus(initialInterval)));
+  }
+
+  private void adaptInterval(ProjectSyncState state, boolean changed) {
+    state.interval = clamp(changed ? state.interval.dividedBy(2) : state.interval.multipliedBy(2));
+    state.nextProbe = clock.instant().plus(state.interval);
+  }
+
+  private Duration clamp(Duration interval) {
+    if (interval.compareTo(minInterval) < 0) {
+      return minInterval;
+    }
+    if (interval.compareTo(maxInterval) > 0) {
+      return maxInterval;
+    }
+    return interval;
+  }
+
+  private static class ProjectSyncState {
+    private final Map<String, Instant> lastSyncByBranch = new HashMap<>();
+    private final Map<String, String> syncedAnalysisDateByBranch = new HashMap<>();
+    private final Map<String, String> probedAnalysisDateByBranch = new HashMap<>();
+    private long lastEventGeneration;
+    private long acknowledgedEventGeneration;
+    private Duration interval;
+    private Instant nextProbe;
+
+    private ProjectSyncState(Duration interval, Instant nextProbe) {
+      this.interval = interval;
+      this.nextProbe = nextProbe;
+    }
+
+    private boolean isChangedByEvent() {
+      return lastEventGeneration > acknowledgedEventGeneration;
+    }
+  }
+
+  private static class ProjectKey {
+    private final String connectionId;
+    private final String projectKey;
+
+    private ProjectKey(String connectionId, String projectKey) {
+      this.connectionId = connectionId;
+      this.projectKey = projectKey;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      var that = (ProjectKey) o;
+      return connectionId.equals(that.connectionId) && projectKey.equals(that.projectKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(connectionId, projectKey);
+    }
+  }
+}
@@ -19,11 +19,21 @@
  */
 package org.sonarsource.sonarlint.ls.connected.sync;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.lsp4j.MessageParams;
@@ -41,6 +51,7 @@ import org.sonarsource.sonarlint.ls.connected.ProjectBindingWrapper;
 import org.sonarsource.sonarlint.ls.progress.ProgressFacade;
 import org.sonarsource.sonarlint.ls.progress.ProgressManager;
 import org.sonarsource.sonarlint.ls.settings.ServerConnectionSettings;
+import org.sonarsource.sonarlint.ls.util.Utils;
 
 public class ServerSynchronizer {
   private static final SonarLintLogger LOG = SonarLintLogger.get();
@@ -50,19 +61,60 @@ public class ServerSynchronizer {
   private final ProjectBindingManager bindingManager;
   private final AnalysisScheduler analysisScheduler;
   private final Timer serverSyncTimer;
+  private final ProjectSyncTracker syncTracker;
+  private final ProjectFreshnessProbe freshnessProbe;
+  private final boolean incrementalSync;
+  private final ExecutorService downloadExecutor = Executors.newFixedThreadPool(getDownloadParallelism(), Utils.threadFactory("SonarLint server issues download", true));
 
   public ServerSynchronizer(LanguageClient client, ProgressManager progressManager, ProjectBindingManager bindingManager, AnalysisScheduler analysisScheduler) {
-    this(client, progressManager, bindingManager, analysisScheduler, new Timer("Binding updates checker"));
+    this(client, progressManager, bindingManager, analysisScheduler, new Timer("Binding updates checker"), createSyncTracker(), new ProjectFreshnessProbe(),
+      Boolean.parseBoolean(System.getenv("SONARLINT_INTERNAL_INCREMENTAL_SYNC")));
   }
 
   ServerSynchronizer(LanguageClient client, ProgressManager progressManager, ProjectBindingManager bindingManager, AnalysisScheduler analysisScheduler, Timer serverSyncTimer) {
+    this(client, progressManager, bindingManager, analysisScheduler, serverSyncTimer, createSyncTracker(), new ProjectFreshnessProbe(), false);
+  }
+
+  ServerSynchronizer(LanguageClient client, ProgressManager progressManager, ProjectBindingManager bindingManager, AnalysisScheduler analysisScheduler, Timer serverSyncTimer,
+    ProjectSyncTracker syncTracker, ProjectFreshnessProbe freshnessProbe, boolean incrementalSync) {
     this.client = client;
     this.progressManager = progressManager;
     this.bindingManager = bindingManager;
     this.analysisScheduler = analysisScheduler;
-    var syncPeriod = Long.parseLong(StringUtils.defaultIfBlank(System.getenv("SONARLINT_INTERNAL_SYNC_PERIOD"), "3600")) * 1000;
+    this.syncTracker = syncTracker;
+    this.freshnessProbe = freshnessProbe;
+    this.incrementalSync = incrementalSync;
     this.serverSyncTimer = serverSyncTimer;
-    this.serverSyncTimer.scheduleAtFixedRate(new SyncTask(), syncPeriod, syncPeriod);
+    if (incrementalSync) {
+      // Wake up often, but only synchronize projects that changed on server side
+      var checkPeriod = syncTracker.getMinInterval().toMillis();
+      this.serverSyncTimer.scheduleAtFixedRate(new IncrementalSyncTask(), checkPeriod, checkPeriod);
+    } else {
+      var syncPeriod = getSyncPeriod().toMillis();
+      this.serverSyncTimer.scheduleAtFixedRate(new SyncTask(), syncPeriod, syncPeriod);
+    }
+  }
+
+  private static Duration getSyncPeriod() {
+    return getPeriodFromEnv("SONARLINT_INTERNAL_SYNC_PERIOD", 3600);
+  }
+
+  private static Duration getPeriodFromEnv(String variableName, long defaultValueInSeconds) {
+    return Duration.ofSeconds(Long.parseLong(StringUtils.defaultIfBlank(System.getenv(variableName), String.valueOf(defaultValueInSeconds))));
+  }
+
+  private static int getDownloadParallelism() {
+    return Integer.parseInt(StringUtils.defaultIfBlank(System.getenv("SONARLINT_INTERNAL_SYNC_DOWNLOAD_PARALLELISM"), "4"));
+  }
+
+  private static ProjectSyncTracker createSyncTracker() {
+    return new ProjectSyncTracker(getSyncPeriod(),
+      getPeriodFromEnv("SONARLINT_INTERNAL_INCREMENTAL_SYNC_MIN_PERIOD", 300),
+      getPeriodFromEnv("SONARLINT_INTERNAL_INCREMENTAL_SYNC_MAX_PERIOD", 6 * 3600L));
+  }
+
+  public ProjectSyncTracker getSyncTracker() {
+    return syncTracker;
   }
 
   public void updateAllBindings(CancelChecker cancelToken, @Nullable Either<String, Integer> workDoneToken) {
@@ -123,7 +175,7 @@ public class ServerSynchronizer {
       }
       subProgress.doInSubProgress("Update projects storages", 0.5f, s -> tryUpdateBoundProjectsStorage(
         branchNamesByProjectKey.keySet(), endpointParamsAndHttpClient, engineOpt.get(), s));
-      subProgress.doInSubProgress("Sync projects storages", 0.5f, s -> syncOneEngine(
+      subProgress.doInSubProgress("Sync projects storages", 0.5f, s -> syncOneEngineAndRecord(
         connectionId, branchNamesByProjectKey, engineOpt.get(), s));
     });
   }
@@ -142,32 +194,92 @@ public class ServerSynchronizer {
     }));
   }
 
-  private void syncOneEngine(String connectionId, Map<String, Set<String>> branchNamesByProjectKey, ConnectedSonarLintEngine engine, @Nullable ProgressFacade progress) {
+  private void syncOneEngineAndRecord(String connectionId, Map<String, Set<String>> branchNamesByProjectKey, ConnectedSonarLintEngine engine,
+    @Nullable ProgressFacade progress) {
+    var syncGeneration = syncTracker.startSync();
+    branchNamesByProjectKey.forEach((projectKey, branchNames) -> seedAnalysisDates(connectionId, projectKey, branchNames));
+    bindingManager.acquireConnectedEngine(connectionId);
+    try {
+      if (syncOneEngine(connectionId, branchNamesByProjectKey, engine, progress)) {
+        branchNamesByProjectKey.forEach((projectKey, branchNames) -> syncTracker.recordSuccessfulSync(connectionId, projectKey, branchNames, syncGeneration));
+      }
+    } finally {
+      bindingManager.releaseConnectedEngine(connectionId);
+    }
+  }
+
+  /**
+   * Without analysis dates recorded before the first synchronization of a project, the first probe would always report it as changed.
+   * They are fetched before synchronizing, so that an analysis that completes during the synchronization is still detected.
+   */
+  private void seedAnalysisDates(String connectionId, String projectKey, Set<String> branchNames) {
+    if (!incrementalSync || syncTracker.hasAnalysisDates(connectionId, projectKey, branchNames)) {
+      return;
+    }
+    var paramsAndHttpClient = bindingManager.getServerConfigurationFor(connectionId);
+    if (paramsAndHttpClient == null) {
+      return;
+    }
+    try {
+      syncTracker.recordAnalysisDates(connectionId, projectKey, branchNames, freshnessProbe.fetchAnalysisDateByBranch(paramsAndHttpClient, projectKey));
+    } catch (Exception e) {
+      LOG.debug("Unable to fetch analysis dates of project '{}'", projectKey);
+    }
+  }
+
+  private boolean syncOneEngine(String connectionId, Map<String, Set<String>> branchNamesByProjectKey, ConnectedSonarLintEngine engine, @Nullable ProgressFacade progress) {
     try {
       var paramsAndHttpClient = bindingManager.getServerConfigurationFor(connectionId);
       if (paramsAndHttpClient == null) {
-        return;
+        return false;
       }
       var progressMonitor = progress != null ? progress.asCoreMonitor() : null;
       engine.sync(paramsAndHttpClient.getEndpointParams(), paramsAndHttpClient.getHttpClient(), branchNamesByProjectKey.keySet(), progressMonitor);
       syncIssues(engine, paramsAndHttpClient, branchNamesByProjectKey, progressMonitor);
+      return true;
     } catch (Exception e) {
       LOG.error("Error while synchronizing storage", e);
+      return false;
     }
   }
 
-  private static void syncIssues(ConnectedSonarLintEngine engine, ServerConnectionSettings.EndpointParamsAndHttpClient paramsAndHttpClient,
-    Map<String, Set<String>> branchNamesByProjectKey,
-    @Nullable ClientProgressMonitor progressMonitor) {
-    branchNamesByProjectKey
-      .forEach((projectKey, branchNames) -> branchNames.forEach(branchName -> syncIssuesForBranch(engine, paramsAndHttpClient, projectKey, branchName, progressMonitor)));
+  /**
+   * Issues, taint vulnerabilities and hotspots of every branch of every project are downloaded concurrently. The storage of a project
+   * is written in transactions, so concurrent downloads of the same project are safe. A failed download does not prevent the other
+   * ones from completing.
+   */
+  private void syncIssues(ConnectedSonarLintEngine engine, ServerConnectionSettings.EndpointParamsAndHttpClient paramsAndHttpClient,
+    Map<String, ? extends Collection<String>> branchNamesByProjectKey, @Nullable ClientProgressMonitor progressMonitor) {
+    var endpointParams = paramsAndHttpClient.getEndpointParams();
+    var httpClient = paramsAndHttpClient.getHttpClient();
+    // Downloads run on several threads, that all report to the same progress
+    var sharedProgressMonitor = progressMonitor != null ? new SynchronizedProgressMonitor(progressMonitor) : null;
+    var downloads = new ArrayList<CompletableFuture<Void>>();
+    branchNamesByProjectKey.forEach((projectKey, branchNames) -> branchNames.forEach(branchName -> Stream.<Runnable>of(
+      () -> engine.syncServerIssues(endpointParams, httpClient, projectKey, branchName, sharedProgressMonitor),
+      () -> engine.syncServerTaintIssues(endpointParams, httpClient, projectKey, branchName, sharedProgressMonitor),
+      () -> engine.downloadAllServerHotspots(endpointParams, httpClient, projectKey, branchName, sharedProgressMonitor))
+      .forEach(download -> downloads.add(CompletableFuture.runAsync(download, downloadExecutor)))));
+    awaitAll(downloads);
   }
 
-  private static void syncIssuesForBranch(ConnectedSonarLintEngine engine, ServerConnectionSettings.EndpointParamsAndHttpClient paramsAndHttpClient, String projectKey,
-    String branchName, @Nullable ClientProgressMonitor progressMonitor) {
-    engine.syncServerIssues(paramsAndHttpClient.getEndpointParams(), paramsAndHttpClient.getHttpClient(), projectKey, branchName, progressMonitor);
-    engine.syncServerTaintIssues(paramsAndHttpClient.getEndpointParams(), paramsAndHttpClient.getHttpClient(), projectKey, branchName, progressMonitor);
-    engine.downloadAllServerHotspots(paramsAndHttpClient.getEndpointParams(), paramsAndHttpClient.getHttpClient(), projectKey, branchName, progressMonitor);
+  private static void awaitAll(List<CompletableFuture<Void>> downloads) {
+    RuntimeException failure = null;
+    for (var download : downloads) {
+      try {
+        download.join();
+      } catch (RuntimeException e) {
+        var cause = e instanceof CompletionException && e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        if (failure == null) {
+          failure = cause;
+        } else if (failure != cause) {
+          failure.addSuppressed(cause);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
   }
 
   public void syncIssues(ProjectBindingWrapper binding, String branchName) {
@@ -176,11 +288,21 @@ public class ServerSynchronizer {
     if (paramsAndHttpClient == null) {
       return;
     }
-    syncIssuesForBranch(binding.getEngine(), paramsAndHttpClient, binding.getBinding().projectKey(), branchName, null);
+    var projectKey = binding.getBinding().projectKey();
+    var syncGeneration = syncTracker.startSync();
+    seedAnalysisDates(connectionId, projectKey, Set.of(branchName));
+    bindingManager.acquireConnectedEngine(connectionId);
+    try {
+      syncIssues(binding.getEngine(), paramsAndHttpClient, Map.of(projectKey, Set.of(branchName)), null);
+    } finally {
+      bindingManager.releaseConnectedEngine(connectionId);
+    }
+    syncTracker.recordSuccessfulSync(connectionId, projectKey, Set.of(branchName), syncGeneration);
   }
 
   public void shutdown() {
     serverSyncTimer.cancel();
+    Utils.shutdownAndAwait(downloadExecutor, true);
   }
 
   private class SyncTask extends TimerTask {
@@ -194,9 +316,54 @@ public class ServerSynchronizer {
       if (!projectsToSynchronize.isEmpty()) {
         LOG.debug("Synchronizing storages...");
         projectsToSynchronize.forEach((connectionId, branchNamesByProjectKey) -> bindingManager.getStartedConnectedEngine(connectionId)
-          .ifPresent(engine -> syncOneEngine(connectionId, branchNamesByProjectKey, engine, null)));
+          .ifPresent(engine -> syncOneEngineAndRecord(connectionId, branchNamesByProjectKey, engine, null)));
         bindingManager.updateAllTaintIssues();
       }
     }
   }
+
+  private class IncrementalSyncTask extends TimerTask {
+    @Override
+    public void run() {
+      var anyProjectSynchronized = false;
+      for (var entry : bindingManager.getActiveConnectionsAndProjects().entrySet()) {
+        var connectionId = entry.getKey();
+        var engine = bindingManager.getStartedConnectedEngine(connectionId);
+        if (engine.isPresent()) {
+          var changedProjects = selectChangedProjects(connectionId, entry.getValue());
+          if (!changedProjects.isEmpty()) {
+            LOG.debug("Synchronizing changed projects {} of connection '{}'...", changedProjects.keySet(), connectionId);
+            syncOneEngineAndRecord(connectionId, changedProjects, engine.get(), null);
+            anyProjectSynchronized = true;
+          }
+        }
+      }
+      if (anyProjectSynchronized) {
+        bindingManager.updateAllTaintIssues();
+      }
+    }
+
+    private Map<String, Set<String>> selectChangedProjects(String connectionId, Map<String, Set<String>> branchNamesByProjectKey) {
+      var changedProjects = new HashMap<String, Set<String>>();
+      branchNamesByProjectKey.forEach((projectKey, branchNames) -> {
+        if (syncTracker.needsSync(connectionId, projectKey, branchNames) || (syncTracker.isProbeDue(connectionId, projectKey) && probe(connectionId, projectKey, branchNames))) {
+          changedProjects.put(projectKey, branchNames);
+        }
+      });
+      return changedProjects;
+    }
+
+    private boolean probe(String connectionId, String projectKey, Set<String> branchNames) {
+      var paramsAndHttpClient = bindingManager.getServerConfigurationFor(connectionId);
+      if (paramsAndHttpClient == null) {
+        return false;
+      }
+      try {
+        return syncTracker.recordProbe(connectionId, projectKey, branchNames, freshnessProbe.fetchAnalysisDateByBranch(paramsAndHttpClient, projectKey));
+      } catch (Exception e) {
+        LOG.debug("Unable to check freshness of project '{}', synchronizing it", projectKey);
+        return true;
+      }
+    }
+  }
 }
@@ -0,0 +1,63 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected.sync;
+
+import org.sonarsource.sonarlint.core.commons.progress.ClientProgressMonitor;
+
+/**
+ * Serializes the progress reported by downloads running on several threads
+ */
+class SynchronizedProgressMonitor implements ClientProgressMonitor {
+
+  private final ClientProgressMonitor delegate;
+
+  SynchronizedProgressMonitor(ClientProgressMonitor delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public synchronized boolean isCanceled() {
+    return delegate.isCanceled();
+  }
+
+  @Override
+  public synchronized void setMessage(String msg) {
+    delegate.setMessage(msg);
+  }
+
+  @Override
+  public synchronized void setFraction(float fraction) {
+    delegate.setFraction(fraction);
+  }
+
+  @Override
+  public synchronized void setIndeterminate(boolean indeterminate) {
+    delegate.setIndeterminate(indeterminate);
+  }
+
+  /**
+   * Cancelation is disabled and re-enabled on the shared monitor, so sections of different threads must not overlap
+   */
+  @Override
+  public synchronized void executeNonCancelableSection(Runnable nonCancelable) {
+    delegate.executeNonCancelableSection(nonCancelable);
+  }
+
+}
@@ -0,0 +1,346 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.folders;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.lsp4j.FileChangeType;
+import org.eclipse.lsp4j.FileEvent;
+import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
+import org.sonarsource.sonarlint.ls.util.FileUtils;
+import org.sonarsource.sonarlint.ls.util.Utils;
+
+import static java.util.function.Predicate.not;
+import static org.sonarsource.sonarlint.ls.util.Utils.uriHasFileScheme;
+
+/**
+ * Index of the relative paths of all files under a folder, used to compute the path prefixes of a binding without walking the whole
+ * folder every time. The index is built once, then kept up to date from file system events, and persisted so that it can be reused
+ * after a restart. Files can change while the server is stopped, so a reused index is checked against a scan of the folder in the
+ * background. Like {@link FileUtils#allRelativePathsForFilesInTree(Path)}, hidden files and directories are not indexed. Directories whose name is listed in
+ * SONARLINT_INTERNAL_PATH_INDEX_EXCLUSIONS (build output, dependencies) can be excluded too, none are by default as a source package can
+ * have the same name.
+ */
+public class FilePathIndex {
+
+  private static final SonarLintLogger LOG = SonarLintLogger.get();
+  private static final String FORMAT_VERSION = "1";
+  static final Duration MAX_PERSISTED_INDEX_AGE = Duration.ofDays(7);
+
+  private final Map<Path, FolderIndex> indexByFolderRoot = new ConcurrentHashMap<>();
+  @Nullable
+  private final Path storeDir;
+  private final Set<String> excludedDirectoryNames;
+  private final Clock clock;
+  private final ExecutorService rescanExecutor;
+
+  public FilePathIndex(@Nullable Path storeDir) {
+    this(storeDir, parseExcludedDirectoryNames(System.getenv("SONARLINT_INTERNAL_PATH_INDEX_EXCLUSIONS")), Clock.systemUTC(),
+      Executors.newSingleThreadExecutor(Utils.threadFactory("SonarLint file path index", true)));
+  }
+
+  // Visible for testing
+  FilePathIndex(@Nullable Path storeDir, Set<String> excludedDirectoryNames, Clock clock, ExecutorService rescanExecutor) {
+    this.storeDir = storeDir;
+    this.excludedDirectoryNames = excludedDirectoryNames;
+    this.clock = clock;
+    this.rescanExecutor = rescanExecutor;
+  }
+
+  static Set<String> parseExcludedDirectoryNames(@Nullable String exclusions) {
+    if (StringUtils.isBlank(exclusions)) {
+      return Set.of();
+    }
+    return Arrays.stream(exclusions.split(","))
+      .map(String::trim)
+      .filter(StringUtils::isNotEmpty)
+      .collect(Collectors.toSet());
+  }
+
+  /**
+   * @return the relative paths (SonarQube format) of all indexed files under the given folder
+   */
+  public Collection<String> getRelativePaths(Path folderRoot) {
+    return List.copyOf(indexByFolderRoot.computeIfAbsent(folderRoot, this::loadOrScan).relativePaths);
+  }
+
+  public void didChangeWatchedFiles(List<FileEvent> changes) {
+    if (indexByFolderRoot.isEmpty()) {
+      return;
+    }
+    changes.forEach(change -> {
+      var fileUri = URI.create(change.getUri());
+      if (!uriHasFileScheme(fileUri)) {
+        return;
+      }
+      var file = Paths.get(fileUri);
+      indexByFolderRoot.values().stream()
+        .filter(index -> file.startsWith(index.folderRoot))
+        .forEach(index -> update(index, file, change.getType()));
+    });
+  }
+
+  private void update(FolderIndex index, Path file, FileChangeType changeType) {
+    var relativePath = index.folderRoot.relativize(file);
+    if (isExcludedOrHidden(index.folderRoot, relativePath)) {
+      return;
+    }
+    var sonarQubePath = FileUtils.toSonarQubePath(relativePath.toString());
+    synchronized (index) {
+      if (index.changedDuringRescan != null) {
+        index.changedDuringRescan.add(sonarQubePath);
+      }
+      if (changeType == FileChangeType.Deleted) {
+        // A deleted directory is notified once, remove all files that were under it
+        index.relativePaths.removeIf(path -> isSameOrUnder(path, sonarQubePath));
+      } else if (Files.isDirectory(file)) {
+        index.relativePaths.addAll(scan(index.folderRoot, file));
+      } else {
+        index.relativePaths.add(sonarQubePath);
+      }
+      index.dirty = true;
+    }
+  }
+
+  private static boolean isSameOrUnder(String path, String fileOrDirectoryPath) {
+    return path.equals(fileOrDirectoryPath) || path.startsWith(fileOrDirectoryPath + "/");
+  }
+
+  private boolean isExcludedOrHidden(Path folderRoot, Path relativePath) {
+    var path = folderRoot;
+    for (var segment : relativePath) {
+      path = path.resolve(segment);
+      if (excludedDirectoryNames.contains(segment.toString()) || FileUtils.isHidden(path)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Forget all indexes, including persisted ones. Folders are scanned again the next time their files are requested.
+   */
+  public void invalidate() {
+    indexByFolderRoot.clear();
+    if (storeDir == null || !Files.isDirectory(storeDir)) {
+      return;
+    }
+    try (var storeFiles = Files.list(storeDir)) {
+      storeFiles.forEach(storeFile -> {
+        try {
+          Files.deleteIfExists(storeFile);
+        } catch (IOException e) {
+          LOG.debug("Unable to delete file index '" + storeFile + "'", e);
+        }
+      });
+    } catch (IOException e) {
+      LOG.debug("Unable to delete file indexes", e);
+    }
+  }
+
+  public void shutdown() {
+    Utils.shutdownAndAwait(rescanExecutor, true);
+    indexByFolderRoot.values().stream()
+      .filter(index -> index.dirty)
+      .forEach(this::save);
+  }
+
+  private FolderIndex loadOrScan(Path folderRoot) {
+    var persisted = load(folderRoot);
+    if (persisted != null) {
+      rescanInBackground(persisted);
+      return persisted;
+    }
+    var startTime = clock.millis();
+    var index = new FolderIndex(folderRoot);
+    index.relativePaths.addAll(scan(folderRoot, folderRoot));
+    LOG.debug("Indexed {} files of folder '{}' in {}ms", index.relativePaths.size(), folderRoot, clock.millis() - startTime);
+    save(index);
+    return index;
+  }
+
+  private void rescanInBackground(FolderIndex index) {
+    synchronized (index) {
+      index.changedDuringRescan = new HashSet<>();
+    }
+    try {
+      rescanExecutor.execute(() -> reconcile(index, scan(index.folderRoot, index.folderRoot)));
+    } catch (RejectedExecutionException e) {
+      // Shutting down
+    }
+  }
+
+  /**
+   * Files notified by events during the scan are left as is, the scan might have missed their last change.
+   */
+  private static void reconcile(FolderIndex index, Set<String> scannedPaths) {
+    synchronized (index) {
+      var changedDuringRescan = index.changedDuringRescan;
+      index.changedDuringRescan = null;
+      Predicate<String> notChangedDuringRescan = path -> changedDuringRescan == null || changedDuringRescan.stream().noneMatch(changed -> isSameOrUnder(path, changed));
+      var removed = index.relativePaths.stream()
+        .filter(not(scannedPaths::contains))
+        .filter(notChangedDuringRescan)
+        .collect(Collectors.toList());
+      var added = scannedPaths.stream()
+        .filter(not(index.relativePaths::contains))
+        .filter(notChangedDuringRescan)
+        .collect(Collectors.toList());
+      if (removed.isEmpty() && added.isEmpty()) {
+        return;
+      }
+      removed.forEach(index.relativePaths::remove);
+      index.relativePaths.addAll(added);
+      index.dirty = true;
+      LOG.debug("Files of folder '{}' changed while not watched, {} added to and {} removed from its index", index.folderRoot, added.size(), removed.size());
+    }
+  }
+
+  private Set<String> scan(Path folderRoot, Path dir) {
+    Set<String> paths = ConcurrentHashMap.newKeySet();
+    var visitor = new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        if (!FileUtils.isHidden(file)) {
+          paths.add(FileUtils.toSonarQubePath(folderRoot.relativize(file).toString()));
+        }
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult preVisitDirectory(Path visitedDir, BasicFileAttributes attrs) {
+        var name = visitedDir.getFileName();
+        if (!visitedDir.equals(folderRoot) && name != null && (FileUtils.isHidden(visitedDir) || excludedDirectoryNames.contains(name.toString()))) {
+          return FileVisitResult.SKIP_SUBTREE;
+        }
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFileFailed(Path file, IOException exc) {
+        return FileVisitResult.CONTINUE;
+      }
+    };
+    FileUtils.allRelativePathsForFilesInTree(dir, visitor, paths);
+    return paths;
+  }
+
+  @CheckForNull
+  private FolderIndex load(Path folderRoot) {
+    var storeFile = getStoreFile(folderRoot);
+    if (storeFile.isEmpty() || !Files.isRegularFile(storeFile.get())) {
+      return null;
+    }
+    try {
+      if (Files.getLastModifiedTime(storeFile.get()).toInstant().plus(MAX_PERSISTED_INDEX_AGE).isBefore(clock.instant())) {
+        return null;
+      }
+      try (var reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(storeFile.get())), StandardCharsets.UTF_8))) {
+        if (!header(folderRoot).equals(reader.readLine())) {
+          return null;
+        }
+        var index = new FolderIndex(folderRoot);
+        String line;
+        while ((line = reader.readLine()) != null) {
+          index.relativePaths.add(line);
+        }
+        LOG.debug("Loaded index of {} files for folder '{}'", index.relativePaths.size(), folderRoot);
+        return index;
+      }
+    } catch (IOException e) {
+      LOG.debug("Unable to load file index of folder '" + folderRoot + "'", e);
+      return null;
+    }
+  }
+
+  private void save(FolderIndex index) {
+    var storeFile = getStoreFile(index.folderRoot);
+    if (storeFile.isEmpty()) {
+      return;
+    }
+    try {
+      Files.createDirectories(storeFile.get().getParent());
+      try (var writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(storeFile.get())), StandardCharsets.UTF_8))) {
+        writer.write(header(index.folderRoot));
+        writer.newLine();
+        for (var path : index.relativePaths) {
+          writer.write(path);
+          writer.newLine();
+        }
+      }
+      index.dirty = false;
+    } catch (IOException e) {
+      LOG.error("Unable to save file index of folder '" + index.folderRoot + "'", e);
+    }
+  }
+
+  private String header(Path folderRoot) {
+    return FORMAT_VERSION + "|" + folderRoot + "|" + excludedDirectoryNames.stream().sorted().collect(Collectors.joining(","));
+  }
+
+  private Optional<Path> getStoreFile(Path folderRoot) {
+    return Optional.ofNullable(storeDir).map(dir -> dir.resolve(DigestUtils.md5Hex(folderRoot.toString()) + ".gz"));
+  }
+
+  private static class FolderIndex {
+    private final Path folderRoot;
+    private final Set<String> relativePaths = ConcurrentHashMap.newKeySet();
+    private volatile boolean dirty;
+    // Paths of the files and directories notified by events while a scan is checking the index, if any
+    @Nullable
+    private Set<String> changedDuringRescan;
+
+    private FolderIndex(Path folderRoot) {
+      this.folderRoot = folderRoot;
+    }
+  }
+}
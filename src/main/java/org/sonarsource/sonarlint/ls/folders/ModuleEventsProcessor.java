@@ -22,8 +22,10 @@ package org.sonarsource.sonarlint.ls.folders;
 import java.net.URI;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 import org.eclipse.lsp4j.FileChangeType;
 import org.eclipse.lsp4j.FileEvent;
 import org.sonarsource.sonarlint.core.analysis.api.ClientModuleFileEvent;
@@ -56,7 +58,7 @@ public class ModuleEventsProcessor implements WorkspaceFolderLifecycleListener {
     this.bindingManager = bindingManager;
     this.fileTypeClassifier = fileTypeClassifier;
     this.javaConfigCache = javaConfigCache;
-    this.asyncExecutor = Executors.newSingleThreadExecutor(Utils.threadFactory("SonarLint Language Server Module Events Processor", false));
+    this.asyncExecutor = Executors.newSingleThreadExecutor(Utils.blockingIoThreadFactory("SonarLint Language Server Module Events Processor", false));
   }
 
   public void didChangeWatchedFiles(List<FileEvent> changes) {
@@ -75,12 +77,10 @@ public class ModuleEventsProcessor implements WorkspaceFolderLifecycleListener {
 
         var binding = bindingManager.getBinding(fileUri);
 
-        var engineForFile = binding.isPresent() ? binding.get().getEngine() : standaloneEngineManager.getOrCreateStandaloneEngine();
-
         var inputFile = new InFolderClientInputFile(fileUri, baseDir.relativize(Paths.get(fileUri)).toString(),
           fileTypeClassifier.isTest(settings, fileUri, false, () -> javaConfigCache.getOrFetch(fileUri)));
 
-        engineForFile.fireModuleFileEvent(WorkspaceFoldersProvider.key(folder), ClientModuleFileEvent.of(inputFile, eventType));
+        withEngine(binding, engine -> engine.fireModuleFileEvent(WorkspaceFoldersProvider.key(folder), ClientModuleFileEvent.of(inputFile, eventType)));
       });
   }
 
@@ -96,24 +96,34 @@ public class ModuleEventsProcessor implements WorkspaceFolderLifecycleListener {
     throw new IllegalArgumentException("Unknown event type: " + type);
   }
 
-  private SonarLintEngine findEngineFor(WorkspaceFolderWrapper folder) {
-    return bindingManager.getBinding(folder)
-      .map(ProjectBindingWrapper::getEngine)
-      .map(SonarLintEngine.class::cast)
-      .orElseGet(standaloneEngineManager::getOrCreateStandaloneEngine);
+  /**
+   * The standalone engine is leased, so that a restart to load more analyzers does not stop it while in use
+   */
+  private void withEngine(Optional<ProjectBindingWrapper> binding, Consumer<SonarLintEngine> action) {
+    if (binding.isPresent()) {
+      action.accept(binding.get().getEngine());
+      return;
+    }
+    var standaloneEngine = standaloneEngineManager.acquireStandaloneEngine();
+    try {
+      action.accept(standaloneEngine);
+    } finally {
+      standaloneEngineManager.releaseStandaloneEngine(standaloneEngine);
+    }
   }
 
   @Override
   public void added(WorkspaceFolderWrapper addedFolder) {
     asyncExecutor.execute(() -> {
       var folderFileSystem = new FolderFileSystem(addedFolder, javaConfigCache, fileTypeClassifier);
-      findEngineFor(addedFolder).declareModule(new ClientModuleInfo(WorkspaceFoldersProvider.key(addedFolder), folderFileSystem));
+      withEngine(bindingManager.getBinding(addedFolder),
+        engine -> engine.declareModule(new ClientModuleInfo(WorkspaceFoldersProvider.key(addedFolder), folderFileSystem)));
     });
   }
 
   @Override
   public void removed(WorkspaceFolderWrapper removedFolder) {
-    asyncExecutor.execute(() -> findEngineFor(removedFolder).stopModule(WorkspaceFoldersProvider.key(removedFolder)));
+    asyncExecutor.execute(() -> withEngine(bindingManager.getBinding(removedFolder), engine -> engine.stopModule(WorkspaceFoldersProvider.key(removedFolder))));
   }
 
   public void shutdown() {
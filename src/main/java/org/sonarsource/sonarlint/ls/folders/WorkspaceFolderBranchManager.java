@@ -48,7 +48,7 @@ public class WorkspaceFolderBranchManager implements WorkspaceFolderLifecycleLis
   private final ExecutorService executorService;
 
   public WorkspaceFolderBranchManager(SonarLintExtendedLanguageClient client, ProjectBindingManager bindingManager, ServerSynchronizer serverSynchronizer) {
-    this(client, bindingManager, serverSynchronizer, Executors.newSingleThreadExecutor(Utils.threadFactory("SonarLint Language Server Branch Manager", false)));
+    this(client, bindingManager, serverSynchronizer, Executors.newSingleThreadExecutor(Utils.blockingIoThreadFactory("SonarLint Language Server Branch Manager", false)));
   }
 
   WorkspaceFolderBranchManager(SonarLintExtendedLanguageClient client, ProjectBindingManager bindingManager, ServerSynchronizer serverSynchronizer,
@@ -0,0 +1,106 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.folders;
+
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import org.sonarsource.sonarlint.ls.util.Utils;
+
+/**
+ * Immutable trie of workspace folders, indexed by path segments, to find the folders containing a file without comparing the file
+ * with every folder. It follows the same rules as {@link WorkspaceFoldersManager#isAncestor(URI, URI)}.
+ */
+class WorkspaceFolderLookup {
+
+  private final Node root = new Node();
+  private final boolean empty;
+
+  WorkspaceFolderLookup(Collection<WorkspaceFolderWrapper> folders) {
+    folders.forEach(this::add);
+    this.empty = folders.isEmpty();
+  }
+
+  private void add(WorkspaceFolderWrapper folder) {
+    var node = root;
+    for (var segment : segments(folder.getUri())) {
+      node = node.children.computeIfAbsent(segment, k -> new Node());
+    }
+    node.folder = folder;
+  }
+
+  /**
+   * @return the folders containing the given file, from the outermost to the deepest one
+   */
+  List<WorkspaceFolderWrapper> findAncestors(URI fileUri) {
+    if (empty) {
+      return List.of();
+    }
+    var ancestors = new ArrayList<WorkspaceFolderWrapper>();
+    var node = root;
+    for (var segment : segments(fileUri)) {
+      node = node.children.get(segment);
+      if (node == null) {
+        break;
+      }
+      if (node.folder != null) {
+        ancestors.add(node.folder);
+      }
+    }
+    return ancestors;
+  }
+
+  private static List<Object> segments(URI uri) {
+    if (uri.isOpaque()) {
+      throw new IllegalArgumentException("Only hierarchical URIs are supported");
+    }
+    var segments = new ArrayList<Object>();
+    segments.add(uri.getScheme().toLowerCase(Locale.ENGLISH) + "://" + uri.getHost() + ":" + uri.getPort());
+    if (Utils.uriHasFileScheme(uri)) {
+      try {
+        // Compare file paths the way the platform does (e.g. case-insensitive on Windows)
+        var path = Paths.get(uri);
+        if (path.getRoot() != null) {
+          segments.add(path.getRoot());
+        }
+        path.forEach(segments::add);
+        return segments;
+      } catch (IllegalArgumentException e) {
+        // e.g. UNC paths on Unix, fall back to comparing raw segments
+      }
+    }
+    for (var segment : uri.getPath().split("/")) {
+      segments.add(segment);
+    }
+    return segments;
+  }
+
+  private static class Node {
+    private final Map<Object, Node> children = new HashMap<>();
+    @CheckForNull
+    private WorkspaceFolderWrapper folder;
+  }
+}
@@ -24,16 +24,13 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.eclipse.lsp4j.WorkspaceFolder;
@@ -51,13 +48,14 @@ public class WorkspaceFoldersManager {
   private static final SonarLintLogger LOG = SonarLintLogger.get();
 
   private final Map<URI, WorkspaceFolderWrapper> folders = new ConcurrentHashMap<>();
+  private volatile WorkspaceFolderLookup folderLookup = new WorkspaceFolderLookup(List.of());
   private final List<WorkspaceFolderLifecycleListener> listeners = new ArrayList<>();
   private ProjectBindingManager bindingManager;
   private final BackendServiceFacade backendServiceFacade;
   private final ExecutorService executor;
 
   public WorkspaceFoldersManager(BackendServiceFacade backendServiceFacade) {
-    this(Executors.newCachedThreadPool(Utils.threadFactory("SonarLint folders manager", false)), backendServiceFacade);
+    this(Utils.newBlockingIoExecutor("SonarLint folders manager", false), backendServiceFacade);
   }
 
   WorkspaceFoldersManager(ExecutorService executor, BackendServiceFacade backendServiceFacade) {
@@ -106,6 +104,7 @@ public class WorkspaceFoldersManager {
   @CheckForNull
   private WorkspaceFolderWrapper removeFolder(URI uri) {
     var removed = folders.remove(uri);
+    refreshFolderLookup();
     if (removed == null) {
       LOG.warn("Unregistered workspace folder was missing: " + uri);
       return null;
@@ -117,7 +116,9 @@ public class WorkspaceFoldersManager {
 
   private WorkspaceFolderWrapper addFolder(WorkspaceFolder added, URI uri) {
     var addedWrapper = new WorkspaceFolderWrapper(uri, added);
-    if (folders.put(uri, addedWrapper) != null) {
+    var previous = folders.put(uri, addedWrapper);
+    refreshFolderLookup();
+    if (previous != null) {
       LOG.warn("Registered workspace folder {} was already added", addedWrapper);
     } else {
       LOG.debug("Folder {} added", addedWrapper);
@@ -129,6 +130,10 @@ public class WorkspaceFoldersManager {
     return addedWrapper;
   }
 
+  private synchronized void refreshFolderLookup() {
+    folderLookup = new WorkspaceFolderLookup(folders.values());
+  }
+
   private Function<WorkspaceFolder, Optional<ProjectBindingWrapper>> getBindingProvider() {
     return folder -> bindingManager.getBinding(create(folder.getUri()));
   }
@@ -138,18 +143,15 @@ public class WorkspaceFoldersManager {
   }
 
   public Optional<WorkspaceFolderWrapper> findFolderForFile(URI uri) {
-    var folderUriCandidates = folders.keySet().stream()
-      .filter(wfRoot -> isAncestor(wfRoot, uri))
-      // Sort by path descending length to prefer the deepest one in case of multiple nested workspace folders
-      .sorted(Comparator.<URI>comparingInt(wfRoot -> wfRoot.getPath().length()).reversed())
-      .collect(Collectors.toList());
-    if (folderUriCandidates.isEmpty()) {
+    var candidates = folderLookup.findAncestors(uri);
+    if (candidates.isEmpty()) {
       return Optional.empty();
     }
-    if (folderUriCandidates.size() > 1) {
+    if (candidates.size() > 1) {
       LOG.debug("Multiple candidates workspace folders to contains {}. Default to the deepest one.", uri);
     }
-    return Optional.of(folders.get(folderUriCandidates.get(0)));
+    // Prefer the deepest one in case of multiple nested workspace folders
+    return Optional.of(candidates.get(candidates.size() - 1));
   }
 
   // Visible for testing
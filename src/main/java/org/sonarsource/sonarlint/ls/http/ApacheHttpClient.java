@@ -20,6 +20,7 @@
 package org.sonarsource.sonarlint.ls.http;
 
 import java.io.IOException;
+import java.net.URI;
 import java.nio.CharBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
@@ -33,12 +34,15 @@ import javax.annotation.Nullable;
 import org.apache.hc.client5.http.async.methods.AbstractCharResponseConsumer;
 import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
 import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.HttpHeaders;
 import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Method;
 import org.apache.hc.core5.http.nio.support.BasicRequestProducer;
 import org.apache.hc.core5.util.Timeout;
 import org.sonarsource.sonarlint.core.commons.http.HttpClient;
@@ -52,15 +56,58 @@ public class ApacheHttpClient implements HttpClient {
   private final CloseableHttpAsyncClient client;
   @CheckForNull
   private final String token;
+  private final boolean compressionEnabled;
+  private final boolean streamingEnabled;
+  private final HttpMetrics metrics;
+  @CheckForNull
+  private final String connectionId;
 
-  ApacheHttpClient(@Nullable String token, CloseableHttpAsyncClient client) {
+  ApacheHttpClient(@Nullable String token, CloseableHttpAsyncClient client, boolean compressionEnabled, boolean streamingEnabled, HttpMetrics metrics,
+    @Nullable String connectionId) {
     this.token = token;
     this.client = client;
+    this.compressionEnabled = compressionEnabled;
+    this.streamingEnabled = streamingEnabled;
+    this.metrics = metrics;
+    this.connectionId = connectionId;
+  }
+
+  private HttpMetrics.Exchange startExchange(String method, String url, long bytesOut, boolean streaming) {
+    var connection = connectionId;
+    if (connection == null) {
+      try {
+        connection = URI.create(url).getHost();
+      } catch (IllegalArgumentException e) {
+        // keep the unknown connection label
+      }
+    }
+    return metrics.start(connection != null ? connection : "unknown", method, url, bytesOut, streaming);
   }
 
   @Override
   public Response get(String url) {
-    return executeSync(SimpleRequestBuilder.get(url));
+    return streamingEnabled ? getStreaming(url) : executeSync(SimpleRequestBuilder.get(url));
+  }
+
+  /**
+   * Same as {@link #get(String)}, but returns as soon as the response headers are received, and the body is downloaded while it is
+   * read. The response must be closed to release the connection if the body is not fully read.
+   */
+  public Response getStreaming(String url) {
+    var httpRequest = SimpleRequestBuilder.get(url);
+    addCommonHeaders(httpRequest);
+    var metricsExchange = startExchange(Method.GET.name(), url, 0, false);
+    var exchange = client.execute(SimpleRequestProducer.create(httpRequest.build()), new ApacheStreamingHttpResponse.Consumer(url, metricsExchange),
+      metricsExchange.context(), null);
+    try {
+      return exchange.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      exchange.cancel(true);
+      throw new IllegalStateException("Interrupted!", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getMessage(), e.getCause());
+    }
   }
 
   @Override
@@ -86,6 +133,7 @@ public class ApacheHttpClient implements HttpClient {
     }
     request.setHeader("Accept", "text/event-stream");
     var status = new EventStreamStatus();
+    var metricsExchange = startExchange(Method.GET.name(), url, 0, true);
     var httpFuture = client.execute(
       new BasicRequestProducer(request, null),
       new AbstractCharResponseConsumer<Void>() {
@@ -101,6 +149,7 @@ public class ApacheHttpClient implements HttpClient {
 
         @Override
         protected void data(CharBuffer charBuffer, boolean b) {
+          metricsExchange.bytesReceived(charBuffer.remaining());
           if (status.connected) {
             messageConsumer.accept(charBuffer.toString());
           }
@@ -110,6 +159,7 @@ public class ApacheHttpClient implements HttpClient {
         protected void start(HttpResponse httpResponse, ContentType contentType) {
           var responseCode = httpResponse.getCode();
           if (responseCode < 200 || responseCode >= 300) {
+            metricsExchange.completed(responseCode);
             connectionListener.onError(responseCode);
           } else {
             status.markConnected();
@@ -127,9 +177,10 @@ public class ApacheHttpClient implements HttpClient {
         protected Void buildResult() {
           return null;
         }
-      }, new FutureCallback<>() {
+      }, metricsExchange.context(), new FutureCallback<>() {
         @Override
         public void completed(Void unused) {
+          metricsExchange.completed(HttpStatus.SC_OK);
           if (status.connected) {
             connectionListener.onClosed();
           }
@@ -137,6 +188,7 @@ public class ApacheHttpClient implements HttpClient {
 
         @Override
         public void failed(Exception e) {
+          metricsExchange.failed();
           if (status.connected) {
             // called when disconnected from server
             connectionListener.onClosed();
@@ -147,7 +199,8 @@ public class ApacheHttpClient implements HttpClient {
 
         @Override
         public void cancelled() {
-          // nothing to do, the completable future is already canceled
+          // the completable future is already canceled
+          metricsExchange.completed(HttpStatus.SC_OK);
         }
       }
     );
@@ -201,35 +254,53 @@ public class ApacheHttpClient implements HttpClient {
   }
 
   private CompletableFuture<Response> executeAsync(SimpleRequestBuilder httpRequest) {
+    addCommonHeaders(httpRequest);
+    var request = httpRequest.build();
+    var body = request.getBodyBytes();
+    var metricsExchange = startExchange(request.getMethod(), httpRequest.getUri().toString(), body != null ? body.length : 0, false);
+    var futureWrapper = new CompletableFutureWrapper(httpRequest, metricsExchange);
+    futureWrapper.wrapped = client.execute(request, metricsExchange.context(), futureWrapper);
+    return futureWrapper;
+  }
+
+  private void addCommonHeaders(SimpleRequestBuilder httpRequest) {
     if (token != null) {
       httpRequest.setHeader(HttpHeaders.AUTHORIZATION, basic(token));
     }
-    var futureWrapper = new CompletableFutureWrapper(httpRequest);
-    futureWrapper.wrapped = client.execute(httpRequest.build(), futureWrapper);
-    return futureWrapper;
+    if (compressionEnabled) {
+      // The async client does not decompress responses itself, see ApacheHttpResponse
+      httpRequest.setHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+    }
   }
 
   private static final class CompletableFutureWrapper extends CompletableFuture<Response> implements FutureCallback<SimpleHttpResponse> {
 
     private Future<SimpleHttpResponse> wrapped;
     private final SimpleRequestBuilder httpRequest;
+    private final HttpMetrics.Exchange metricsExchange;
 
-    CompletableFutureWrapper(SimpleRequestBuilder httpRequest) {
+    CompletableFutureWrapper(SimpleRequestBuilder httpRequest, HttpMetrics.Exchange metricsExchange) {
       this.httpRequest = httpRequest;
+      this.metricsExchange = metricsExchange;
     }
 
     @Override
     public void completed(SimpleHttpResponse result) {
+      var body = result.getBodyBytes();
+      metricsExchange.bytesReceived(body != null ? body.length : 0);
+      metricsExchange.completed(result.getCode());
       this.complete(new ApacheHttpResponse(httpRequest.getUri().toString(), result));
     }
 
     @Override
     public void failed(Exception ex) {
+      metricsExchange.failed();
       this.completeExceptionally(ex);
     }
 
     @Override
     public void cancelled() {
+      metricsExchange.failed();
       this.completeExceptionally(new CancellationException());
     }
 
@@ -20,10 +20,16 @@
 package org.sonarsource.sonarlint.ls.http;
 
 import java.io.IOException;
+import java.util.Optional;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.ChainElement;
 import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
 import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.pool.PoolStats;
 import org.apache.hc.core5.reactor.IOReactorConfig;
 import org.apache.hc.core5.util.Timeout;
 import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
@@ -35,20 +41,62 @@ public class ApacheHttpClientProvider {
   private static final Timeout CONNECTION_TIMEOUT = Timeout.ofSeconds(30);
   private static final Timeout RESPONSE_TIMEOUT = Timeout.ofMinutes(10);
   private static final Timeout SOCKET_OPTIONS_TIMEOUT = Timeout.ofMinutes(1);
+  static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 16;
+  static final int DEFAULT_MAX_CONNECTIONS_TOTAL = 64;
 
+  private final int maxConnectionsPerRoute;
+  private final int maxConnectionsTotal;
+  private final boolean http2Enabled;
+  private final boolean compressionEnabled;
+  private final boolean streamingEnabled;
+  private final HttpMetrics metrics = new HttpMetrics();
   private CloseableHttpAsyncClient client;
+  private PoolingAsyncClientConnectionManager connectionManager;
+
+  public ApacheHttpClientProvider() {
+    this(getIntFromEnv("SONARLINT_INTERNAL_HTTP_MAX_CONNECTIONS_PER_ROUTE", DEFAULT_MAX_CONNECTIONS_PER_ROUTE),
+      getIntFromEnv("SONARLINT_INTERNAL_HTTP_MAX_CONNECTIONS_TOTAL", DEFAULT_MAX_CONNECTIONS_TOTAL),
+      Boolean.parseBoolean(System.getenv("SONARLINT_INTERNAL_HTTP2")),
+      !Boolean.parseBoolean(System.getenv("SONARLINT_INTERNAL_HTTP_DISABLE_COMPRESSION")),
+      Boolean.parseBoolean(System.getenv("SONARLINT_INTERNAL_HTTP_STREAMING_RESPONSES")));
+  }
+
+  ApacheHttpClientProvider(int maxConnectionsPerRoute, int maxConnectionsTotal, boolean http2Enabled, boolean compressionEnabled, boolean streamingEnabled) {
+    this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    this.maxConnectionsTotal = maxConnectionsTotal;
+    this.http2Enabled = http2Enabled;
+    this.compressionEnabled = compressionEnabled;
+    this.streamingEnabled = streamingEnabled;
+  }
+
+  private static int getIntFromEnv(String name, int defaultValue) {
+    return Integer.parseInt(StringUtils.defaultIfBlank(System.getenv(name), String.valueOf(defaultValue)));
+  }
 
   public ApacheHttpClient withToken(String token) {
-    return new ApacheHttpClient(token, client);
+    return new ApacheHttpClient(token, client, compressionEnabled, streamingEnabled, metrics, null);
+  }
+
+  /**
+   * Same as {@link #withToken(String)}, with HTTP metrics attributed to the given connection instead of the server host.
+   */
+  public ApacheHttpClient withToken(String token, String connectionId) {
+    return new ApacheHttpClient(token, client, compressionEnabled, streamingEnabled, metrics, connectionId);
   }
 
   public ApacheHttpClient anonymous() {
-    return new ApacheHttpClient(null, client);
+    return new ApacheHttpClient(null, client, compressionEnabled, streamingEnabled, metrics, null);
   }
 
   public void initialize(String productName, String productVersion) {
+    this.connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+      .useSystemProperties()
+      .setMaxConnPerRoute(maxConnectionsPerRoute)
+      .setMaxConnTotal(maxConnectionsTotal)
+      .build();
     this.client = HttpAsyncClients.custom()
       .useSystemProperties()
+      .setConnectionManager(connectionManager)
       .setUserAgent(productName + " " + productVersion)
       .setIOReactorConfig(
         IOReactorConfig.custom()
@@ -60,14 +108,36 @@ public class ApacheHttpClientProvider {
           .setConnectionRequestTimeout(CONNECTION_TIMEOUT)
           .setResponseTimeout(RESPONSE_TIMEOUT)
           .build())
-      .setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_1)
+      .addExecInterceptorBefore(ChainElement.CONNECT.name(), "metrics-connection-requested", (request, entityProducer, scope, chain, callback) -> {
+        metrics.connectionRequested(scope.clientContext);
+        chain.proceed(request, entityProducer, scope, callback);
+      })
+      .addExecInterceptorAfter(ChainElement.CONNECT.name(), "metrics-connection-ready", (request, entityProducer, scope, chain, callback) -> {
+        metrics.connectionReady(scope.clientContext);
+        chain.proceed(request, entityProducer, scope, callback);
+      })
+      .addResponseInterceptorFirst((response, entityDetails, context) -> metrics.responseReceived(context))
+      // HTTP/2 is only negotiated over TLS (ALPN), plain HTTP connections stay on HTTP/1.1
+      .setVersionPolicy(http2Enabled ? HttpVersionPolicy.NEGOTIATE : HttpVersionPolicy.FORCE_HTTP_1)
       .build();
     this.client.start();
   }
 
+  /**
+   * @return statistics of the connection pool shared by all server connections, or empty if the client is not initialized yet
+   */
+  public Optional<PoolStats> getConnectionPoolStats() {
+    return Optional.ofNullable(connectionManager).map(PoolingAsyncClientConnectionManager::getTotalStats);
+  }
+
+  public HttpMetrics getMetrics() {
+    return metrics;
+  }
+
   public void close() {
     try {
       if (client != null) {
+        getConnectionPoolStats().ifPresent(stats -> LOG.debug("Closing http client, connection pool: {}", stats));
         client.close();
       }
     } catch (IOException e) {
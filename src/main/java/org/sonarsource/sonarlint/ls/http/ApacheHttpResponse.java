@@ -20,8 +20,19 @@
 package org.sonarsource.sonarlint.ls.http;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
 import org.sonarsource.sonarlint.core.commons.http.HttpClient;
 
 public class ApacheHttpResponse implements HttpClient.Response {
@@ -41,12 +52,52 @@ public class ApacheHttpResponse implements HttpClient.Response {
 
   @Override
   public String bodyAsString() {
-    return response.getBodyText();
+    if (!isCompressed()) {
+      return response.getBodyText();
+    }
+    var charset = Optional.ofNullable(response.getContentType())
+      .map(ContentType::getCharset)
+      .orElse(StandardCharsets.UTF_8);
+    try (var body = bodyAsStream()) {
+      return new String(body.readAllBytes(), charset);
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to decompress response of " + requestUrl, e);
+    }
   }
 
   @Override
   public InputStream bodyAsStream() {
-    return new ByteArrayInputStream(response.getBodyBytes());
+    var body = response.getBodyBytes();
+    return decompress(new ByteArrayInputStream(body != null ? body : new byte[0]), contentEncoding(), requestUrl);
+  }
+
+  static InputStream decompress(InputStream rawStream, @Nullable String contentEncoding, String requestUrl) {
+    try {
+      if ("gzip".equals(contentEncoding) || "x-gzip".equals(contentEncoding)) {
+        return new GZIPInputStream(rawStream);
+      } else if ("deflate".equals(contentEncoding)) {
+        return new InflaterInputStream(rawStream);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to decompress response of " + requestUrl, e);
+    }
+    return rawStream;
+  }
+
+  private boolean isCompressed() {
+    var contentEncoding = contentEncoding();
+    return contentEncoding != null && !"identity".equals(contentEncoding);
+  }
+
+  @CheckForNull
+  private String contentEncoding() {
+    return contentEncoding(response);
+  }
+
+  @CheckForNull
+  static String contentEncoding(HttpResponse response) {
+    var header = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+    return header != null ? header.getValue().trim().toLowerCase(Locale.ENGLISH) : null;
   }
 
   @Override
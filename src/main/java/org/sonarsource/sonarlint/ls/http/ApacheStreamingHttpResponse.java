@@ -0,0 +1,225 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nullable;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.support.classic.ContentInputStream;
+import org.apache.hc.core5.http.nio.support.classic.SharedInputBuffer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.sonarsource.sonarlint.core.commons.http.HttpClient;
+
+/**
+ * Response whose body is read while it is being downloaded. The body goes through a bounded buffer: the server is only allowed to
+ * send more data once the reader consumed what was already received, so memory stays constant whatever the size of the response.
+ * The body can only be read once, and must be read by another thread than the I/O reactor. Closing the body or the response before
+ * the end of the body aborts the exchange, the rest of the body is not downloaded.
+ */
+class ApacheStreamingHttpResponse implements HttpClient.Response {
+
+  static final int BUFFER_SIZE = 64 * 1024;
+
+  private final String requestUrl;
+  private final HttpResponse response;
+  private final InputStream body;
+
+  private ApacheStreamingHttpResponse(String requestUrl, HttpResponse response, InputStream body) {
+    this.requestUrl = requestUrl;
+    this.response = response;
+    this.body = body;
+  }
+
+  @Override
+  public int code() {
+    return response.getCode();
+  }
+
+  @Override
+  public String bodyAsString() {
+    var charset = Optional.ofNullable(response.getFirstHeader(HttpHeaders.CONTENT_TYPE))
+      .map(header -> ContentType.parse(header.getValue()).getCharset())
+      .orElse(StandardCharsets.UTF_8);
+    try (var stream = bodyAsStream()) {
+      return new String(stream.readAllBytes(), charset);
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to read response of " + requestUrl, e);
+    }
+  }
+
+  @Override
+  public InputStream bodyAsStream() {
+    return ApacheHttpResponse.decompress(body, ApacheHttpResponse.contentEncoding(response), requestUrl);
+  }
+
+  @Override
+  public void close() {
+    try {
+      body.close();
+    } catch (IOException e) {
+      // nothing more to release
+    }
+  }
+
+  @Override
+  public String url() {
+    return requestUrl;
+  }
+
+  static class Consumer implements AsyncResponseConsumer<ApacheStreamingHttpResponse> {
+
+    private final String requestUrl;
+    private final HttpMetrics.Exchange metricsExchange;
+    private final SharedInputBuffer buffer = new SharedInputBuffer(BUFFER_SIZE);
+    @Nullable
+    private volatile Exception failure;
+    private volatile int statusCode;
+    private volatile boolean ended;
+    private volatile boolean discarded;
+    @Nullable
+    private volatile CapacityChannel capacityChannel;
+
+    Consumer(String requestUrl, HttpMetrics.Exchange metricsExchange) {
+      this.requestUrl = requestUrl;
+      this.metricsExchange = metricsExchange;
+    }
+
+    @Override
+    public void consumeResponse(HttpResponse response, @Nullable EntityDetails entityDetails, HttpContext context,
+      FutureCallback<ApacheStreamingHttpResponse> resultCallback) {
+      statusCode = response.getCode();
+      if (entityDetails == null) {
+        ended = true;
+        buffer.markEndStream();
+        metricsExchange.completed(statusCode);
+      }
+      // Complete as soon as headers are received, the body is read from the stream
+      resultCallback.completed(new ApacheStreamingHttpResponse(requestUrl, response, new FailureAwareInputStream(new ContentInputStream(buffer))));
+    }
+
+    @Override
+    public void informationResponse(HttpResponse response, HttpContext context) {
+      // nothing to do
+    }
+
+    @Override
+    public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+      this.capacityChannel = capacityChannel;
+      buffer.updateCapacity(capacityChannel);
+    }
+
+    @Override
+    public void consume(ByteBuffer src) throws IOException {
+      if (discarded) {
+        // Failing the exchange is the only way for a consumer to abort it, the connection is then closed instead of being reused
+        throw new IOException("Response of " + requestUrl + " was closed before the end of its body");
+      }
+      metricsExchange.bytesReceived(src.remaining());
+      buffer.fill(src);
+    }
+
+    @Override
+    public void streamEnd(@Nullable List<? extends Header> trailers) {
+      ended = true;
+      buffer.markEndStream();
+      metricsExchange.completed(statusCode);
+    }
+
+    @Override
+    public void failed(Exception cause) {
+      ended = true;
+      failure = cause;
+      metricsExchange.failed();
+      buffer.abort();
+    }
+
+    /**
+     * Stops the download of a body that was not fully read. Reading the rest of the body to reuse the connection could mean downloading
+     * a lot of data for nothing.
+     */
+    private void discard() throws IOException {
+      if (ended || discarded) {
+        return;
+      }
+      discarded = true;
+      buffer.abort();
+      var channel = capacityChannel;
+      if (channel != null) {
+        // The server may be blocked because the buffer is full, let it send data so that the exchange is aborted on next chunk
+        channel.update(Integer.MAX_VALUE);
+      }
+    }
+
+    @Override
+    public void releaseResources() {
+      // the buffer is released when the body is read or the response closed, an exchange released before its end was aborted
+      metricsExchange.failed();
+    }
+
+    /**
+     * An aborted buffer looks like the end of the body, report the failure instead of a truncated body.
+     */
+    private class FailureAwareInputStream extends FilterInputStream {
+
+      private FailureAwareInputStream(InputStream in) {
+        super(in);
+      }
+
+      @Override
+      public int read() throws IOException {
+        return checkFailure(super.read());
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        return checkFailure(super.read(b, off, len));
+      }
+
+      /**
+       * Unlike {@link ContentInputStream#close()}, do not read the rest of the body
+       */
+      @Override
+      public void close() throws IOException {
+        discard();
+      }
+
+      private int checkFailure(int read) throws IOException {
+        var cause = failure;
+        if (read == -1 && cause != null) {
+          throw new IOException("Download of " + requestUrl + " failed", cause);
+        }
+        return read;
+      }
+    }
+  }
+}
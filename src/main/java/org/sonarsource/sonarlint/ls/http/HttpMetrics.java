@@ -0,0 +1,357 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.http;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+/**
+ * Counters and latency histograms of HTTP exchanges, per server connection and endpoint. Paths are turned into templates (query
+ * removed, identifiers replaced by <code>{id}</code>) so that the number of tracked endpoints stays small.
+ */
+public class HttpMetrics {
+
+  private static final String CONNECTION_REQUESTED_ATTRIBUTE = "sonarlint.metrics.connectionRequested";
+  private static final String CONNECTION_READY_ATTRIBUTE = "sonarlint.metrics.connectionReady";
+  private static final String RESPONSE_RECEIVED_ATTRIBUTE = "sonarlint.metrics.responseReceived";
+  static final long[] LATENCY_BUCKETS_MS = {10, 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 30_000, 60_000};
+  private static final Pattern IDENTIFIER_SEGMENT = Pattern.compile("\\d+|[0-9a-fA-F-]{20,}");
+
+  private final Map<String, EndpointMetrics> metricsByEndpoint = new ConcurrentHashMap<>();
+  private final LongSupplier nanoClock;
+
+  public HttpMetrics() {
+    this(System::nanoTime);
+  }
+
+  HttpMetrics(LongSupplier nanoClock) {
+    this.nanoClock = nanoClock;
+  }
+
+  Exchange start(String connection, String method, String url, long bytesOut, boolean streaming) {
+    var path = pathTemplate(url);
+    var endpoint = metricsByEndpoint.computeIfAbsent(connection + " " + method + " " + path, k -> new EndpointMetrics(connection, method, path));
+    endpoint.requests.increment();
+    endpoint.bytesOut.add(bytesOut);
+    return new Exchange(endpoint, nanoClock.getAsLong(), streaming);
+  }
+
+  void connectionRequested(HttpContext context) {
+    context.setAttribute(CONNECTION_REQUESTED_ATTRIBUTE, nanoClock.getAsLong());
+  }
+
+  void connectionReady(HttpContext context) {
+    context.setAttribute(CONNECTION_READY_ATTRIBUTE, nanoClock.getAsLong());
+  }
+
+  void responseReceived(HttpContext context) {
+    context.setAttribute(RESPONSE_RECEIVED_ATTRIBUTE, nanoClock.getAsLong());
+  }
+
+  static String pathTemplate(String url) {
+    String path;
+    try {
+      path = URI.create(url).getRawPath();
+    } catch (IllegalArgumentException e) {
+      path = url.replaceFirst("\\?.*", "");
+    }
+    if (path == null || path.isEmpty()) {
+      return "/";
+    }
+    var segments = path.split("/", -1);
+    for (var i = 0; i < segments.length; i++) {
+      if (IDENTIFIER_SEGMENT.matcher(segments[i]).matches()) {
+        segments[i] = "{id}";
+      }
+    }
+    return String.join("/", segments);
+  }
+
+  public List<EndpointSnapshot> snapshot() {
+    var snapshots = new ArrayList<EndpointSnapshot>();
+    metricsByEndpoint.values().forEach(endpoint -> snapshots.add(endpoint.snapshot()));
+    snapshots.sort(Comparator.comparing(EndpointSnapshot::getConnection).thenComparing(EndpointSnapshot::getPath).thenComparing(EndpointSnapshot::getMethod));
+    return snapshots;
+  }
+
+  class Exchange {
+    private final EndpointMetrics endpoint;
+    private final long startNanos;
+    private final boolean streaming;
+    private final HttpClientContext context = HttpClientContext.create();
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    private Exchange(EndpointMetrics endpoint, long startNanos, boolean streaming) {
+      this.endpoint = endpoint;
+      this.startNanos = startNanos;
+      this.streaming = streaming;
+    }
+
+    HttpClientContext context() {
+      return context;
+    }
+
+    void bytesReceived(long count) {
+      endpoint.bytesIn.add(count);
+    }
+
+    void completed(int statusCode) {
+      if (done.compareAndSet(false, true)) {
+        if (statusCode >= 400) {
+          endpoint.httpErrors.increment();
+        }
+        recordTimings();
+      }
+    }
+
+    void failed() {
+      if (done.compareAndSet(false, true)) {
+        endpoint.failures.increment();
+        recordTimings();
+      }
+    }
+
+    private void recordTimings() {
+      var connectionRequested = (Long) context.getAttribute(CONNECTION_REQUESTED_ATTRIBUTE);
+      var connectionReady = (Long) context.getAttribute(CONNECTION_READY_ATTRIBUTE);
+      if (connectionRequested != null && connectionReady != null) {
+        endpoint.connectionWait.record(connectionReady - connectionRequested);
+      }
+      var responseReceived = (Long) context.getAttribute(RESPONSE_RECEIVED_ATTRIBUTE);
+      if (responseReceived != null) {
+        endpoint.timeToFirstByte.record(responseReceived - startNanos);
+      }
+      if (!streaming) {
+        // The duration of an event stream is the duration of the subscription, not a latency
+        endpoint.latency.record(nanoClock.getAsLong() - startNanos);
+      }
+    }
+  }
+
+  private static class EndpointMetrics {
+    private final String connection;
+    private final String method;
+    private final String path;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder httpErrors = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final Histogram latency = new Histogram();
+    private final Histogram timeToFirstByte = new Histogram();
+    private final Histogram connectionWait = new Histogram();
+
+    private EndpointMetrics(String connection, String method, String path) {
+      this.connection = connection;
+      this.method = method;
+      this.path = path;
+    }
+
+    private EndpointSnapshot snapshot() {
+      return new EndpointSnapshot(connection, method, path, requests.sum(), failures.sum(), httpErrors.sum(), bytesIn.sum(), bytesOut.sum(),
+        latency.snapshot(), timeToFirstByte.snapshot(), connectionWait.snapshot());
+    }
+  }
+
+  private static class Histogram {
+    private final AtomicLongArray counts = new AtomicLongArray(LATENCY_BUCKETS_MS.length + 1);
+    private final LongAdder totalNanos = new LongAdder();
+
+    private void record(long nanos) {
+      var millis = Math.max(0, nanos / 1_000_000);
+      var bucket = 0;
+      while (bucket < LATENCY_BUCKETS_MS.length && millis > LATENCY_BUCKETS_MS[bucket]) {
+        bucket++;
+      }
+      counts.incrementAndGet(bucket);
+      totalNanos.add(Math.max(0, nanos));
+    }
+
+    private HistogramSnapshot snapshot() {
+      var bucketCounts = new long[counts.length()];
+      for (var i = 0; i < bucketCounts.length; i++) {
+        bucketCounts[i] = counts.get(i);
+      }
+      return new HistogramSnapshot(bucketCounts, totalNanos.sum());
+    }
+  }
+
+  public static class EndpointSnapshot {
+    private final String connection;
+    private final String method;
+    private final String path;
+    private final long requestCount;
+    private final long failureCount;
+    private final long httpErrorCount;
+    private final long bytesIn;
+    private final long bytesOut;
+    private final HistogramSnapshot latency;
+    private final HistogramSnapshot timeToFirstByte;
+    private final HistogramSnapshot connectionWait;
+
+    EndpointSnapshot(String connection, String method, String path, long requestCount, long failureCount, long httpErrorCount, long bytesIn, long bytesOut,
+      HistogramSnapshot latency, HistogramSnapshot timeToFirstByte, HistogramSnapshot connectionWait) {
+      this.connection = connection;
+      this.method = method;
+      this.path = path;
+      this.requestCount = requestCount;
+      this.failureCount = failureCount;
+      this.httpErrorCount = httpErrorCount;
+      this.bytesIn = bytesIn;
+      this.bytesOut = bytesOut;
+      this.latency = latency;
+      this.timeToFirstByte = timeToFirstByte;
+      this.connectionWait = connectionWait;
+    }
+
+    public String getConnection() {
+      return connection;
+    }
+
+    public String getMethod() {
+      return method;
+    }
+
+    public String getPath() {
+      return path;
+    }
+
+    public long getRequestCount() {
+      return requestCount;
+    }
+
+    /**
+     * @return number of exchanges that failed without a response (network error, timeout, cancellation)
+     */
+    public long getFailureCount() {
+      return failureCount;
+    }
+
+    /**
+     * @return number of responses with a 4xx or 5xx status
+     */
+    public long getHttpErrorCount() {
+      return httpErrorCount;
+    }
+
+    public long getBytesIn() {
+      return bytesIn;
+    }
+
+    public long getBytesOut() {
+      return bytesOut;
+    }
+
+    public HistogramSnapshot getLatency() {
+      return latency;
+    }
+
+    public HistogramSnapshot getTimeToFirstByte() {
+      return timeToFirstByte;
+    }
+
+    /**
+     * @return time spent waiting for a pooled connection, including the connection establishment when a new one is opened
+     */
+    public HistogramSnapshot getConnectionWait() {
+      return connectionWait;
+    }
+  }
+
+  public static class HistogramSnapshot {
+    private final long[] bucketUpperBoundsMs = LATENCY_BUCKETS_MS.clone();
+    private final long[] bucketCounts;
+    private final long count;
+    private final long meanMs;
+    private final long p50Ms;
+    private final long p95Ms;
+    private final long p99Ms;
+
+    HistogramSnapshot(long[] bucketCounts, long totalNanos) {
+      this.bucketCounts = bucketCounts;
+      this.count = Arrays.stream(bucketCounts).sum();
+      this.meanMs = count == 0 ? 0 : (totalNanos / count / 1_000_000);
+      this.p50Ms = percentile(0.50);
+      this.p95Ms = percentile(0.95);
+      this.p99Ms = percentile(0.99);
+    }
+
+    /**
+     * @return upper bound of the bucket containing the percentile, or -1 if it is above the last bucket
+     */
+    private long percentile(double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      var rank = (long) Math.ceil(percentile * count);
+      var cumulated = 0L;
+      for (var i = 0; i < bucketUpperBoundsMs.length; i++) {
+        cumulated += bucketCounts[i];
+        if (cumulated >= rank) {
+          return bucketUpperBoundsMs[i];
+        }
+      }
+      return -1;
+    }
+
+    public long[] getBucketUpperBoundsMs() {
+      return bucketUpperBoundsMs.clone();
+    }
+
+    /**
+     * @return number of values in each bucket, the last one counts values above the last upper bound
+     */
+    public long[] getBucketCounts() {
+      return bucketCounts.clone();
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getMeanMs() {
+      return meanMs;
+    }
+
+    public long getP50Ms() {
+      return p50Ms;
+    }
+
+    public long getP95Ms() {
+      return p95Ms;
+    }
+
+    public long getP99Ms() {
+      return p99Ms;
+    }
+  }
+}
@@ -97,7 +97,7 @@ public class JavaConfigCache {
         javaConfigPerFileURI.put(fileUri, configOpt);
         openFile.map(VersionedOpenFile::isJava)
           .filter(Boolean::booleanValue)
-          .ifPresent(isJava -> lsLogOutput.debug("Cached Java config for file '" + fileUri + "'"));
+          .ifPresent(isJava -> lsLogOutput.debug(() -> "Cached Java config for file '" + fileUri + "'"));
         return configOpt;
       });
   }
@@ -147,7 +147,7 @@ public class JavaConfigCache {
       .filter(path -> {
         boolean exists = new File(path).exists();
         if (!exists) {
-          lsLogOutput.debug(format("Classpath '%s' from configuration does not exist, skipped", path));
+          lsLogOutput.debug(() -> format("Classpath '%s' from configuration does not exist, skipped", path));
         }
         return exists;
       })
@@ -166,7 +166,7 @@ public class JavaConfigCache {
       // If we have cached an empty result, still clear the value on classpath update to force next analysis to re-attempt fetch
       if (cachedResponseOpt.isEmpty() || sameProject(projectUri, cachedResponseOpt.get())) {
         it.remove();
-        lsLogOutput.debug("Evicted Java config cache for file '" + entry.getKey() + "'");
+        lsLogOutput.debug(() -> "Evicted Java config cache for file '" + entry.getKey() + "'");
       }
     }
   }
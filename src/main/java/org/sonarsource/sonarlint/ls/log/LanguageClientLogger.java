@@ -25,12 +25,22 @@ import java.time.Clock;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.StringUtils;
 import org.eclipse.lsp4j.MessageParams;
 import org.eclipse.lsp4j.MessageType;
 import org.eclipse.lsp4j.services.LanguageClient;
 import org.sonarsource.sonarlint.ls.settings.WorkspaceSettings;
 import org.sonarsource.sonarlint.ls.settings.WorkspaceSettingsChangeListener;
+import org.sonarsource.sonarlint.ls.util.Utils;
 
 import static java.time.temporal.ChronoField.HOUR_OF_DAY;
 import static java.time.temporal.ChronoField.MILLI_OF_SECOND;
@@ -38,7 +48,8 @@ import static java.time.temporal.ChronoField.MINUTE_OF_HOUR;
 import static java.time.temporal.ChronoField.SECOND_OF_MINUTE;
 
 /**
- * Used by the language server
+ * Used by the language server. Each line is sent to the client in its own notification, unless batching is enabled with
+ * SONARLINT_INTERNAL_LOG_BATCH_DELAY_MS: lines logged within this delay are then joined in a single notification.
  */
 public class LanguageClientLogger implements WorkspaceSettingsChangeListener {
 
@@ -51,29 +62,101 @@ public class LanguageClientLogger implements WorkspaceSettingsChangeListener {
     .appendLiteral('.')
     .appendValue(MILLI_OF_SECOND, 3)
     .toFormatter();
+  static final int MAX_LINES_PER_BATCH = 500;
 
   private final LanguageClient client;
-  private boolean showAnalyzerLogs;
-  private boolean showVerboseLogs;
+  private volatile boolean showAnalyzerLogs;
+  private volatile boolean showVerboseLogs;
   private final Clock clock;
+  @Nullable
+  private final ScheduledExecutorService batchExecutor;
+  private final long batchDelayMs;
+  private final List<String> pendingLines = new ArrayList<>();
+  private boolean flushScheduled;
 
   public LanguageClientLogger(LanguageClient client) {
-    this(client, Clock.systemDefaultZone());
+    this(client, Clock.systemDefaultZone(), getBatchDelayMs());
   }
 
   // Visible for testing
   LanguageClientLogger(LanguageClient client, Clock clock) {
+    this(client, clock, 0);
+  }
+
+  // Visible for testing
+  LanguageClientLogger(LanguageClient client, Clock clock, long batchDelayMs) {
     this.client = client;
     this.clock = clock;
+    this.batchDelayMs = batchDelayMs;
+    this.batchExecutor = batchDelayMs > 0 ? Executors.newSingleThreadScheduledExecutor(Utils.threadFactory("SonarLint log batcher", true)) : null;
+  }
+
+  private static long getBatchDelayMs() {
+    return Long.parseLong(StringUtils.defaultIfBlank(System.getenv("SONARLINT_INTERNAL_LOG_BATCH_DELAY_MS"), "0"));
   }
 
   public void initialize(boolean showVerboseLogs) {
     this.showVerboseLogs = showVerboseLogs;
   }
 
+  private boolean isEnabled(boolean isDebugOrTrace, boolean isFromAnalysis) {
+    return (!isFromAnalysis || showAnalyzerLogs) && (showVerboseLogs || !isDebugOrTrace);
+  }
+
+  /**
+   * @return false when debug and trace messages are discarded, so that callers can skip building them
+   */
+  public boolean isDebugEnabled() {
+    return showVerboseLogs;
+  }
+
   private void log(String prefix, String formattedMessage, boolean isDebugOrTrace, boolean isFromAnalysis) {
-    if ((!isFromAnalysis || showAnalyzerLogs) && (showVerboseLogs || !isDebugOrTrace)) {
-      client.logMessage(new MessageParams(MessageType.Log, prefix(prefix, formattedMessage)));
+    if (isEnabled(isDebugOrTrace, isFromAnalysis)) {
+      send(prefix(prefix, formattedMessage));
+    }
+  }
+
+  private void send(String line) {
+    if (batchExecutor != null) {
+      synchronized (pendingLines) {
+        pendingLines.add(line);
+        if (flushScheduled) {
+          return;
+        }
+        try {
+          batchExecutor.schedule(this::flush, batchDelayMs, TimeUnit.MILLISECONDS);
+          flushScheduled = true;
+          return;
+        } catch (RejectedExecutionException e) {
+          // Shutting down, send synchronously
+          pendingLines.remove(pendingLines.size() - 1);
+        }
+      }
+    }
+    client.logMessage(new MessageParams(MessageType.Log, line));
+  }
+
+  // Visible for testing
+  void flush() {
+    List<String> lines;
+    synchronized (pendingLines) {
+      lines = new ArrayList<>(pendingLines);
+      pendingLines.clear();
+      flushScheduled = false;
+    }
+    for (var from = 0; from < lines.size(); from += MAX_LINES_PER_BATCH) {
+      var batch = lines.subList(from, Math.min(lines.size(), from + MAX_LINES_PER_BATCH));
+      client.logMessage(new MessageParams(MessageType.Log, String.join("\n", batch)));
+    }
+  }
+
+  /**
+   * Sends pending messages, later ones are sent without batching
+   */
+  public void shutdown() {
+    if (batchExecutor != null) {
+      batchExecutor.shutdownNow();
+      flush();
     }
   }
 
@@ -127,6 +210,15 @@ public class LanguageClientLogger implements WorkspaceSettingsChangeListener {
     debug(formattedMessage, false);
   }
 
+  /**
+   * The message is only built if debug logs are enabled
+   */
+  public void debug(Supplier<String> message) {
+    if (isDebugEnabled()) {
+      debug(message.get(), false);
+    }
+  }
+
   void trace(String formattedMessage, boolean isFromAnalysis) {
     log("Trace", formattedMessage, true, isFromAnalysis);
   }
@@ -135,4 +227,13 @@ public class LanguageClientLogger implements WorkspaceSettingsChangeListener {
     trace(formattedMessage, false);
   }
 
+  /**
+   * The message is only built if trace logs are enabled
+   */
+  public void trace(Supplier<String> message) {
+    if (isDebugEnabled()) {
+      trace(message.get(), false);
+    }
+  }
+
 }
@@ -60,7 +60,7 @@ public class ServerConnectionSettings {
 
   private EndpointParamsAndHttpClient createServerConfiguration(ApacheHttpClientProvider httpClientProvider) {
     var endpointParams = new EndpointParams(getServerUrl(), isSonarCloudAlias(), getOrganizationKey());
-    return new EndpointParamsAndHttpClient(endpointParams, httpClientProvider.withToken(getToken()));
+    return new EndpointParamsAndHttpClient(endpointParams, httpClientProvider.withToken(getToken(), connectionId));
   }
 
   String getConnectionId() {
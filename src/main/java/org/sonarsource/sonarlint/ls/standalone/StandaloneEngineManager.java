@@ -19,27 +19,137 @@
  */
 package org.sonarsource.sonarlint.ls.standalone;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.sonarsource.sonarlint.core.client.api.standalone.StandaloneRuleDetails;
 import org.sonarsource.sonarlint.core.client.api.standalone.StandaloneSonarLintEngine;
+import org.sonarsource.sonarlint.core.commons.Language;
+import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
 import org.sonarsource.sonarlint.ls.EnginesFactory;
 
 public class StandaloneEngineManager {
 
+  private static final SonarLintLogger LOG = SonarLintLogger.get();
+
   private final EnginesFactory enginesFactory;
+  // Secrets are detected in files of any language
+  private final Set<Language> loadedLanguages = EnumSet.of(Language.SECRETS);
+  // Analyses in progress, by engine. An engine replaced by a restart is only stopped once all its analyses are done.
+  private final Map<StandaloneSonarLintEngine, Integer> leaseCountByEngine = new IdentityHashMap<>();
+  private final Set<StandaloneSonarLintEngine> retiredEngines = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  private final Object ruleDetailsLock = new Object();
 
   private StandaloneSonarLintEngine standaloneEngine;
+  private boolean lazyPluginLoading;
+  private Collection<StandaloneRuleDetails> allRuleDetails;
 
   public StandaloneEngineManager(EnginesFactory enginesFactory) {
     this.enginesFactory = enginesFactory;
   }
 
+  /**
+   * In lazy mode, the engine only loads the analyzers of the languages requested so far, see {@link #getOrCreateStandaloneEngine(Collection)}.
+   * Has no effect once the engine is started.
+   */
+  public synchronized void setLazyPluginLoading(boolean lazyPluginLoading) {
+    if (standaloneEngine == null) {
+      this.lazyPluginLoading = lazyPluginLoading;
+    }
+  }
+
   public synchronized StandaloneSonarLintEngine getOrCreateStandaloneEngine() {
     if (standaloneEngine == null) {
-      standaloneEngine = enginesFactory.createStandaloneEngine();
+      standaloneEngine = lazyPluginLoading ? enginesFactory.createStandaloneEngine(EnumSet.copyOf(loadedLanguages)) : enginesFactory.createStandaloneEngine();
     }
     return standaloneEngine;
   }
 
+  /**
+   * In lazy mode, restarts the engine when it has not loaded the analyzers of all the given languages yet. Languages only supported in
+   * connected mode are ignored. The previous engine is stopped as soon as no analysis uses it anymore, see
+   * {@link #acquireStandaloneEngine(Collection)}.
+   */
+  public synchronized StandaloneSonarLintEngine getOrCreateStandaloneEngine(Collection<Language> languages) {
+    if (lazyPluginLoading) {
+      var missingLanguages = EnumSet.noneOf(Language.class);
+      languages.stream()
+        .filter(EnginesFactory.getStandaloneLanguages()::contains)
+        .filter(l -> !loadedLanguages.contains(l))
+        .forEach(missingLanguages::add);
+      if (!missingLanguages.isEmpty()) {
+        loadedLanguages.addAll(missingLanguages);
+        if (standaloneEngine != null) {
+          LOG.debug("Restarting standalone SonarLint engine to load analyzers of {}", missingLanguages);
+          retire(standaloneEngine);
+          standaloneEngine = null;
+        }
+      }
+    }
+    return getOrCreateStandaloneEngine();
+  }
+
+  /**
+   * Same as {@link #getOrCreateStandaloneEngine()}, but the returned engine is not stopped by a restart until it is given back with
+   * {@link #releaseStandaloneEngine(StandaloneSonarLintEngine)}.
+   */
+  public synchronized StandaloneSonarLintEngine acquireStandaloneEngine() {
+    return acquireStandaloneEngine(Set.of());
+  }
+
+  /**
+   * Same as {@link #getOrCreateStandaloneEngine(Collection)}, but the returned engine is not stopped by a restart until it is given back
+   * with {@link #releaseStandaloneEngine(StandaloneSonarLintEngine)}.
+   */
+  public synchronized StandaloneSonarLintEngine acquireStandaloneEngine(Collection<Language> languages) {
+    var engine = getOrCreateStandaloneEngine(languages);
+    leaseCountByEngine.merge(engine, 1, Integer::sum);
+    return engine;
+  }
+
+  public synchronized void releaseStandaloneEngine(StandaloneSonarLintEngine engine) {
+    leaseCountByEngine.computeIfPresent(engine, (e, count) -> count > 1 ? (count - 1) : null);
+    if (!leaseCountByEngine.containsKey(engine) && retiredEngines.remove(engine)) {
+      LOG.debug("Stopping previous standalone SonarLint engine, no analysis uses it anymore");
+      engine.stop();
+    }
+  }
+
+  /**
+   * Rules of all the standalone languages. In lazy mode, they are read once from the analyzers, without loading them in the engine.
+   */
+  public Collection<StandaloneRuleDetails> getAllRuleDetails() {
+    synchronized (this) {
+      if (!lazyPluginLoading) {
+        return getOrCreateStandaloneEngine().getAllRuleDetails();
+      }
+    }
+    // Not under the engine lock, extracting rules takes a while and should not delay analyses
+    synchronized (ruleDetailsLock) {
+      if (allRuleDetails == null) {
+        allRuleDetails = List.copyOf(enginesFactory.extractStandaloneRules(EnginesFactory.getStandaloneLanguages()));
+      }
+      return allRuleDetails;
+    }
+  }
+
+  private void retire(StandaloneSonarLintEngine engine) {
+    if (leaseCountByEngine.containsKey(engine)) {
+      retiredEngines.add(engine);
+    } else {
+      engine.stop();
+    }
+  }
+
   public synchronized void shutdown() {
+    retiredEngines.forEach(StandaloneSonarLintEngine::stop);
+    retiredEngines.clear();
+    leaseCountByEngine.clear();
     if (standaloneEngine != null) {
       standaloneEngine.stop();
       standaloneEngine = null;
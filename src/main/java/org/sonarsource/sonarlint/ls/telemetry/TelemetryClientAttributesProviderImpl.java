@@ -80,7 +80,7 @@ public class TelemetryClientAttributesProviderImpl implements TelemetryClientAtt
   }
 
   private Set<String> getDefaultEnabledRules() {
-    return standaloneEngineManager.getOrCreateStandaloneEngine().getAllRuleDetails().stream()
+    return standaloneEngineManager.getAllRuleDetails().stream()
       .filter(StandaloneRuleDetails::isActiveByDefault)
       .map(StandaloneRuleDetails::getKey)
       .collect(Collectors.toSet());
@@ -95,7 +95,10 @@ public class FileUtils {
     return paths;
   }
 
-  private static boolean isHidden(Path path) {
+  /**
+   * @return true for dot files and, on Windows, for files with the hidden attribute
+   */
+  public static boolean isHidden(Path path) {
     return isHiddenByWindows(path) || isDotFile(path);
   }
 
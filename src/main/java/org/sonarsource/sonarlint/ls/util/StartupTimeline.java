@@ -0,0 +1,144 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
+
+/**
+ * Timestamps the phases of the cold start, from the JVM start to the end of the first analysis. Only the first occurrence of a
+ * phase is kept, and nothing is recorded once the startup is complete, so that instrumented code paths cost nothing afterwards.
+ */
+public class StartupTimeline {
+
+  private static final SonarLintLogger LOG = SonarLintLogger.get();
+  private static final StartupTimeline INSTANCE = new StartupTimeline(ManagementFactory.getRuntimeMXBean().getStartTime(), System::currentTimeMillis);
+
+  private final long originMillis;
+  private final LongSupplier clock;
+  private final Map<String, Phase> phases = new ConcurrentHashMap<>();
+  private final AtomicBoolean complete = new AtomicBoolean();
+
+  // Visible for testing
+  StartupTimeline(long originMillis, LongSupplier clock) {
+    this.originMillis = originMillis;
+    this.clock = clock;
+  }
+
+  public static StartupTimeline get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Records an instant, e.g. the first diagnostics sent to the client
+   */
+  public void mark(String milestone) {
+    if (!complete.get()) {
+      var now = clock.getAsLong() - originMillis;
+      phases.putIfAbsent(milestone, new Phase(milestone, now, 0));
+    }
+  }
+
+  public void measure(String phase, Runnable runnable) {
+    measure(phase, () -> {
+      runnable.run();
+      return null;
+    });
+  }
+
+  public <T> T measure(String phase, Supplier<T> supplier) {
+    if (complete.get() || phases.containsKey(phase)) {
+      return supplier.get();
+    }
+    var start = clock.getAsLong();
+    try {
+      return supplier.get();
+    } finally {
+      if (!complete.get()) {
+        phases.putIfAbsent(phase, new Phase(phase, start - originMillis, clock.getAsLong() - start));
+      }
+    }
+  }
+
+  /**
+   * Stops recording and logs the timeline, only the first call has an effect
+   */
+  public void complete() {
+    if (complete.compareAndSet(false, true)) {
+      LOG.info(format(snapshot()));
+    }
+  }
+
+  public boolean isComplete() {
+    return complete.get();
+  }
+
+  public List<Phase> snapshot() {
+    var snapshot = new ArrayList<>(phases.values());
+    snapshot.sort(Comparator.comparingLong(Phase::getStartMs).thenComparing(Phase::getName));
+    return snapshot;
+  }
+
+  static String format(List<Phase> phases) {
+    var timeline = new StringBuilder("Startup timeline (start and duration in ms since JVM start):");
+    phases.forEach(phase -> {
+      timeline.append(String.format("%n  %7d %7d  %s", phase.getStartMs(), phase.getDurationMs(), phase.getName()));
+    });
+    return timeline.toString();
+  }
+
+  public static class Phase {
+    private final String name;
+    private final long startMs;
+    private final long durationMs;
+
+    Phase(String name, long startMs, long durationMs) {
+      this.name = name;
+      this.startMs = startMs;
+      this.durationMs = durationMs;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return milliseconds elapsed between the JVM start and the start of the phase
+     */
+    public long getStartMs() {
+      return startMs;
+    }
+
+    /**
+     * @return duration of the phase in milliseconds, 0 for instants
+     */
+    public long getDurationMs() {
+      return durationMs;
+    }
+  }
+}
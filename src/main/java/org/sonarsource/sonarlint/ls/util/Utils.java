@@ -25,6 +25,7 @@ import com.google.gson.JsonSyntaxException;
 import java.net.URI;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
@@ -53,6 +54,7 @@ public class Utils {
   private static final Pattern MATCH_ALL_WHITESPACES = Pattern.compile("\\s");
   private static final String MESSAGE_WITH_PLURALIZED_SUFFIX = "%s [+%d %s]";
   private static final String FILE_SCHEME = "file";
+  private static final boolean VIRTUAL_THREADS_ENABLED = Boolean.parseBoolean(System.getenv("SONARLINT_INTERNAL_VIRTUAL_THREADS"));
 
 
   private Utils() {
@@ -78,6 +80,35 @@ public class Utils {
     };
   }
 
+  /**
+   * Thread factory for executors whose tasks mostly wait for I/O, like round trips to the client. Threads are virtual when
+   * SONARLINT_INTERNAL_VIRTUAL_THREADS is set and the runtime supports them (Java 21+), in which case they are always daemon.
+   */
+  public static ThreadFactory blockingIoThreadFactory(String name, boolean daemon) {
+    return blockingIoThreadFactory(name, daemon, VIRTUAL_THREADS_ENABLED);
+  }
+
+  // Visible for testing
+  static ThreadFactory blockingIoThreadFactory(String name, boolean daemon, boolean virtualThreadsEnabled) {
+    var virtualThreadFactory = virtualThreadsEnabled ? VirtualThreads.factory(name) : null;
+    return virtualThreadFactory != null ? virtualThreadFactory : threadFactory(name, daemon);
+  }
+
+  /**
+   * Unbounded executor for tasks that mostly wait for I/O: one virtual thread per task under the same conditions as
+   * {@link #blockingIoThreadFactory(String, boolean)}, a cached pool of platform threads otherwise.
+   */
+  public static ExecutorService newBlockingIoExecutor(String name, boolean daemon) {
+    return newBlockingIoExecutor(name, daemon, VIRTUAL_THREADS_ENABLED);
+  }
+
+  // Visible for testing
+  static ExecutorService newBlockingIoExecutor(String name, boolean daemon, boolean virtualThreadsEnabled) {
+    var virtualThreadFactory = virtualThreadsEnabled ? VirtualThreads.factory(name) : null;
+    var executor = virtualThreadFactory != null ? VirtualThreads.newThreadPerTaskExecutor(virtualThreadFactory) : null;
+    return executor != null ? executor : Executors.newCachedThreadPool(threadFactory(name, daemon));
+  }
+
   public static void interrupted(InterruptedException e) {
     LOG.debug("Interrupted!", e);
     Thread.currentThread().interrupt();
@@ -0,0 +1,69 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import javax.annotation.CheckForNull;
+import org.sonarsource.sonarlint.core.commons.log.SonarLintLogger;
+
+/**
+ * Virtual threads of Java 21+, accessed through reflection as the language server still has to run on Java 11.
+ */
+final class VirtualThreads {
+
+  private static final SonarLintLogger LOG = SonarLintLogger.get();
+  private static final int MIN_JAVA_VERSION = 21;
+
+  private VirtualThreads() {
+  }
+
+  /**
+   * @return a factory of virtual threads with the given name, or null if the runtime does not support virtual threads
+   */
+  @CheckForNull
+  static ThreadFactory factory(String name) {
+    if (Runtime.version().feature() < MIN_JAVA_VERSION) {
+      return null;
+    }
+    try {
+      var builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder = Class.forName("java.lang.Thread$Builder$OfVirtual").getMethod("name", String.class).invoke(builder, name);
+      return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      LOG.debug("Virtual threads are not available, using platform threads for '" + name + "'", e);
+      return null;
+    }
+  }
+
+  /**
+   * @return an executor starting one thread of the given factory per task, or null if the runtime does not support it
+   */
+  @CheckForNull
+  static ExecutorService newThreadPerTaskExecutor(ThreadFactory factory) {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      LOG.debug("Thread per task executors are not available", e);
+      return null;
+    }
+  }
+}
@@ -20,7 +20,9 @@
 package org.sonarsource.sonarlint.ls;
 
 
+import java.net.URI;
 import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -37,6 +39,19 @@ class AnalysisClientInputFileTests {
       .isEqualTo(expected);
   }
 
+  @Test
+  void shouldFindLanguagesFromFileSuffixWhenLanguageIdIsUnknown() {
+    assertThat(AnalysisClientInputFile.toSqLanguages(URI.create("file:///project/style.scss"), "scss")).containsOnly(Language.CSS);
+    assertThat(AnalysisClientInputFile.toSqLanguages(URI.create("file:///project/style.LESS"), "less")).containsOnly(Language.CSS);
+    assertThat(AnalysisClientInputFile.toSqLanguages(URI.create("file:///project/Foo.java"), "unknown")).containsOnly(Language.JAVA);
+    assertThat(AnalysisClientInputFile.toSqLanguages(URI.create("file:///project/README"), "plaintext")).isEmpty();
+  }
+
+  @Test
+  void shouldPreferLanguageIdOverFileSuffix() {
+    assertThat(AnalysisClientInputFile.toSqLanguages(URI.create("file:///project/script.txt"), "python")).containsOnly(Language.PYTHON);
+  }
+
   private static Stream<Arguments> provideParametersForLanguageDetection() {
     return Stream.of(
       Arguments.of("javascript", Language.JS),
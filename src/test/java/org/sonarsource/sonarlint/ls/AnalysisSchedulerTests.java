@@ -23,6 +23,7 @@ import java.net.URI;
 import java.util.Collections;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -39,6 +40,7 @@ import org.sonarsource.sonarlint.ls.notebooks.OpenNotebooksCache;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.waitAtMost;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
@@ -235,7 +237,7 @@ class AnalysisSchedulerTests {
 
     var file = openFilesCache.didOpen(JS_FILE_URI, "javascript", "alert(1);", 1);
     underTest.didOpen(file);
-    verify(lsLogOutput, timeout(1000)).debug("Queuing analysis of file '" + JS_FILE_URI + "' (version 1)");
+    verify(lsLogOutput, timeout(1000)).debug(message("Queuing analysis of file '" + JS_FILE_URI + "' (version 1)"));
     verify(taskExecutor, timeout(1000)).run(any());
 
     reset(taskExecutor);
@@ -243,7 +245,7 @@ class AnalysisSchedulerTests {
     openFilesCache.didChange(JS_FILE_URI, "alert(2);", 2);
     underTest.didChange(file.getUri());
 
-    verify(lsLogOutput, timeout(1000)).debug("Queuing analysis of file '" + JS_FILE_URI + "' (version 2)");
+    verify(lsLogOutput, timeout(1000)).debug(message("Queuing analysis of file '" + JS_FILE_URI + "' (version 2)"));
 
     // Analysis of version 2 is stuck in the executor service queue because analysis of version 1 is still running
     verify(taskExecutor, timeout(1000).times(0)).run(any());
@@ -254,7 +256,7 @@ class AnalysisSchedulerTests {
     underTest.didChange(file.getUri());
 
     verify(lsLogOutput, timeout(1000).times(1)).debug("Attempt to cancel previous analysis...");
-    verify(lsLogOutput, timeout(1000)).debug("Queuing analysis of file '" + JS_FILE_URI + "' (version 3)");
+    verify(lsLogOutput, timeout(1000)).debug(message("Queuing analysis of file '" + JS_FILE_URI + "' (version 3)"));
     verifyNoMoreInteractions(lsLogOutput);
 
     analysisTaskShouldStop.set(true);
@@ -265,4 +267,8 @@ class AnalysisSchedulerTests {
     assertThat(task2.getFilesToAnalyze()).extracting(VersionedOpenFile::getVersion).containsOnly(3);
   }
 
+  private static Supplier<String> message(String expected) {
+    return argThat(message -> expected.equals(message.get()));
+  }
+
 }
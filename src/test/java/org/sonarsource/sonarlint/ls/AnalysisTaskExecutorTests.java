@@ -19,16 +19,23 @@
  */
 package org.sonarsource.sonarlint.ls;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.sonarsource.sonarlint.core.commons.progress.CanceledException;
 import org.sonarsource.sonarlint.ls.log.LanguageClientLogger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -79,4 +86,45 @@ class AnalysisTaskExecutorTests {
     assertThat(errorTask.getFuture().isDone()).isTrue();
   }
 
+  @Test
+  void shouldAnalyzeModulesConcurrently() {
+    var moduleExecutor = Executors.newFixedThreadPool(2);
+    var bothRunning = new CountDownLatch(2);
+    Runnable moduleAnalysis = () -> {
+      bothRunning.countDown();
+      try {
+        assertThat(bothRunning.await(5, TimeUnit.SECONDS)).isTrue();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+
+    AnalysisTaskExecutor.analyzeModules(List.of(moduleAnalysis, moduleAnalysis), moduleExecutor);
+
+    assertThat(bothRunning.getCount()).isZero();
+    moduleExecutor.shutdown();
+  }
+
+  @Test
+  void shouldAnalyzeModulesOnCurrentThreadWithoutExecutor() {
+    var threads = new ArrayList<Thread>();
+
+    AnalysisTaskExecutor.analyzeModules(List.of(() -> threads.add(Thread.currentThread()), () -> threads.add(Thread.currentThread())), null);
+
+    assertThat(threads).containsExactly(Thread.currentThread(), Thread.currentThread());
+  }
+
+  @Test
+  void shouldPropagateCancellationOfAModuleAnalysis() {
+    var moduleExecutor = Executors.newFixedThreadPool(2);
+    var otherModuleAnalyzed = new AtomicBoolean();
+    List<Runnable> moduleAnalyses = List.of(() -> {
+      throw new CanceledException();
+    }, () -> otherModuleAnalyzed.set(true));
+
+    assertThrows(CanceledException.class, () -> AnalysisTaskExecutor.analyzeModules(moduleAnalyses, moduleExecutor));
+    assertThat(otherModuleAnalyzed).isTrue();
+    moduleExecutor.shutdown();
+  }
+
 }
@@ -143,6 +143,7 @@ class CommandManagerTests {
     mockStandaloneEngine = mock(StandaloneSonarLintEngine.class);
     standaloneEngineManager = mock(StandaloneEngineManager.class);
     when(standaloneEngineManager.getOrCreateStandaloneEngine()).thenReturn(mockStandaloneEngine);
+    when(standaloneEngineManager.getOrCreateStandaloneEngine(any())).thenReturn(mockStandaloneEngine);
     mockTelemetry = mock(SonarLintTelemetry.class);
     serverSynchronizer = mock(ServerSynchronizer.class);
     securityHotspotsCache = mock(IssuesCache.class);
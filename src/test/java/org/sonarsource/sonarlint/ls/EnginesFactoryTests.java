@@ -21,16 +21,21 @@ package org.sonarsource.sonarlint.ls;
 
 import java.nio.file.Paths;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.sonarsource.sonarlint.core.analysis.api.ClientModulesProvider;
+import org.sonarsource.sonarlint.core.client.api.standalone.StandaloneGlobalConfiguration;
+import org.sonarsource.sonarlint.core.client.api.standalone.StandaloneSonarLintEngine;
 import org.sonarsource.sonarlint.core.commons.Language;
 import org.sonarsource.sonarlint.ls.log.LanguageClientLogOutput;
 import org.sonarsource.sonarlint.ls.settings.ServerConnectionSettings;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 
@@ -69,4 +74,22 @@ class EnginesFactoryTests {
       Language.YAML);
   }
 
+  @Test
+  void create_standalone_engine_with_enabled_languages() {
+    var configuration = ArgumentCaptor.forClass(StandaloneGlobalConfiguration.class);
+    doReturn(mock(StandaloneSonarLintEngine.class)).when(underTest).newStandaloneEngine(configuration.capture());
+
+    underTest.createStandaloneEngine(EnumSet.of(Language.JAVA, Language.SECRETS));
+
+    assertThat(configuration.getValue().getEnabledLanguages()).containsExactlyInAnyOrder(Language.JAVA, Language.SECRETS);
+  }
+
+  @Test
+  void extract_no_standalone_rules_without_analyzers() {
+    var withoutAnalyzers = new EnginesFactory(List.of(), Collections.emptyMap(), mock(LanguageClientLogOutput.class),
+      mock(NodeJsRuntime.class), mock(ClientModulesProvider.class));
+
+    assertThat(withoutAnalyzers.extractStandaloneRules(EnginesFactory.getStandaloneLanguages())).isEmpty();
+  }
+
 }
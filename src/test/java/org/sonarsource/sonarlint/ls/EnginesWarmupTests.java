@@ -0,0 +1,121 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls;
+
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.sonarsource.sonarlint.core.client.api.connected.ConnectedSonarLintEngine;
+import org.sonarsource.sonarlint.core.client.api.standalone.StandaloneAnalysisConfiguration;
+import org.sonarsource.sonarlint.core.client.api.standalone.StandaloneSonarLintEngine;
+import org.sonarsource.sonarlint.core.commons.Language;
+import org.sonarsource.sonarlint.ls.connected.ProjectBindingManager;
+import org.sonarsource.sonarlint.ls.settings.ServerConnectionSettings;
+import org.sonarsource.sonarlint.ls.settings.SettingsManager;
+import org.sonarsource.sonarlint.ls.settings.WorkspaceSettings;
+import org.sonarsource.sonarlint.ls.standalone.StandaloneEngineManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EnginesWarmupTests {
+
+  private final StandaloneEngineManager standaloneEngineManager = mock(StandaloneEngineManager.class);
+  private final StandaloneSonarLintEngine standaloneEngine = mock(StandaloneSonarLintEngine.class);
+  private final ProjectBindingManager bindingManager = mock(ProjectBindingManager.class);
+  private final SettingsManager settingsManager = mock(SettingsManager.class);
+  private final WorkspaceSettings settings = mock(WorkspaceSettings.class);
+  private ExecutorService executor;
+  private EnginesWarmup underTest;
+
+  @BeforeEach
+  void prepare() {
+    when(standaloneEngineManager.acquireStandaloneEngine(any())).thenReturn(standaloneEngine);
+    when(settingsManager.getCurrentSettings()).thenReturn(settings);
+    executor = Executors.newCachedThreadPool();
+    underTest = new EnginesWarmup(standaloneEngineManager, bindingManager, settingsManager, executor);
+  }
+
+  @AfterEach
+  void stop() {
+    underTest.shutdown();
+  }
+
+  @Test
+  void should_create_connected_engines_of_all_connections() throws Exception {
+    when(settings.getServerConnections()).thenReturn(Map.of(
+      "conn1", mock(ServerConnectionSettings.class),
+      "conn2", mock(ServerConnectionSettings.class)));
+    when(bindingManager.getOrCreateConnectedEngine(any())).thenReturn(Optional.of(mock(ConnectedSonarLintEngine.class)));
+
+    underTest.warmUp().get(10, TimeUnit.SECONDS);
+
+    verify(bindingManager).getOrCreateConnectedEngine("conn1");
+    verify(bindingManager).getOrCreateConnectedEngine("conn2");
+  }
+
+  @Test
+  void should_analyze_one_sample_file_per_language_and_delete_them() throws Exception {
+    when(settings.getServerConnections()).thenReturn(Map.of());
+
+    underTest.warmUp().get(10, TimeUnit.SECONDS);
+
+    var configCaptor = ArgumentCaptor.forClass(StandaloneAnalysisConfiguration.class);
+    verify(standaloneEngine).analyze(configCaptor.capture(), any(), any(), any());
+    var configuration = configCaptor.getValue();
+    assertThat(configuration.inputFiles().stream().map(f -> f.language()).collect(Collectors.toSet()))
+      .containsExactlyInAnyOrder(Language.JAVA, Language.JS, Language.PYTHON, Language.PHP, Language.HTML, Language.XML, Language.GO);
+    assertThat(Files.exists(configuration.baseDir())).isFalse();
+    verify(standaloneEngineManager).acquireStandaloneEngine(Set.of(Language.JAVA, Language.JS, Language.PYTHON, Language.PHP, Language.HTML, Language.XML, Language.GO));
+    verify(standaloneEngineManager).releaseStandaloneEngine(standaloneEngine);
+  }
+
+  @Test
+  void should_release_standalone_engine_when_sample_analysis_fails() {
+    when(settings.getServerConnections()).thenReturn(Map.of());
+    when(standaloneEngine.analyze(any(), any(), any(), any())).thenThrow(new IllegalStateException("Analysis failed"));
+
+    assertThat(underTest.warmUp()).failsWithin(10, TimeUnit.SECONDS);
+
+    verify(standaloneEngineManager).releaseStandaloneEngine(standaloneEngine);
+  }
+
+  @Test
+  void should_create_standalone_engine_even_if_settings_are_not_available() throws Exception {
+    when(settingsManager.getCurrentSettings()).thenThrow(new IllegalStateException("Unable to get settings in time"));
+
+    var warmUp = underTest.warmUp();
+
+    assertThat(warmUp).failsWithin(10, TimeUnit.SECONDS);
+    verify(standaloneEngineManager).acquireStandaloneEngine(any());
+  }
+}
@@ -19,7 +19,12 @@
  */
 package org.sonarsource.sonarlint.ls;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -29,7 +34,10 @@ import org.sonarsource.sonarlint.ls.settings.SettingsManager;
 import org.sonarsource.sonarlint.ls.settings.WorkspaceSettings;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -40,7 +48,10 @@ class NodeJsRuntimeTests {
   Path temp;
 
   private WorkspaceSettings settings;
+  private SettingsManager settingsManager;
   private NodeJsHelper nodeJsHelper;
+  private ExecutorService executor;
+  private Path cacheFile;
 
   private NodeJsRuntime underTest;
 
@@ -48,10 +59,17 @@ class NodeJsRuntimeTests {
   void setUp() {
     nodeJsHelper = mock(NodeJsHelper.class);
     settings = mock(WorkspaceSettings.class);
-    var settingsManager = mock(SettingsManager.class);
+    settingsManager = mock(SettingsManager.class);
     when(settingsManager.getCurrentSettings()).thenReturn(settings);
+    executor = Executors.newSingleThreadExecutor();
+    cacheFile = temp.resolve("cache").resolve("nodejs.properties");
 
-    underTest = new NodeJsRuntime(settingsManager, () -> nodeJsHelper);
+    underTest = new NodeJsRuntime(settingsManager, () -> nodeJsHelper, cacheFile, executor);
+  }
+
+  @AfterEach
+  void stop() {
+    underTest.shutdown();
   }
 
   @Test
@@ -64,6 +82,7 @@ class NodeJsRuntimeTests {
 
     verify(settings).pathToNodeExecutable();
     verify(nodeJsHelper, times(1)).detect(null);
+    assertThat(cacheFile).doesNotExist();
   }
 
   @Test
@@ -81,4 +100,64 @@ class NodeJsRuntimeTests {
     verify(settings).pathToNodeExecutable();
     verify(nodeJsHelper, times(1)).detect(temp.getFileName());
   }
+
+  @Test
+  void shouldDetectInBackgroundWhenSettingsAreReceived() {
+    when(settings.pathToNodeExecutable()).thenReturn("/path/to/node");
+
+    underTest.onChange(null, settings);
+
+    verify(nodeJsHelper, timeout(1000)).detect(Path.of("/path/to/node"));
+    verify(settingsManager, never()).getCurrentSettings();
+  }
+
+  @Test
+  void shouldOnlyDetectAgainWhenConfiguredPathChanges() {
+    var otherSettings = mock(WorkspaceSettings.class);
+    when(settings.pathToNodeExecutable()).thenReturn("/path/to/node");
+    when(otherSettings.pathToNodeExecutable()).thenReturn("/other/path/to/node");
+
+    underTest.onChange(null, settings);
+    underTest.onChange(settings, settings);
+    underTest.getNodeJsPath();
+    underTest.onChange(settings, otherSettings);
+    underTest.getNodeJsPath();
+
+    verify(nodeJsHelper).detect(Path.of("/path/to/node"));
+    verify(nodeJsHelper).detect(Path.of("/other/path/to/node"));
+  }
+
+  @Test
+  void shouldReuseStoredDetectionWhenBinaryIsUnchanged() throws Exception {
+    var nodeJsPath = Files.createFile(temp.resolve("node"));
+    when(settings.pathToNodeExecutable()).thenReturn(nodeJsPath.toString());
+    when(nodeJsHelper.getNodeJsPath()).thenReturn(nodeJsPath);
+    when(nodeJsHelper.getNodeJsVersion()).thenReturn(Version.create("18.1.0"));
+    assertThat(underTest.nodeVersion()).isEqualTo("18.1.0");
+
+    var otherNodeJsHelper = mock(NodeJsHelper.class);
+    var restarted = new NodeJsRuntime(settingsManager, () -> otherNodeJsHelper, cacheFile, executor);
+
+    assertThat(restarted.getNodeJsPath()).isEqualTo(nodeJsPath);
+    assertThat(restarted.nodeVersion()).isEqualTo("18.1.0");
+    verify(otherNodeJsHelper, never()).detect(any());
+  }
+
+  @Test
+  void shouldDetectAgainWhenBinaryWasModified() throws Exception {
+    var nodeJsPath = Files.createFile(temp.resolve("node"));
+    when(settings.pathToNodeExecutable()).thenReturn(nodeJsPath.toString());
+    when(nodeJsHelper.getNodeJsPath()).thenReturn(nodeJsPath);
+    when(nodeJsHelper.getNodeJsVersion()).thenReturn(Version.create("18.1.0"));
+    underTest.getNodeJsPath();
+    Files.setLastModifiedTime(nodeJsPath, FileTime.fromMillis(Files.getLastModifiedTime(nodeJsPath).toMillis() + 60_000));
+
+    var otherNodeJsHelper = mock(NodeJsHelper.class);
+    when(otherNodeJsHelper.getNodeJsPath()).thenReturn(nodeJsPath);
+    when(otherNodeJsHelper.getNodeJsVersion()).thenReturn(Version.create("20.0.0"));
+    var restarted = new NodeJsRuntime(settingsManager, () -> otherNodeJsHelper, cacheFile, executor);
+
+    assertThat(restarted.nodeVersion()).isEqualTo("20.0.0");
+    verify(otherNodeJsHelper).detect(nodeJsPath);
+  }
 }
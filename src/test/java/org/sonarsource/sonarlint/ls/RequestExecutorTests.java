@@ -0,0 +1,152 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class RequestExecutorTests {
+
+  private final AtomicLong nanoClock = new AtomicLong();
+  private final RequestExecutor underTest = new RequestExecutor(1, 1, nanoClock::get);
+
+  @AfterEach
+  void stop() {
+    underTest.shutdown();
+  }
+
+  @Test
+  void should_compute_result_and_record_timings() {
+    var result = underTest.compute("method", cancelToken -> {
+      nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(42));
+      return "result";
+    });
+
+    assertThat(result.join()).isEqualTo("result");
+    // Timings are recorded after the response is completed
+    await().untilAsserted(() -> assertThat(underTest.snapshot().get(0).getExecution().getCount()).isEqualTo(1));
+    var snapshot = underTest.snapshot();
+    assertThat(snapshot).hasSize(1);
+    assertThat(snapshot.get(0).getMethod()).isEqualTo("method");
+    assertThat(snapshot.get(0).getRequestCount()).isEqualTo(1);
+    assertThat(snapshot.get(0).getQueueWait().getCount()).isEqualTo(1);
+    assertThat(snapshot.get(0).getQueueWait().getMaxMs()).isZero();
+    assertThat(snapshot.get(0).getExecution().getCount()).isEqualTo(1);
+    assertThat(snapshot.get(0).getExecution().getMeanMs()).isEqualTo(42);
+    assertThat(snapshot.get(0).getExecution().getMaxMs()).isEqualTo(42);
+  }
+
+  @Test
+  void should_propagate_failure() {
+    var result = underTest.compute("method", cancelToken -> {
+      throw new IllegalStateException("boom");
+    });
+
+    assertThatThrownBy(result::join).isInstanceOf(CompletionException.class).hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void should_cancel_running_request_superseded_by_a_newer_one() throws InterruptedException {
+    var started = new CountDownLatch(1);
+    var observedCancellation = new AtomicBoolean();
+    var first = underTest.compute("codeAction", "file:///a", cancelToken -> {
+      started.countDown();
+      await().until(cancelToken::isCanceled);
+      observedCancellation.set(true);
+      cancelToken.checkCanceled();
+      return "first";
+    });
+    started.await();
+
+    var second = underTest.compute("codeAction", "file:///a", cancelToken -> "second");
+
+    assertThat(second.join()).isEqualTo("second");
+    assertThat(first).isCancelled();
+    assertThat(observedCancellation).isTrue();
+    assertThat(underTest.snapshot().get(0).getSupersededCount()).isEqualTo(1);
+  }
+
+  @Test
+  void should_skip_queued_request_superseded_by_a_newer_one() throws InterruptedException {
+    var release = new CountDownLatch(1);
+    underTest.compute("blocking", cancelToken -> awaitQuietly(release));
+    var executed = new AtomicBoolean();
+    var first = underTest.compute("codeAction", "file:///a", cancelToken -> executed.getAndSet(true));
+
+    underTest.compute("codeAction", "file:///a", cancelToken -> "second");
+    release.countDown();
+
+    assertThatThrownBy(first::join).isInstanceOf(CancellationException.class);
+    await().untilAsserted(() -> assertThat(underTest.snapshot()).filteredOn(m -> m.getMethod().equals("codeAction"))
+      .singleElement().satisfies(m -> assertThat(m.getExecution().getCount()).isEqualTo(1)));
+    assertThat(executed).isFalse();
+  }
+
+  @Test
+  void should_not_cancel_requests_with_different_keys() {
+    var release = new CountDownLatch(1);
+    var first = underTest.compute("codeAction", "file:///a", cancelToken -> awaitQuietly(release));
+
+    var second = underTest.compute("codeAction", "file:///b", cancelToken -> true);
+    release.countDown();
+
+    assertThat(first.join()).isTrue();
+    assertThat(second.join()).isTrue();
+    assertThat(underTest.snapshot().get(0).getSupersededCount()).isZero();
+  }
+
+  @Test
+  void should_reject_requests_when_queue_is_full() {
+    var release = new CountDownLatch(1);
+    var running = underTest.compute("method", cancelToken -> awaitQuietly(release));
+    await().untilAsserted(() -> assertThat(underTest.snapshot().get(0).getQueueWait().getCount()).isEqualTo(1));
+    var queued = underTest.compute("method", cancelToken -> true);
+
+    var rejected = underTest.compute("method", cancelToken -> true);
+
+    assertThatThrownBy(rejected::join).hasCauseInstanceOf(ResponseErrorException.class)
+      .satisfies(e -> assertThat(((ResponseErrorException) e.getCause()).getResponseError().getCode()).isEqualTo(ResponseErrorCode.ServerCancelled.getValue()));
+    release.countDown();
+    assertThat(running.join()).isTrue();
+    assertThat(queued.join()).isTrue();
+    assertThat(underTest.snapshot().get(0).getRejectedCount()).isEqualTo(1);
+  }
+
+  private static boolean awaitQuietly(CountDownLatch latch) {
+    try {
+      return latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
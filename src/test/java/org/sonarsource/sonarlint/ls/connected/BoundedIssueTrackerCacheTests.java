@@ -0,0 +1,113 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue;
+import org.sonarsource.sonarlint.core.issuetracking.Trackable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BoundedIssueTrackerCacheTests {
+
+  @TempDir
+  Path spillDir;
+
+  @Test
+  void should_evict_least_recently_used_files() {
+    var underTest = new BoundedIssueTrackerCache<Issue>(2, null);
+
+    underTest.put("file1", trackables("rule1"));
+    underTest.put("file2", trackables("rule2", "rule3"));
+    underTest.getLiveOrFail("file1");
+    underTest.put("file3", trackables("rule4"));
+
+    assertThat(underTest.size()).isEqualTo(2);
+    assertThat(underTest.trackableCount()).isEqualTo(2);
+    assertThat(underTest.isFirstAnalysis("file1")).isFalse();
+    assertThat(underTest.isFirstAnalysis("file2")).isTrue();
+    assertThat(underTest.getCurrentTrackables("file2")).isEmpty();
+    assertThatThrownBy(() -> underTest.getLiveOrFail("file2")).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void should_evict_explicitly() {
+    var underTest = new BoundedIssueTrackerCache<Issue>(10, null);
+    underTest.put("file1", trackables("rule1"));
+
+    underTest.evict("file1");
+    underTest.evict("unknown");
+
+    assertThat(underTest.size()).isZero();
+    assertThat(underTest.isFirstAnalysis("file1")).isTrue();
+  }
+
+  @Test
+  void should_spill_evicted_files_to_store() {
+    var underTest = new BoundedIssueTrackerCache<Issue>(1, new JsonTrackableIssueStore<>(spillDir));
+    underTest.put("file1", trackables("rule1"));
+    underTest.put("file2", trackables("rule2"));
+    underTest.evict("file2");
+
+    assertThat(underTest.size()).isZero();
+    assertThat(underTest.isFirstAnalysis("file1")).isFalse();
+    assertThat(underTest.getCurrentTrackables("file1")).extracting(Trackable::getRuleKey).containsExactly("rule1");
+    assertThat(underTest.getCurrentTrackables("file2")).extracting(Trackable::getRuleKey).containsExactly("rule2");
+
+    underTest.clear();
+
+    assertThat(underTest.isFirstAnalysis("file1")).isTrue();
+    assertThat(underTest.isFirstAnalysis("file2")).isTrue();
+  }
+
+  @Test
+  void should_only_apply_bound_at_the_end_of_a_batch() {
+    var underTest = new BoundedIssueTrackerCache<Issue>(1, new JsonTrackableIssueStore<>(spillDir));
+
+    underTest.startBatch();
+    underTest.put("file1", trackables("rule1"));
+    underTest.put("file2", trackables("rule2"));
+    underTest.put("file3", trackables("rule3"));
+    assertThat(underTest.getLiveOrFail("file1")).extracting(Trackable::getRuleKey).containsExactly("rule1");
+    assertThat(underTest.size()).isEqualTo(3);
+    underTest.endBatch();
+
+    assertThat(underTest.size()).isEqualTo(1);
+    assertThat(underTest.getLiveOrFail("file1")).extracting(Trackable::getRuleKey).containsExactly("rule1");
+    assertThat(underTest.getCurrentTrackables("file2")).extracting(Trackable::getRuleKey).containsExactly("rule2");
+    assertThat(underTest.getCurrentTrackables("file3")).extracting(Trackable::getRuleKey).containsExactly("rule3");
+  }
+
+  private static Collection<Trackable<Issue>> trackables(String... ruleKeys) {
+    return List.of(ruleKeys).stream().map(ruleKey -> {
+      Trackable<Issue> trackable = mock(Trackable.class);
+      when(trackable.getRuleKey()).thenReturn(ruleKey);
+      return trackable;
+    }).collect(Collectors.toList());
+  }
+}
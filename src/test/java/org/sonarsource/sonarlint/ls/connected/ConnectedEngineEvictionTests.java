@@ -0,0 +1,164 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ConnectedEngineEvictionTests {
+
+  private final AtomicLong now = new AtomicLong();
+  private final ConnectedEngineEviction underTest = new ConnectedEngineEviction(Duration.ofMinutes(30), 0, now::get);
+
+  @Test
+  void should_only_consider_engines_not_used_for_the_idle_timeout_as_idle() {
+    underTest.touch("conn1");
+    now.addAndGet(Duration.ofMinutes(20).toMillis());
+    underTest.touch("conn2");
+    now.addAndGet(Duration.ofMinutes(10).toMillis());
+
+    assertThat(underTest.idleAmong(List.of("conn1", "conn2"))).containsOnly("conn1");
+  }
+
+  @Test
+  void should_not_consider_engines_never_used_as_idle() {
+    assertThat(underTest.idleAmong(List.of("conn1"))).isEmpty();
+  }
+
+  @Test
+  void should_never_consider_engines_idle_when_idle_timeout_is_zero() {
+    var withoutIdleTimeout = new ConnectedEngineEviction(Duration.ZERO, 0, now::get);
+    withoutIdleTimeout.touch("conn1");
+    now.addAndGet(Duration.ofDays(1).toMillis());
+
+    assertThat(withoutIdleTimeout.idleAmong(List.of("conn1"))).isEmpty();
+  }
+
+  @Test
+  void should_keep_recently_used_engines_under_memory_pressure() {
+    underTest.touch("conn1");
+    now.addAndGet(ConnectedEngineEviction.MEMORY_PRESSURE_MIN_IDLE.toMillis());
+    underTest.touch("conn2");
+
+    assertThat(underTest.evictableUnderMemoryPressureAmong(List.of("conn1", "conn2"))).containsOnly("conn1");
+    assertThat(underTest.idleAmong(List.of("conn1", "conn2"))).isEmpty();
+  }
+
+  @Test
+  void should_never_evict_engines_in_use() {
+    underTest.acquire("conn1");
+    underTest.acquire("conn1");
+    now.addAndGet(Duration.ofHours(1).toMillis());
+
+    assertThat(underTest.evictableUnderMemoryPressureAmong(List.of("conn1"))).isEmpty();
+    assertThat(underTest.idleAmong(List.of("conn1"))).isEmpty();
+
+    underTest.release("conn1");
+    assertThat(underTest.evictableUnderMemoryPressureAmong(List.of("conn1"))).isEmpty();
+
+    underTest.release("conn1");
+    // Last used when released
+    assertThat(underTest.evictableUnderMemoryPressureAmong(List.of("conn1"))).isEmpty();
+    now.addAndGet(ConnectedEngineEviction.MEMORY_PRESSURE_MIN_IDLE.toMillis());
+    assertThat(underTest.evictableUnderMemoryPressureAmong(List.of("conn1"))).containsOnly("conn1");
+  }
+
+  @Test
+  void should_not_evict_engines_acquired_before_the_eviction() {
+    underTest.touch("conn1");
+    now.addAndGet(Duration.ofHours(1).toMillis());
+    underTest.acquire("conn1");
+    var evicted = new ArrayList<String>();
+
+    underTest.evictIdle(List.of("conn1"), evicted::add);
+    underTest.evictUnderMemoryPressure(List.of("conn1"), evicted::add);
+
+    assertThat(evicted).isEmpty();
+    assertThat(underTest.isEvicted("conn1")).isFalse();
+  }
+
+  @Test
+  void should_wait_for_the_eviction_to_complete_before_acquiring_an_engine() throws Exception {
+    underTest.touch("conn1");
+    now.addAndGet(Duration.ofHours(1).toMillis());
+    var evictionStarted = new CountDownLatch(1);
+    var evictionCanComplete = new CountDownLatch(1);
+    var executor = Executors.newFixedThreadPool(2);
+    try {
+      var eviction = executor.submit(() -> underTest.evictIdle(List.of("conn1"), connectionId -> {
+        evictionStarted.countDown();
+        try {
+          evictionCanComplete.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }));
+      assertThat(evictionStarted.await(5, TimeUnit.SECONDS)).isTrue();
+      var acquisition = executor.submit(() -> underTest.acquire("conn1"));
+      Thread.sleep(100);
+      assertThat(acquisition).isNotDone();
+
+      evictionCanComplete.countDown();
+      eviction.get(5, TimeUnit.SECONDS);
+      acquisition.get(5, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+    }
+    // Acquired after the eviction, the engine will be started again
+    assertThat(underTest.isEvicted("conn1")).isFalse();
+  }
+
+  @Test
+  void should_remember_evicted_engines_until_used_again() {
+    underTest.evicted("conn1");
+    assertThat(underTest.isEvicted("conn1")).isTrue();
+
+    underTest.touch("conn1");
+    assertThat(underTest.isEvicted("conn1")).isFalse();
+
+    underTest.evicted("conn1");
+    underTest.forget("conn1");
+    assertThat(underTest.isEvicted("conn1")).isFalse();
+  }
+
+  @Test
+  void should_periodically_check_for_idle_engines() {
+    var idleChecks = new AtomicInteger();
+    var withShortIdleTimeout = new ConnectedEngineEviction(Duration.ofMillis(1), 85, now::get);
+    withShortIdleTimeout.start(idleChecks::incrementAndGet, () -> {
+    });
+    // Starting again has no effect
+    withShortIdleTimeout.start(idleChecks::incrementAndGet, () -> {
+    });
+
+    await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> assertThat(idleChecks.get()).isPositive());
+    withShortIdleTimeout.shutdown();
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.sonarsource.sonarlint.core.commons.IssueSeverity;
+import org.sonarsource.sonarlint.core.commons.RuleType;
+import org.sonarsource.sonarlint.core.serverapi.proto.sonarqube.ws.Common;
+import org.sonarsource.sonarlint.core.serverapi.proto.sonarqube.ws.Issues;
+import org.sonarsource.sonarlint.core.serverconnection.ProjectBinding;
+import org.sonarsource.sonarlint.core.serverconnection.issues.LineLevelServerIssue;
+import org.sonarsource.sonarlint.core.serverconnection.issues.ServerIssue;
+import org.sonarsource.sonarlint.ls.http.ApacheHttpClientProvider;
+import org.sonarsource.sonarlint.ls.settings.ServerConnectionSettings;
+import testutils.MockWebServerExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.sonarsource.sonarlint.core.serverapi.UrlUtils.urlEncode;
+
+class FileIssuesDownloaderTests {
+
+  private static final String SEARCH_PATH = "/api/issues/search.protobuf?statuses=OPEN,CONFIRMED,REOPENED,RESOLVED&componentKeys=";
+
+  @RegisterExtension
+  private final MockWebServerExtension mockWebServerExtension = new MockWebServerExtension();
+
+  private final ApacheHttpClientProvider httpClientProvider = new ApacheHttpClientProvider();
+  private final FileIssuesDownloader underTest = new FileIssuesDownloader();
+  private ServerConnectionSettings.EndpointParamsAndHttpClient serverConfiguration;
+
+  @BeforeEach
+  void prepare() {
+    httpClientProvider.initialize("SonarLint tests", "1.0");
+    serverConfiguration = new ServerConnectionSettings("connectionId", mockWebServerExtension.url("/"), "token", null, true, httpClientProvider)
+      .getServerConfiguration();
+  }
+
+  @AfterEach
+  void close() {
+    httpClientProvider.close();
+  }
+
+  @Test
+  void download_issues_of_several_files_with_a_single_request() {
+    mockWebServerExtension.addProtobufResponse(SEARCH_PATH + "project%3Asrc%2Ffile1%2Cproject%3Asrc%2Ffile2&branch=main&ps=500&p=1",
+      Issues.SearchWsResponse.newBuilder()
+        .setPaging(Common.Paging.newBuilder().setTotal(3))
+        .addIssues(issue("key1", "project:src/file1").setLine(3).setHash("hash1"))
+        .addIssues(issue("key2", "project:src/file1").setResolution("FALSE-POSITIVE"))
+        .addIssues(issue("key3", "project:src/other"))
+        .build());
+
+    var issuesByFilePath = underTest.downloadIssuesOfFiles(serverConfiguration, new ProjectBinding("project", "src", "ide"),
+      List.of("ide/file1", "ide/file2"), "main");
+
+    assertThat(mockWebServerExtension.getRequestCount()).isEqualTo(1);
+    assertThat(issuesByFilePath).containsOnlyKeys("ide/file1", "ide/file2");
+    assertThat(issuesByFilePath.get("ide/file2")).isEmpty();
+    assertThat(issuesByFilePath.get("ide/file1"))
+      .extracting(ServerIssue::getKey, ServerIssue::isResolved, ServerIssue::getRuleKey, ServerIssue::getUserSeverity, ServerIssue::getType)
+      .containsExactly(
+        tuple("key1", false, "java:S1234", IssueSeverity.MAJOR, RuleType.BUG),
+        tuple("key2", true, "java:S1234", IssueSeverity.MAJOR, RuleType.BUG));
+    var lineLevelIssue = (LineLevelServerIssue) issuesByFilePath.get("ide/file1").get(0);
+    assertThat(lineLevelIssue.getLine()).isEqualTo(3);
+    assertThat(lineLevelIssue.getLineHash()).isEqualTo("hash1");
+  }
+
+  @Test
+  void split_requests_of_many_files() {
+    var filePaths = IntStream.range(0, FileIssuesDownloader.MAX_FILES_PER_REQUEST + 1).mapToObj(i -> "file" + i).collect(Collectors.toList());
+    var firstComponentKeys = filePaths.subList(0, FileIssuesDownloader.MAX_FILES_PER_REQUEST).stream().map(f -> "project:" + f).collect(Collectors.joining(","));
+    var lastComponentKey = "project:" + filePaths.get(FileIssuesDownloader.MAX_FILES_PER_REQUEST);
+    var emptyResponse = Issues.SearchWsResponse.newBuilder().setPaging(Common.Paging.newBuilder().setTotal(0)).build();
+    mockWebServerExtension.addProtobufResponse(SEARCH_PATH + urlEncode(firstComponentKeys) + "&branch=main&ps=500&p=1", emptyResponse);
+    mockWebServerExtension.addProtobufResponse(SEARCH_PATH + urlEncode(lastComponentKey) + "&branch=main&ps=500&p=1", emptyResponse);
+
+    var issuesByFilePath = underTest.downloadIssuesOfFiles(serverConfiguration, new ProjectBinding("project", "", ""), filePaths, "main");
+
+    assertThat(mockWebServerExtension.getRequestCount()).isEqualTo(2);
+    assertThat(issuesByFilePath).hasSize(FileIssuesDownloader.MAX_FILES_PER_REQUEST + 1);
+  }
+
+  private static Issues.Issue.Builder issue(String key, String component) {
+    return Issues.Issue.newBuilder()
+      .setKey(key)
+      .setComponent(component)
+      .setRule("java:S1234")
+      .setMessage("message")
+      .setCreationDate("2023-05-13T17:55:39+0200")
+      .setSeverity(Common.Severity.MAJOR)
+      .setType(Common.RuleType.BUG);
+  }
+}
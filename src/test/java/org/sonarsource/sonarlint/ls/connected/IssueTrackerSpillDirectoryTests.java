@@ -0,0 +1,76 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IssueTrackerSpillDirectoryTests {
+
+  // Highest PID on Linux is 2^22, this one is never alive
+  private static final long STOPPED_SERVER_PID = Long.MAX_VALUE;
+
+  @TempDir
+  Path spillRoot;
+
+  @Test
+  void should_spill_in_a_directory_of_the_session_and_delete_it_on_shutdown() throws IOException {
+    var underTest = new IssueTrackerSpillDirectory(spillRoot, 42);
+
+    var folderDir = underTest.forFolder(Path.of("/workspace/folder"));
+    assertThat(folderDir).isNotNull().startsWithRaw(spillRoot.resolve("session-42"));
+    assertThat(underTest.forFolder(Path.of("/workspace/other"))).isNotEqualTo(folderDir);
+    Files.createDirectories(folderDir);
+    Files.writeString(folderDir.resolve("file.json"), "[]");
+
+    underTest.shutdown();
+
+    assertThat(spillRoot.resolve("session-42")).doesNotExist();
+  }
+
+  @Test
+  void should_delete_sessions_of_stopped_servers_on_startup() throws IOException {
+    var stoppedServerDir = Files.createDirectories(spillRoot.resolve("session-" + STOPPED_SERVER_PID).resolve("folder"));
+    Files.writeString(stoppedServerDir.resolve("file.json"), "[]");
+    var samePidServerDir = Files.createDirectories(spillRoot.resolve("session-42"));
+    var runningServerDir = Files.createDirectories(spillRoot.resolve("session-" + ProcessHandle.current().pid()));
+    var otherDir = Files.createDirectories(spillRoot.resolve("other"));
+
+    new IssueTrackerSpillDirectory(spillRoot, 42);
+
+    assertThat(spillRoot.resolve("session-" + STOPPED_SERVER_PID)).doesNotExist();
+    assertThat(samePidServerDir).doesNotExist();
+    assertThat(runningServerDir).exists();
+    assertThat(otherDir).exists();
+  }
+
+  @Test
+  void should_not_spill_when_disabled() {
+    var underTest = new IssueTrackerSpillDirectory(null, 42);
+
+    assertThat(underTest.forFolder(Path.of("/workspace/folder"))).isNull();
+    underTest.shutdown();
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue;
+import org.sonarsource.sonarlint.core.commons.IssueSeverity;
+import org.sonarsource.sonarlint.core.commons.RuleType;
+import org.sonarsource.sonarlint.core.commons.TextRangeWithHash;
+import org.sonarsource.sonarlint.core.issuetracking.Trackable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JsonTrackableIssueStoreTests {
+
+  @TempDir
+  Path storeDir;
+
+  @Test
+  void should_save_and_read_tracking_data() throws IOException {
+    Trackable<Issue> trackable = mock(Trackable.class);
+    when(trackable.getClientObject()).thenReturn(mock(Issue.class));
+    when(trackable.getRuleKey()).thenReturn("java:S123");
+    when(trackable.getSeverity()).thenReturn(IssueSeverity.MAJOR);
+    when(trackable.getMessage()).thenReturn("message");
+    when(trackable.getType()).thenReturn(RuleType.BUG);
+    when(trackable.getLine()).thenReturn(12);
+    when(trackable.getLineHash()).thenReturn("lineHash");
+    when(trackable.getTextRange()).thenReturn(new TextRangeWithHash(12, 1, 13, 2, "rangeHash"));
+    when(trackable.getCreationDate()).thenReturn(42L);
+    when(trackable.getServerIssueKey()).thenReturn("AYx");
+    when(trackable.isResolved()).thenReturn(true);
+    var underTest = new JsonTrackableIssueStore<Issue>(storeDir.resolve("issues"));
+
+    assertThat(underTest.contains("src/File.java")).isFalse();
+    underTest.save("src/File.java", List.of(trackable));
+
+    assertThat(underTest.contains("src/File.java")).isTrue();
+    var read = underTest.read("src/File.java");
+    assertThat(read).hasSize(1);
+    var readTrackable = read.iterator().next();
+    assertThat(readTrackable.getClientObject()).isNull();
+    assertThat(readTrackable.getRuleKey()).isEqualTo("java:S123");
+    assertThat(readTrackable.getSeverity()).isEqualTo(IssueSeverity.MAJOR);
+    assertThat(readTrackable.getMessage()).isEqualTo("message");
+    assertThat(readTrackable.getType()).isEqualTo(RuleType.BUG);
+    assertThat(readTrackable.getLine()).isEqualTo(12);
+    assertThat(readTrackable.getLineHash()).isEqualTo("lineHash");
+    assertThat(readTrackable.getTextRange()).isEqualTo(new TextRangeWithHash(12, 1, 13, 2, "rangeHash"));
+    assertThat(readTrackable.getCreationDate()).isEqualTo(42L);
+    assertThat(readTrackable.getServerIssueKey()).isEqualTo("AYx");
+    assertThat(readTrackable.isResolved()).isTrue();
+
+    underTest.clear();
+
+    assertThat(underTest.contains("src/File.java")).isFalse();
+  }
+
+  @Test
+  void should_clear_missing_store() {
+    var underTest = new JsonTrackableIssueStore<Issue>(storeDir.resolve("missing"));
+
+    underTest.clear();
+
+    assertThat(underTest.contains("src/File.java")).isFalse();
+  }
+}
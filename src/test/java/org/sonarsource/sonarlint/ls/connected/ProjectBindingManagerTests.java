@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -34,11 +35,16 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 import org.eclipse.lsp4j.WorkspaceFolder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.sonarsource.sonarlint.core.analysis.api.ClientInputFile;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue;
 import org.sonarsource.sonarlint.core.client.api.connected.ConnectedSonarLintEngine;
 import org.sonarsource.sonarlint.core.client.api.connected.ProjectBranches;
 import org.sonarsource.sonarlint.core.commons.log.ClientLogOutput;
@@ -52,6 +58,7 @@ import org.sonarsource.sonarlint.ls.SonarLintExtendedLanguageClient;
 import org.sonarsource.sonarlint.ls.backend.BackendService;
 import org.sonarsource.sonarlint.ls.backend.BackendServiceFacade;
 import org.sonarsource.sonarlint.ls.connected.events.ServerSentEventsHandlerService;
+import org.sonarsource.sonarlint.ls.folders.FilePathIndex;
 import org.sonarsource.sonarlint.ls.folders.WorkspaceFolderWrapper;
 import org.sonarsource.sonarlint.ls.folders.WorkspaceFoldersManager;
 import org.sonarsource.sonarlint.ls.http.ApacheHttpClientProvider;
@@ -247,6 +254,166 @@ class ProjectBindingManagerTests {
     verify(fakeEngine).calculatePathPrefixes(eq(PROJECT_KEY), argThat(set -> set.contains(FILE_PHP)));
   }
 
+  @Test
+  void should_forget_binding_of_closed_file_outside_folders() {
+    mockFileOutsideFolder();
+    when(settingsManager.getCurrentDefaultFolderSettings()).thenReturn(BOUND_SETTINGS);
+    servers.put(CONNECTION_ID, GLOBAL_SETTINGS);
+    when(fakeEngine.calculatePathPrefixes(eq(PROJECT_KEY), any())).thenReturn(FAKE_BINDING);
+    assertThat(underTest.getBinding(fileNotInAWorkspaceFolderPath.toUri())).isNotEmpty();
+
+    underTest.didClose(fileNotInAWorkspaceFolderPath.toUri());
+    assertThat(underTest.getBinding(fileNotInAWorkspaceFolderPath.toUri())).isNotEmpty();
+
+    verify(fakeEngine, times(2)).calculatePathPrefixes(eq(PROJECT_KEY), any());
+  }
+
+  @Test
+  void should_release_issue_tracking_of_closed_file() {
+    mockFileInABoundWorkspaceFolder();
+    var issueTracker = underTest.getBinding(fileInAWorkspaceFolderPath.toUri()).get().getServerIssueTracker();
+    var issue = mock(Issue.class);
+    when(issue.getInputFile()).thenReturn(mock(ClientInputFile.class));
+    when(issue.getRuleKey()).thenReturn("php:S123");
+    when(issue.getMessage()).thenReturn("message");
+    issueTracker.matchAndTrack(FILE_PHP, List.of(issue), i -> {
+    }, false);
+    assertThat(issueTracker.getTrackedIssuesCount()).isEqualTo(1);
+    assertThat(issueTracker.getTrackedHotspotsCount()).isZero();
+    assertThat(issueTracker.getTrackedFilesCount()).isEqualTo(1);
+    assertThat(underTest.getResolvedBindings()).containsOnlyKeys(workspaceFolderPath.toUri());
+
+    underTest.didClose(fileNotInAWorkspaceFolderPath.toUri());
+    assertThat(issueTracker.getTrackedIssuesCount()).isEqualTo(1);
+
+    underTest.didClose(fileInAWorkspaceFolderPath.toUri());
+    assertThat(issueTracker.getTrackedIssuesCount()).isZero();
+    assertThat(issueTracker.getTrackedFilesCount()).isZero();
+  }
+
+  @Test
+  void should_resolve_binding_in_background_and_analyze_again() {
+    var folder = mockFileInABoundWorkspaceFolder();
+    var bindingResolutionExecutor = mock(ExecutorService.class);
+    var nonBlockingManager = new ProjectBindingManager(enginesFactory, foldersManager, settingsManager, client, new ConcurrentHashMap<>(), null,
+      new TaintVulnerabilitiesCache(), diagnosticPublisher, backendServiceFacade, openNotebooksCache, new FilePathIndex(null), bindingResolutionExecutor,
+      new ConnectedEngineEviction());
+    nonBlockingManager.setAnalysisManager(analysisManager);
+    nonBlockingManager.setServerSentEventsHandler(serverSentEventsHandlerService);
+    nonBlockingManager.setBranchResolver(uri -> Optional.of("main"));
+
+    assertThat(nonBlockingManager.getBindingIfResolved(fileInAWorkspaceFolderPath.toUri())).isEmpty();
+    assertThat(nonBlockingManager.getBindingIfResolved(folder)).isEmpty();
+    var resolutionCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(bindingResolutionExecutor).execute(resolutionCaptor.capture());
+    verifyNoInteractions(fakeEngine);
+
+    resolutionCaptor.getValue().run();
+
+    verify(analysisManager).analyzeAllOpenFilesInFolder(folder);
+    var binding = nonBlockingManager.getBindingIfResolved(folder);
+    assertThat(binding).isPresent();
+    assertThat(binding.get().getBinding()).isEqualTo(FAKE_BINDING);
+
+    nonBlockingManager.clearBindingCache();
+
+    assertThat(nonBlockingManager.getBindingIfResolved(folder)).containsSame(binding.get());
+    verify(bindingResolutionExecutor, times(2)).execute(any());
+  }
+
+  @Test
+  void should_not_resolve_unbound_folder_in_background() {
+    var folder = mockFileInAFolder();
+    folder.setSettings(UNBOUND_SETTINGS);
+    var bindingResolutionExecutor = mock(ExecutorService.class);
+    var nonBlockingManager = new ProjectBindingManager(enginesFactory, foldersManager, settingsManager, client, new ConcurrentHashMap<>(), null,
+      new TaintVulnerabilitiesCache(), diagnosticPublisher, backendServiceFacade, openNotebooksCache, new FilePathIndex(null), bindingResolutionExecutor,
+      new ConnectedEngineEviction());
+
+    assertThat(nonBlockingManager.getBindingIfResolved(fileInAWorkspaceFolderPath.toUri())).isEmpty();
+
+    verifyNoInteractions(bindingResolutionExecutor);
+  }
+
+  @Test
+  void should_resolve_binding_in_background_when_folder_settings_are_first_known() {
+    var folder = mockFileInABoundWorkspaceFolder();
+    var bindingResolutionExecutor = mock(ExecutorService.class);
+    var nonBlockingManager = newNonBlockingManager(bindingResolutionExecutor);
+
+    nonBlockingManager.onChange(folder, null, BOUND_SETTINGS);
+
+    var resolutionCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(bindingResolutionExecutor).execute(resolutionCaptor.capture());
+    resolutionCaptor.getValue().run();
+    var binding = nonBlockingManager.getBindingIfResolved(folder);
+    assertThat(binding).isPresent();
+    assertThat(binding.get().getBinding()).isEqualTo(FAKE_BINDING);
+    verify(bindingResolutionExecutor).execute(any());
+  }
+
+  @Test
+  void should_resolve_binding_of_added_folder_in_background() {
+    var folder = mockFileInABoundWorkspaceFolder();
+    var bindingResolutionExecutor = mock(ExecutorService.class);
+    var nonBlockingManager = newNonBlockingManager(bindingResolutionExecutor);
+
+    nonBlockingManager.added(folder);
+
+    var resolutionCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(bindingResolutionExecutor).execute(resolutionCaptor.capture());
+    // Waits for the settings of the folder, then schedules the resolution
+    resolutionCaptor.getValue().run();
+    verify(bindingResolutionExecutor, times(2)).execute(resolutionCaptor.capture());
+    resolutionCaptor.getValue().run();
+    assertThat(nonBlockingManager.getBindingIfResolved(folder)).isPresent();
+    verify(analysisManager).analyzeAllOpenFilesInFolder(folder);
+  }
+
+  @Test
+  void should_not_resolve_binding_of_unbound_added_folder() {
+    var folder = mockFileInAFolder();
+    folder.setSettings(UNBOUND_SETTINGS);
+    var bindingResolutionExecutor = mock(ExecutorService.class);
+    var nonBlockingManager = newNonBlockingManager(bindingResolutionExecutor);
+
+    nonBlockingManager.added(folder);
+
+    var resolutionCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(bindingResolutionExecutor).execute(resolutionCaptor.capture());
+    resolutionCaptor.getValue().run();
+    verify(bindingResolutionExecutor).execute(any());
+  }
+
+  @Test
+  void should_resolve_new_binding_in_background_after_project_key_change() {
+    var folder = mockFileInABoundWorkspaceFolder();
+    when(foldersManager.getAll()).thenReturn(List.of(folder));
+    var bindingResolutionExecutor = mock(ExecutorService.class);
+    var nonBlockingManager = newNonBlockingManager(bindingResolutionExecutor);
+    when(folder.getSettings()).thenReturn(BOUND_SETTINGS_DIFFERENT_PROJECT_KEY);
+    when(fakeEngine.calculatePathPrefixes(eq(PROJECT_KEY2), any())).thenReturn(FAKE_BINDING2);
+
+    nonBlockingManager.onChange(folder, BOUND_SETTINGS, BOUND_SETTINGS_DIFFERENT_PROJECT_KEY);
+
+    var resolutionCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(bindingResolutionExecutor).execute(resolutionCaptor.capture());
+    resolutionCaptor.getValue().run();
+    var binding = nonBlockingManager.getBindingIfResolved(folder);
+    assertThat(binding).isPresent();
+    assertThat(binding.get().getBinding()).isEqualTo(FAKE_BINDING2);
+  }
+
+  private ProjectBindingManager newNonBlockingManager(ExecutorService bindingResolutionExecutor) {
+    var nonBlockingManager = new ProjectBindingManager(enginesFactory, foldersManager, settingsManager, client, new ConcurrentHashMap<>(), null,
+      new TaintVulnerabilitiesCache(), diagnosticPublisher, backendServiceFacade, openNotebooksCache, new FilePathIndex(null), bindingResolutionExecutor,
+      new ConnectedEngineEviction());
+    nonBlockingManager.setAnalysisManager(analysisManager);
+    nonBlockingManager.setServerSentEventsHandler(serverSentEventsHandlerService);
+    nonBlockingManager.setBranchResolver(uri -> Optional.of("main"));
+    return nonBlockingManager;
+  }
+
   @Test
   void get_binding_should_update_if_project_storage_missing() {
     mockFileInABoundWorkspaceFolder();
@@ -598,6 +765,109 @@ class ProjectBindingManagerTests {
     verify(fakeEngine).subscribeForEvents(any(), isNull(), eq(Set.of(PROJECT_KEY)), any(), isNull());
   }
 
+  @Test
+  void should_not_resubscribe_for_server_events_when_bound_project_keys_are_unchanged() {
+    var folder = mockFileInABoundWorkspaceFolder();
+    when(foldersManager.getAll()).thenReturn(List.of(folder));
+    underTest.getBinding(fileInAWorkspaceFolderPath.toUri());
+
+    underTest.subscribeForServerEvents(List.of(folder), List.of());
+    underTest.subscribeForServerEvents(CONNECTION_ID);
+
+    verify(fakeEngine, times(1)).subscribeForEvents(any(), isNull(), eq(Set.of(PROJECT_KEY)), any(), isNull());
+  }
+
+  @Test
+  void should_stop_idle_engine_and_start_it_again_on_next_analysis() {
+    var folder = mockFileInABoundWorkspaceFolder();
+    when(foldersManager.getAll()).thenReturn(List.of(folder));
+    var now = new AtomicLong();
+    var managerWithIdleEviction = new ProjectBindingManager(enginesFactory, foldersManager, settingsManager, client, new ConcurrentHashMap<>(), null,
+      new TaintVulnerabilitiesCache(), diagnosticPublisher, backendServiceFacade, openNotebooksCache, new FilePathIndex(null), mock(ExecutorService.class),
+      new ConnectedEngineEviction(Duration.ofMinutes(30), 0, now::get));
+    managerWithIdleEviction.setAnalysisManager(analysisManager);
+    managerWithIdleEviction.setServerSentEventsHandler(serverSentEventsHandlerService);
+    managerWithIdleEviction.setBranchResolver(uri -> Optional.of("main"));
+
+    assertThat(managerWithIdleEviction.getBinding(folder)).isPresent();
+    now.addAndGet(Duration.ofMinutes(20).toMillis());
+    assertThat(managerWithIdleEviction.getBindingIfResolved(folder)).isPresent();
+    now.addAndGet(Duration.ofMinutes(20).toMillis());
+    managerWithIdleEviction.stopIdleEngines();
+
+    verify(fakeEngine, never()).stop(anyBoolean());
+
+    now.addAndGet(Duration.ofMinutes(10).toMillis());
+    managerWithIdleEviction.stopIdleEngines();
+
+    verify(fakeEngine).stop(false);
+    assertThat(managerWithIdleEviction.getStartedConnectedEngine(CONNECTION_ID)).isEmpty();
+    assertThat(managerWithIdleEviction.getActiveConnectionsAndProjects()).isEmpty();
+
+    assertThat(managerWithIdleEviction.getBinding(folder)).isPresent();
+    verify(enginesFactory, times(2)).createConnectedEngine(anyString(), any(ServerConnectionSettings.class));
+    assertThat(managerWithIdleEviction.getActiveConnectionsAndProjects()).containsOnlyKeys(CONNECTION_ID);
+    managerWithIdleEviction.shutdown();
+  }
+
+  @Test
+  void should_restore_binding_of_evicted_engine_without_resolving_it_again() {
+    var folder = mockFileInABoundWorkspaceFolder();
+    when(foldersManager.getAll()).thenReturn(List.of(folder));
+    var now = new AtomicLong();
+    var bindingResolutionExecutor = mock(ExecutorService.class);
+    var managerWithIdleEviction = new ProjectBindingManager(enginesFactory, foldersManager, settingsManager, client, new ConcurrentHashMap<>(), null,
+      new TaintVulnerabilitiesCache(), diagnosticPublisher, backendServiceFacade, openNotebooksCache, new FilePathIndex(null), bindingResolutionExecutor,
+      new ConnectedEngineEviction(Duration.ofMinutes(30), 0, now::get));
+    managerWithIdleEviction.setAnalysisManager(analysisManager);
+    managerWithIdleEviction.setServerSentEventsHandler(serverSentEventsHandlerService);
+    managerWithIdleEviction.setBranchResolver(uri -> Optional.of("main"));
+    var binding = managerWithIdleEviction.getBinding(folder);
+    assertThat(binding).isPresent();
+
+    now.addAndGet(Duration.ofMinutes(30).toMillis());
+    managerWithIdleEviction.stopIdleEngines();
+    verify(fakeEngine).stop(false);
+
+    var restoredBinding = managerWithIdleEviction.getBindingIfResolved(folder);
+
+    assertThat(restoredBinding).isPresent();
+    assertThat(restoredBinding.get().getBinding()).isSameAs(binding.get().getBinding());
+    verify(enginesFactory, times(2)).createConnectedEngine(anyString(), any(ServerConnectionSettings.class));
+    verify(fakeEngine, times(1)).updateProject(any(), any(), eq(PROJECT_KEY), any());
+    verify(fakeEngine, times(1)).calculatePathPrefixes(eq(PROJECT_KEY), any());
+    verifyNoInteractions(bindingResolutionExecutor);
+    managerWithIdleEviction.shutdown();
+  }
+
+  @Test
+  void should_not_stop_engine_in_use() {
+    var folder = mockFileInABoundWorkspaceFolder();
+    when(foldersManager.getAll()).thenReturn(List.of(folder));
+    var now = new AtomicLong();
+    var managerWithIdleEviction = new ProjectBindingManager(enginesFactory, foldersManager, settingsManager, client, new ConcurrentHashMap<>(), null,
+      new TaintVulnerabilitiesCache(), diagnosticPublisher, backendServiceFacade, openNotebooksCache, new FilePathIndex(null), mock(ExecutorService.class),
+      new ConnectedEngineEviction(Duration.ofMinutes(30), 0, now::get));
+    managerWithIdleEviction.setAnalysisManager(analysisManager);
+    managerWithIdleEviction.setServerSentEventsHandler(serverSentEventsHandlerService);
+    managerWithIdleEviction.setBranchResolver(uri -> Optional.of("main"));
+    assertThat(managerWithIdleEviction.getBinding(folder)).isPresent();
+
+    managerWithIdleEviction.acquireConnectedEngine(CONNECTION_ID);
+    now.addAndGet(Duration.ofHours(1).toMillis());
+    managerWithIdleEviction.stopIdleEngines();
+    managerWithIdleEviction.stopEnginesUnderMemoryPressure();
+
+    verify(fakeEngine, never()).stop(anyBoolean());
+
+    managerWithIdleEviction.releaseConnectedEngine(CONNECTION_ID);
+    now.addAndGet(Duration.ofMinutes(30).toMillis());
+    managerWithIdleEviction.stopIdleEngines();
+
+    verify(fakeEngine).stop(false);
+    managerWithIdleEviction.shutdown();
+  }
+
   @Test
   void should_get_all_projects_for_a_connection() {
     var key1 = "key1";
@@ -660,6 +930,22 @@ class ProjectBindingManagerTests {
       .hasMessage("Failed to fetch list of projects from '" + CONNECTION_ID + "'");
   }
 
+  @Test
+  void should_not_read_main_branch_when_folder_branch_is_resolved() {
+    var folderUri = workspaceFolderPath.toUri();
+
+    assertThat(underTest.resolveBranchNameForFolder(folderUri, fakeEngine, PROJECT_KEY)).isEqualTo("main");
+
+    verify(fakeEngine, never()).getServerBranches(any());
+  }
+
+  @Test
+  void should_fallback_to_main_branch_when_folder_branch_is_unknown() {
+    underTest.setBranchResolver(uri -> Optional.empty());
+
+    assertThat(underTest.resolveBranchNameForFolder(workspaceFolderPath.toUri(), fakeEngine, PROJECT_KEY)).isEqualTo(BRANCH_NAME);
+  }
+
   @Test
   void should_not_subscribe_for_server_events_if_no_config() {
     underTest.subscribeForServerEvents(CONNECTION_ID);
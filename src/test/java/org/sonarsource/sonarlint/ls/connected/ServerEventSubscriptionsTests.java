@@ -0,0 +1,145 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import testutils.SonarLintLogTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ServerEventSubscriptionsTests {
+
+  private static final String CONNECTION_ID = "connectionId";
+
+  @RegisterExtension
+  SonarLintLogTester logTester = new SonarLintLogTester();
+
+  private final List<Set<String>> subscriptions = Collections.synchronizedList(new ArrayList<>());
+  private final ServerEventSubscriptions underTest = new ServerEventSubscriptions(Executors.newSingleThreadScheduledExecutor(), Duration.ofMillis(10), Duration.ofMillis(40));
+
+  @AfterEach
+  void stop() {
+    underTest.shutdown();
+  }
+
+  @Test
+  void should_only_subscribe_when_project_keys_change() {
+    assertThat(underTest.subscribe(CONNECTION_ID, Set.of("p1"), subscriptions::add, () -> {})).isTrue();
+    assertThat(underTest.subscribe(CONNECTION_ID, Set.of("p1"), subscriptions::add, () -> {})).isFalse();
+    assertThat(underTest.subscribe(CONNECTION_ID, Set.of("p1", "p2"), subscriptions::add, () -> {})).isTrue();
+
+    assertThat(subscriptions).containsExactly(Set.of("p1"), Set.of("p1", "p2"));
+  }
+
+  @Test
+  void should_subscribe_once_when_called_concurrently_with_the_same_project_keys() throws Exception {
+    var executor = Executors.newFixedThreadPool(4);
+    var startLatch = new CountDownLatch(1);
+    try {
+      var results = new ArrayList<Future<Boolean>>();
+      for (var i = 0; i < 4; i++) {
+        results.add(executor.submit(() -> {
+          startLatch.await();
+          return underTest.subscribe(CONNECTION_ID, Set.of("p1"), keys -> {
+            subscriptions.add(keys);
+            sleep();
+          }, () -> {});
+        }));
+      }
+      startLatch.countDown();
+      var subscribed = 0;
+      for (var result : results) {
+        subscribed += result.get(5, TimeUnit.SECONDS) ? 1 : 0;
+      }
+      assertThat(subscribed).isEqualTo(1);
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(subscriptions).containsExactly(Set.of("p1"));
+  }
+
+  private static void sleep() {
+    try {
+      Thread.sleep(50);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Test
+  void should_subscribe_again_once_forgotten() {
+    underTest.subscribe(CONNECTION_ID, Set.of("p1"), subscriptions::add, () -> {});
+    underTest.forget(CONNECTION_ID);
+
+    assertThat(underTest.subscribe(CONNECTION_ID, Set.of("p1"), subscriptions::add, () -> {})).isTrue();
+    assertThat(subscriptions).hasSize(2);
+  }
+
+  @Test
+  void should_retry_failed_subscriptions() {
+    var attempts = new AtomicInteger();
+    Runnable[] retry = new Runnable[1];
+    retry[0] = () -> underTest.subscribe(CONNECTION_ID, Set.of("p1"), keys -> {
+      if (attempts.incrementAndGet() < 3) {
+        throw new IllegalStateException("Server unavailable");
+      }
+      subscriptions.add(keys);
+    }, retry[0]);
+
+    retry[0].run();
+
+    await().untilAsserted(() -> assertThat(subscriptions).containsExactly(Set.of("p1")));
+    assertThat(attempts).hasValue(3);
+    assertThat(underTest.subscribe(CONNECTION_ID, Set.of("p1"), subscriptions::add, () -> {})).isFalse();
+  }
+
+  @Test
+  void should_not_retry_forgotten_connections() throws InterruptedException {
+    var retries = new AtomicInteger();
+    underTest.subscribe(CONNECTION_ID, Set.of("p1"), keys -> {
+      throw new IllegalStateException("Server unavailable");
+    }, retries::incrementAndGet);
+    underTest.forget(CONNECTION_ID);
+
+    Thread.sleep(50);
+    assertThat(retries).hasValue(0);
+  }
+
+  @Test
+  void should_cap_backoff() {
+    assertThat(underTest.backoff(1)).isEqualTo(Duration.ofMillis(10));
+    assertThat(underTest.backoff(2)).isEqualTo(Duration.ofMillis(20));
+    assertThat(underTest.backoff(3)).isEqualTo(Duration.ofMillis(40));
+    assertThat(underTest.backoff(30)).isEqualTo(Duration.ofMillis(40));
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonarsource.sonarlint.core.ConnectedSonarLintEngineImpl;
+import org.sonarsource.sonarlint.core.analysis.api.ClientInputFile;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.DefaultClientIssue;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue;
+import org.sonarsource.sonarlint.core.client.api.connected.ConnectedGlobalConfiguration;
+import org.sonarsource.sonarlint.core.client.api.connected.ConnectedSonarLintEngine;
+import org.sonarsource.sonarlint.core.commons.IssueSeverity;
+import org.sonarsource.sonarlint.core.commons.Language;
+import org.sonarsource.sonarlint.core.commons.RuleType;
+import org.sonarsource.sonarlint.core.commons.TextRange;
+import org.sonarsource.sonarlint.core.serverconnection.ProjectBinding;
+import org.sonarsource.sonarlint.ls.http.ApacheHttpClientProvider;
+import org.sonarsource.sonarlint.ls.settings.ServerConnectionSettings;
+import testutils.PerfBaselines;
+import testutils.SyntheticSonarQubeServer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures the matching of locally raised issues against the server issues of a synthetic project. Only runs with the
+ * <code>perf</code> profile.
+ */
+@EnabledIfSystemProperty(named = "sonarlint.perf", matches = "true")
+class ServerIssueTrackerWrapperPerfTests {
+
+  private static final String CONNECTION_ID = "perf";
+  private static final String PROJECT_KEY = "synthetic-project";
+
+  @TempDir
+  Path baseDir;
+
+  private final SyntheticSonarQubeServer server = SyntheticSonarQubeServer.fromSystemProperties(PROJECT_KEY);
+  private final ApacheHttpClientProvider httpClientProvider = new ApacheHttpClientProvider();
+  private final PerfBaselines baselines = new PerfBaselines();
+  private ConnectedSonarLintEngine engine;
+  private ServerConnectionSettings.EndpointParamsAndHttpClient endpointParamsAndHttpClient;
+
+  @BeforeEach
+  void prepare() throws IOException {
+    server.start();
+    httpClientProvider.initialize("SonarLint perf tests", "1.0");
+    engine = new ConnectedSonarLintEngineImpl(ConnectedGlobalConfiguration.sonarQubeBuilder()
+      .setConnectionId(CONNECTION_ID)
+      .setSonarLintUserHome(baseDir.resolve("userHome"))
+      .addEnabledLanguages(Language.JAVA)
+      .enableHotspots()
+      .setLogOutput((message, level) -> {
+      })
+      .build());
+    endpointParamsAndHttpClient = new ServerConnectionSettings(CONNECTION_ID, server.url(), "token", null, true, httpClientProvider)
+      .getServerConfiguration();
+    var endpointParams = endpointParamsAndHttpClient.getEndpointParams();
+    var httpClient = endpointParamsAndHttpClient.getHttpClient();
+    engine.updateProject(endpointParams, httpClient, PROJECT_KEY, null);
+    engine.sync(endpointParams, httpClient, Set.of(PROJECT_KEY), null);
+    engine.syncServerIssues(endpointParams, httpClient, PROJECT_KEY, SyntheticSonarQubeServer.MAIN_BRANCH, null);
+  }
+
+  @AfterEach
+  void stop() throws IOException {
+    engine.stop(true);
+    httpClientProvider.close();
+    server.close();
+  }
+
+  @Test
+  void match_and_track_all_files() {
+    var issuesByFilePath = localIssuesMatchingServerIssues(server.getIssueCount());
+    var tracker = new ServerIssueTrackerWrapper(engine, endpointParamsAndHttpClient, new ProjectBinding(PROJECT_KEY, "", ""), () -> SyntheticSonarQubeServer.MAIN_BRANCH,
+      issuesByFilePath.size(), null);
+    var matched = new AtomicInteger();
+
+    PerfBaselines.resetPeakHeap();
+    var start = System.nanoTime();
+    tracker.matchAndTrack(issuesByFilePath, issue -> {
+      if (((DelegatingIssue) issue).getServerIssueKey() != null) {
+        matched.incrementAndGet();
+      }
+    }, false);
+    var durationSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+    var peakHeapMb = PerfBaselines.peakHeapMb();
+
+    assertThat(matched).hasValue(server.getIssueCount());
+    baselines.assertThroughputAtLeast("tracking.matchAndTrack.issuesPerCalibration", server.getIssueCount() / durationSeconds);
+    baselines.assertAtMost("tracking.matchAndTrack.peakHeapMb", peakHeapMb);
+  }
+
+  private static Map<String, Collection<Issue>> localIssuesMatchingServerIssues(int issueCount) {
+    var inputFile = mock(ClientInputFile.class);
+    var issuesByFilePath = new LinkedHashMap<String, Collection<Issue>>();
+    for (var i = 0; i < issueCount; i++) {
+      var line = SyntheticSonarQubeServer.line(i);
+      var issue = new org.sonarsource.sonarlint.core.analysis.api.Issue(SyntheticSonarQubeServer.ruleKey(i), SyntheticSonarQubeServer.message(i),
+        new TextRange(line, 0, line, 10), inputFile, List.of(), List.of(), Optional.empty());
+      issuesByFilePath.computeIfAbsent(SyntheticSonarQubeServer.filePath(i), p -> new ArrayList<>())
+        .add(new DefaultClientIssue(issue, IssueSeverity.MAJOR, RuleType.CODE_SMELL, Optional.empty()));
+    }
+    return issuesByFilePath;
+  }
+}
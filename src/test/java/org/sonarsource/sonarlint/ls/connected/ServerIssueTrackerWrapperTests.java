@@ -26,14 +26,20 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.mockito.stubbing.Answer;
 import org.sonarsource.sonarlint.core.analysis.api.ClientInputFile;
 import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue;
 import org.sonarsource.sonarlint.core.client.api.connected.ConnectedSonarLintEngine;
 import org.sonarsource.sonarlint.core.commons.IssueSeverity;
 import org.sonarsource.sonarlint.core.commons.RuleType;
+import org.sonarsource.sonarlint.core.serverapi.EndpointParams;
 import org.sonarsource.sonarlint.core.serverconnection.ProjectBinding;
 import org.sonarsource.sonarlint.core.serverconnection.issues.LineLevelServerIssue;
 import org.sonarsource.sonarlint.core.serverconnection.issues.ServerIssue;
@@ -41,8 +47,12 @@ import org.sonarsource.sonarlint.ls.settings.ServerConnectionSettings;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -55,6 +65,8 @@ class ServerIssueTrackerWrapperTests {
 
   private static int counter = 1;
 
+  private final FileIssuesDownloader fileIssuesDownloader = mock(FileIssuesDownloader.class);
+
   @Test
   void get_original_issues_when_there_are_no_server_issues() throws IOException {
     var issue = mockIssue();
@@ -136,7 +148,7 @@ class ServerIssueTrackerWrapperTests {
   }
 
   @Test
-  void fetch_server_issues_when_needed() throws IOException {
+  void read_server_issues_from_storage_when_server_supports_issue_pull() throws IOException {
     var dummyFilePath = baseDir.resolve("dummy").toString();
 
     var issue = mockIssue();
@@ -154,11 +166,138 @@ class ServerIssueTrackerWrapperTests {
     engine = mock(ConnectedSonarLintEngine.class);
     tracker = newTracker(baseDir, engine);
     matchAndTrack(tracker, "dummy", issues, true);
-    verify(engine).downloadAllServerIssuesForFile(any(), any(), any(), any(), eq("branchName"), any());
     verify(engine).getServerIssues(any(), eq("branchName"), any());
-    verify(engine).downloadAllServerHotspotsForFile(any(), any(), any(), any(), any(), any());
-    verify(engine).getServerHotspots(any(), any(), any());
+    verify(engine).getServerHotspots(any(), eq("branchName"), any());
     verifyNoMoreInteractions(engine);
+    verifyNoInteractions(fileIssuesDownloader);
+  }
+
+  @Test
+  void read_server_issues_of_a_batch_from_storage_when_server_supports_issue_pull() {
+    var issue1 = mockIssue();
+    var issue2 = mockIssue();
+
+    var engine = mock(ConnectedSonarLintEngine.class);
+    var tracker = newTracker(baseDir, engine);
+    var recorded = new LinkedList<Issue>();
+    tracker.matchAndTrack(Map.of("file1", List.of(issue1), "file2", List.of(issue2), "file3", List.of()), recorded::add, true);
+
+    assertThat(recorded).extracting("issue").containsOnly(issue1, issue2);
+    verify(engine).getServerIssues(any(), eq("branchName"), eq("file1"));
+    verify(engine).getServerIssues(any(), eq("branchName"), eq("file2"));
+    verify(engine).getServerHotspots(any(), eq("branchName"), eq("file1"));
+    verify(engine).getServerHotspots(any(), eq("branchName"), eq("file2"));
+    verifyNoMoreInteractions(engine);
+    verifyNoInteractions(fileIssuesDownloader);
+  }
+
+  @Test
+  void download_server_issues_of_a_batch_at_once_when_server_does_not_support_issue_pull() {
+    var issue1 = mockIssue();
+    var issue2 = mockIssue();
+    var serverIssue1 = mockServerIssue(issue1);
+    when(serverIssue1.getKey()).thenReturn("serverKey1");
+    when(fileIssuesDownloader.downloadIssuesOfFiles(any(), any(), any(), any())).thenReturn(Map.of("file1", List.of(serverIssue1), "file2", List.of()));
+
+    var engine = mock(ConnectedSonarLintEngine.class);
+    var tracker = newTracker(engine, "9.5");
+    var recorded = new LinkedList<Issue>();
+    tracker.matchAndTrack(Map.of("file1", List.of(issue1), "file2", List.of(issue2)), recorded::add, true);
+
+    assertThat(recorded).extracting("issue").containsOnly(issue1, issue2);
+    assertThat(recorded).extracting(issue -> ((DelegatingIssue) issue).getServerIssueKey()).containsOnly("serverKey1", null);
+    verify(fileIssuesDownloader).downloadIssuesOfFiles(any(), any(), argThat(files -> files.containsAll(List.of("file1", "file2"))), eq("branchName"));
+    verifyNoMoreInteractions(fileIssuesDownloader);
+    verify(engine, never()).downloadAllServerIssuesForFile(any(), any(), any(), any(), any(), any());
+    verify(engine, never()).getServerIssues(any(), any(), any());
+  }
+
+  @Test
+  void download_server_issues_of_a_single_file_like_a_batch_when_server_does_not_support_issue_pull() {
+    var engine = mock(ConnectedSonarLintEngine.class);
+    var tracker = newTracker(engine, "9.5");
+    matchAndTrack(tracker, "file1", List.of(mockIssue()), true);
+
+    verify(fileIssuesDownloader).downloadIssuesOfFiles(any(), any(), eq(List.of("file1")), eq("branchName"));
+    verify(engine, never()).downloadAllServerIssuesForFile(any(), any(), any(), any(), any(), any());
+  }
+
+  @Test
+  void download_server_issues_of_analyzed_files_when_server_version_is_unknown() {
+    var engine = mock(ConnectedSonarLintEngine.class);
+    var tracker = newTracker(engine, "not a version");
+    tracker.matchAndTrack(Map.of("file1", List.of(mockIssue()), "file2", List.of(mockIssue())), issue -> {
+    }, true);
+
+    verify(fileIssuesDownloader).downloadIssuesOfFiles(any(), any(), any(), eq("branchName"));
+    verify(engine, never()).syncServerIssues(any(), any(), any(), any(), any());
+  }
+
+  @Test
+  void track_batch_larger_than_cache_bound() {
+    var issue1 = mockIssue();
+    var issue2 = mockIssue();
+    var issue3 = mockIssue();
+
+    var engine = mock(ConnectedSonarLintEngine.class);
+    var tracker = newTracker(engine, "9.9", 2);
+    var recorded = new LinkedList<Issue>();
+    tracker.matchAndTrack(Map.of("file1", List.of(issue1), "file2", List.of(issue2), "file3", List.of(issue3)), recorded::add, true);
+
+    assertThat(recorded).extracting("issue").containsOnly(issue1, issue2, issue3);
+    assertThat(tracker.getTrackedIssuesCount()).isEqualTo(2);
+    assertThat(tracker.getTrackedFilesCount()).isEqualTo(2);
+    assertThat(tracker.getMaxTrackedFiles()).isEqualTo(2);
+  }
+
+  @Test
+  void track_batch_from_storage_when_server_issues_download_fails() {
+    var issue1 = mockIssue();
+    var issue2 = mockIssue();
+    when(fileIssuesDownloader.downloadIssuesOfFiles(any(), any(), any(), any())).thenThrow(new IllegalStateException("Server unreachable"));
+
+    var engine = mock(ConnectedSonarLintEngine.class);
+    var tracker = newTracker(engine, "9.5");
+    var recorded = new LinkedList<Issue>();
+    tracker.matchAndTrack(Map.of("file1", List.of(issue1), "file2", List.of(issue2)), recorded::add, true);
+
+    assertThat(recorded).extracting("issue").containsOnly(issue1, issue2);
+    verify(engine).getServerIssues(any(), eq("branchName"), eq("file1"));
+    verify(engine).getServerIssues(any(), eq("branchName"), eq("file2"));
+  }
+
+  @Test
+  void serialize_tracking_of_single_files_and_batches() throws Exception {
+    var singleFileIssue = mockIssue();
+    var batchIssue1 = mockIssue();
+    var batchIssue2 = mockIssue();
+
+    var engine = mock(ConnectedSonarLintEngine.class);
+    var running = new AtomicInteger();
+    var maxRunning = new AtomicInteger();
+    Answer<Map<String, List<ServerIssue>>> recordConcurrency = invocation -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      Thread.sleep(50);
+      running.decrementAndGet();
+      return Map.of();
+    };
+    doAnswer(recordConcurrency).when(fileIssuesDownloader).downloadIssuesOfFiles(any(), any(), any(), any());
+    var tracker = newTracker(engine, "9.5");
+
+    var executor = Executors.newFixedThreadPool(2);
+    try {
+      var singleFile = executor.submit(() -> tracker.matchAndTrack("file1", List.of(singleFileIssue), issue -> {
+      }, true));
+      var batch = executor.submit(() -> tracker.matchAndTrack(Map.of("file2", List.of(batchIssue1), "file3", List.of(batchIssue2)), issue -> {
+      }, true));
+      singleFile.get(5, TimeUnit.SECONDS);
+      batch.get(5, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    verify(fileIssuesDownloader, times(2)).downloadIssuesOfFiles(any(), any(), any(), eq("branchName"));
+    assertThat(maxRunning.get()).isEqualTo(1);
   }
 
   private Collection<Issue> matchAndTrack(ServerIssueTrackerWrapper tracker, String filePath, Collection<Issue> issues) {
@@ -172,10 +311,19 @@ class ServerIssueTrackerWrapperTests {
   }
 
   private ServerIssueTrackerWrapper newTracker(Path baseDir, ConnectedSonarLintEngine engine) {
+    return newTracker(engine, "9.9");
+  }
+
+  private ServerIssueTrackerWrapper newTracker(ConnectedSonarLintEngine engine, String serverVersion) {
+    return newTracker(engine, serverVersion, ServerIssueTrackerWrapper.getMaxCachedFiles());
+  }
+
+  private ServerIssueTrackerWrapper newTracker(ConnectedSonarLintEngine engine, String serverVersion, int maxCachedFiles) {
     var projectKey = "project1";
     var projectBinding = new ProjectBinding(projectKey, "", "");
     Supplier<String> branchSupplier = () -> "branchName";
-    return new ServerIssueTrackerWrapper(engine, new ServerConnectionSettings.EndpointParamsAndHttpClient(null, null), projectBinding, branchSupplier);
+    return new ServerIssueTrackerWrapper(engine, new ServerConnectionSettings.EndpointParamsAndHttpClient(new EndpointParams("http://localhost", false, null), null),
+      projectBinding, branchSupplier, maxCachedFiles, null, () -> serverVersion, fileIssuesDownloader);
   }
 
   private ServerIssueTrackerWrapper newTracker(Path baseDir) {
@@ -0,0 +1,108 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import org.eclipse.lsp4j.FileChangeType;
+import org.eclipse.lsp4j.FileEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonarsource.sonarlint.core.serverconnection.ProjectBinding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ServerPathResolutionCacheTests {
+
+  private static final String SERVER_PATH = "module/src/Foo.java";
+  private static final String IDE_PATH = "src/Foo.java";
+
+  @TempDir
+  Path folder;
+  private final ProjectBinding projectBinding = mock(ProjectBinding.class);
+  private final ProjectBindingWrapper binding = mock(ProjectBindingWrapper.class);
+  private final ServerPathResolutionCache underTest = new ServerPathResolutionCache();
+
+  @BeforeEach
+  void prepare() {
+    when(binding.getBinding()).thenReturn(projectBinding);
+    when(projectBinding.serverPathToIdePath(anyString())).thenAnswer(invocation -> Optional.of(((String) invocation.getArgument(0)).replace("module/", "")));
+  }
+
+  @Test
+  void should_resolve_server_path_only_once() throws IOException {
+    var file = createFile(IDE_PATH);
+
+    assertThat(underTest.resolve(folder.toUri(), binding, SERVER_PATH)).contains(file.toUri());
+    assertThat(underTest.resolve(folder.toUri(), binding, SERVER_PATH)).contains(file.toUri());
+
+    verify(projectBinding, times(1)).serverPathToIdePath(SERVER_PATH);
+  }
+
+  @Test
+  void should_not_remember_missing_paths() throws IOException {
+    assertThat(underTest.resolve(folder.toUri(), binding, SERVER_PATH)).isEmpty();
+
+    var file = createFile(IDE_PATH);
+
+    assertThat(underTest.resolve(folder.toUri(), binding, SERVER_PATH)).contains(file.toUri());
+    assertThat(underTest.resolve(folder.toUri(), binding, SERVER_PATH)).contains(file.toUri());
+    verify(projectBinding, times(2)).serverPathToIdePath(SERVER_PATH);
+  }
+
+  @Test
+  void should_forget_resolutions_under_a_deleted_directory() throws IOException {
+    var file = createFile(IDE_PATH);
+    assertThat(underTest.resolve(folder.toUri(), binding, SERVER_PATH)).contains(file.toUri());
+
+    Files.delete(file);
+    underTest.didChangeWatchedFiles(List.of(new FileEvent(file.getParent().toUri().toString(), FileChangeType.Deleted)));
+
+    assertThat(underTest.resolve(folder.toUri(), binding, SERVER_PATH)).isEmpty();
+  }
+
+  @Test
+  void should_forget_resolutions_when_binding_changes() throws IOException {
+    var file = createFile(IDE_PATH);
+    assertThat(underTest.resolve(folder.toUri(), binding, SERVER_PATH)).contains(file.toUri());
+
+    var otherProjectBinding = mock(ProjectBinding.class);
+    when(otherProjectBinding.serverPathToIdePath(SERVER_PATH)).thenReturn(Optional.empty());
+    var otherBinding = mock(ProjectBindingWrapper.class);
+    when(otherBinding.getBinding()).thenReturn(otherProjectBinding);
+
+    assertThat(underTest.resolve(folder.toUri(), otherBinding, SERVER_PATH)).isEmpty();
+  }
+
+  private Path createFile(String relativePath) throws IOException {
+    var file = folder.resolve(relativePath);
+    Files.createDirectories(file.getParent());
+    return Files.createFile(file);
+  }
+}
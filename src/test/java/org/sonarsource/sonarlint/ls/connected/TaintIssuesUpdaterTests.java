@@ -20,6 +20,8 @@
 package org.sonarsource.sonarlint.ls.connected;
 
 import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
@@ -51,7 +53,9 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -110,6 +114,16 @@ class TaintIssuesUpdaterTests {
     verifyNoMoreInteractions(engine);
   }
 
+  @Test
+  void should_not_let_the_engine_be_stopped_while_downloading_taints() {
+    underTest.updateTaintIssuesAsync(FILE_URI);
+
+    var inOrder = inOrder(bindingManager, engine);
+    inOrder.verify(bindingManager).acquireConnectedEngine(CONNECTION_ID);
+    inOrder.verify(engine).getServerTaintIssues(any(), eq(BRANCH_NAME), anyString());
+    inOrder.verify(bindingManager).releaseConnectedEngine(CONNECTION_ID);
+  }
+
   @Test
   void should_log_number_of_downloaded_taints() {
     var taint1 = new ServerTaintIssue("taint1", false, "ruleKey1", "message", "filePath", Instant.now(), IssueSeverity.CRITICAL, RuleType.VULNERABILITY, new TextRangeWithHash(1,1,1,1,""), null);
@@ -121,6 +135,28 @@ class TaintIssuesUpdaterTests {
     assertThat(logTester.logs()).containsExactly("Fetched 2 vulnerabilities from Connection ID");
   }
 
+  @Test
+  void should_sync_project_taints_once_within_window() {
+    var clock = mock(Clock.class);
+    var now = Instant.now();
+    when(clock.instant()).thenReturn(now);
+    var updater = new TaintIssuesUpdater(bindingManager, new TaintVulnerabilitiesCache(), workspaceFoldersManager, settingsManager, diagnosticPublisher, executorService,
+      Duration.ofMinutes(1), clock);
+
+    updater.updateTaintIssuesAsync(FILE_URI);
+    when(clock.instant()).thenReturn(now.plusSeconds(59));
+    updater.updateTaintIssuesAsync(FILE_URI);
+
+    verify(engine).syncServerTaintIssues(any(), any(), eq(PROJECT_KEY), eq(BRANCH_NAME), isNull());
+    verify(engine, times(2)).downloadAllServerTaintIssuesForFile(any(), any(), any(), anyString(), eq(BRANCH_NAME), isNull());
+    verify(diagnosticPublisher, times(2)).publishDiagnostics(FILE_URI);
+
+    when(clock.instant()).thenReturn(now.plusSeconds(61));
+    updater.updateTaintIssuesAsync(FILE_URI);
+
+    verify(engine, times(2)).syncServerTaintIssues(any(), any(), eq(PROJECT_KEY), eq(BRANCH_NAME), isNull());
+  }
+
   @Test
   void should_stop_executor_on_shutdown() {
     underTest.shutdown();
@@ -158,4 +158,28 @@ class TaintVulnerabilitiesCacheTests {
     assertThat(underTest.getTaintVulnerabilityByKey("otherKey")).isEmpty();
   }
 
+
+  @Test
+  void shouldIndexFilesByIssueKey() {
+    var file1 = URI.create("file:///File1.java");
+    var file2 = URI.create("file:///File2.java");
+    var issue1 = mock(TaintIssue.class);
+    when(issue1.getKey()).thenReturn("key1");
+    var issue2 = mock(TaintIssue.class);
+    when(issue2.getKey()).thenReturn("key2");
+
+    underTest.reload(file1, List.of(issue1, issue2));
+    assertThat(underTest.getFileForIssueKey("key1")).contains(file1);
+    assertThat(underTest.getFileForIssueKey("key2")).contains(file1);
+
+    // issue2 moved to another file
+    underTest.reload(file2, List.of(issue2));
+    underTest.reload(file1, List.of(issue1));
+    assertThat(underTest.getFileForIssueKey("key2")).contains(file2);
+    assertThat(underTest.getTaintVulnerabilityByKey("key2")).contains(issue2);
+
+    underTest.clear(file1);
+    assertThat(underTest.getFileForIssueKey("key1")).isEmpty();
+    assertThat(underTest.getTaintVulnerabilityByKey("key1")).isEmpty();
+  }
 }
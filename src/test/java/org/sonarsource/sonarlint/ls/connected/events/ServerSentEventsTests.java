@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -33,15 +34,19 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import org.eclipse.lsp4j.WorkspaceFolder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.sonarsource.sonarlint.core.client.api.connected.ConnectedSonarLintEngine;
 import org.sonarsource.sonarlint.core.client.api.connected.ProjectBranches;
 import org.sonarsource.sonarlint.core.commons.IssueSeverity;
 import org.sonarsource.sonarlint.core.commons.RuleType;
 import org.sonarsource.sonarlint.core.serverapi.push.IssueChangedEvent;
+import org.sonarsource.sonarlint.core.serverapi.push.RuleSetChangedEvent;
 import org.sonarsource.sonarlint.core.serverapi.push.TaintVulnerabilityClosedEvent;
 import org.sonarsource.sonarlint.core.serverapi.push.TaintVulnerabilityRaisedEvent;
 import org.sonarsource.sonarlint.core.serverconnection.ProjectBinding;
@@ -55,6 +60,7 @@ import org.sonarsource.sonarlint.ls.connected.ProjectBindingWrapper;
 import org.sonarsource.sonarlint.ls.connected.TaintVulnerabilitiesCache;
 import org.sonarsource.sonarlint.ls.connected.domain.TaintIssue;
 import org.sonarsource.sonarlint.ls.connected.notifications.TaintVulnerabilityRaisedNotification;
+import org.sonarsource.sonarlint.ls.connected.sync.ProjectSyncTracker;
 import org.sonarsource.sonarlint.ls.folders.WorkspaceFolderWrapper;
 import org.sonarsource.sonarlint.ls.folders.WorkspaceFoldersManager;
 import org.sonarsource.sonarlint.ls.http.ApacheHttpClientProvider;
@@ -112,6 +118,7 @@ class ServerSentEventsTests {
     ProjectBindingManager projectBindingManager;
     TaintVulnerabilityRaisedNotification taintVulnerabilityRaisedNotification = mock(TaintVulnerabilityRaisedNotification.class);
     WorkspaceFoldersManager workspaceFoldersManager = mock(WorkspaceFoldersManager.class);
+    ProjectSyncTracker syncTracker = mock(ProjectSyncTracker.class);
     private final BackendServiceFacade backendServiceFacade = mock(BackendServiceFacade.class);
 
     @BeforeEach
@@ -130,7 +137,8 @@ class ServerSentEventsTests {
           null, taintVulnerabilitiesCache, diagnosticPublisher, backendServiceFacade, mock(OpenNotebooksCache.class));
         projectBindingManager.setBranchResolver(uri -> Optional.of(BRANCH_NAME));
 
-        underTest = new ServerSentEventsHandler(projectBindingManager, taintVulnerabilitiesCache, taintVulnerabilityRaisedNotification, settingsManager, workspaceFoldersManager);
+        underTest = new ServerSentEventsHandler(projectBindingManager, taintVulnerabilitiesCache, taintVulnerabilityRaisedNotification, settingsManager, workspaceFoldersManager, syncTracker,
+          mock(ScheduledExecutorService.class), Duration.ZERO);
 
         MAIN_LOCATION = new TaintVulnerabilityRaisedEvent.Location(fileInAWorkspaceFolderPath.toUri().toString(),
           "Change this code to not construct SQL queries directly from user-controlled data.",
@@ -211,6 +219,16 @@ class ServerSentEventsTests {
         assertThat(taintVulnerabilitiesCache.getTaintVulnerabilitiesPerFile().get(fileInAWorkspaceFolderPath.toUri())).isEmpty();
     }
 
+    @Test
+    void shouldMarkImpactedProjectsAsChanged(){
+        underTest.handleEvents(new TaintVulnerabilityClosedEvent(PROJECT_KEY, ISSUE_KEY1));
+        underTest.handleEvents(new RuleSetChangedEvent(List.of("project1", "project2"), List.of(), List.of()));
+
+        verify(syncTracker).markChanged(PROJECT_KEY);
+        verify(syncTracker).markChanged("project1");
+        verify(syncTracker).markChanged("project2");
+    }
+
     @Test
     void shouldDoNothingOnTaintVulnerabilityClosedEventWhenIssueDoesNotExistLocally(){
         prepareForServerEventTests();
@@ -295,6 +313,39 @@ class ServerSentEventsTests {
         assertThat(taintVulnerabilitiesCache.getTaintVulnerabilitiesPerFile().get(fileInAWorkspaceFolderPath.toUri())).isNull();
     }
 
+    @Test
+    void shouldCoalesceTaintUpdatesOfImpactedFilesOnly() {
+        var bindingManager = mock(ProjectBindingManager.class);
+        var scheduler = mock(ScheduledExecutorService.class);
+        var coalescingHandler = new ServerSentEventsHandler(bindingManager, taintVulnerabilitiesCache, taintVulnerabilityRaisedNotification, settingsManager,
+          workspaceFoldersManager, syncTracker, scheduler, Duration.ofMillis(100));
+        var file1 = URI.create("file:///project/File1.java");
+        var file2 = URI.create("file:///project/File2.java");
+        var file3 = URI.create("file:///project/File3.java");
+        taintVulnerabilitiesCache.reload(file1, List.of(taintIssue(ISSUE_KEY1)));
+        taintVulnerabilitiesCache.reload(file2, List.of(taintIssue(ISSUE_KEY2)));
+        taintVulnerabilitiesCache.reload(file3, List.of(taintIssue("OTHER_KEY")));
+
+        coalescingHandler.handleEvents(new TaintVulnerabilityClosedEvent(PROJECT_KEY, ISSUE_KEY1));
+        coalescingHandler.handleEvents(new IssueChangedEvent(PROJECT_KEY, List.of(ISSUE_KEY1, ISSUE_KEY2, "UNKNOWN_KEY"), NEW_ISSUE_SEVERITY, null, null));
+
+        var flush = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(flush.capture(), eq(100L), eq(TimeUnit.MILLISECONDS));
+        verify(bindingManager, never()).updateTaintIssueCacheFromStorageForFile(any());
+
+        flush.getValue().run();
+
+        verify(bindingManager).updateTaintIssueCacheFromStorageForFile(file1);
+        verify(bindingManager).updateTaintIssueCacheFromStorageForFile(file2);
+        verify(bindingManager, never()).updateTaintIssueCacheFromStorageForFile(file3);
+    }
+
+    private static TaintIssue taintIssue(String key) {
+        var issue = mock(TaintIssue.class);
+        when(issue.getKey()).thenReturn(key);
+        return issue;
+    }
+
     @Test
     void shouldTriggerNotificationOnTaintVulnerabilityRaisedEvent() {
         prepareForServerEventTests();
@@ -0,0 +1,131 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected.sync;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProjectSyncTrackerTests {
+
+  private static final String CONNECTION_ID = "connectionId";
+  private static final String PROJECT_KEY = "projectKey";
+  private static final Instant NOW = Instant.parse("2023-04-01T10:00:00Z");
+
+  private final Clock clock = mock(Clock.class);
+  private ProjectSyncTracker underTest;
+
+  @BeforeEach
+  void prepare() {
+    when(clock.instant()).thenReturn(NOW);
+    when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+    underTest = new ProjectSyncTracker(Duration.ofHours(1), Duration.ofMinutes(5), Duration.ofHours(4), clock);
+  }
+
+  @Test
+  void should_need_sync_when_never_synchronized() {
+    assertThat(underTest.needsSync(CONNECTION_ID, PROJECT_KEY, Set.of("main"))).isTrue();
+    assertThat(underTest.getLastSuccessfulSync(CONNECTION_ID, PROJECT_KEY, "main")).isEmpty();
+
+    underTest.recordSuccessfulSync(CONNECTION_ID, PROJECT_KEY, Set.of("main"), underTest.startSync());
+
+    assertThat(underTest.needsSync(CONNECTION_ID, PROJECT_KEY, Set.of("main"))).isFalse();
+    assertThat(underTest.needsSync(CONNECTION_ID, PROJECT_KEY, Set.of("main", "feature"))).isTrue();
+    assertThat(underTest.getLastSuccessfulSync(CONNECTION_ID, PROJECT_KEY, "main")).contains(NOW);
+  }
+
+  @Test
+  void should_need_sync_after_server_event() {
+    underTest.recordSuccessfulSync(CONNECTION_ID, PROJECT_KEY, Set.of("main"), underTest.startSync());
+
+    underTest.markChanged("otherProject");
+    assertThat(underTest.needsSync(CONNECTION_ID, PROJECT_KEY, Set.of("main"))).isFalse();
+
+    underTest.markChanged(PROJECT_KEY);
+    assertThat(underTest.needsSync(CONNECTION_ID, PROJECT_KEY, Set.of("main"))).isTrue();
+
+    underTest.recordSuccessfulSync(CONNECTION_ID, PROJECT_KEY, Set.of("main"), underTest.startSync());
+    assertThat(underTest.needsSync(CONNECTION_ID, PROJECT_KEY, Set.of("main"))).isFalse();
+    assertThat(underTest.getInterval(CONNECTION_ID, PROJECT_KEY)).isEqualTo(Duration.ofMinutes(30));
+  }
+
+  @Test
+  void should_still_need_sync_when_server_event_is_received_during_sync() {
+    underTest.recordSuccessfulSync(CONNECTION_ID, PROJECT_KEY, Set.of("main"), underTest.startSync());
+    underTest.markChanged(PROJECT_KEY);
+
+    var syncGeneration = underTest.startSync();
+    underTest.markChanged(PROJECT_KEY);
+    underTest.recordSuccessfulSync(CONNECTION_ID, PROJECT_KEY, Set.of("main"), syncGeneration);
+    assertThat(underTest.needsSync(CONNECTION_ID, PROJECT_KEY, Set.of("main"))).isTrue();
+
+    underTest.recordSuccessfulSync(CONNECTION_ID, PROJECT_KEY, Set.of("main"), underTest.startSync());
+    assertThat(underTest.needsSync(CONNECTION_ID, PROJECT_KEY, Set.of("main"))).isFalse();
+  }
+
+  @Test
+  void should_not_detect_change_on_first_probe_when_analysis_dates_were_seeded() {
+    assertThat(underTest.hasAnalysisDates(CONNECTION_ID, PROJECT_KEY, Set.of("main", "feature"))).isFalse();
+    underTest.recordAnalysisDates(CONNECTION_ID, PROJECT_KEY, Set.of("main", "feature"), Map.of("main", "2023-03-31T10:00:00+0000"));
+    assertThat(underTest.hasAnalysisDates(CONNECTION_ID, PROJECT_KEY, Set.of("main", "feature"))).isTrue();
+    underTest.recordSuccessfulSync(CONNECTION_ID, PROJECT_KEY, Set.of("main", "feature"), underTest.startSync());
+
+    assertThat(underTest.recordProbe(CONNECTION_ID, PROJECT_KEY, Set.of("main", "feature"), Map.of("main", "2023-03-31T10:00:00+0000"))).isFalse();
+    assertThat(underTest.getInterval(CONNECTION_ID, PROJECT_KEY)).isEqualTo(Duration.ofHours(2));
+  }
+
+  @Test
+  void should_detect_change_from_probed_analysis_date() {
+    underTest.recordProbe(CONNECTION_ID, PROJECT_KEY, Set.of("main"), Map.of("main", "2023-03-31T10:00:00+0000"));
+    underTest.recordSuccessfulSync(CONNECTION_ID, PROJECT_KEY, Set.of("main"), underTest.startSync());
+
+    assertThat(underTest.recordProbe(CONNECTION_ID, PROJECT_KEY, Set.of("main"), Map.of("main", "2023-03-31T10:00:00+0000"))).isFalse();
+    assertThat(underTest.recordProbe(CONNECTION_ID, PROJECT_KEY, Set.of("main"), Map.of("main", "2023-04-01T09:00:00+0000"))).isTrue();
+  }
+
+  @Test
+  void should_adapt_probe_interval_to_change_rate() {
+    underTest.recordSuccessfulSync(CONNECTION_ID, PROJECT_KEY, Set.of("main"), underTest.startSync());
+    assertThat(underTest.isProbeDue(CONNECTION_ID, PROJECT_KEY)).isFalse();
+
+    underTest.recordProbe(CONNECTION_ID, PROJECT_KEY, Set.of("main"), Map.of());
+    assertThat(underTest.getInterval(CONNECTION_ID, PROJECT_KEY)).isEqualTo(Duration.ofHours(2));
+    underTest.recordProbe(CONNECTION_ID, PROJECT_KEY, Set.of("main"), Map.of());
+    underTest.recordProbe(CONNECTION_ID, PROJECT_KEY, Set.of("main"), Map.of());
+    assertThat(underTest.getInterval(CONNECTION_ID, PROJECT_KEY)).isEqualTo(Duration.ofHours(4));
+
+    for (var i = 0; i < 10; i++) {
+      underTest.recordProbe(CONNECTION_ID, PROJECT_KEY, Set.of("main"), Map.of("main", "date" + i));
+    }
+    assertThat(underTest.getInterval(CONNECTION_ID, PROJECT_KEY)).isEqualTo(Duration.ofMinutes(5));
+
+    when(clock.instant()).thenReturn(NOW.plus(Duration.ofMinutes(5)));
+    assertThat(underTest.isProbeDue(CONNECTION_ID, PROJECT_KEY)).isTrue();
+  }
+}
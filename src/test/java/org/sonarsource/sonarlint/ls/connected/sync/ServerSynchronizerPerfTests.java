@@ -0,0 +1,158 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected.sync;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Timer;
+import java.util.concurrent.CompletableFuture;
+import org.eclipse.lsp4j.WorkspaceFolder;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonarsource.sonarlint.core.ConnectedSonarLintEngineImpl;
+import org.sonarsource.sonarlint.core.client.api.connected.ConnectedGlobalConfiguration;
+import org.sonarsource.sonarlint.core.commons.Language;
+import org.sonarsource.sonarlint.ls.AnalysisScheduler;
+import org.sonarsource.sonarlint.ls.DiagnosticPublisher;
+import org.sonarsource.sonarlint.ls.EnginesFactory;
+import org.sonarsource.sonarlint.ls.SonarLintExtendedLanguageClient;
+import org.sonarsource.sonarlint.ls.backend.BackendServiceFacade;
+import org.sonarsource.sonarlint.ls.connected.ProjectBindingManager;
+import org.sonarsource.sonarlint.ls.connected.TaintVulnerabilitiesCache;
+import org.sonarsource.sonarlint.ls.connected.events.ServerSentEventsHandlerService;
+import org.sonarsource.sonarlint.ls.folders.WorkspaceFolderWrapper;
+import org.sonarsource.sonarlint.ls.folders.WorkspaceFoldersManager;
+import org.sonarsource.sonarlint.ls.http.ApacheHttpClientProvider;
+import org.sonarsource.sonarlint.ls.log.LanguageClientLogOutput;
+import org.sonarsource.sonarlint.ls.notebooks.OpenNotebooksCache;
+import org.sonarsource.sonarlint.ls.progress.ProgressManager;
+import org.sonarsource.sonarlint.ls.settings.ServerConnectionSettings;
+import org.sonarsource.sonarlint.ls.settings.SettingsManager;
+import org.sonarsource.sonarlint.ls.settings.WorkspaceFolderSettings;
+import org.sonarsource.sonarlint.ls.settings.WorkspaceSettings;
+import testutils.PerfBaselines;
+import testutils.SyntheticSonarQubeServer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures a full binding update against a synthetic server, with one workspace folder per bound branch. The number of bound
+ * branches defaults to 5 and can be changed with <code>sonarlint.perf.boundBranches</code>. Only runs with the <code>perf</code> profile.
+ */
+@EnabledIfSystemProperty(named = "sonarlint.perf", matches = "true")
+class ServerSynchronizerPerfTests {
+
+  private static final String CONNECTION_ID = "perf";
+  private static final String PROJECT_KEY = "synthetic-project";
+  private static final int BOUND_BRANCHES = Integer.getInteger("sonarlint.perf.boundBranches", 5);
+
+  @TempDir
+  Path baseDir;
+
+  private final SyntheticSonarQubeServer server = SyntheticSonarQubeServer.fromSystemProperties(PROJECT_KEY);
+  private final ApacheHttpClientProvider httpClientProvider = new ApacheHttpClientProvider();
+  private final PerfBaselines baselines = new PerfBaselines();
+  private final SonarLintExtendedLanguageClient client = mock(SonarLintExtendedLanguageClient.class);
+  private ProjectBindingManager bindingManager;
+  private int boundBranchCount;
+  private ServerSynchronizer underTest;
+
+  @BeforeEach
+  void prepare() throws IOException {
+    server.start();
+    httpClientProvider.initialize("SonarLint perf tests", "1.0");
+    var engine = new ConnectedSonarLintEngineImpl(ConnectedGlobalConfiguration.sonarQubeBuilder()
+      .setConnectionId(CONNECTION_ID)
+      .setSonarLintUserHome(baseDir.resolve("userHome"))
+      .addEnabledLanguages(Language.JAVA)
+      .enableHotspots()
+      .setLogOutput((message, level) -> {
+      })
+      .build());
+    var enginesFactory = mock(EnginesFactory.class);
+    when(enginesFactory.createConnectedEngine(anyString(), any(ServerConnectionSettings.class))).thenReturn(engine);
+
+    var connection = new ServerConnectionSettings(CONNECTION_ID, server.url(), "token", null, true, httpClientProvider);
+    var settingsManager = mock(SettingsManager.class);
+    when(settingsManager.getCurrentSettings()).thenReturn(new WorkspaceSettings(false, Map.of(CONNECTION_ID, connection), Collections.emptyList(), Collections.emptyList(),
+      Collections.emptyMap(), false, false, ""));
+    when(settingsManager.getCurrentDefaultFolderSettings()).thenReturn(new WorkspaceFolderSettings(null, null, Collections.emptyMap(), null, null));
+    when(client.getTokenForServer(any())).thenReturn(CompletableFuture.completedFuture("token"));
+
+    // One folder per bound branch, so that each of them gets synchronized
+    var folders = new ArrayList<WorkspaceFolderWrapper>();
+    var branchByFolder = new HashMap<URI, String>();
+    var branchNames = server.branchNames();
+    for (var branchName : branchNames.subList(0, Math.min(BOUND_BRANCHES, branchNames.size()))) {
+      var folderPath = Files.createDirectories(baseDir.resolve("folders").resolve(branchName));
+      var folder = new WorkspaceFolderWrapper(folderPath.toUri(), new WorkspaceFolder(folderPath.toUri().toString()));
+      folder.setSettings(new WorkspaceFolderSettings(CONNECTION_ID, PROJECT_KEY, Collections.emptyMap(), null, null));
+      folders.add(folder);
+      branchByFolder.put(folderPath.toUri(), branchName);
+    }
+    boundBranchCount = folders.size();
+    var foldersManager = mock(WorkspaceFoldersManager.class);
+    when(foldersManager.getAll()).thenReturn(folders);
+
+    bindingManager = new ProjectBindingManager(enginesFactory, foldersManager, settingsManager, client, mock(LanguageClientLogOutput.class),
+      mock(TaintVulnerabilitiesCache.class), mock(DiagnosticPublisher.class), mock(BackendServiceFacade.class), mock(OpenNotebooksCache.class));
+    var analysisScheduler = mock(AnalysisScheduler.class);
+    bindingManager.setAnalysisManager(analysisScheduler);
+    bindingManager.setBranchResolver(uri -> Optional.ofNullable(branchByFolder.get(uri)));
+    bindingManager.setServerSentEventsHandler(mock(ServerSentEventsHandlerService.class));
+    underTest = new ServerSynchronizer(client, new ProgressManager(client), bindingManager, analysisScheduler, mock(Timer.class));
+  }
+
+  @AfterEach
+  void stop() throws IOException {
+    underTest.shutdown();
+    bindingManager.shutdown();
+    httpClientProvider.close();
+    server.close();
+  }
+
+  @Test
+  void update_all_bindings() {
+    var start = System.nanoTime();
+    underTest.updateAllBindings(mock(CancelChecker.class), null);
+    var durationMs = (System.nanoTime() - start) / 1_000_000.0;
+
+    assertThat(server.getUnexpectedRequests()).isEmpty();
+    assertThat(server.getRequestCount("/api/issues/pull")).isGreaterThanOrEqualTo(boundBranchCount);
+    assertThat(server.getRequestCount("/api/issues/pull_taint")).isGreaterThanOrEqualTo(boundBranchCount);
+    baselines.assertDurationAtMost("sync.updateAllBindings.calibrations", durationMs);
+  }
+}
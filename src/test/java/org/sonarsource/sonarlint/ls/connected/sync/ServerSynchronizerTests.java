@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -34,7 +35,9 @@ import java.util.TimerTask;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import org.eclipse.lsp4j.MessageParams;
 import org.eclipse.lsp4j.MessageType;
 import org.eclipse.lsp4j.WorkspaceFolder;
@@ -44,6 +47,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
+import org.mockito.stubbing.Answer;
 import org.sonarsource.sonarlint.core.client.api.connected.ConnectedSonarLintEngine;
 import org.sonarsource.sonarlint.core.client.api.connected.ProjectBranches;
 import org.sonarsource.sonarlint.core.commons.log.ClientLogOutput;
@@ -70,11 +74,14 @@ import org.sonarsource.sonarlint.ls.settings.WorkspaceSettings;
 import testutils.SonarLintLogTester;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -346,6 +353,95 @@ class ServerSynchronizerTests {
     verify(fakeEngine2, times(2)).syncServerTaintIssues(any(), any(), eq(PROJECT_KEY2), eq("master"), any());
   }
 
+  @Test
+  void incremental_sync_should_only_sync_changed_projects() {
+    var folder1 = mockFileInABoundWorkspaceFolder();
+    when(foldersManager.getAll()).thenReturn(List.of(folder1));
+    bindingManager.getOrCreateConnectedEngine(CONNECTION_ID);
+    var incrementalTimer = mock(Timer.class);
+    var syncTracker = new ProjectSyncTracker(Duration.ofHours(1), Duration.ofMinutes(5), Duration.ofHours(6));
+    var freshnessProbe = mock(ProjectFreshnessProbe.class);
+    new ServerSynchronizer(client, new ProgressManager(client), bindingManager, analysisManager, incrementalTimer, syncTracker, freshnessProbe, true);
+    var syncTaskCaptor = ArgumentCaptor.forClass(TimerTask.class);
+    verify(incrementalTimer).scheduleAtFixedRate(syncTaskCaptor.capture(), eq(Duration.ofMinutes(5).toMillis()), eq(Duration.ofMinutes(5).toMillis()));
+    var incrementalSyncTask = syncTaskCaptor.getValue();
+
+    // Never synchronized
+    incrementalSyncTask.run();
+    verify(fakeEngine, times(2)).syncServerIssues(any(), any(), eq(PROJECT_KEY), eq("master"), any());
+
+    // Nothing changed, probe not due yet
+    incrementalSyncTask.run();
+    verify(fakeEngine, times(2)).syncServerIssues(any(), any(), eq(PROJECT_KEY), eq("master"), any());
+
+    // Changed by a server event
+    syncTracker.markChanged(PROJECT_KEY);
+    incrementalSyncTask.run();
+    verify(fakeEngine, times(3)).syncServerIssues(any(), any(), eq(PROJECT_KEY), eq("master"), any());
+    // Analysis dates are only fetched before the first synchronization
+    verify(freshnessProbe).fetchAnalysisDateByBranch(any(), eq(PROJECT_KEY));
+    verifyNoMoreInteractions(freshnessProbe);
+  }
+
+  @Test
+  void should_download_projects_concurrently() {
+    var folder1 = mockFileInABoundWorkspaceFolder();
+    var folder2 = mockFileInABoundWorkspaceFolder2();
+    folder2.setSettings(BOUND_SETTINGS_DIFFERENT_PROJECT_KEY);
+    when(foldersManager.getAll()).thenReturn(List.of(folder1, folder2));
+    when(fakeEngine.calculatePathPrefixes(eq(PROJECT_KEY2), anyCollection())).thenReturn(new ProjectBinding(PROJECT_KEY2, "", ""));
+    var allDownloadsStarted = new CountDownLatch(2);
+    Answer<Void> waitForOtherDownloads = invocation -> {
+      allDownloadsStarted.countDown();
+      if (!allDownloadsStarted.await(5, TimeUnit.SECONDS)) {
+        throw new IllegalStateException("Downloads are not concurrent");
+      }
+      return null;
+    };
+    doAnswer(waitForOtherDownloads).when(fakeEngine).syncServerIssues(any(), any(), eq(PROJECT_KEY), eq("master"), any());
+    doAnswer(waitForOtherDownloads).when(fakeEngine).syncServerIssues(any(), any(), eq(PROJECT_KEY2), eq("master"), any());
+
+    underTest.updateAllBindings(mock(CancelChecker.class), null);
+
+    assertThat(allDownloadsStarted.getCount()).isZero();
+    assertThat(underTest.getSyncTracker().getLastSuccessfulSync(CONNECTION_ID, PROJECT_KEY, "master")).isPresent();
+    assertThat(underTest.getSyncTracker().getLastSuccessfulSync(CONNECTION_ID, PROJECT_KEY2, "master")).isPresent();
+  }
+
+  @Test
+  void should_download_issues_taints_and_hotspots_of_a_branch_concurrently() {
+    servers.put(CONNECTION_ID, GLOBAL_SETTINGS);
+    var allDownloadsStarted = new CountDownLatch(3);
+    Answer<Void> waitForOtherDownloads = invocation -> {
+      allDownloadsStarted.countDown();
+      if (!allDownloadsStarted.await(5, TimeUnit.SECONDS)) {
+        throw new IllegalStateException("Downloads are not concurrent");
+      }
+      return null;
+    };
+    doAnswer(waitForOtherDownloads).when(fakeEngine).syncServerIssues(any(), any(), eq(PROJECT_KEY), eq("feature"), any());
+    doAnswer(waitForOtherDownloads).when(fakeEngine).syncServerTaintIssues(any(), any(), eq(PROJECT_KEY), eq("feature"), any());
+    doAnswer(waitForOtherDownloads).when(fakeEngine).downloadAllServerHotspots(any(), any(), eq(PROJECT_KEY), eq("feature"), any());
+
+    underTest.syncIssues(new ProjectBindingWrapper(CONNECTION_ID, FAKE_BINDING, fakeEngine, null), "feature");
+
+    assertThat(allDownloadsStarted.getCount()).isZero();
+    assertThat(underTest.getSyncTracker().getLastSuccessfulSync(CONNECTION_ID, PROJECT_KEY, "feature")).isPresent();
+  }
+
+  @Test
+  void should_not_record_sync_when_a_download_fails() {
+    servers.put(CONNECTION_ID, GLOBAL_SETTINGS);
+    doThrow(new IllegalStateException("Boom")).when(fakeEngine).syncServerTaintIssues(any(), any(), eq(PROJECT_KEY), eq("feature"), any());
+
+    var binding = new ProjectBindingWrapper(CONNECTION_ID, FAKE_BINDING, fakeEngine, null);
+    assertThrows(IllegalStateException.class, () -> underTest.syncIssues(binding, "feature"));
+
+    verify(fakeEngine).syncServerIssues(any(), any(), eq(PROJECT_KEY), eq("feature"), any());
+    verify(fakeEngine).downloadAllServerHotspots(any(), any(), eq(PROJECT_KEY), eq("feature"), any());
+    assertThat(underTest.getSyncTracker().getLastSuccessfulSync(CONNECTION_ID, PROJECT_KEY, "feature")).isEmpty();
+  }
+
   @Test
   void shutdown_should_stop_automatic_sync() {
     underTest.shutdown();
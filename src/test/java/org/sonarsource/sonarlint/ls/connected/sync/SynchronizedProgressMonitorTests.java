@@ -0,0 +1,59 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.connected.sync;
+
+import org.junit.jupiter.api.Test;
+import org.sonarsource.sonarlint.core.commons.progress.ClientProgressMonitor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SynchronizedProgressMonitorTests {
+
+  private final ClientProgressMonitor delegate = mock(ClientProgressMonitor.class);
+  private final SynchronizedProgressMonitor underTest = new SynchronizedProgressMonitor(delegate);
+
+  @Test
+  void should_delegate_progress() {
+    when(delegate.isCanceled()).thenReturn(true);
+
+    underTest.setMessage("message");
+    underTest.setFraction(0.5f);
+    underTest.setIndeterminate(true);
+
+    assertThat(underTest.isCanceled()).isTrue();
+    verify(delegate).setMessage("message");
+    verify(delegate).setFraction(0.5f);
+    verify(delegate).setIndeterminate(true);
+  }
+
+  @Test
+  void should_delegate_non_cancelable_sections() {
+    Runnable section = () -> {
+    };
+
+    underTest.executeNonCancelableSection(section);
+
+    verify(delegate).executeNonCancelableSection(section);
+  }
+
+}
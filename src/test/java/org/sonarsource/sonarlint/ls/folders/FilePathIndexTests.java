@@ -0,0 +1,210 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.folders;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import org.eclipse.lsp4j.FileChangeType;
+import org.eclipse.lsp4j.FileEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.sonarsource.sonarlint.ls.util.FileUtils;
+import testutils.ImmediateExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class FilePathIndexTests {
+
+  private static final Set<String> EXCLUSIONS = Set.of("node_modules", "target");
+
+  @TempDir
+  Path folderRoot;
+  @TempDir
+  Path storeDir;
+
+  @BeforeEach
+  void prepare() throws IOException {
+    createFile("src/main/Foo.java");
+    createFile("src/test/FooTest.java");
+    createFile(".git/config");
+    createFile("node_modules/lib/index.js");
+    createFile("target/classes/Foo.class");
+  }
+
+  @Test
+  void should_skip_hidden_and_excluded_directories() {
+    var underTest = new FilePathIndex(null, EXCLUSIONS, Clock.systemUTC(), new ImmediateExecutorService());
+
+    assertThat(underTest.getRelativePaths(folderRoot)).containsExactlyInAnyOrder("src/main/Foo.java", "src/test/FooTest.java");
+  }
+
+  @Test
+  void should_not_exclude_directories_by_default() throws IOException {
+    createFile("src/main/com/acme/build/Builder.java");
+    var underTest = new FilePathIndex(null, FilePathIndex.parseExcludedDirectoryNames(null), Clock.systemUTC(), new ImmediateExecutorService());
+
+    assertThat(underTest.getRelativePaths(folderRoot)).containsExactlyInAnyOrder("src/main/Foo.java", "src/test/FooTest.java",
+      "src/main/com/acme/build/Builder.java", "node_modules/lib/index.js", "target/classes/Foo.class");
+  }
+
+  @Test
+  void should_index_the_same_files_as_a_full_walk() throws IOException {
+    createFile("src/.hidden/Hidden.java");
+    createFile("src/main/.editorconfig");
+    var underTest = new FilePathIndex(null, Set.of(), Clock.systemUTC(), new ImmediateExecutorService());
+
+    assertThat(underTest.getRelativePaths(folderRoot)).containsExactlyInAnyOrderElementsOf(FileUtils.allRelativePathsForFilesInTree(folderRoot));
+  }
+
+  @Test
+  void should_ignore_events_of_hidden_files() throws IOException {
+    var underTest = new FilePathIndex(null, Set.of(), Clock.systemUTC(), new ImmediateExecutorService());
+    underTest.getRelativePaths(folderRoot);
+
+    var hidden = createFile("src/.hidden/Hidden.java");
+    underTest.didChangeWatchedFiles(List.of(new FileEvent(hidden.toUri().toString(), FileChangeType.Created)));
+
+    assertThat(underTest.getRelativePaths(folderRoot)).doesNotContain("src/.hidden/Hidden.java");
+  }
+
+  @Test
+  void should_parse_excluded_directory_names() {
+    assertThat(FilePathIndex.parseExcludedDirectoryNames("")).isEmpty();
+    assertThat(FilePathIndex.parseExcludedDirectoryNames(" node_modules, ,target ")).containsExactlyInAnyOrder("node_modules", "target");
+  }
+
+  @Test
+  void should_update_index_from_file_events() throws IOException {
+    var underTest = new FilePathIndex(null, EXCLUSIONS, Clock.systemUTC(), new ImmediateExecutorService());
+    underTest.getRelativePaths(folderRoot);
+
+    var bar = createFile("src/main/Bar.java");
+    var generated = createFile("src/generated/a/A.java");
+    createFile("src/generated/b/B.java");
+    var excluded = createFile("target/Other.java");
+    underTest.didChangeWatchedFiles(List.of(
+      new FileEvent(bar.toUri().toString(), FileChangeType.Created),
+      new FileEvent(generated.getParent().getParent().toUri().toString(), FileChangeType.Created),
+      new FileEvent(excluded.toUri().toString(), FileChangeType.Created),
+      new FileEvent(folderRoot.resolve("src/test").toUri().toString(), FileChangeType.Deleted)));
+
+    assertThat(underTest.getRelativePaths(folderRoot)).containsExactlyInAnyOrder("src/main/Foo.java", "src/main/Bar.java", "src/generated/a/A.java",
+      "src/generated/b/B.java");
+  }
+
+  @Test
+  void should_reuse_persisted_index_after_restart() throws IOException {
+    var underTest = new FilePathIndex(storeDir, EXCLUSIONS, Clock.systemUTC(), new ImmediateExecutorService());
+    underTest.getRelativePaths(folderRoot);
+    var bar = createFile("src/main/Bar.java");
+    underTest.didChangeWatchedFiles(List.of(new FileEvent(bar.toUri().toString(), FileChangeType.Created)));
+    underTest.shutdown();
+    // Not notified, so only visible after the background rescan
+    createFile("src/main/Baz.java");
+
+    var restarted = new FilePathIndex(storeDir, EXCLUSIONS, Clock.systemUTC(), mock(ExecutorService.class));
+
+    assertThat(restarted.getRelativePaths(folderRoot)).containsExactlyInAnyOrder("src/main/Foo.java", "src/main/Bar.java", "src/test/FooTest.java");
+  }
+
+  @Test
+  void should_check_persisted_index_against_a_background_rescan() throws IOException {
+    new FilePathIndex(storeDir, EXCLUSIONS, Clock.systemUTC(), new ImmediateExecutorService()).getRelativePaths(folderRoot);
+    createFile("src/main/Baz.java");
+    Files.delete(folderRoot.resolve("src/test/FooTest.java"));
+    var rescanExecutor = mock(ExecutorService.class);
+
+    var restarted = new FilePathIndex(storeDir, EXCLUSIONS, Clock.systemUTC(), rescanExecutor);
+    restarted.getRelativePaths(folderRoot);
+    var rescan = ArgumentCaptor.forClass(Runnable.class);
+    verify(rescanExecutor).execute(rescan.capture());
+    rescan.getValue().run();
+
+    assertThat(restarted.getRelativePaths(folderRoot)).containsExactlyInAnyOrder("src/main/Foo.java", "src/main/Baz.java");
+  }
+
+  @Test
+  void should_keep_files_notified_during_the_background_rescan() throws IOException {
+    new FilePathIndex(storeDir, EXCLUSIONS, Clock.systemUTC(), new ImmediateExecutorService()).getRelativePaths(folderRoot);
+    var rescanExecutor = mock(ExecutorService.class);
+    var restarted = new FilePathIndex(storeDir, EXCLUSIONS, Clock.systemUTC(), rescanExecutor);
+    restarted.getRelativePaths(folderRoot);
+    var rescan = ArgumentCaptor.forClass(Runnable.class);
+    verify(rescanExecutor).execute(rescan.capture());
+
+    var bar = createFile("src/main/Bar.java");
+    restarted.didChangeWatchedFiles(List.of(new FileEvent(bar.toUri().toString(), FileChangeType.Created)));
+    // Simulates a scan that walked the folder before the file was created
+    Files.delete(bar);
+    rescan.getValue().run();
+
+    assertThat(restarted.getRelativePaths(folderRoot)).containsExactlyInAnyOrder("src/main/Foo.java", "src/test/FooTest.java", "src/main/Bar.java");
+  }
+
+  @Test
+  void should_rescan_after_invalidation() throws IOException {
+    var underTest = new FilePathIndex(storeDir, EXCLUSIONS, Clock.systemUTC(), new ImmediateExecutorService());
+    underTest.getRelativePaths(folderRoot);
+    underTest.shutdown();
+    createFile("src/main/Baz.java");
+
+    underTest.invalidate();
+
+    assertThat(storeDir).isEmptyDirectory();
+    assertThat(underTest.getRelativePaths(folderRoot)).contains("src/main/Baz.java");
+  }
+
+  @Test
+  void should_rescan_when_persisted_index_is_too_old() throws IOException {
+    new FilePathIndex(storeDir, EXCLUSIONS, Clock.systemUTC(), new ImmediateExecutorService()).getRelativePaths(folderRoot);
+    createFile("src/main/Baz.java");
+    var later = Clock.fixed(Instant.now().plus(FilePathIndex.MAX_PERSISTED_INDEX_AGE).plusSeconds(60), ZoneOffset.UTC);
+
+    var restarted = new FilePathIndex(storeDir, EXCLUSIONS, later, new ImmediateExecutorService());
+
+    assertThat(restarted.getRelativePaths(folderRoot)).contains("src/main/Baz.java");
+  }
+
+  @Test
+  void should_rescan_when_exclusions_changed() throws IOException {
+    new FilePathIndex(storeDir, EXCLUSIONS, Clock.systemUTC(), new ImmediateExecutorService()).getRelativePaths(folderRoot);
+
+    var restarted = new FilePathIndex(storeDir, Set.of("node_modules"), Clock.systemUTC(), new ImmediateExecutorService());
+
+    assertThat(restarted.getRelativePaths(folderRoot)).containsExactlyInAnyOrder("src/main/Foo.java", "src/test/FooTest.java", "target/classes/Foo.class");
+  }
+
+  private Path createFile(String relativePath) throws IOException {
+    var file = folderRoot.resolve(relativePath);
+    Files.createDirectories(file.getParent());
+    return Files.createFile(file);
+  }
+}
@@ -87,7 +87,7 @@ class ModuleEventsProcessorTests {
     folder.setSettings(EMPTY_SETTINGS);
     when(foldersManager.findFolderForFile(any())).thenReturn(Optional.of(folder));
     when(sonarLintEngine.fireModuleFileEvent(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
-    when(standaloneEngineManager.getOrCreateStandaloneEngine()).thenReturn(sonarLintEngine);
+    when(standaloneEngineManager.acquireStandaloneEngine()).thenReturn(sonarLintEngine);
 
     underTest.didChangeWatchedFiles(List.of(new FileEvent("file:///folder/file.py", FileChangeType.Created)));
 
@@ -106,7 +106,7 @@ class ModuleEventsProcessorTests {
     folder.setSettings(EMPTY_SETTINGS);
     when(foldersManager.findFolderForFile(any())).thenReturn(Optional.of(folder));
     when(sonarLintEngine.fireModuleFileEvent(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
-    when(standaloneEngineManager.getOrCreateStandaloneEngine()).thenReturn(sonarLintEngine);
+    when(standaloneEngineManager.acquireStandaloneEngine()).thenReturn(sonarLintEngine);
 
     underTest.didChangeWatchedFiles(List.of(new FileEvent("file:///folder/file.py", FileChangeType.Changed)));
 
@@ -125,7 +125,7 @@ class ModuleEventsProcessorTests {
     folder.setSettings(EMPTY_SETTINGS);
     when(foldersManager.findFolderForFile(any())).thenReturn(Optional.of(folder));
     when(sonarLintEngine.fireModuleFileEvent(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
-    when(standaloneEngineManager.getOrCreateStandaloneEngine()).thenReturn(sonarLintEngine);
+    when(standaloneEngineManager.acquireStandaloneEngine()).thenReturn(sonarLintEngine);
 
     underTest.didChangeWatchedFiles(List.of(new FileEvent("file:///folder/file.py", FileChangeType.Deleted)));
 
@@ -0,0 +1,71 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.folders;
+
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.List;
+import org.eclipse.lsp4j.WorkspaceFolder;
+import org.junit.jupiter.api.Test;
+
+import static java.net.URI.create;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WorkspaceFolderLookupTests {
+
+  @Test
+  void should_find_nested_folders_from_outermost_to_deepest() {
+    var base = folder(Paths.get("path/to/base").toAbsolutePath().toUri());
+    var sub = folder(Paths.get("path/to/base/sub").toAbsolutePath().toUri());
+    var sibling = folder(Paths.get("path/to/base2").toAbsolutePath().toUri());
+    var underTest = new WorkspaceFolderLookup(List.of(sub, sibling, base));
+
+    assertThat(underTest.findAncestors(Paths.get("path/to/base/sub/File.java").toAbsolutePath().toUri())).containsExactly(base, sub);
+    assertThat(underTest.findAncestors(Paths.get("path/to/base/File.java").toAbsolutePath().toUri())).containsExactly(base);
+    assertThat(underTest.findAncestors(Paths.get("path/to/base/sub").toAbsolutePath().toUri())).containsExactly(base, sub);
+    assertThat(underTest.findAncestors(Paths.get("path/to/base.txt").toAbsolutePath().toUri())).isEmpty();
+  }
+
+  @Test
+  void should_compare_scheme_host_and_port_of_non_file_uris() {
+    var ftpFolder = folder(create("ftp://ftp.example.com/foo"));
+    var underTest = new WorkspaceFolderLookup(List.of(ftpFolder));
+
+    assertThat(underTest.findAncestors(create("ftp://ftp.example.com/foo/bar.txt"))).containsExactly(ftpFolder);
+    assertThat(underTest.findAncestors(create("FTP://ftp.example.com/foo/bar.txt"))).containsExactly(ftpFolder);
+    assertThat(underTest.findAncestors(create("ftp://ftp.example.com/foobar.txt"))).isEmpty();
+    assertThat(underTest.findAncestors(create("ftp://other.example.com/foo/bar.txt"))).isEmpty();
+    assertThat(underTest.findAncestors(create("ftp://ftp.example.com:2121/foo/bar.txt"))).isEmpty();
+    assertThat(underTest.findAncestors(create("file:///foo/bar.txt"))).isEmpty();
+  }
+
+  @Test
+  void should_reject_opaque_uris() {
+    var underTest = new WorkspaceFolderLookup(List.of(folder(create("file:///foo"))));
+
+    assertThrows(IllegalArgumentException.class, () -> underTest.findAncestors(create("mailto:a@b.com")));
+    assertThat(new WorkspaceFolderLookup(List.of()).findAncestors(create("mailto:a@b.com"))).isEmpty();
+  }
+
+  private static WorkspaceFolderWrapper folder(URI uri) {
+    return new WorkspaceFolderWrapper(uri, new WorkspaceFolder(uri.toString()));
+  }
+}
@@ -19,19 +19,26 @@
  */
 package org.sonarsource.sonarlint.ls.http;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.InetAddress;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
 import org.apache.hc.core5.http.ClassicHttpRequest;
 import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpException;
 import org.apache.hc.core5.http.HttpHeaders;
@@ -39,6 +46,8 @@ import org.apache.hc.core5.http.Method;
 import org.apache.hc.core5.http.impl.bootstrap.HttpServer;
 import org.apache.hc.core5.http.impl.bootstrap.ServerBootstrap;
 import org.apache.hc.core5.http.io.HttpRequestHandler;
+import org.apache.hc.core5.http.io.entity.AbstractHttpEntity;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
 import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.apache.hc.core5.http.protocol.HttpContext;
 import org.assertj.core.api.InstanceOfAssertFactories;
@@ -67,6 +76,11 @@ class ApacheHttpClientTests {
   private static final String EXPECTED_USER_AGENT = "SonarLint LS unitTests 1.0";
 
   private static final String WAIT_FOREVER = "/waitForever";
+  private static final String GZIP = "/gzip";
+  private static final String LARGE = "/large";
+  private static final int LARGE_BODY_SIZE = 2 * 1024 * 1024;
+  private static final String HUGE = "/huge";
+  private static final long HUGE_BODY_SIZE = 512L * 1024 * 1024;
   private static HttpServer server;
   private static String serverBase;
   private static RecordingHandler handler;
@@ -140,6 +154,112 @@ class ApacheHttpClientTests {
     handler.assertRequest(Method.DELETE.name(), "/", HttpHeaders.USER_AGENT, EXPECTED_USER_AGENT);
   }
 
+  @Test
+  void should_decompress_gzip_responses() throws IOException {
+    var response = underTest.anonymous().get(serverBase + GZIP);
+
+    assertThat(response.bodyAsString()).isEqualTo("Compressed é");
+    try (var body = response.bodyAsStream()) {
+      assertThat(new String(body.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("Compressed é");
+    }
+    handler.assertRequest(Method.GET.name(), GZIP, HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+  }
+
+  @Test
+  void should_not_request_compression_when_disabled() {
+    var uncompressedProvider = new ApacheHttpClientProvider(2, 4, false, false, false);
+    uncompressedProvider.initialize(FAKE_PRODUCT_NAME, FAKE_PRODUCT_VERSION);
+    try {
+      uncompressedProvider.anonymous().get(serverBase);
+
+      assertThat(handler.requests.get(0).getFirstHeader(HttpHeaders.ACCEPT_ENCODING)).isNull();
+      assertThat(uncompressedProvider.getConnectionPoolStats()).hasValueSatisfying(stats -> assertThat(stats.getMax()).isEqualTo(4));
+    } finally {
+      uncompressedProvider.close();
+    }
+  }
+
+  @Test
+  void should_expose_connection_pool_stats() {
+    assertThat(new ApacheHttpClientProvider().getConnectionPoolStats()).isEmpty();
+
+    underTest.anonymous().get(serverBase);
+
+    await().atMost(5, SECONDS).untilAsserted(() -> assertThat(underTest.getConnectionPoolStats()).hasValueSatisfying(stats -> {
+      assertThat(stats.getLeased()).isZero();
+      assertThat(stats.getPending()).isZero();
+      assertThat(stats.getAvailable()).isEqualTo(1);
+      assertThat(stats.getMax()).isEqualTo(ApacheHttpClientProvider.DEFAULT_MAX_CONNECTIONS_TOTAL);
+    }));
+  }
+
+  @Test
+  void should_stream_large_responses() throws IOException {
+    try (var response = underTest.anonymous().getStreaming(serverBase + LARGE); var body = response.bodyAsStream()) {
+      assertThat(response.code()).isEqualTo(200);
+      var read = 0;
+      var chunk = new byte[8192];
+      int n;
+      while ((n = body.read(chunk)) != -1) {
+        read += n;
+      }
+      assertThat(read).isEqualTo(LARGE_BODY_SIZE);
+    }
+
+    await().atMost(5, SECONDS).untilAsserted(() -> assertThat(underTest.getConnectionPoolStats().get().getLeased()).isZero());
+  }
+
+  @Test
+  void should_stream_compressed_responses() {
+    var streamingProvider = new ApacheHttpClientProvider(2, 4, false, true, true);
+    streamingProvider.initialize(FAKE_PRODUCT_NAME, FAKE_PRODUCT_VERSION);
+    try (var response = streamingProvider.anonymous().get(serverBase + GZIP)) {
+      assertThat(response.bodyAsString()).isEqualTo("Compressed é");
+    } finally {
+      streamingProvider.close();
+    }
+  }
+
+  @Test
+  void should_release_connection_when_streamed_response_is_closed_early() throws IOException {
+    try (var response = underTest.anonymous().getStreaming(serverBase + LARGE)) {
+      assertThat(response.bodyAsStream().read()).isEqualTo('a');
+    }
+
+    await().atMost(5, SECONDS).untilAsserted(() -> assertThat(underTest.getConnectionPoolStats().get().getLeased()).isZero());
+  }
+
+  @Test
+  void should_not_download_the_rest_of_the_body_when_streamed_response_is_closed_early() throws IOException {
+    try (var response = underTest.anonymous().getStreaming(serverBase + HUGE)) {
+      assertThat(response.bodyAsStream().read()).isEqualTo('a');
+    }
+
+    await().atMost(10, SECONDS).untilAsserted(() -> assertThat(handler.hugeBodyDone).isTrue());
+    // Only what fits in socket and server buffers was sent
+    assertThat(handler.hugeBodySent.get()).isLessThan(HUGE_BODY_SIZE / 4);
+    await().atMost(5, SECONDS).untilAsserted(() -> assertThat(underTest.getConnectionPoolStats().get().getLeased()).isZero());
+  }
+
+  @Test
+  void should_record_metrics_per_connection() {
+    underTest.withToken("token", "myConnection").get(serverBase + "/api/issues/pull?projectKey=foo");
+    underTest.anonymous().post(serverBase + "/api/system/status", "text/plain", "body");
+
+    var snapshots = underTest.getMetrics().snapshot();
+    assertThat(snapshots)
+      .extracting(HttpMetrics.EndpointSnapshot::getConnection, HttpMetrics.EndpointSnapshot::getMethod, HttpMetrics.EndpointSnapshot::getPath,
+        HttpMetrics.EndpointSnapshot::getRequestCount, HttpMetrics.EndpointSnapshot::getBytesIn, HttpMetrics.EndpointSnapshot::getBytesOut)
+      .containsExactlyInAnyOrder(
+        tuple("localhost", "POST", "/api/system/status", 1L, 2L, 4L),
+        tuple("myConnection", "GET", "/api/issues/pull", 1L, 2L, 0L));
+    assertThat(snapshots).allSatisfy(snapshot -> {
+      assertThat(snapshot.getLatency().getCount()).isEqualTo(1);
+      assertThat(snapshot.getTimeToFirstByte().getCount()).isEqualTo(1);
+      assertThat(snapshot.getConnectionWait().getCount()).isEqualTo(1);
+    });
+  }
+
   @Test
   void basic_auth_test() {
     var basicAuthClient = underTest.withToken("token");
@@ -221,6 +341,8 @@ class ApacheHttpClientTests {
     public static final String DEFAULT_RESPONSE_BODY = "OK";
     private final List<ClassicHttpRequest> requests;
     private int configuredResponseCode = HttpURLConnection.HTTP_OK;
+    private final AtomicLong hugeBodySent = new AtomicLong();
+    private volatile boolean hugeBodyDone;
 
     private RecordingHandler() {
       requests = new CopyOnWriteArrayList<>();
@@ -229,6 +351,8 @@ class ApacheHttpClientTests {
     private void reset() {
       requests.clear();
       configuredResponseCode = HttpURLConnection.HTTP_OK;
+      hugeBodySent.set(0);
+      hugeBodyDone = false;
     }
 
     public void setResponseCode(int responseCode) {
@@ -244,6 +368,56 @@ class ApacheHttpClientTests {
         } catch (InterruptedException e) {
           Thread.currentThread().interrupt();
         }
+      } else if (request.getPath().startsWith(LARGE)) {
+        var body = new byte[LARGE_BODY_SIZE];
+        Arrays.fill(body, (byte) 'a');
+        response.setCode(configuredResponseCode);
+        response.setEntity(new ByteArrayEntity(body, ContentType.APPLICATION_OCTET_STREAM));
+      } else if (request.getPath().startsWith(HUGE)) {
+        response.setCode(configuredResponseCode);
+        response.setEntity(new AbstractHttpEntity(ContentType.APPLICATION_OCTET_STREAM, null) {
+          @Override
+          public void writeTo(OutputStream outStream) throws IOException {
+            var chunk = new byte[64 * 1024];
+            Arrays.fill(chunk, (byte) 'a');
+            try {
+              while (hugeBodySent.get() < HUGE_BODY_SIZE) {
+                outStream.write(chunk);
+                hugeBodySent.addAndGet(chunk.length);
+              }
+            } finally {
+              hugeBodyDone = true;
+            }
+          }
+
+          @Override
+          public InputStream getContent() {
+            throw new UnsupportedOperationException();
+          }
+
+          @Override
+          public boolean isStreaming() {
+            return true;
+          }
+
+          @Override
+          public long getContentLength() {
+            return HUGE_BODY_SIZE;
+          }
+
+          @Override
+          public void close() {
+            // nothing to close
+          }
+        });
+      } else if (request.getPath().startsWith(GZIP)) {
+        var compressed = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(compressed)) {
+          gzip.write("Compressed é".getBytes(StandardCharsets.UTF_8));
+        }
+        response.setCode(configuredResponseCode);
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.setEntity(new ByteArrayEntity(compressed.toByteArray(), ContentType.create("text/plain", StandardCharsets.UTF_8)));
       } else {
         response.setCode(configuredResponseCode);
         response.setHeader("Content-Type", "text/plain");
@@ -0,0 +1,110 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpMetricsTests {
+
+  private static final long MS = 1_000_000;
+
+  private final AtomicLong nanoClock = new AtomicLong();
+  private final HttpMetrics underTest = new HttpMetrics(nanoClock::get);
+
+  @Test
+  void should_compute_path_templates() {
+    assertThat(HttpMetrics.pathTemplate("https://sonar.example.com/api/issues/pull?projectKey=foo&branchName=main")).isEqualTo("/api/issues/pull");
+    assertThat(HttpMetrics.pathTemplate("https://sonar.example.com/api/hotspots/123/show")).isEqualTo("/api/hotspots/{id}/show");
+    assertThat(HttpMetrics.pathTemplate("https://sonar.example.com/api/ce/task/3f2b8c1e-4d5a-4e6f-9a0b-1c2d3e4f5a6b")).isEqualTo("/api/ce/task/{id}");
+    assertThat(HttpMetrics.pathTemplate("https://sonar.example.com")).isEqualTo("/");
+  }
+
+  @Test
+  void should_record_exchanges_per_connection_and_endpoint() {
+    var exchange = underTest.start("conn", "GET", "https://sonar.example.com/api/issues/pull?projectKey=foo", 0, false);
+    nanoClock.addAndGet(5 * MS);
+    underTest.connectionRequested(exchange.context());
+    nanoClock.addAndGet(30 * MS);
+    underTest.connectionReady(exchange.context());
+    nanoClock.addAndGet(100 * MS);
+    underTest.responseReceived(exchange.context());
+    exchange.bytesReceived(1_000);
+    nanoClock.addAndGet(200 * MS);
+    exchange.completed(200);
+
+    var failed = underTest.start("conn", "GET", "https://sonar.example.com/api/issues/pull?projectKey=bar", 0, false);
+    failed.failed();
+    underTest.start("conn", "POST", "https://sonar.example.com/api/issues/pull", 42, false).completed(500);
+
+    var snapshots = underTest.snapshot();
+    assertThat(snapshots).extracting(HttpMetrics.EndpointSnapshot::getMethod).containsExactly("GET", "POST");
+    var get = snapshots.get(0);
+    assertThat(get.getConnection()).isEqualTo("conn");
+    assertThat(get.getPath()).isEqualTo("/api/issues/pull");
+    assertThat(get.getRequestCount()).isEqualTo(2);
+    assertThat(get.getFailureCount()).isEqualTo(1);
+    assertThat(get.getHttpErrorCount()).isZero();
+    assertThat(get.getBytesIn()).isEqualTo(1_000);
+    assertThat(get.getConnectionWait().getCount()).isEqualTo(1);
+    assertThat(get.getConnectionWait().getP50Ms()).isEqualTo(50);
+    assertThat(get.getTimeToFirstByte().getMeanMs()).isEqualTo(135);
+    assertThat(get.getLatency().getCount()).isEqualTo(2);
+    var post = snapshots.get(1);
+    assertThat(post.getHttpErrorCount()).isEqualTo(1);
+    assertThat(post.getBytesOut()).isEqualTo(42);
+  }
+
+  @Test
+  void should_not_record_latency_of_event_streams() {
+    var exchange = underTest.start("conn", "GET", "https://sonar.example.com/api/push/sonarlint_events", 0, true);
+    nanoClock.addAndGet(3_600_000 * MS);
+    exchange.completed(200);
+    exchange.failed();
+
+    var snapshot = underTest.snapshot().get(0);
+    assertThat(snapshot.getLatency().getCount()).isZero();
+    assertThat(snapshot.getFailureCount()).isZero();
+  }
+
+  @Test
+  void should_compute_percentiles_from_buckets() {
+    for (var i = 0; i < 98; i++) {
+      var exchange = underTest.start("conn", "GET", "https://sonar.example.com/api/system/status", 0, false);
+      nanoClock.addAndGet(20 * MS);
+      exchange.completed(200);
+    }
+    var slow = underTest.start("conn", "GET", "https://sonar.example.com/api/system/status", 0, false);
+    nanoClock.addAndGet(2_000 * MS);
+    slow.completed(200);
+    var verySlow = underTest.start("conn", "GET", "https://sonar.example.com/api/system/status", 0, false);
+    nanoClock.addAndGet(120_000 * MS);
+    verySlow.completed(200);
+
+    var latency = underTest.snapshot().get(0).getLatency();
+    assertThat(latency.getCount()).isEqualTo(100);
+    assertThat(latency.getP50Ms()).isEqualTo(50);
+    assertThat(latency.getP95Ms()).isEqualTo(50);
+    assertThat(latency.getP99Ms()).isEqualTo(2_500);
+    assertThat(latency.getBucketCounts()).endsWith(1);
+  }
+}
@@ -22,6 +22,9 @@ package org.sonarsource.sonarlint.ls.log;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.eclipse.lsp4j.MessageParams;
 import org.eclipse.lsp4j.MessageType;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,6 +32,7 @@ import org.junit.jupiter.api.Test;
 import org.sonarsource.sonarlint.ls.SonarLintExtendedLanguageClient;
 import org.sonarsource.sonarlint.ls.settings.WorkspaceSettings;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -36,12 +40,15 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 class LanguageClientLogOutputTests {
 
+  private static final Clock CLOCK = Clock.fixed(Instant.ofEpochMilli(12345678), ZoneOffset.UTC);
+  private static final WorkspaceSettings VERBOSE = new WorkspaceSettings(false, null, null, null, null, false, true, null);
+
   private LanguageClientLogger underTest;
   private final SonarLintExtendedLanguageClient languageClient = mock(SonarLintExtendedLanguageClient.class);
 
   @BeforeEach
   public void prepare() {
-    underTest = new LanguageClientLogger(languageClient, Clock.fixed(Instant.ofEpochMilli(12345678), ZoneOffset.UTC));
+    underTest = new LanguageClientLogger(languageClient, CLOCK);
   }
 
   @Test
@@ -121,4 +128,69 @@ class LanguageClientLogOutputTests {
     verifyNoMoreInteractions(languageClient);
   }
 
+  @Test
+  void do_not_build_disabled_debug_logs() {
+    var built = new AtomicInteger();
+
+    underTest.debug(() -> "debug" + built.incrementAndGet());
+    underTest.trace(() -> "trace" + built.incrementAndGet());
+
+    assertThat(underTest.isDebugEnabled()).isFalse();
+    assertThat(built).hasValue(0);
+    verifyNoInteractions(languageClient);
+  }
+
+  @Test
+  void build_enabled_debug_logs() {
+    underTest.onChange(null, VERBOSE);
+
+    underTest.debug(() -> "debug");
+    underTest.trace(() -> "trace");
+
+    assertThat(underTest.isDebugEnabled()).isTrue();
+    verify(languageClient).logMessage(new MessageParams(MessageType.Log, "[Debug - 03:25:45.678] debug"));
+    verify(languageClient).logMessage(new MessageParams(MessageType.Log, "[Trace - 03:25:45.678] trace"));
+    verifyNoMoreInteractions(languageClient);
+  }
+
+  @Test
+  void batch_log_lines() {
+    underTest = new LanguageClientLogger(languageClient, CLOCK, 60_000);
+
+    underTest.info("info");
+    underTest.error("error");
+    verifyNoInteractions(languageClient);
+
+    underTest.flush();
+
+    verify(languageClient).logMessage(new MessageParams(MessageType.Log, "[Info  - 03:25:45.678] info\n[Error - 03:25:45.678] error"));
+    verifyNoMoreInteractions(languageClient);
+  }
+
+  @Test
+  void split_large_batches() {
+    underTest = new LanguageClientLogger(languageClient, CLOCK, 60_000);
+
+    IntStream.range(0, LanguageClientLogger.MAX_LINES_PER_BATCH + 1).forEach(i -> underTest.info("line"));
+    underTest.flush();
+
+    var fullBatch = IntStream.range(0, LanguageClientLogger.MAX_LINES_PER_BATCH).mapToObj(i -> "[Info  - 03:25:45.678] line").collect(Collectors.joining("\n"));
+    verify(languageClient).logMessage(new MessageParams(MessageType.Log, fullBatch));
+    verify(languageClient).logMessage(new MessageParams(MessageType.Log, "[Info  - 03:25:45.678] line"));
+    verifyNoMoreInteractions(languageClient);
+  }
+
+  @Test
+  void flush_pending_logs_on_shutdown_and_stop_batching() {
+    underTest = new LanguageClientLogger(languageClient, CLOCK, 60_000);
+
+    underTest.info("before");
+    underTest.shutdown();
+    verify(languageClient).logMessage(new MessageParams(MessageType.Log, "[Info  - 03:25:45.678] before"));
+
+    underTest.info("after");
+    verify(languageClient).logMessage(new MessageParams(MessageType.Log, "[Info  - 03:25:45.678] after"));
+    verifyNoMoreInteractions(languageClient);
+  }
+
 }
@@ -0,0 +1,185 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.standalone;
+
+import java.util.EnumSet;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sonarsource.sonarlint.core.client.api.standalone.StandaloneRuleDetails;
+import org.sonarsource.sonarlint.core.client.api.standalone.StandaloneSonarLintEngine;
+import org.sonarsource.sonarlint.core.commons.Language;
+import org.sonarsource.sonarlint.ls.EnginesFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class StandaloneEngineManagerTests {
+
+  private final EnginesFactory enginesFactory = mock(EnginesFactory.class);
+  private final StandaloneSonarLintEngine firstEngine = mock(StandaloneSonarLintEngine.class);
+  private final StandaloneSonarLintEngine secondEngine = mock(StandaloneSonarLintEngine.class);
+  private final StandaloneEngineManager underTest = new StandaloneEngineManager(enginesFactory);
+
+  @BeforeEach
+  void prepare() {
+    when(enginesFactory.createStandaloneEngine()).thenReturn(firstEngine);
+    when(enginesFactory.createStandaloneEngine(any())).thenReturn(firstEngine, secondEngine);
+  }
+
+  @Test
+  void should_load_all_languages_by_default() {
+    assertThat(underTest.getOrCreateStandaloneEngine(List.of(Language.JAVA))).isSameAs(firstEngine);
+    assertThat(underTest.getOrCreateStandaloneEngine(List.of(Language.PYTHON))).isSameAs(firstEngine);
+
+    verify(enginesFactory).createStandaloneEngine();
+    verifyNoMoreInteractions(enginesFactory);
+  }
+
+  @Test
+  void should_only_load_secrets_until_a_language_is_requested() {
+    underTest.setLazyPluginLoading(true);
+
+    assertThat(underTest.getOrCreateStandaloneEngine()).isSameAs(firstEngine);
+
+    verify(enginesFactory).createStandaloneEngine(EnumSet.of(Language.SECRETS));
+  }
+
+  @Test
+  void should_restart_engine_when_a_new_language_is_requested() {
+    underTest.setLazyPluginLoading(true);
+
+    assertThat(underTest.getOrCreateStandaloneEngine(List.of(Language.JAVA))).isSameAs(firstEngine);
+    assertThat(underTest.getOrCreateStandaloneEngine(List.of(Language.JAVA))).isSameAs(firstEngine);
+    assertThat(underTest.getOrCreateStandaloneEngine(List.of(Language.JAVA, Language.PYTHON))).isSameAs(secondEngine);
+
+    verify(enginesFactory).createStandaloneEngine(EnumSet.of(Language.SECRETS, Language.JAVA));
+    verify(enginesFactory).createStandaloneEngine(EnumSet.of(Language.SECRETS, Language.JAVA, Language.PYTHON));
+    verify(firstEngine).stop();
+    verify(secondEngine, never()).stop();
+  }
+
+  @Test
+  void should_stop_previous_engine_once_its_analyses_are_done() {
+    underTest.setLazyPluginLoading(true);
+
+    var javaAnalysisEngine = underTest.acquireStandaloneEngine(List.of(Language.JAVA));
+    var otherJavaAnalysisEngine = underTest.acquireStandaloneEngine(List.of(Language.JAVA));
+    var pythonAnalysisEngine = underTest.acquireStandaloneEngine(List.of(Language.PYTHON));
+
+    assertThat(javaAnalysisEngine).isSameAs(firstEngine).isSameAs(otherJavaAnalysisEngine);
+    assertThat(pythonAnalysisEngine).isSameAs(secondEngine);
+    verify(firstEngine, never()).stop();
+
+    underTest.releaseStandaloneEngine(javaAnalysisEngine);
+    verify(firstEngine, never()).stop();
+    underTest.releaseStandaloneEngine(otherJavaAnalysisEngine);
+    verify(firstEngine).stop();
+
+    underTest.releaseStandaloneEngine(pythonAnalysisEngine);
+    verify(secondEngine, never()).stop();
+  }
+
+  @Test
+  void should_not_stop_engine_leased_without_languages_on_restart() {
+    underTest.setLazyPluginLoading(true);
+    var fileEventsEngine = underTest.acquireStandaloneEngine();
+
+    underTest.acquireStandaloneEngine(List.of(Language.JAVA));
+    verify(firstEngine, never()).stop();
+
+    underTest.releaseStandaloneEngine(fileEventsEngine);
+    verify(firstEngine).stop();
+  }
+
+  @Test
+  void should_list_rules_of_the_started_engine_by_default() {
+    var rule = mock(StandaloneRuleDetails.class);
+    when(firstEngine.getAllRuleDetails()).thenReturn(List.of(rule));
+
+    assertThat(underTest.getAllRuleDetails()).containsExactly(rule);
+
+    verify(enginesFactory, never()).extractStandaloneRules(any());
+  }
+
+  @Test
+  void should_list_rules_of_all_languages_without_loading_them_in_lazy_mode() {
+    underTest.setLazyPluginLoading(true);
+    underTest.getOrCreateStandaloneEngine(List.of(Language.JAVA));
+    var rule = mock(StandaloneRuleDetails.class);
+    when(enginesFactory.extractStandaloneRules(any())).thenReturn(List.of(rule));
+
+    assertThat(underTest.getAllRuleDetails()).containsExactly(rule);
+    assertThat(underTest.getAllRuleDetails()).containsExactly(rule);
+
+    verify(enginesFactory).extractStandaloneRules(EnginesFactory.getStandaloneLanguages());
+    verify(enginesFactory, times(1)).createStandaloneEngine(any());
+    verify(firstEngine, never()).stop();
+  }
+
+  @Test
+  void should_stop_previous_engine_on_shutdown_even_if_still_used() {
+    underTest.setLazyPluginLoading(true);
+    underTest.acquireStandaloneEngine(List.of(Language.JAVA));
+    underTest.getOrCreateStandaloneEngine(List.of(Language.PYTHON));
+
+    underTest.shutdown();
+
+    verify(firstEngine).stop();
+    verify(secondEngine).stop();
+  }
+
+  @Test
+  void should_ignore_languages_only_supported_in_connected_mode() {
+    underTest.setLazyPluginLoading(true);
+    underTest.getOrCreateStandaloneEngine(List.of(Language.JAVA));
+
+    underTest.getOrCreateStandaloneEngine(List.of(Language.APEX, Language.PLSQL));
+
+    verify(enginesFactory, times(1)).createStandaloneEngine(any());
+    verify(firstEngine, never()).stop();
+  }
+
+  @Test
+  void should_not_change_mode_once_started() {
+    underTest.getOrCreateStandaloneEngine();
+
+    underTest.setLazyPluginLoading(true);
+    underTest.getOrCreateStandaloneEngine(List.of(Language.JAVA));
+
+    verify(enginesFactory).createStandaloneEngine();
+    verifyNoMoreInteractions(enginesFactory);
+  }
+
+  @Test
+  void should_stop_engine_on_shutdown() {
+    underTest.getOrCreateStandaloneEngine();
+
+    underTest.shutdown();
+
+    verify(firstEngine).stop();
+  }
+}
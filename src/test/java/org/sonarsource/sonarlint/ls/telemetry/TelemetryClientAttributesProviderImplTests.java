@@ -26,7 +26,6 @@ import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.sonarsource.sonarlint.core.client.api.standalone.StandaloneRuleDetails;
-import org.sonarsource.sonarlint.core.client.api.standalone.StandaloneSonarLintEngine;
 import org.sonarsource.sonarlint.core.commons.RuleKey;
 import org.sonarsource.sonarlint.ls.NodeJsRuntime;
 import org.sonarsource.sonarlint.ls.connected.ProjectBindingManager;
@@ -43,7 +42,7 @@ class TelemetryClientAttributesProviderImplTests {
 
   private TelemetryClientAttributesProviderImpl underTest;
   private WorkspaceSettings workspaceSettings;
-  private StandaloneSonarLintEngine standaloneSonarLintEngine;
+  private StandaloneEngineManager standaloneEngineManager;
   private Map<String, Object> additionalAttributes;
 
   @BeforeEach
@@ -52,9 +51,7 @@ class TelemetryClientAttributesProviderImplTests {
     when(nodeJsRuntime.nodeVersion()).thenReturn("nodeVersion");
     var settingsManager = mock(SettingsManager.class);
     workspaceSettings = mock(WorkspaceSettings.class);
-    var standaloneEngineManager = mock(StandaloneEngineManager.class);
-    standaloneSonarLintEngine = mock(StandaloneSonarLintEngine.class);
-    when(standaloneEngineManager.getOrCreateStandaloneEngine()).thenReturn(standaloneSonarLintEngine);
+    standaloneEngineManager = mock(StandaloneEngineManager.class);
     when(settingsManager.getCurrentSettings()).thenReturn(workspaceSettings);
     when(workspaceSettings.getExcludedRules()).thenReturn(Collections.emptyList());
     when(workspaceSettings.getIncludedRules()).thenReturn(Collections.emptyList());
@@ -99,7 +96,7 @@ class TelemetryClientAttributesProviderImplTests {
     when(ruleKey1.toString()).thenReturn("ruleKey1");
     when(ruleKey2.toString()).thenReturn("ruleKey2");
     when(workspaceSettings.getIncludedRules()).thenReturn(List.of(ruleKey1, ruleKey2));
-    when(standaloneSonarLintEngine.getAllRuleDetails()).thenReturn(Collections.emptyList());
+    when(standaloneEngineManager.getAllRuleDetails()).thenReturn(Collections.emptyList());
 
     assertThat(underTest.getNonDefaultEnabledRules()).containsExactly("ruleKey2", "ruleKey1");
   }
@@ -114,7 +111,7 @@ class TelemetryClientAttributesProviderImplTests {
     when(standaloneRule1.getKey()).thenReturn("ruleKey2");
     when(standaloneRule1.isActiveByDefault()).thenReturn(true);
     when(workspaceSettings.getIncludedRules()).thenReturn(List.of(ruleKey1, ruleKey2));
-    when(standaloneSonarLintEngine.getAllRuleDetails()).thenReturn(List.of(standaloneRule1));
+    when(standaloneEngineManager.getAllRuleDetails()).thenReturn(List.of(standaloneRule1));
 
     assertThat(underTest.getNonDefaultEnabledRules()).containsExactly("ruleKey1");
   }
@@ -126,7 +123,7 @@ class TelemetryClientAttributesProviderImplTests {
     when(ruleKey1.toString()).thenReturn("ruleKey1");
     when(ruleKey2.toString()).thenReturn("ruleKey2");
     when(workspaceSettings.getExcludedRules()).thenReturn(List.of(ruleKey1, ruleKey2));
-    when(standaloneSonarLintEngine.getAllRuleDetails()).thenReturn(Collections.emptyList());
+    when(standaloneEngineManager.getAllRuleDetails()).thenReturn(Collections.emptyList());
 
     assertThat(underTest.getDefaultDisabledRules()).isEmpty();
   }
@@ -141,7 +138,7 @@ class TelemetryClientAttributesProviderImplTests {
     when(standaloneRule1.getKey()).thenReturn("ruleKey1");
     when(standaloneRule1.isActiveByDefault()).thenReturn(true);
     when(workspaceSettings.getExcludedRules()).thenReturn(List.of(ruleKey1, ruleKey2));
-    when(standaloneSonarLintEngine.getAllRuleDetails()).thenReturn(List.of(standaloneRule1));
+    when(standaloneEngineManager.getAllRuleDetails()).thenReturn(List.of(standaloneRule1));
 
     assertThat(underTest.getDefaultDisabledRules()).containsExactly("ruleKey1");
   }
@@ -0,0 +1,103 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarsource.sonarlint.ls.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import testutils.SonarLintLogTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class StartupTimelineTests {
+
+  @RegisterExtension
+  SonarLintLogTester logTester = new SonarLintLogTester();
+
+  private final AtomicLong clock = new AtomicLong(1_000);
+  private final StartupTimeline underTest = new StartupTimeline(1_000, clock::get);
+
+  @Test
+  void should_record_marks_and_phases_relative_to_origin() {
+    clock.set(1_100);
+    underTest.mark("Main started");
+    clock.addAndGet(10);
+    var result = underTest.measure("Create engine", () -> {
+      clock.addAndGet(250);
+      return "engine";
+    });
+    underTest.measure("Initialize backend", () -> clock.addAndGet(50));
+
+    assertThat(result).isEqualTo("engine");
+    assertThat(underTest.snapshot())
+      .extracting(StartupTimeline.Phase::getName, StartupTimeline.Phase::getStartMs, StartupTimeline.Phase::getDurationMs)
+      .containsExactly(
+        tuple("Main started", 100L, 0L),
+        tuple("Create engine", 110L, 250L),
+        tuple("Initialize backend", 360L, 50L));
+  }
+
+  @Test
+  void should_keep_only_first_occurrence() {
+    underTest.mark("First file opened");
+    underTest.measure("First analysis", () -> clock.addAndGet(10));
+    clock.addAndGet(100);
+    underTest.mark("First file opened");
+    underTest.measure("First analysis", () -> clock.addAndGet(20));
+
+    assertThat(underTest.snapshot())
+      .extracting(StartupTimeline.Phase::getName, StartupTimeline.Phase::getStartMs, StartupTimeline.Phase::getDurationMs)
+      .containsExactly(
+        tuple("First analysis", 0L, 10L),
+        tuple("First file opened", 0L, 0L));
+  }
+
+  @Test
+  void should_record_phase_even_if_it_fails() {
+    try {
+      underTest.measure("Create engine", () -> {
+        clock.addAndGet(30);
+        throw new IllegalStateException("boom");
+      });
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    assertThat(underTest.snapshot()).extracting(StartupTimeline.Phase::getDurationMs).containsExactly(30L);
+  }
+
+  @Test
+  void should_log_timeline_once_and_stop_recording_when_complete() {
+    underTest.mark("Main started");
+    clock.addAndGet(1_234);
+    underTest.measure("First analysis", () -> clock.addAndGet(56));
+
+    underTest.complete();
+    underTest.mark("Late mark");
+    underTest.complete();
+
+    assertThat(underTest.isComplete()).isTrue();
+    assertThat(underTest.snapshot()).extracting(StartupTimeline.Phase::getName).containsExactly("Main started", "First analysis");
+    assertThat(logTester.logs()).containsExactly(String.format("Startup timeline (start and duration in ms since JVM start):%n"
+      + "        0       0  Main started%n"
+      + "     1234      56  First analysis"));
+  }
+}
@@ -20,6 +20,7 @@
 package org.sonarsource.sonarlint.ls.util;
 
 import java.net.URI;
+import java.util.concurrent.TimeUnit;
 import org.eclipse.lsp4j.DiagnosticSeverity;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -27,6 +28,7 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.sonarsource.sonarlint.core.commons.VulnerabilityProbability;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class UtilsTests {
 
@@ -65,5 +67,47 @@ class UtilsTests {
     assertThat(Utils.hotspotSeverity(VulnerabilityProbability.LOW)).isEqualTo(DiagnosticSeverity.Information);
   }
 
+  @Test
+  void blocking_io_thread_factory_should_create_platform_threads_when_virtual_threads_are_disabled() {
+    var thread = Utils.blockingIoThreadFactory("name", true, false).newThread(() -> {
+    });
+
+    assertThat(thread.getName()).isEqualTo("name");
+    assertThat(thread.isDaemon()).isTrue();
+    assertThat(thread.getClass()).isEqualTo(Thread.class);
+  }
+
+  @Test
+  void blocking_io_thread_factory_should_fall_back_to_platform_threads_before_java_21() {
+    assumeTrue(Runtime.version().feature() < 21);
+
+    var thread = Utils.blockingIoThreadFactory("name", false, true).newThread(() -> {
+    });
+
+    assertThat(thread.getName()).isEqualTo("name");
+    assertThat(thread.isDaemon()).isFalse();
+    assertThat(thread.getClass()).isEqualTo(Thread.class);
+  }
 
+  @Test
+  void blocking_io_thread_factory_should_create_virtual_threads_from_java_21() {
+    assumeTrue(Runtime.version().feature() >= 21);
+
+    var thread = Utils.blockingIoThreadFactory("name", false, true).newThread(() -> {
+    });
+
+    assertThat(thread.getName()).isEqualTo("name");
+    assertThat(thread.isDaemon()).isTrue();
+    assertThat(thread.getClass()).isNotEqualTo(Thread.class);
+  }
+
+  @Test
+  void blocking_io_executor_should_run_tasks() throws Exception {
+    for (var virtualThreadsEnabled : new boolean[] {false, true}) {
+      var executor = Utils.newBlockingIoExecutor("name", true, virtualThreadsEnabled);
+
+      assertThat(executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS)).isEqualTo("name");
+      Utils.shutdownAndAwait(executor, false);
+    }
+  }
 }
@@ -0,0 +1,179 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package testutils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Properties;
+
+import static java.util.Objects.requireNonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares performance measurements against the baselines stored in <code>/perf/baselines.properties</code>. A measurement fails
+ * when it is worse than its baseline by more than the configured tolerance. Every measurement is also written to
+ * <code>target/perf-measurements.properties</code>, to help refresh the baselines after an intended change.
+ * Durations and throughputs depend on the speed of the host, they are not compared as is: they are expressed relatively to the
+ * duration of a fixed calibration workload run on the same host, see {@link #calibrationMillis()}.
+ */
+public class PerfBaselines {
+
+  private static final String BASELINES_RESOURCE = "/perf/baselines.properties";
+  private static final Path MEASUREMENTS_FILE = Paths.get(System.getProperty("sonarlint.perf.measurementsFile", "target/perf-measurements.properties"));
+  private static final int CALIBRATION_RUNS = 5;
+  private static double calibrationMillis;
+
+  private final Properties baselines = new Properties();
+  private final double tolerance;
+
+  public PerfBaselines() {
+    try (InputStream input = requireNonNull(PerfBaselines.class.getResourceAsStream(BASELINES_RESOURCE))) {
+      baselines.load(input);
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to load performance baselines", e);
+    }
+    tolerance = Double.parseDouble(System.getProperty("sonarlint.perf.tolerance", baselines.getProperty("tolerance", "0.25")));
+    // Calibrate before the measured workload, while the JVM is not busy with anything else
+    calibrationMillis();
+  }
+
+  /**
+   * For durations: the baseline is the number of calibration workloads that run in the same time on the host
+   */
+  public void assertDurationAtMost(String key, double measuredMillis) {
+    assertAtMost(key, measuredMillis / calibrationMillis());
+  }
+
+  /**
+   * For throughputs: the baseline is the number of items processed in the time of one calibration workload on the host
+   */
+  public void assertThroughputAtLeast(String key, double measuredPerSecond) {
+    assertAtLeast(key, measuredPerSecond * calibrationMillis() / 1000.0);
+  }
+
+  /**
+   * For measures where lower is better and that don't depend on the speed of the host, like memory
+   */
+  public void assertAtMost(String key, double measured) {
+    record(key, measured);
+    var limit = baseline(key) * (1 + tolerance);
+    assertThat(measured).as("Regression of '%s' against baseline %s", key, baseline(key)).isLessThanOrEqualTo(limit);
+  }
+
+  /**
+   * For measures where higher is better and that don't depend on the speed of the host
+   */
+  public void assertAtLeast(String key, double measured) {
+    record(key, measured);
+    var limit = baseline(key) * (1 - tolerance);
+    assertThat(measured).as("Regression of '%s' against baseline %s", key, baseline(key)).isGreaterThanOrEqualTo(limit);
+  }
+
+  private double baseline(String key) {
+    return Double.parseDouble(requireNonNull(baselines.getProperty(key), () -> "No baseline for '" + key + "'"));
+  }
+
+  private static synchronized void record(String key, double measured) {
+    var measurements = new Properties();
+    try {
+      if (Files.exists(MEASUREMENTS_FILE)) {
+        try (InputStream input = Files.newInputStream(MEASUREMENTS_FILE)) {
+          measurements.load(input);
+        }
+      } else if (MEASUREMENTS_FILE.getParent() != null) {
+        Files.createDirectories(MEASUREMENTS_FILE.getParent());
+      }
+      measurements.setProperty(key, String.format(Locale.ROOT, "%.2f", measured));
+      try (OutputStream output = Files.newOutputStream(MEASUREMENTS_FILE)) {
+        measurements.store(output, "Last performance measurements");
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to record performance measurements", e);
+    }
+  }
+
+  /**
+   * Duration of a fixed workload mixing allocations, sorting and hashing, the best of several runs to limit the noise. Measured once.
+   */
+  public static synchronized double calibrationMillis() {
+    if (calibrationMillis == 0) {
+      var best = Long.MAX_VALUE;
+      for (var i = 0; i < CALIBRATION_RUNS; i++) {
+        var start = System.nanoTime();
+        runCalibrationWorkload();
+        best = Math.min(best, System.nanoTime() - start);
+      }
+      calibrationMillis = best / 1_000_000.0;
+      record("calibration.millis", calibrationMillis);
+    }
+    return calibrationMillis;
+  }
+
+  private static void runCalibrationWorkload() {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    var lines = new ArrayList<String>();
+    for (var i = 0; i < 200_000; i++) {
+      lines.add("src/main/java/org/example/File" + (i * 7919 % 200_000) + ".java:" + i);
+    }
+    Collections.sort(lines);
+    lines.forEach(line -> digest.update(line.getBytes(StandardCharsets.UTF_8)));
+    if (digest.digest().length == 0) {
+      throw new IllegalStateException("Unexpected digest");
+    }
+  }
+
+  /**
+   * Reset the peak usage of heap memory pools, see {@link #peakHeapMb()}
+   */
+  public static void resetPeakHeap() {
+    System.gc();
+    ManagementFactory.getMemoryPoolMXBeans().stream()
+      .filter(pool -> pool.getType() == MemoryType.HEAP)
+      .forEach(MemoryPoolMXBean::resetPeakUsage);
+  }
+
+  /**
+   * Sum of the peak usages of heap memory pools since the last {@link #resetPeakHeap()}, in megabytes
+   */
+  public static double peakHeapMb() {
+    return ManagementFactory.getMemoryPoolMXBeans().stream()
+      .filter(pool -> pool.getType() == MemoryType.HEAP)
+      .mapToLong(pool -> pool.getPeakUsage().getUsed())
+      .sum() / (1024.0 * 1024.0);
+  }
+}
@@ -0,0 +1,312 @@
+/*
+ * SonarLint Language Server
+ * Copyright (C) 2009-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package testutils;
+
+import com.google.protobuf.Message;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import mockwebserver3.Dispatcher;
+import mockwebserver3.MockResponse;
+import mockwebserver3.MockWebServer;
+import mockwebserver3.RecordedRequest;
+import okio.Buffer;
+import org.sonarsource.sonarlint.core.serverapi.proto.sonarqube.ws.Common;
+import org.sonarsource.sonarlint.core.serverapi.proto.sonarqube.ws.Components;
+import org.sonarsource.sonarlint.core.serverapi.proto.sonarqube.ws.Hotspots;
+import org.sonarsource.sonarlint.core.serverapi.proto.sonarqube.ws.Issues;
+import org.sonarsource.sonarlint.core.serverapi.proto.sonarqube.ws.ProjectBranches;
+import org.sonarsource.sonarlint.core.serverapi.proto.sonarqube.ws.Qualityprofiles;
+import org.sonarsource.sonarlint.core.serverapi.proto.sonarqube.ws.Rules;
+import org.sonarsource.sonarlint.core.serverapi.proto.sonarqube.ws.Settings;
+import org.sonarsource.sonarlint.ls.util.Utils;
+
+/**
+ * A local stand-in for a SonarQube server, serving a synthetic Java project with a configurable amount of issues, taint
+ * vulnerabilities and branches. Latency and bandwidth of every response can be limited to reproduce slow networks.
+ * Responses are generated once, so that serving them does not weigh on the measurements.
+ */
+public class SyntheticSonarQubeServer implements AutoCloseable {
+
+  public static final String VERSION = "9.7";
+  public static final String MAIN_BRANCH = "main";
+  private static final String QPROFILE_KEY = "synthetic-java";
+  private static final int RULES = 50;
+  private static final int ISSUES_PER_FILE = 10;
+
+  private final String projectKey;
+  private final int issueCount;
+  private final int taintCount;
+  private final int branchCount;
+  private final Duration latency;
+  private final long bytesPerSecond;
+  private final MockWebServer server = new MockWebServer();
+  private final Map<String, AtomicInteger> requestCountByPath = new ConcurrentHashMap<>();
+  private final ConcurrentLinkedQueue<String> unexpectedRequests = new ConcurrentLinkedQueue<>();
+  private byte[] issuesPullBody;
+  private byte[] taintPullBody;
+
+  /**
+   * @param bytesPerSecond bandwidth of response bodies, 0 for unlimited
+   */
+  public SyntheticSonarQubeServer(String projectKey, int issueCount, int taintCount, int branchCount, Duration latency, long bytesPerSecond) {
+    this.projectKey = projectKey;
+    this.issueCount = issueCount;
+    this.taintCount = taintCount;
+    this.branchCount = branchCount;
+    this.latency = latency;
+    this.bytesPerSecond = bytesPerSecond;
+  }
+
+  /**
+   * Sizes default to 10k issues, 2k taint vulnerabilities and 50 branches, without latency or bandwidth limit. Each of them can
+   * be overridden with the <code>sonarlint.perf.*</code> system properties.
+   */
+  public static SyntheticSonarQubeServer fromSystemProperties(String projectKey) {
+    return new SyntheticSonarQubeServer(projectKey,
+      Integer.getInteger("sonarlint.perf.issues", 10_000),
+      Integer.getInteger("sonarlint.perf.taints", 2_000),
+      Integer.getInteger("sonarlint.perf.branches", 50),
+      Duration.ofMillis(Long.getLong("sonarlint.perf.latencyMs", 0)),
+      Long.getLong("sonarlint.perf.bytesPerSecond", 0));
+  }
+
+  public void start() throws IOException {
+    issuesPullBody = delimited(Issues.IssuesPullQueryTimestamp.newBuilder().setQueryTimestamp(System.currentTimeMillis()).build(), issues());
+    taintPullBody = delimited(Issues.TaintVulnerabilityPullQueryTimestamp.newBuilder().setQueryTimestamp(System.currentTimeMillis()).build(), taintVulnerabilities());
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) {
+        return limit(respond(request));
+      }
+    });
+    server.start();
+  }
+
+  public String url() {
+    return server.url("/").toString();
+  }
+
+  public List<String> branchNames() {
+    var names = new ArrayList<String>();
+    names.add(MAIN_BRANCH);
+    for (var i = 1; i < branchCount; i++) {
+      names.add("branch-" + i);
+    }
+    return names;
+  }
+
+  public int getIssueCount() {
+    return issueCount;
+  }
+
+  public int getRequestCount(String path) {
+    var count = requestCountByPath.get(path);
+    return count == null ? 0 : count.get();
+  }
+
+  /**
+   * Paths of the requests that the stand-in server does not know about
+   */
+  public List<String> getUnexpectedRequests() {
+    return List.copyOf(unexpectedRequests);
+  }
+
+  /**
+   * Server relative path of the file an issue is reported on, issues are spread over files in chunks of ten
+   */
+  public static String filePath(int issueIndex) {
+    return "src/main/java/synthetic/File" + (issueIndex / ISSUES_PER_FILE) + ".java";
+  }
+
+  public static String ruleKey(int issueIndex) {
+    return "java:S" + (100 + issueIndex % RULES);
+  }
+
+  public static String message(int issueIndex) {
+    return "Synthetic issue " + issueIndex;
+  }
+
+  public static int line(int issueIndex) {
+    return 1 + issueIndex % ISSUES_PER_FILE;
+  }
+
+  @Override
+  public void close() throws IOException {
+    server.shutdown();
+  }
+
+  private MockResponse respond(RecordedRequest request) {
+    var path = request.getRequestUrl().encodedPath();
+    requestCountByPath.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+    switch (path) {
+      case "/api/system/status":
+        return new MockResponse().setBody("{\"status\": \"UP\", \"version\": \"" + VERSION + "\", \"id\": \"synthetic\"}");
+      case "/api/plugins/installed":
+        return new MockResponse().setBody("{\"plugins\":[]}");
+      case "/api/settings/values.protobuf":
+        return protobuf(Settings.Values.newBuilder().build());
+      case "/api/qualityprofiles/search.protobuf":
+        return protobuf(Qualityprofiles.SearchWsResponse.newBuilder()
+          .addProfiles(Qualityprofiles.SearchWsResponse.QualityProfile.newBuilder()
+            .setKey(QPROFILE_KEY)
+            .setLanguage("java")
+            .setRulesUpdatedAt("2023-01-01T00:00:00+0000"))
+          .build());
+      case "/api/rules/search.protobuf":
+        return protobuf(rules());
+      case "/api/project_branches/list.protobuf":
+        return protobuf(branches());
+      case "/api/components/search.protobuf":
+        return protobuf(Components.SearchWsResponse.newBuilder()
+          .addComponents(Components.Component.newBuilder().setKey(projectKey).setName(projectKey))
+          .setPaging(Common.Paging.newBuilder().setTotal(1))
+          .build());
+      case "/api/components/tree.protobuf":
+        return protobuf(files(request));
+      case "/api/issues/pull":
+        return new MockResponse().setBody(new Buffer().write(issuesPullBody));
+      case "/api/issues/pull_taint":
+        return new MockResponse().setBody(new Buffer().write(taintPullBody));
+      case "/api/hotspots/search.protobuf":
+        return protobuf(Hotspots.SearchWsResponse.newBuilder().setPaging(Common.Paging.newBuilder().setTotal(0)).build());
+      case "/api/push/sonarlint_events":
+        // No server events are pushed during measurements
+        return new MockResponse().setHeader("Content-Type", "text/event-stream").setBody("");
+      default:
+        unexpectedRequests.add(request.getPath());
+        return new MockResponse().setResponseCode(404);
+    }
+  }
+
+  private MockResponse limit(MockResponse response) {
+    if (!latency.isZero()) {
+      response.setHeadersDelay(latency.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    if (bytesPerSecond > 0) {
+      // Throttle in 100 ms slices to get a steady transfer
+      response.throttleBody(Math.max(1, bytesPerSecond / 10), 100, TimeUnit.MILLISECONDS);
+    }
+    return response;
+  }
+
+  private static Rules.SearchResponse rules() {
+    var rules = Rules.SearchResponse.newBuilder().setTotal(RULES);
+    var actives = Rules.Actives.newBuilder();
+    for (var i = 0; i < RULES; i++) {
+      var ruleKey = ruleKey(i);
+      rules.addRules(Rules.Rule.newBuilder().setKey(ruleKey).setLang("java"));
+      actives.putActives(ruleKey, Rules.ActiveList.newBuilder().addActiveList(Rules.Active.newBuilder().setSeverity("MAJOR")).build());
+    }
+    return rules.setActives(actives).build();
+  }
+
+  private ProjectBranches.ListWsResponse branches() {
+    var branches = ProjectBranches.ListWsResponse.newBuilder();
+    branchNames().forEach(name -> branches.addBranches(ProjectBranches.Branch.newBuilder()
+      .setName(name)
+      .setIsMain(MAIN_BRANCH.equals(name))
+      .setType(Common.BranchType.BRANCH)));
+    return branches.build();
+  }
+
+  private Components.TreeWsResponse files(RecordedRequest request) {
+    var url = request.getRequestUrl();
+    var page = Integer.parseInt(url.queryParameter("p"));
+    var pageSize = Integer.parseInt(url.queryParameter("ps"));
+    var fileCount = (issueCount + ISSUES_PER_FILE - 1) / ISSUES_PER_FILE;
+    var tree = Components.TreeWsResponse.newBuilder()
+      .setPaging(Common.Paging.newBuilder().setPageIndex(page).setPageSize(pageSize).setTotal(fileCount));
+    for (var i = (page - 1) * pageSize; i < Math.min(fileCount, page * pageSize); i++) {
+      tree.addComponents(Components.Component.newBuilder().setKey(projectKey + ":" + filePath(i * ISSUES_PER_FILE)));
+    }
+    return tree.build();
+  }
+
+  private List<Message> issues() {
+    var issues = new ArrayList<Message>(issueCount);
+    var creationDate = System.currentTimeMillis();
+    for (var i = 0; i < issueCount; i++) {
+      issues.add(Issues.IssueLite.newBuilder()
+        .setKey("issue-" + i)
+        .setRuleKey(ruleKey(i))
+        .setType(Common.RuleType.CODE_SMELL)
+        .setCreationDate(creationDate)
+        .setMainLocation(location(i))
+        .build());
+    }
+    return issues;
+  }
+
+  private List<Message> taintVulnerabilities() {
+    var taints = new ArrayList<Message>(taintCount);
+    var creationDate = System.currentTimeMillis();
+    for (var i = 0; i < taintCount; i++) {
+      taints.add(Issues.TaintVulnerabilityLite.newBuilder()
+        .setKey("taint-" + i)
+        .setRuleKey("javasecurity:S" + (2000 + i % 10))
+        .setType(Common.RuleType.VULNERABILITY)
+        .setSeverity(Common.Severity.CRITICAL)
+        .setCreationDate(creationDate)
+        .setMainLocation(location(i))
+        .addFlows(Issues.Flow.newBuilder().addLocations(location(i + 1)))
+        .build());
+    }
+    return taints;
+  }
+
+  private static Issues.Location location(int issueIndex) {
+    var line = line(issueIndex);
+    return Issues.Location.newBuilder()
+      .setFilePath(filePath(issueIndex))
+      .setMessage(message(issueIndex))
+      .setTextRange(Issues.TextRange.newBuilder()
+        .setStartLine(line)
+        .setStartLineOffset(0)
+        .setEndLine(line)
+        .setEndLineOffset(10)
+        .setHash(Utils.hash("synthetic")))
+      .build();
+  }
+
+  private static MockResponse protobuf(Message message) {
+    var buffer = new Buffer();
+    try {
+      message.writeTo(buffer.outputStream());
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    return new MockResponse().setBody(buffer);
+  }
+
+  private static byte[] delimited(Message timestamp, List<Message> messages) {
+    try (var buffer = new Buffer()) {
+      MockWebServerExtension.writeMessage(buffer.outputStream(), timestamp);
+      MockWebServerExtension.writeMessages(buffer.outputStream(), messages.iterator());
+      return buffer.readByteArray();
+    }
+  }
+}